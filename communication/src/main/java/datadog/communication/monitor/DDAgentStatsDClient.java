@@ -3,12 +3,16 @@ package datadog.communication.monitor;
 import com.timgroup.statsd.Event;
 import com.timgroup.statsd.ServiceCheck;
 import datadog.trace.api.StatsDClient;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public final class DDAgentStatsDClient implements StatsDClient {
   private static final Logger log = LoggerFactory.getLogger(DDAgentStatsDClient.class);
+  private static final String ENTITY_ID_ENV_VAR = "DD_ENTITY_ID";
+  private static final String ENTITY_ID_TAG_PREFIX = "dd.internal.entity_id:";
   private final DDAgentStatsDConnection connection;
   private final Function<String, String> nameMapping;
   private final Function<String[], String[]> tagMapping;
@@ -117,6 +121,39 @@ public final class DDAgentStatsDClient implements StatsDClient {
     }
   }
 
+  /** Sends datagrams assembled by {@link StatsDAggregator} through the client's connection. */
+  StatsDAggregator.DatagramSink datagramSink() {
+    return new StatsDAggregator.DatagramSink() {
+      @Override
+      public boolean isAvailable() {
+        return connection.canSendDatagrams();
+      }
+
+      @Override
+      public void send(ByteBuffer datagram) {
+        connection.sendDatagram(datagram);
+      }
+
+      @Override
+      public String resolveName(String name) {
+        return nameMapping.apply(name);
+      }
+
+      @Override
+      public String[] resolveTags(String[] tags) {
+        String[] resolvedTags = tagMapping.apply(tags);
+        String entityId = System.getenv(ENTITY_ID_ENV_VAR);
+        if (entityId == null || entityId.isEmpty()) {
+          return resolvedTags;
+        }
+        // the DogStatsD client adds the same tag to the metrics it sends
+        String[] tagsWithEntityId = Arrays.copyOf(resolvedTags, resolvedTags.length + 1);
+        tagsWithEntityId[resolvedTags.length] = ENTITY_ID_TAG_PREFIX + entityId;
+        return tagsWithEntityId;
+      }
+    };
+  }
+
   @Override
   public void error(final Exception error) {
     connection.handle(error);
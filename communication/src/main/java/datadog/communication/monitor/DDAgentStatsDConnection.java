@@ -15,6 +15,10 @@ import datadog.trace.util.AgentTaskScheduler;
 import datadog.trace.util.AgentThreadFactory;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +49,9 @@ final class DDAgentStatsDConnection implements StatsDClientErrorHandler {
 
   volatile com.timgroup.statsd.StatsDClient statsd = NO_OP;
 
+  /** Used to send datagrams assembled by {@link StatsDAggregator}, only opened for UDP */
+  private volatile DatagramChannel datagramChannel;
+
   DDAgentStatsDConnection(
       final String host, final Integer port, final String namedPipe, boolean useAggregation) {
     this.host = host;
@@ -158,6 +165,7 @@ final class DDAgentStatsDConnection implements StatsDClientErrorHandler {
 
         try {
           statsd = clientBuilder.build();
+          openDatagramChannel();
           if (log.isDebugEnabled()) {
             log.debug("StatsD connected to {}", statsDAddress());
           }
@@ -213,6 +221,7 @@ final class DDAgentStatsDConnection implements StatsDClientErrorHandler {
         try {
           statsd.close();
         } finally {
+          closeDatagramChannel();
           statsd = NO_OP;
           port = null; // clear so it will pickup latest default
           doConnect();
@@ -232,12 +241,55 @@ final class DDAgentStatsDConnection implements StatsDClientErrorHandler {
         } catch (final Exception e) {
           log.debug("Problem closing StatsD client - {}", statsDAddress(), e);
         } finally {
+          closeDatagramChannel();
           statsd = NO_OP;
         }
       }
     }
   }
 
+  private void openDatagramChannel() {
+    if (namedPipe != null || port == null || port == 0) {
+      return; // only UDP is supported
+    }
+    try {
+      DatagramChannel channel = DatagramChannel.open();
+      channel.configureBlocking(false);
+      channel.connect(new InetSocketAddress(host, port));
+      datagramChannel = channel;
+    } catch (final Exception e) {
+      log.debug("Unable to open datagram channel - {}", statsDAddress(), e);
+    }
+  }
+
+  private void closeDatagramChannel() {
+    DatagramChannel channel = datagramChannel;
+    if (channel != null) {
+      datagramChannel = null;
+      try {
+        channel.close();
+      } catch (final IOException e) {
+        log.debug("Problem closing datagram channel - {}", statsDAddress(), e);
+      }
+    }
+  }
+
+  boolean canSendDatagrams() {
+    return datagramChannel != null;
+  }
+
+  /** Sends a pre-assembled DogStatsD payload, dropping it if the channel is not available. */
+  void sendDatagram(final ByteBuffer datagram) {
+    DatagramChannel channel = datagramChannel;
+    if (channel != null) {
+      try {
+        channel.write(datagram);
+      } catch (final IOException e) {
+        handle(e);
+      }
+    }
+  }
+
   private String statsDAddress() {
     if (namedPipe != null) {
       return namedPipe;
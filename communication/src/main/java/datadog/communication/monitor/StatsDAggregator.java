@@ -0,0 +1,378 @@
+package datadog.communication.monitor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import datadog.trace.api.StatsDClient;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregates metrics locally and sends them once per flush.
+ *
+ * <p>Metrics are registered upfront, at which point their names and tags are resolved and encoded.
+ * Recording a count or a gauge only updates a lock-free cell, while recording a distribution takes
+ * a short lock on it. On flush, the aggregated values are written as DogStatsD lines into a single
+ * reused buffer, which is sent as a datagram every time it fills up. If the client cannot send raw
+ * datagrams (named pipes, Unix domain sockets, or clients other than {@link DDAgentStatsDClient}),
+ * the aggregated values are passed to the client methods instead.
+ *
+ * <p>{@link #flush()} is expected to be called periodically by the owner of the aggregator.
+ */
+public final class StatsDAggregator {
+
+  private static final Logger log = LoggerFactory.getLogger(StatsDAggregator.class);
+
+  private static final int DISTRIBUTION_CAPACITY = 32;
+
+  private final StatsDClient statsd;
+  private final DatagramSink sink;
+  private final ByteBuffer packet;
+  private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+  StatsDAggregator(StatsDClient statsd, DatagramSink sink) {
+    this.statsd = statsd;
+    this.sink = sink;
+    this.packet = ByteBuffer.allocate(sink.maxPacketSize());
+  }
+
+  public static StatsDAggregator of(StatsDClient statsd) {
+    if (statsd instanceof DDAgentStatsDClient) {
+      return new StatsDAggregator(statsd, ((DDAgentStatsDClient) statsd).datagramSink());
+    }
+    return new StatsDAggregator(statsd, DatagramSink.UNAVAILABLE);
+  }
+
+  public Count count(String name, String... tags) {
+    return register(new Count(name, tags, encodePrefix(name), encodeType("|c"), encodeTags(tags)));
+  }
+
+  public Gauge gauge(String name, String... tags) {
+    return register(new Gauge(name, tags, encodePrefix(name), encodeType("|g"), encodeTags(tags)));
+  }
+
+  public Distribution distribution(String name, String... tags) {
+    return register(
+        new Distribution(name, tags, encodePrefix(name), encodeType("|d"), encodeTags(tags)));
+  }
+
+  private <M extends Metric> M register(M metric) {
+    metrics.add(metric);
+    return metric;
+  }
+
+  private byte[] encodePrefix(String name) {
+    return (sink.resolveName(name) + ':').getBytes(UTF_8);
+  }
+
+  private static byte[] encodeType(String type) {
+    return type.getBytes(UTF_8);
+  }
+
+  /** Encodes the end of the line, which follows the type and the optional sample rate. */
+  private byte[] encodeTags(String[] tags) {
+    StringBuilder suffix = new StringBuilder();
+    String[] resolvedTags = sink.resolveTags(tags);
+    if (resolvedTags != null && resolvedTags.length > 0) {
+      suffix.append("|#").append(resolvedTags[0]);
+      for (int i = 1; i < resolvedTags.length; i++) {
+        suffix.append(',').append(resolvedTags[i]);
+      }
+    }
+    return suffix.append('\n').toString().getBytes(UTF_8);
+  }
+
+  /** Sends the values aggregated since the previous flush. */
+  public synchronized void flush() {
+    if (!sink.isAvailable()) {
+      for (Metric metric : metrics) {
+        metric.flushTo(statsd);
+      }
+      return;
+    }
+
+    packet.clear();
+    for (Metric metric : metrics) {
+      int lineStart = packet.position();
+      try {
+        if (!metric.encode(packet)) {
+          packet.position(lineStart);
+        }
+      } catch (BufferOverflowException e) {
+        packet.position(lineStart);
+        sendPacket();
+        try {
+          metric.encodeAgain(packet);
+        } catch (BufferOverflowException tooLarge) {
+          packet.clear();
+          log.debug("Metric {} does not fit into a single datagram, dropping it", metric.name);
+        }
+      }
+    }
+    sendPacket();
+  }
+
+  private void sendPacket() {
+    if (packet.position() > 0) {
+      packet.flip();
+      sink.send(packet);
+      packet.clear();
+    }
+  }
+
+  abstract static class Metric {
+    final String name;
+    final String[] tags;
+    private final byte[] prefix;
+    private final byte[] type;
+    private final byte[] tagsSuffix;
+
+    Metric(String name, String[] tags, byte[] prefix, byte[] type, byte[] tagsSuffix) {
+      this.name = name;
+      this.tags = tags;
+      this.prefix = prefix;
+      this.type = type;
+      this.tagsSuffix = tagsSuffix;
+    }
+
+    /**
+     * Takes the aggregated value and writes the corresponding line.
+     *
+     * @return {@code false} if there is nothing to report
+     */
+    abstract boolean encode(ByteBuffer buffer);
+
+    /** Writes the line again using the value taken by the last {@link #encode} call. */
+    abstract void encodeAgain(ByteBuffer buffer);
+
+    abstract void flushTo(StatsDClient statsd);
+
+    final void putPrefix(ByteBuffer buffer) {
+      buffer.put(prefix);
+    }
+
+    final void putSuffix(ByteBuffer buffer) {
+      buffer.put(type).put(tagsSuffix);
+    }
+
+    final void putType(ByteBuffer buffer) {
+      buffer.put(type);
+    }
+
+    final void putTagsSuffix(ByteBuffer buffer) {
+      buffer.put(tagsSuffix);
+    }
+  }
+
+  public static final class Count extends Metric {
+    private final LongAdder value = new LongAdder();
+    private long taken;
+
+    Count(String name, String[] tags, byte[] prefix, byte[] type, byte[] tagsSuffix) {
+      super(name, tags, prefix, type, tagsSuffix);
+    }
+
+    public void add(long delta) {
+      value.add(delta);
+    }
+
+    @Override
+    boolean encode(ByteBuffer buffer) {
+      taken = value.sumThenReset();
+      if (taken == 0) {
+        return false;
+      }
+      encodeAgain(buffer);
+      return true;
+    }
+
+    @Override
+    void encodeAgain(ByteBuffer buffer) {
+      putPrefix(buffer);
+      putLong(buffer, taken);
+      putSuffix(buffer);
+    }
+
+    @Override
+    void flushTo(StatsDClient statsd) {
+      long delta = value.sumThenReset();
+      if (delta != 0) {
+        statsd.count(name, delta, tags);
+      }
+    }
+  }
+
+  public static final class Gauge extends Metric {
+    private static final long UNSET = Double.doubleToRawLongBits(Double.NaN);
+
+    private final AtomicLong valueBits = new AtomicLong(UNSET);
+    private double taken;
+
+    Gauge(String name, String[] tags, byte[] prefix, byte[] type, byte[] tagsSuffix) {
+      super(name, tags, prefix, type, tagsSuffix);
+    }
+
+    public void set(double value) {
+      valueBits.set(Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    boolean encode(ByteBuffer buffer) {
+      long bits = valueBits.getAndSet(UNSET);
+      if (bits == UNSET) {
+        return false;
+      }
+      taken = Double.longBitsToDouble(bits);
+      encodeAgain(buffer);
+      return true;
+    }
+
+    @Override
+    void encodeAgain(ByteBuffer buffer) {
+      putPrefix(buffer);
+      putDouble(buffer, taken);
+      putSuffix(buffer);
+    }
+
+    @Override
+    void flushTo(StatsDClient statsd) {
+      long bits = valueBits.getAndSet(UNSET);
+      if (bits != UNSET) {
+        statsd.gauge(name, Double.longBitsToDouble(bits), tags);
+      }
+    }
+  }
+
+  /**
+   * Keeps a bounded number of values per flush interval, so that they fit into a single line.
+   * Further values are only counted and accounted for with the sample rate.
+   */
+  public static final class Distribution extends Metric {
+    // guarded by this, so that a flush never sees a slot claimed but not yet written
+    private final long[] values = new long[DISTRIBUTION_CAPACITY];
+    private int recorded;
+    private final long[] taken = new long[DISTRIBUTION_CAPACITY];
+    private int takenCount;
+    private int takenRecorded;
+
+    Distribution(String name, String[] tags, byte[] prefix, byte[] type, byte[] tagsSuffix) {
+      super(name, tags, prefix, type, tagsSuffix);
+    }
+
+    public synchronized void record(long value) {
+      if (recorded < DISTRIBUTION_CAPACITY) {
+        values[recorded] = value;
+      }
+      recorded++;
+    }
+
+    private synchronized void take() {
+      takenRecorded = recorded;
+      takenCount = Math.min(takenRecorded, DISTRIBUTION_CAPACITY);
+      System.arraycopy(values, 0, taken, 0, takenCount);
+      recorded = 0;
+    }
+
+    @Override
+    boolean encode(ByteBuffer buffer) {
+      take();
+      if (takenCount == 0) {
+        return false;
+      }
+      encodeAgain(buffer);
+      return true;
+    }
+
+    @Override
+    void encodeAgain(ByteBuffer buffer) {
+      putPrefix(buffer);
+      putLong(buffer, taken[0]);
+      for (int i = 1; i < takenCount; i++) {
+        buffer.put((byte) ':');
+        putLong(buffer, taken[i]);
+      }
+      putType(buffer);
+      if (takenRecorded > takenCount) {
+        // the sample rate goes between the type and the tags
+        buffer.put((byte) '|').put((byte) '@');
+        putDouble(buffer, (double) takenCount / takenRecorded);
+      }
+      putTagsSuffix(buffer);
+    }
+
+    @Override
+    void flushTo(StatsDClient statsd) {
+      take();
+      for (int i = 0; i < takenCount; i++) {
+        statsd.distribution(name, taken[i], tags);
+      }
+    }
+  }
+
+  static void putLong(ByteBuffer buffer, long value) {
+    if (value == Long.MIN_VALUE) {
+      buffer.put(Long.toString(value).getBytes(UTF_8));
+      return;
+    }
+    if (value < 0) {
+      buffer.put((byte) '-');
+      value = -value;
+    }
+    int digits = 1;
+    for (long v = value / 10; v != 0; v /= 10) {
+      digits++;
+    }
+    if (buffer.remaining() < digits) {
+      throw new BufferOverflowException();
+    }
+    int end = buffer.position() + digits;
+    for (int i = end - 1; i >= buffer.position(); i--) {
+      buffer.put(i, (byte) ('0' + value % 10));
+      value /= 10;
+    }
+    buffer.position(end);
+  }
+
+  static void putDouble(ByteBuffer buffer, double value) {
+    if (value == (long) value) {
+      putLong(buffer, (long) value);
+    } else {
+      buffer.put(Double.toString(value).getBytes(UTF_8));
+    }
+  }
+
+  /** Destination of the datagrams assembled by the aggregator. */
+  interface DatagramSink {
+    DatagramSink UNAVAILABLE =
+        new DatagramSink() {
+          @Override
+          public boolean isAvailable() {
+            return false;
+          }
+
+          @Override
+          public void send(ByteBuffer datagram) {}
+        };
+
+    boolean isAvailable();
+
+    void send(ByteBuffer datagram);
+
+    default int maxPacketSize() {
+      return 1432;
+    }
+
+    default String resolveName(String name) {
+      return name;
+    }
+
+    default String[] resolveTags(String[] tags) {
+      return tags;
+    }
+  }
+}
@@ -193,6 +193,62 @@ class DDAgentStatsDClientTest extends DDSpecification {
   }
 
 
+  def "aggregated metrics are sent in a single datagram"() {
+    setup:
+    injectSysConfig(DOGSTATSD_START_DELAY, '0')
+    def server = new StatsDServer()
+    server.start()
+
+    def client = statsDClientManager().statsDClient('127.0.0.1', server.socket.localPort, null, "datadog.tracer", ["lang:java"] as String[], false)
+    def aggregator = StatsDAggregator.of(client)
+    def requests = aggregator.count("api.requests.total")
+    def traces = aggregator.count("queue.enqueued.traces", "priority:user_keep")
+    def queueLength = aggregator.gauge("queue.length")
+    def latency = aggregator.distribution("flush.latency")
+    def unused = aggregator.count("unused")
+
+    when:
+    requests.add(2)
+    requests.add(3)
+    traces.add(1)
+    queueLength.set(10)
+    latency.record(7)
+    latency.record(11)
+    aggregator.flush()
+
+    then:
+    server.waitForMessage() == [
+      "datadog.tracer.api.requests.total:5|c|#lang:java",
+      "datadog.tracer.queue.enqueued.traces:1|c|#lang:java,priority:user_keep",
+      "datadog.tracer.queue.length:10|g|#lang:java",
+      "datadog.tracer.flush.latency:7:11|d|#lang:java"
+    ].join("\n")
+
+    cleanup:
+    client.close()
+    server.close()
+  }
+
+  def "aggregated metrics are passed to client methods when datagrams are not supported"() {
+    setup:
+    def client = Mock(datadog.trace.api.StatsDClient)
+    def aggregator = StatsDAggregator.of(client)
+    def requests = aggregator.count("api.requests.total", "status:200")
+    def queueLength = aggregator.gauge("queue.length")
+
+    when:
+    requests.add(2)
+    requests.add(3)
+    queueLength.set(10)
+    aggregator.flush()
+    aggregator.flush()
+
+    then:
+    1 * client.count("api.requests.total", 5, ["status:200"])
+    1 * client.gauge("queue.length", 10D)
+    0 * _
+  }
+
   private static class StatsDServer extends Thread {
     private final DatagramSocket socket
     private volatile String lastMessage
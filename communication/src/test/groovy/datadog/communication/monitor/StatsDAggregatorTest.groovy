@@ -0,0 +1,103 @@
+package datadog.communication.monitor
+
+import datadog.trace.api.StatsDClient
+import datadog.trace.test.util.DDSpecification
+
+import java.nio.ByteBuffer
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+
+class StatsDAggregatorTest extends DDSpecification {
+
+  def "distribution line has #description"() {
+    setup:
+    def sink = new RecordingSink()
+    def aggregator = new StatsDAggregator(Stub(StatsDClient), sink)
+    def distribution = aggregator.distribution("test.distribution", "env:test", "version:1")
+
+    when:
+    for (int i = 1; i <= values; i++) {
+      distribution.record(i)
+    }
+    aggregator.flush()
+
+    then:
+    sink.datagrams == [expected]
+
+    where:
+    description              | values | expected
+    "all values"             | 3      | "test.distribution:1:2:3|d|#env:test,version:1\n"
+    "values up to capacity"  | 32     | "test.distribution:${(1..32).join(':')}|d|#env:test,version:1\n".toString()
+    "sample rate after type" | 40     | "test.distribution:${(1..32).join(':')}|d|@0.8|#env:test,version:1\n".toString()
+  }
+
+  def "distribution line without tags ends with the sample rate"() {
+    setup:
+    def sink = new RecordingSink()
+    def aggregator = new StatsDAggregator(Stub(StatsDClient), sink)
+    def distribution = aggregator.distribution("test.distribution")
+
+    when:
+    for (int i = 1; i <= 64; i++) {
+      distribution.record(i)
+    }
+    aggregator.flush()
+
+    then:
+    sink.datagrams == ["test.distribution:${(1..32).join(':')}|d|@0.5\n".toString()]
+  }
+
+  def "distribution values recorded during flushes are reported once"() {
+    setup:
+    def reported = new ConcurrentLinkedQueue<Long>()
+    def statsd = Stub(StatsDClient) {
+      distribution(_ as String, _ as Long, _ as String[]) >> { String name, long value, String[] tags ->
+        reported.add(value)
+      }
+    }
+    def aggregator = StatsDAggregator.of(statsd)
+    def distribution = aggregator.distribution("test.distribution")
+    def threads = 4
+    def valuesPerThread = 10_000
+    def start = new CountDownLatch(1)
+    def recorders = (0..<threads).collect { thread ->
+      Thread.start {
+        start.await()
+        for (int i = 1; i <= valuesPerThread; i++) {
+          distribution.record(thread * valuesPerThread + i)
+        }
+      }
+    }
+
+    when:
+    start.countDown()
+    while (recorders.any { it.alive }) {
+      aggregator.flush()
+    }
+    recorders*.join()
+    aggregator.flush()
+
+    then:
+    // values over the capacity of an interval are dropped, but no value is reported twice
+    // and no value is read from a slot before it was written
+    !reported.isEmpty()
+    reported.every { it > 0 && it <= threads * valuesPerThread }
+    reported.toSet().size() == reported.size()
+  }
+
+  static class RecordingSink implements StatsDAggregator.DatagramSink {
+    final List<String> datagrams = []
+
+    @Override
+    boolean isAvailable() {
+      return true
+    }
+
+    @Override
+    void send(ByteBuffer datagram) {
+      byte[] bytes = new byte[datagram.remaining()]
+      datagram.get(bytes)
+      datagrams.add(new String(bytes, "UTF-8"))
+    }
+  }
+}
@@ -30,7 +30,6 @@ import datadog.trace.bootstrap.instrumentation.api.URIDataAdapter;
 import datadog.trace.bootstrap.instrumentation.api.URIUtils;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import datadog.trace.bootstrap.instrumentation.decorator.http.ClientIpAddressResolver;
-import java.net.InetAddress;
 import java.util.BitSet;
 import java.util.LinkedHashMap;
 import java.util.Locale;
@@ -251,24 +250,18 @@ public abstract class HttpServerDecorator<REQUEST, CONNECTION, RESPONSE, REQUEST
 
     String inferredAddressStr = null;
     if (clientIpResolverEnabled && context != null) {
-      InetAddress inferredAddress = ClientIpAddressResolver.resolve(context, span);
-      // the peer address should be used if:
-      // 1. the headers yield nothing, regardless of whether it is public or not
-      // 2. it is public and the headers yield a private address
-      if (peerIp != null) {
-        if (inferredAddress == null) {
-          inferredAddress = ClientIpAddressResolver.parseIpAddress(peerIp);
-        } else if (ClientIpAddressResolver.isIpAddrPrivate(inferredAddress)) {
-          InetAddress peerAddress = ClientIpAddressResolver.parseIpAddress(peerIp);
-          if (!ClientIpAddressResolver.isIpAddrPrivate(peerAddress)) {
-            inferredAddress = peerAddress;
-          }
+      if (!ActiveSubsystems.APPSEC_ACTIVE && config.isHttpServerLazyTagging()) {
+        // only the tag needs the address, so it's inferred when the tag is first read, which
+        // never happens for traces that are dropped without being serialized. It's set as an
+        // Object because the CharSequence overload reads the length to drop empty values
+        Object clientIp = ClientIpAddressResolver.lazyResolveToString(context, peerIp);
+        span.setTag(Tags.HTTP_CLIENT_IP, clientIp);
+      } else {
+        inferredAddressStr = ClientIpAddressResolver.resolveToString(context, span, peerIp);
+        if (inferredAddressStr != null) {
+          span.setTag(Tags.HTTP_CLIENT_IP, inferredAddressStr);
         }
       }
-      if (inferredAddress != null) {
-        inferredAddressStr = inferredAddress.getHostAddress();
-        span.setTag(Tags.HTTP_CLIENT_IP, inferredAddressStr);
-      }
     } else if (clientIpResolverEnabled && span.getLocalRootSpan() != span) {
       // in this case context == null
       // If there is no context we can't do anything but use the peer addr.
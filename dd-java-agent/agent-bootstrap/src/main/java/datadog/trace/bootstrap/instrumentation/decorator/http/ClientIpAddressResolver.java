@@ -2,21 +2,25 @@ package datadog.trace.bootstrap.instrumentation.decorator.http;
 
 import datadog.trace.api.interceptor.MutableSpan;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
-import datadog.trace.bootstrap.instrumentation.decorator.http.utils.IPAddressUtil;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Infers the IP address of the client from the request headers.
+ *
+ * <p>Addresses are parsed in place, without extracting substrings, into two longs holding the 128
+ * bits of an IPv6 address. IPv4 addresses are held as IPv4-mapped IPv6 addresses (::ffff:a.b.c.d),
+ * which is also what IPv4-mapped IPv6 literals resolve to. Only the winning address is turned into
+ * a string.
+ */
 public class ClientIpAddressResolver {
   private static final Logger log = LoggerFactory.getLogger(ClientIpAddressResolver.class);
 
-  private static final Function<String, InetAddress> PLAIN_IP_ADDRESS_PARSER =
-      new ParsePlainIpAddress();
-  private static final Function<String, InetAddress> FORWARDED_PARSER = new ParseForwarded();
+  private static final long IPV4_MAPPED_PREFIX = 0xFFFF00000000L;
 
   /**
    * Infers the IP address of the client according to our specified procedure. This method doesn't
@@ -30,414 +34,592 @@ public class ClientIpAddressResolver {
    */
   public static InetAddress resolve(AgentSpan.Context.Extracted context, MutableSpan span) {
     try {
-      return doResolve(context, span);
+      Candidates candidates = new Candidates();
+      if (doResolve(context, candidates)) {
+        return toInetAddress(candidates.high, candidates.low);
+      }
+    } catch (RuntimeException rte) {
+      log.warn("Unexpected exception (bug) inferring client IP address", rte);
+    }
+    return null;
+  }
+
+  /**
+   * Infers the IP address of the client like {@link #resolve}, also taking the address of the peer
+   * into account. This method doesn't throw exceptions.
+   *
+   * @param context extracted context with http headers
+   * @param peerIp address of the peer, if known
+   * @return the textual representation of the inferred IP address, if any
+   */
+  public static String resolveToString(
+      AgentSpan.Context.Extracted context, MutableSpan span, String peerIp) {
+    try {
+      Candidates candidates = new Candidates();
+      boolean resolved = doResolve(context, candidates);
+      // the peer address should be used if:
+      // 1. the headers yield nothing, regardless of whether it is public or not
+      // 2. it is public and the headers yield a private address
+      if (peerIp != null) {
+        if (!resolved) {
+          resolved = parseIpAddress(peerIp, 0, peerIp.length(), candidates);
+        } else if (isIpAddrPrivate(candidates.high, candidates.low)) {
+          long high = candidates.high;
+          long low = candidates.low;
+          if (!parseIpAddress(peerIp, 0, peerIp.length(), candidates)
+              || isIpAddrPrivate(candidates.high, candidates.low)) {
+            candidates.high = high;
+            candidates.low = low;
+          }
+        }
+      }
+      return resolved ? toString(candidates.high, candidates.low) : null;
     } catch (RuntimeException rte) {
       log.warn("Unexpected exception (bug) inferring client IP address", rte);
       return null;
     }
   }
 
-  private static InetAddress doResolve(AgentSpan.Context.Extracted context, MutableSpan span) {
+  /**
+   * Defers {@link #resolveToString} until the returned value is first read, which for a span tag
+   * is when the trace is serialized or matched by a sampling rule. The value is empty when no
+   * address can be inferred.
+   *
+   * @param context extracted context with http headers
+   * @param peerIp address of the peer, if known
+   * @return the lazily inferred IP address
+   */
+  public static CharSequence lazyResolveToString(
+      AgentSpan.Context.Extracted context, String peerIp) {
+    return new LazyClientIp(context, peerIp);
+  }
+
+  private static boolean doResolve(AgentSpan.Context.Extracted context, Candidates candidates) {
     if (context == null) {
-      return null;
+      return false;
     }
 
     String customIpHeader = context.getCustomIpHeader();
     if (customIpHeader != null) {
-      InetAddress result = tryHeader(customIpHeader, FORWARDED_PARSER);
-      if (result != null) {
-        return result;
-      }
-      result = tryHeader(customIpHeader, PLAIN_IP_ADDRESS_PARSER);
-      if (result != null) {
-        return result;
-      }
-      // If custom header is defined but not resolved - return null
-      return null;
+      // If custom header is defined but not resolved - return nothing
+      return parseForwarded(customIpHeader, candidates)
+          || candidates.usePrivate()
+          || parsePlainIpAddresses(customIpHeader, candidates)
+          || candidates.usePrivate();
     }
 
     // we don't have a set ip header to look exclusively at
     // the order of the headers is the order in the RFC
+    // the first public address wins, otherwise the first private address
+    return parsePlainIpAddresses(context.getXForwardedFor(), candidates)
+        || parsePlainIpAddresses(context.getXRealIp(), candidates)
+        || parsePlainIpAddresses(context.getTrueClientIp(), candidates)
+        || parsePlainIpAddresses(context.getXClientIp(), candidates)
+        || parseForwarded(context.getXForwarded(), candidates)
+        || parsePlainIpAddresses(context.getForwardedFor(), candidates)
+        || parsePlainIpAddresses(context.getXClusterClientIp(), candidates)
+        || parsePlainIpAddresses(context.getFastlyClientIp(), candidates)
+        || parsePlainIpAddresses(context.getCfConnectingIp(), candidates)
+        || parsePlainIpAddresses(context.getCfConnectingIpv6(), candidates)
+        || candidates.usePrivate();
+  }
 
-    InetAddress result = null;
-    InetAddress addr = tryHeader(context.getXForwardedFor(), PLAIN_IP_ADDRESS_PARSER);
-    if (addr != null) {
-      if (!isIpAddrPrivate(addr)) {
-        return addr;
-      }
-      result = addr;
+  /** @return whether a public address was found in the comma separated list */
+  private static boolean parsePlainIpAddresses(String str, Candidates candidates) {
+    if (str == null || str.isEmpty()) {
+      return false;
     }
-
-    addr = tryHeader(context.getXRealIp(), PLAIN_IP_ADDRESS_PARSER);
-    if (addr != null) {
-      if (!isIpAddrPrivate(addr)) {
-        return addr;
+    int pos = 0;
+    int end = str.length();
+    do {
+      for (; pos < end && str.charAt(pos) == ' '; pos++) {}
+      int posComma = str.indexOf(',', pos);
+      int endCur = posComma != -1 ? posComma : end;
+      if (parseIpAddress(str, pos, endCur, candidates) && candidates.offer()) {
+        return true;
       }
-      result = coalesce(result, addr);
-    }
+      pos = (posComma != -1 && posComma + 1 < end) ? (posComma + 1) : -1;
+    } while (pos != -1);
+    return false;
+  }
 
-    addr = tryHeader(context.getTrueClientIp(), PLAIN_IP_ADDRESS_PARSER);
-    if (addr != null) {
-      if (!isIpAddrPrivate(addr)) {
-        return addr;
-      }
-      result = coalesce(result, addr);
-    }
+  private enum ForwardedParseState {
+    KEY,
+    BEFORE_VALUE,
+    VALUE_TOKEN,
+    VALUE_QUOTED,
+    BETWEEN,
+  }
 
-    addr = tryHeader(context.getXClientIp(), PLAIN_IP_ADDRESS_PARSER);
-    if (addr != null) {
-      if (!isIpAddrPrivate(addr)) {
-        return addr;
-      }
-      result = coalesce(result, addr);
+  /** @return whether a public address was found in the "for" parameters */
+  private static boolean parseForwarded(String headerValue, Candidates candidates) {
+    if (headerValue == null || headerValue.isEmpty()) {
+      return false;
     }
+    ForwardedParseState state = ForwardedParseState.BETWEEN;
+
+    // https://datatracker.ietf.org/doc/html/rfc7239#section-4
+    int pos = 0;
+    int end = headerValue.length();
+    // compiler requires that these two be initialized:
+    int start = 0;
+    boolean considerValue = false;
+    while (pos < end) {
+      char c = headerValue.charAt(pos);
+      switch (state) {
+        case BETWEEN:
+          if (c == ' ' || c == ';' || c == ',') {
+            break;
+          }
+          start = pos;
+          state = ForwardedParseState.KEY;
+          break;
+        case KEY:
+          if (c != '=') {
+            break;
+          }
 
-    addr = tryHeader(context.getXForwarded(), FORWARDED_PARSER);
-    if (addr != null) {
-      if (!isIpAddrPrivate(addr)) {
-        return addr;
-      }
-      result = coalesce(result, addr);
-    }
+          state = ForwardedParseState.BEFORE_VALUE;
+          considerValue = pos - start == 3 && headerValue.regionMatches(true, start, "for", 0, 3);
+          break;
+        case BEFORE_VALUE:
+          if (c == '"') {
+            start = pos + 1;
+            state = ForwardedParseState.VALUE_QUOTED;
+          } else if (c == ' ' || c == ';' || c == ',') {
+            // empty value
+            state = ForwardedParseState.BETWEEN;
+          } else {
+            start = pos;
+            state = ForwardedParseState.VALUE_TOKEN;
+          }
+          break;
+        case VALUE_TOKEN:
+          {
+            int tokenEnd;
+            if (c == ' ' || c == ';' || c == ',') {
+              tokenEnd = pos;
+            } else if (pos + 1 == end) {
+              tokenEnd = end;
+            } else {
+              break;
+            }
 
-    addr = tryHeader(context.getForwardedFor(), PLAIN_IP_ADDRESS_PARSER);
-    if (addr != null) {
-      if (!isIpAddrPrivate(addr)) {
-        return addr;
+            if (considerValue
+                && parseIpAddressAndMaybePort(headerValue, start, tokenEnd, candidates)
+                && candidates.offer()) {
+              return true;
+            }
+            state = ForwardedParseState.BETWEEN;
+            break;
+          }
+        case VALUE_QUOTED:
+          if (c == '"') {
+            if (considerValue
+                && parseIpAddressAndMaybePort(headerValue, start, pos, candidates)
+                && !isIpAddrPrivate(candidates.high, candidates.low)) {
+              return true;
+            }
+            state = ForwardedParseState.BETWEEN;
+          } else if (c == '\\') {
+            pos++;
+          }
+          break;
       }
-      result = coalesce(result, addr);
+      pos++;
     }
 
-    addr = tryHeader(context.getXClusterClientIp(), PLAIN_IP_ADDRESS_PARSER);
-    if (addr != null) {
-      if (!isIpAddrPrivate(addr)) {
-        return addr;
-      }
-      result = coalesce(result, addr);
-    }
+    return false;
+  }
 
-    addr = tryHeader(context.getFastlyClientIp(), PLAIN_IP_ADDRESS_PARSER);
-    if (addr != null) {
-      if (!isIpAddrPrivate(addr)) {
-        return addr;
-      }
-      result = coalesce(result, addr);
+  // flat array in groups of base address of the range and mask
+  private static final int[] PRIVATE_IPV4_RANGES = {
+    0x0A000000, 0xFF000000, // 10.0.0.0/8
+    0xAC100000, 0xFFF00000, // 172.16.0.0/12
+    0xC0A80000, 0xFFFF0000, // 192.168.0.0/16
+    0x7F000000, 0xFF000000, // 127.0.0.0/8
+    0xA9FE0000, 0xFFFF0000, // 169.254.0.0/16
+  };
+
+  // flat array in groups of base address of the range (high, low) and mask (high, low)
+  private static final long[] PRIVATE_IPV6_RANGES = {
+    0L, 1L, -1L, -1L, // ::1/128
+    0xFEC0000000000000L, 0L, 0xFFC0000000000000L, 0L, // fec0::/10
+    0xFE80000000000000L, 0L, 0xFFC0000000000000L, 0L, // fe80::/10
+    0xFC00000000000000L, 0L, 0xFE00000000000000L, 0L, // fc00::/7
+  };
+
+  public static boolean isIpAddrPrivate(InetAddress ipAddr) {
+    if (ipAddr instanceof Inet4Address) {
+      return isIpv4AddrPrivate(toInt(ipAddr.getAddress(), 0));
+    } else if (ipAddr instanceof Inet6Address) {
+      byte[] addr = ipAddr.getAddress();
+      return isIpAddrPrivate(toLong(addr, 0), toLong(addr, 8));
     }
+    return false;
+  }
 
-    addr = tryHeader(context.getCfConnectingIp(), PLAIN_IP_ADDRESS_PARSER);
-    if (addr != null) {
-      if (!isIpAddrPrivate(addr)) {
-        return addr;
+  static boolean isIpAddrPrivate(long high, long low) {
+    if (high == 0 && (low & ~0xFFFFFFFFL) == IPV4_MAPPED_PREFIX) {
+      return isIpv4AddrPrivate((int) low);
+    }
+    for (int i = 0; i < PRIVATE_IPV6_RANGES.length; i += 4) {
+      if ((high & PRIVATE_IPV6_RANGES[i + 2]) == PRIVATE_IPV6_RANGES[i]
+          && (low & PRIVATE_IPV6_RANGES[i + 3]) == PRIVATE_IPV6_RANGES[i + 1]) {
+        return true;
       }
-      result = coalesce(result, addr);
     }
+    return false;
+  }
 
-    addr = tryHeader(context.getCfConnectingIpv6(), PLAIN_IP_ADDRESS_PARSER);
-    if (addr != null) {
-      if (!isIpAddrPrivate(addr)) {
-        return addr;
+  private static boolean isIpv4AddrPrivate(int addr) {
+    for (int i = 0; i < PRIVATE_IPV4_RANGES.length; i += 2) {
+      if ((addr & PRIVATE_IPV4_RANGES[i + 1]) == PRIVATE_IPV4_RANGES[i]) {
+        return true;
       }
-      result = coalesce(result, addr);
     }
-
-    return result;
+    return false;
   }
 
-  private static InetAddress preferPublic(InetAddress prevAddr, InetAddress newAddr) {
-    if (prevAddr == null || isIpAddrPrivate(prevAddr)) {
-      return newAddr;
+  private static boolean parseIpAddressAndMaybePort(
+      String str, int start, int end, Candidates candidates) {
+    if (start >= end) {
+      return false;
+    }
+    if (str.charAt(start) == '[') {
+      int posClose = str.indexOf(']', start + 1);
+      if (posClose == -1 || posClose >= end) {
+        return false;
+      }
+      return parseIpAddress(str, start + 1, posClose, candidates);
+    }
+    int posColon = str.indexOf(':', start);
+    if (posColon == -1 || posColon >= end) {
+      return parseIpAddress(str, start, end, candidates);
+    } else {
+      return parseIpAddress(str, start, posColon, candidates);
     }
-    return prevAddr;
   }
 
-  private static <T> T coalesce(T one, T two) {
-    if (one != null) {
-      return one;
+  public static InetAddress parseIpAddress(String str) {
+    Candidates candidates = new Candidates();
+    if (parseIpAddress(str, 0, str.length(), candidates)) {
+      return toInetAddress(candidates.high, candidates.low);
     }
-    return two;
+    return null;
   }
 
-  private static InetAddress tryHeader(String headerValue, Function<String, InetAddress> parseFun) {
-    if (headerValue == null || headerValue.isEmpty()) {
-      return null;
+  /** Parses the address into {@link Candidates#high} and {@link Candidates#low}. */
+  private static boolean parseIpAddress(String str, int start, int end, Candidates candidates) {
+    if (start >= end) {
+      return false;
     }
-
-    return parseFun.apply(headerValue);
+    char firstChar = str.charAt(start);
+    if (Character.digit(firstChar, 16) < 0 && firstChar != ':') {
+      return false; // probably a name instead, IPv6 literals can start with a hex letter
+    }
+    long ipv4 = parseIpv4(str, start, end);
+    if (ipv4 >= 0) {
+      candidates.high = 0;
+      candidates.low = IPV4_MAPPED_PREFIX | ipv4;
+      return true;
+    }
+    return parseIpv6(str, start, end, candidates);
   }
 
-  private static class ParsePlainIpAddress implements Function<String, InetAddress> {
-    @Override
-    public InetAddress apply(String str) {
-      InetAddress result = null;
-      InetAddress resultPrivate = null;
-      int pos = 0;
-      int end = str.length();
-      do {
-        for (; pos < end && str.charAt(pos) == ' '; pos++) {}
-        int posComma = str.indexOf(',', pos);
-        int endCur = posComma != -1 ? posComma : end;
-        InetAddress addr = parseIpAddress(str.substring(pos, endCur));
-        if (addr != null) {
-          if (isIpAddrPrivate(addr)) {
-            if (resultPrivate == null) {
-              resultPrivate = addr;
-            }
-          } else {
-            result = addr;
-          }
+  /**
+   * Accepts the same forms as {@link InetAddress#getByName} for IPv4 literals, where the last part
+   * fills the remaining bytes (e.g. "127.1" or "42").
+   *
+   * @return the address as an unsigned 32 bit value, or {@code -1} if it's not an IPv4 literal
+   */
+  private static long parseIpv4(String str, int start, int end) {
+    if (start == end || end - start > 15) {
+      return -1;
+    }
+    long leadingParts = 0;
+    long value = 0;
+    int parts = 0;
+    boolean newPart = true;
+    for (int i = start; i < end; i++) {
+      char c = str.charAt(i);
+      if (c == '.') {
+        if (newPart || value > 0xFF || parts == 3) {
+          return -1;
         }
-        pos = (posComma != -1 && posComma + 1 < end) ? (posComma + 1) : -1;
-      } while (result == null && pos != -1);
-      return result != null ? result : resultPrivate;
+        leadingParts = (leadingParts << 8) | value;
+        parts++;
+        value = 0;
+        newPart = true;
+      } else {
+        int digit = Character.digit(c, 10);
+        if (digit < 0) {
+          return -1;
+        }
+        value = value * 10 + digit;
+        newPart = false;
+      }
+    }
+    int lastPartBits = (4 - parts) * 8;
+    if (newPart || value >= (1L << lastPartBits)) {
+      return -1;
     }
+    return (leadingParts << lastPartBits) | value;
   }
 
-  private static class ParseForwarded implements Function<String, InetAddress> {
-
-    enum ForwardedParseState {
-      KEY,
-      BEFORE_VALUE,
-      VALUE_TOKEN,
-      VALUE_QUOTED,
-      BETWEEN,
+  /**
+   * Converted from inet_pton, like {@link InetAddress#getByName} for IPv6 literals. Anything after
+   * a '%' (the scope) is ignored.
+   */
+  private static boolean parseIpv6(String str, int start, int end, Candidates candidates) {
+    // Shortest valid string is "::", hence at least 2 chars
+    if (end - start < 2) {
+      return false;
+    }
+    int limit = end;
+    int percent = str.indexOf('%', start);
+    if (percent != -1 && percent < end) {
+      if (percent == end - 1) {
+        return false;
+      }
+      limit = percent;
     }
 
-    @Override
-    public InetAddress apply(String headerValue) {
-      InetAddress resultPrivate = null;
-      ForwardedParseState state = ForwardedParseState.BETWEEN;
-
-      // https://datatracker.ietf.org/doc/html/rfc7239#section-4
-      int pos = 0;
-      int end = headerValue.length();
-      // compiler requires that these two be initialized:
-      int start = 0;
-      boolean considerValue = false;
-      while (pos < end) {
-        char c = headerValue.charAt(pos);
-        switch (state) {
-          case BETWEEN:
-            if (c == ' ' || c == ';' || c == ',') {
-              break;
-            }
-            start = pos;
-            state = ForwardedParseState.KEY;
-            break;
-          case KEY:
-            if (c != '=') {
-              break;
-            }
-
-            state = ForwardedParseState.BEFORE_VALUE;
-            if (pos - start == 3) {
-              String key = headerValue.substring(start, pos);
-              considerValue = key.equalsIgnoreCase("for");
-            } else {
-              considerValue = false;
-            }
-            break;
-          case BEFORE_VALUE:
-            if (c == '"') {
-              start = pos + 1;
-              state = ForwardedParseState.VALUE_QUOTED;
-            } else if (c == ' ' || c == ';' || c == ',') {
-              // empty value
-              state = ForwardedParseState.BETWEEN;
-            } else {
-              start = pos;
-              state = ForwardedParseState.VALUE_TOKEN;
-            }
-            break;
-          case VALUE_TOKEN:
-            {
-              int tokenEnd;
-              if (c == ' ' || c == ';' || c == ',') {
-                tokenEnd = pos;
-              } else if (pos + 1 == end) {
-                tokenEnd = end;
-              } else {
-                break;
-              }
-
-              if (considerValue) {
-                InetAddress ipAddr =
-                    parseIpAddressAndMaybePort(headerValue.substring(start, tokenEnd));
-                if (ipAddr != null) {
-                  if (isIpAddrPrivate(ipAddr)) {
-                    if (resultPrivate == null) {
-                      resultPrivate = ipAddr;
-                    }
-                  } else {
-                    return ipAddr;
-                  }
-                }
-              }
-              state = ForwardedParseState.BETWEEN;
-              break;
-            }
-          case VALUE_QUOTED:
-            if (c == '"') {
-              if (considerValue) {
-                InetAddress ipAddr = parseIpAddressAndMaybePort(headerValue.substring(start, pos));
-                if (ipAddr != null && !isIpAddrPrivate(ipAddr)) {
-                  return ipAddr;
-                }
-              }
-              state = ForwardedParseState.BETWEEN;
-            } else if (c == '\\') {
-              pos++;
-            }
-            break;
+    // the bytes parsed so far are right-aligned in high and low
+    long high = 0;
+    long low = 0;
+    int bytes = 0;
+    int colonp = -1;
+    int i = start;
+    // Leading :: requires some special handling.
+    if (str.charAt(i) == ':' && str.charAt(++i) != ':') {
+      return false;
+    }
+    int curtok = i;
+    boolean sawXdigit = false;
+    int val = 0;
+    while (i < limit) {
+      char ch = str.charAt(i++);
+      int chval = Character.digit(ch, 16);
+      if (chval != -1) {
+        val = (val << 4) | chval;
+        if (val > 0xFFFF) {
+          return false;
+        }
+        sawXdigit = true;
+        continue;
+      }
+      if (ch == ':') {
+        curtok = i;
+        if (!sawXdigit) {
+          if (colonp != -1) {
+            return false;
+          }
+          colonp = bytes;
+          continue;
+        } else if (i == limit || bytes + 2 > 16) {
+          return false;
+        }
+        high = (high << 16) | (low >>> 48);
+        low = (low << 16) | val;
+        bytes += 2;
+        sawXdigit = false;
+        val = 0;
+        continue;
+      }
+      if (ch == '.' && bytes + 4 <= 16) {
+        // check this IPv4 address has 3 dots, ie. A.B.C.D
+        int dots = 0;
+        for (int j = curtok; j < limit; j++) {
+          if (str.charAt(j) == '.') {
+            dots++;
+          }
+        }
+        long ipv4 = dots == 3 ? parseIpv4(str, curtok, limit) : -1;
+        if (ipv4 < 0) {
+          return false;
         }
-        pos++;
+        high = (high << 32) | (low >>> 32);
+        low = (low << 32) | ipv4;
+        bytes += 4;
+        sawXdigit = false;
+        break;
       }
+      return false;
+    }
+    if (sawXdigit) {
+      if (bytes + 2 > 16) {
+        return false;
+      }
+      high = (high << 16) | (low >>> 48);
+      low = (low << 16) | val;
+      bytes += 2;
+    }
+    if (colonp != -1) {
+      if (bytes == 16) {
+        return false;
+      }
+      // shift the bytes before "::" to the left, leaving zeros in the gap
+      int suffixBits = (bytes - colonp) * 8;
+      long suffixHigh = suffixBits > 64 ? high & ((1L << (suffixBits - 64)) - 1) : 0;
+      long suffixLow = suffixBits >= 64 ? low : low & ((1L << suffixBits) - 1);
+      long prefixHigh = high ^ suffixHigh;
+      long prefixLow = low ^ suffixLow;
+      int gapBits = (16 - bytes) * 8;
+      if (gapBits < 64) {
+        prefixHigh = (prefixHigh << gapBits) | (prefixLow >>> (64 - gapBits));
+        prefixLow <<= gapBits;
+      } else if (gapBits < 128) {
+        prefixHigh = prefixLow << (gapBits - 64);
+        prefixLow = 0;
+      }
+      high = prefixHigh | suffixHigh;
+      low = prefixLow | suffixLow;
+      bytes = 16;
+    }
+    if (bytes != 16) {
+      return false;
+    }
+    candidates.high = high;
+    candidates.low = low;
+    return true;
+  }
 
-      return resultPrivate;
+  private static InetAddress toInetAddress(long high, long low) {
+    byte[] addr;
+    if (high == 0 && (low & ~0xFFFFFFFFL) == IPV4_MAPPED_PREFIX) {
+      addr = new byte[4];
+      for (int i = 0; i < 4; i++) {
+        addr[i] = (byte) (low >>> (24 - i * 8));
+      }
+    } else {
+      addr = new byte[16];
+      for (int i = 0; i < 8; i++) {
+        addr[i] = (byte) (high >>> (56 - i * 8));
+        addr[i + 8] = (byte) (low >>> (56 - i * 8));
+      }
+    }
+    try {
+      return InetAddress.getByAddress(addr);
+    } catch (UnknownHostException e) {
+      return null; // should not happen
     }
   }
 
-  // flat array in groups of 4 + 4 bytes (base address of the range and mask)
-  private static final byte[] PRIVATE_IPV4_RANGES = {
-    (byte) 0x0A, 0, 0, 0, /**/ (byte) 0xFF, 0, 0, 0, // 10.0.0.0/8
-    (byte) 0xAC, (byte) 0x10, 0, 0, /**/ (byte) 0xFF, (byte) 0xF0, 0, 0, // 172.16.0.0/12
-    (byte) 0xC0, (byte) 0xA8, 0, 0, /**/ (byte) 0xFF, (byte) 0xFF, 0, 0, // 192.168.0.0/16
-    (byte) 0x7F, 0, 0, 0, /**/ (byte) 0xFF, 0, 0, 0, // 127.0.0.0/8
-    (byte) 0xA9, (byte) 0xFE, 0, 0, /**/ (byte) 0xFF, (byte) 0xFF, 0, 0, // 169.254.0.0/16
-  };
-  private static final int PRIVATE_IPV4_RANGES_SIZE = PRIVATE_IPV4_RANGES.length / (4 + 4);
-
-  private static final byte[] PRIVATE_IPV6_RANGES = {
-    // spotless:off
-      // ::1/128
-      0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1,
-      (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF,
-      // fec0::/10
-      (byte)0xFE, (byte)0xC0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-      (byte)0xFF, (byte)0xC0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-      // fe80::/10
-      (byte)0xFE, (byte)0x80, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-      (byte)0xFF, (byte)0xC0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-      // fc::/7
-      (byte)0xFC, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-      (byte)0xFE, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-      // fd::/8
-      (byte)0xFC, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-      (byte)0xFF, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-      //spotless:on
-  };
-  private static final int PRIVATE_IPV6_RANGES_SIZE = PRIVATE_IPV4_RANGES.length / (16 + 16);
+  /** Formats the address like {@link InetAddress#getHostAddress()}. */
+  private static String toString(long high, long low) {
+    StringBuilder sb = new StringBuilder(39);
+    if (high == 0 && (low & ~0xFFFFFFFFL) == IPV4_MAPPED_PREFIX) {
+      sb.append((low >>> 24) & 0xFF)
+          .append('.')
+          .append((low >>> 16) & 0xFF)
+          .append('.')
+          .append((low >>> 8) & 0xFF)
+          .append('.')
+          .append(low & 0xFF);
+    } else {
+      appendGroups(sb, high);
+      sb.append(':');
+      appendGroups(sb, low);
+    }
+    return sb.toString();
+  }
 
-  public static boolean isIpAddrPrivate(InetAddress ipAddr) {
-    if (ipAddr instanceof Inet4Address) {
-      byte[] addr = ipAddr.getAddress();
-      for (int i = 0; i < PRIVATE_IPV4_RANGES_SIZE; i++) {
-        if (matchesPrivateRange4(addr, i)) {
-          return true;
+  private static void appendGroups(StringBuilder sb, long bits) {
+    for (int shift = 48; shift >= 0; shift -= 16) {
+      int group = (int) (bits >>> shift) & 0xFFFF;
+      // no leading zeros, like Integer.toHexString
+      for (int nibbleShift = 12; nibbleShift >= 0; nibbleShift -= 4) {
+        if (nibbleShift == 0 || (group >>> nibbleShift) != 0) {
+          sb.append(Character.forDigit((group >>> nibbleShift) & 0xF, 16));
         }
       }
-    } else if (ipAddr instanceof Inet6Address) {
-      byte[] addr = ipAddr.getAddress();
-      for (int i = 0; i < PRIVATE_IPV6_RANGES_SIZE; i++) {
-        if (matchesPrivateRange6(addr, i)) {
-          return true;
-        }
+      if (shift > 0) {
+        sb.append(':');
       }
     }
-    return false;
   }
 
-  private static boolean matchesPrivateRange4(byte[] addr, int n) {
-    byte[] maskedAddr = {
-      (byte) (addr[0] & PRIVATE_IPV4_RANGES[n * 8 + 4]),
-      (byte) (addr[1] & PRIVATE_IPV4_RANGES[n * 8 + 5]),
-      (byte) (addr[2] & PRIVATE_IPV4_RANGES[n * 8 + 6]),
-      (byte) (addr[3] & PRIVATE_IPV4_RANGES[n * 8 + 7]),
-    };
-
-    return maskedAddr[0] == PRIVATE_IPV4_RANGES[n * 8]
-        && maskedAddr[1] == PRIVATE_IPV4_RANGES[n * 8 + 1]
-        && maskedAddr[2] == PRIVATE_IPV4_RANGES[n * 8 + 2]
-        && maskedAddr[3] == PRIVATE_IPV4_RANGES[n * 8 + 3];
+  private static int toInt(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF) << 24
+        | (bytes[offset + 1] & 0xFF) << 16
+        | (bytes[offset + 2] & 0xFF) << 8
+        | (bytes[offset + 3] & 0xFF);
   }
 
-  private static boolean matchesPrivateRange6(byte[] addr, int n) {
-    int base = n * 32;
-    byte[] maskedAddr = {
-      (byte) (addr[0] & PRIVATE_IPV6_RANGES[base + 16]),
-      (byte) (addr[1] & PRIVATE_IPV6_RANGES[base + 17]),
-      (byte) (addr[2] & PRIVATE_IPV6_RANGES[base + 18]),
-      (byte) (addr[3] & PRIVATE_IPV6_RANGES[base + 19]),
-      (byte) (addr[4] & PRIVATE_IPV6_RANGES[base + 20]),
-      (byte) (addr[5] & PRIVATE_IPV6_RANGES[base + 21]),
-      (byte) (addr[6] & PRIVATE_IPV6_RANGES[base + 22]),
-      (byte) (addr[7] & PRIVATE_IPV6_RANGES[base + 23]),
-      (byte) (addr[8] & PRIVATE_IPV6_RANGES[base + 24]),
-      (byte) (addr[9] & PRIVATE_IPV6_RANGES[base + 25]),
-      (byte) (addr[10] & PRIVATE_IPV6_RANGES[base + 26]),
-      (byte) (addr[11] & PRIVATE_IPV6_RANGES[base + 27]),
-      (byte) (addr[12] & PRIVATE_IPV6_RANGES[base + 28]),
-      (byte) (addr[13] & PRIVATE_IPV6_RANGES[base + 29]),
-      (byte) (addr[14] & PRIVATE_IPV6_RANGES[base + 30]),
-      (byte) (addr[15] & PRIVATE_IPV6_RANGES[base + 31]),
-    };
-
-    // Benchmarking indicates that this is better than
-    //  return ByteBuffer.wrap(maskedAddr).equals(
-    //      ByteBuffer.wrap(PRIVATE_IPV6_RANGES, base, 16));
-    // (after optimization)
-    return maskedAddr[0] == PRIVATE_IPV6_RANGES[base]
-        && maskedAddr[1] == PRIVATE_IPV6_RANGES[base + 1]
-        && maskedAddr[2] == PRIVATE_IPV6_RANGES[base + 2]
-        && maskedAddr[3] == PRIVATE_IPV6_RANGES[base + 3]
-        && maskedAddr[4] == PRIVATE_IPV6_RANGES[base + 4]
-        && maskedAddr[5] == PRIVATE_IPV6_RANGES[base + 5]
-        && maskedAddr[6] == PRIVATE_IPV6_RANGES[base + 6]
-        && maskedAddr[7] == PRIVATE_IPV6_RANGES[base + 7]
-        && maskedAddr[8] == PRIVATE_IPV6_RANGES[base + 8]
-        && maskedAddr[9] == PRIVATE_IPV6_RANGES[base + 9]
-        && maskedAddr[10] == PRIVATE_IPV6_RANGES[base + 10]
-        && maskedAddr[11] == PRIVATE_IPV6_RANGES[base + 11]
-        && maskedAddr[12] == PRIVATE_IPV6_RANGES[base + 12]
-        && maskedAddr[13] == PRIVATE_IPV6_RANGES[base + 13]
-        && maskedAddr[14] == PRIVATE_IPV6_RANGES[base + 14]
-        && maskedAddr[15] == PRIVATE_IPV6_RANGES[base + 15];
+  private static long toLong(byte[] bytes, int offset) {
+    return (toInt(bytes, offset) & 0xFFFFFFFFL) << 32 | (toInt(bytes, offset + 4) & 0xFFFFFFFFL);
   }
 
-  private static InetAddress parseIpAddressAndMaybePort(String str) {
-    if (str == null || str.length() == 0) {
-      return null;
+  private static final class LazyClientIp implements CharSequence {
+    private final AgentSpan.Context.Extracted context;
+    private final String peerIp;
+    private String resolved;
+
+    LazyClientIp(AgentSpan.Context.Extracted context, String peerIp) {
+      this.context = context;
+      this.peerIp = peerIp;
     }
-    if (str.charAt(0) == '[') {
-      int posClose = str.indexOf(']', 1);
-      if (posClose == -1) {
-        return null;
+
+    @Override
+    public String toString() {
+      String str = resolved;
+      if (str == null) {
+        str = resolveToString(context, null, peerIp);
+        resolved = str = str != null ? str : "";
       }
-      return parseIpAddress(str.substring(1, posClose));
+      return str;
     }
-    int posColon = str.indexOf(':');
-    if (posColon == -1) {
-      return parseIpAddress(str);
-    } else {
-      return parseIpAddress(str.substring(0, posColon));
+
+    @Override
+    public int length() {
+      return toString().length();
     }
-  }
 
-  public static InetAddress parseIpAddress(String str) {
-    if (str.length() == 0) {
-      return null;
+    @Override
+    public char charAt(int index) {
+      return toString().charAt(index);
     }
-    char firstChar = str.charAt(0);
-    if (!(firstChar >= '0' && firstChar <= '9' || firstChar == ':')) {
-      return null; // probably a name instead
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return toString().subSequence(start, end);
     }
-    try {
-      byte[] addr = IPAddressUtil.textToNumericFormatV4(str);
-      if (addr == null) {
-        addr = IPAddressUtil.textToNumericFormatV6(str);
+  }
+
+  /** Scratch space for a single resolution, so that no objects are created per address. */
+  static final class Candidates {
+    // the address parsed last
+    long high;
+    long low;
+    // the first private address found, used when there's no public address
+    boolean hasPrivate;
+    long privateHigh;
+    long privateLow;
+
+    /**
+     * @return whether the address parsed last is public, otherwise it's remembered if it's the
+     *     first private address
+     */
+    boolean offer() {
+      if (!isIpAddrPrivate(high, low)) {
+        return true;
       }
-      return InetAddress.getByAddress(str, addr);
-    } catch (UnknownHostException e) {
-      return null; // should not happen
+      if (!hasPrivate) {
+        hasPrivate = true;
+        privateHigh = high;
+        privateLow = low;
+      }
+      return false;
+    }
+
+    /** @return whether there is a private address to fall back to */
+    boolean usePrivate() {
+      if (hasPrivate) {
+        high = privateHigh;
+        low = privateLow;
+      }
+      return hasPrivate;
     }
   }
 }
@@ -51,13 +51,13 @@ public class AdviceUtils {
 
   public static <T> void capture(ContextStore<T, State> contextStore, T task) {
     AgentScope activeScope = activeScope();
-    if (null != activeScope && activeScope.isAsyncPropagating()) {
+    if (ExecutorInstrumentationUtils.isPropagating(activeScope)) {
       State state = contextStore.get(task);
       if (null == state) {
-        state = State.FACTORY.create();
-        contextStore.put(task, state);
+        contextStore.put(task, State.withContinuation(activeScope.capture()));
+      } else {
+        state.captureAndSetContinuation(activeScope);
       }
-      state.captureAndSetContinuation(activeScope);
     }
   }
 }
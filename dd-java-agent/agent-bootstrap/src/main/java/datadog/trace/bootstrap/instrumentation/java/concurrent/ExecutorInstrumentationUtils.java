@@ -5,6 +5,7 @@ import static datadog.trace.bootstrap.instrumentation.java.concurrent.ExcludeFil
 
 import datadog.trace.bootstrap.ContextStore;
 import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer.NoopAgentSpan;
 import java.util.concurrent.Executor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,13 +27,20 @@ public final class ExecutorInstrumentationUtils {
       return false;
     }
 
-    if (ExcludeFilter.exclude(ExcludeType.EXECUTOR, task)) {
-      return false;
-    }
-
-    final AgentScope scope = activeScope();
+    // checking the scope first avoids the exclusion lookup for tasks submitted outside a trace
+    return isPropagating(activeScope()) && !ExcludeFilter.exclude(ExcludeType.EXECUTOR, task);
+  }
 
-    return scope != null && scope.isAsyncPropagating();
+  /**
+   * Checks if the given scope has a span worth propagating to tasks. The no-op span is only
+   * activated to hide the current span from instrumented code, and spans started under it begin
+   * new traces anyway, so capturing it would allocate state and a continuation for nothing.
+   *
+   * @param scope the active scope, may be null
+   * @return true iff a continuation should be captured from this scope
+   */
+  public static boolean isPropagating(final AgentScope scope) {
+    return scope != null && scope.isAsyncPropagating() && scope.span() != NoopAgentSpan.INSTANCE;
   }
 
   /**
@@ -47,15 +55,21 @@ public final class ExecutorInstrumentationUtils {
   public static <T> State setupState(
       final ContextStore<T, State> contextStore, final T task, final AgentScope scope) {
 
-    final State state = contextStore.putIfAbsent(task, State.FACTORY);
-
-    if (!state.captureAndSetContinuation(scope)) {
-      log.debug(
-          "continuation was already set for {} in scope {}, no continuation captured.",
-          task,
-          scope);
+    State state = contextStore.get(task);
+    if (null == state) {
+      // fresh task, which is by far the most common case: publish state with the continuation
+      // already set instead of creating empty state and claiming it afterwards
+      final AgentScope.Continuation continuation = scope.capture();
+      final State newState = State.withContinuation(continuation);
+      state = contextStore.putIfAbsent(task, newState);
+      if (state == newState || state.setOrCancelContinuation(continuation)) {
+        return state;
+      }
+    } else if (state.captureAndSetContinuation(scope)) {
+      return state;
     }
-
+    log.debug(
+        "continuation was already set for {} in scope {}, no continuation captured.", task, scope);
     return state;
   }
 
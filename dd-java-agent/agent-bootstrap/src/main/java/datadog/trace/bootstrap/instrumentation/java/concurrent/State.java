@@ -25,6 +25,18 @@ public final class State {
 
   private State() {}
 
+  private State(final AgentScope.Continuation continuation) {
+    this.continuation = continuation;
+  }
+
+  /**
+   * Creates state for a task which has no state yet, holding the given continuation from the
+   * start. This skips the claim needed when the continuation is set on state which may be shared.
+   */
+  public static State withContinuation(final AgentScope.Continuation continuation) {
+    return new State(continuation);
+  }
+
   public boolean captureAndSetContinuation(final AgentScope scope) {
     if (CONTINUATION.compareAndSet(this, null, CLAIMED)) {
       // it's a real pain to do this twice, and this can actually
@@ -18,7 +18,7 @@ public class Wrapper<T extends Runnable> implements Runnable, AutoCloseable {
       return task;
     }
     AgentScope scope = activeScope();
-    if (null != scope) {
+    if (ExecutorInstrumentationUtils.isPropagating(scope)) {
       if (task instanceof Comparable) {
         return new ComparableRunnable(task, scope.capture());
       }
@@ -18,12 +18,15 @@ import datadog.trace.bootstrap.instrumentation.api.ResourceNamePriorities
 import datadog.trace.bootstrap.instrumentation.api.Tags
 import datadog.trace.bootstrap.instrumentation.api.URIDataAdapter
 import datadog.trace.bootstrap.instrumentation.api.URIDefaultDataAdapter
+import datadog.trace.common.writer.ListWriter
+import datadog.trace.core.CoreTracer
 import datadog.trace.core.datastreams.DataStreamsMonitoring
 
 import java.util.function.Function
 import java.util.function.Supplier
 
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_DECODED_RESOURCE_PRESERVE_SPACES
+import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_LAZY_TAGGING
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_RAW_QUERY_STRING
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_RAW_RESOURCE
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_TAG_QUERY_STRING
@@ -299,6 +302,36 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
     1 * this.span.setTag(Tags.HTTP_FORWARDED, 'for=9.9.9.9')
   }
 
+  void 'lazy tagging reads the ip headers only when the span is serialized'() {
+    setup:
+    injectSysConfig('dd.trace.client-ip.enabled', 'true')
+    injectSysConfig(HTTP_SERVER_LAZY_TAGGING, 'true')
+    ActiveSubsystems.APPSEC_ACTIVE = false
+
+    def writer = new ListWriter()
+    def tracer = CoreTracer.builder().writer(writer).build()
+    def ctx = Mock(AgentSpan.Context.Extracted)
+    def decorator = newDecorator()
+    def span = tracer.startSpan('test', 'test')
+
+    when:
+    decorator.onRequest(span, [peerIp: '4.4.4.4'], null, ctx)
+
+    then:
+    0 * ctx.getXRealIp()
+
+    when:
+    span.finish()
+    writer.waitForTraces(1)
+
+    then:
+    1 * ctx.getXRealIp() >> '2.3.4.5'
+    span.getTag(Tags.HTTP_CLIENT_IP).toString() == '2.3.4.5'
+
+    cleanup:
+    tracer?.close()
+  }
+
   void 'client ip reporting with custom header'() {
     setup:
     injectSysConfig('dd.trace.client-ip-header', 'my-header')
@@ -46,6 +46,10 @@ class ClientIpAddressResolverSpecification extends Specification {
     'x-forwarded-for' | '2001:0::1' | '2001::1'
     'x-forwarded-for' | '::1, febf::1, fc00::1, fd00::1,2001:0000::1' | '2001::1'
     'x-forwarded-for' | 'fec0::,feff::ffff,fd00::,fdff::ffff,2001::1' | '2001::1'
+    'x-forwarded-for' | 'fe80::1' | 'fe80::1'
+    'x-forwarded-for' | 'FD12:3456::1, fe80::1' | 'fd12:3456::1'
+    'x-forwarded-for' | 'fec0::1, ::1' | 'fec0::1'
+    'x-forwarded-for' | 'bad::value, cafe' | null
     'x-forwarded-for' | '172.16.0.1' | '172.16.0.1'
     'x-forwarded-for' | '172.16.0.1, 172.31.255.254, 172.32.255.1, 8.8.8.8' | '172.32.255.1'
     'x-forwarded-for' | '169.254.0.1, 127.1.1.1, 10.255.255.254,' | '169.254.0.1'
@@ -184,4 +188,33 @@ class ClientIpAddressResolverSpecification extends Specification {
 
     ip == InetAddress.getByName('127.0.0.1')
   }
+
+
+  void 'resolve to string header=#headerValue peer=#peerIp'() {
+    setup:
+    MutableSpan span = Stub()
+    def context = Mock(AgentSpan.Context.Extracted)
+    _ * context.getXForwardedFor() >> headerValue
+
+    expect:
+    ClientIpAddressResolver.resolveToString(context, span, peerIp) == result
+
+    where:
+    headerValue                 | peerIp      | result
+    '8.8.8.8'                   | '1.1.1.1'   | '8.8.8.8'
+    '10.0.0.1'                  | '1.1.1.1'   | '1.1.1.1'
+    '10.0.0.1'                  | '127.0.0.1' | '10.0.0.1'
+    '10.0.0.1'                  | 'some_host' | '10.0.0.1'
+    null                        | '127.0.0.1' | '127.0.0.1'
+    null                        | null        | null
+    'fe80::1, 2001:db8::1'      | null        | '2001:db8:0:0:0:0:0:1'
+    'fe80::1'                   | null        | 'fe80:0:0:0:0:0:0:1'
+    'fe80::1'                   | '10.0.0.1'  | 'fe80:0:0:0:0:0:0:1'
+    'fd00::1'                   | '8.8.8.8'   | '8.8.8.8'
+    '8.8.8.8'                   | 'fd00::1'   | '8.8.8.8'
+    '10.0.0.1'                  | 'fd00::1'   | '10.0.0.1'
+    '::ffff:8.8.4.4'            | null        | '8.8.4.4'
+    '2001:db8::ffff:8.8.4.4'    | null        | '2001:db8:0:0:0:ffff:808:404'
+    '2001:DB8:0:0:0:0:0:1%eth0' | null        | '2001:db8:0:0:0:0:0:1'
+  }
 }
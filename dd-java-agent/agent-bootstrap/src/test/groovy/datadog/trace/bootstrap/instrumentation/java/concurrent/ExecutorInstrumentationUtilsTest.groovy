@@ -0,0 +1,96 @@
+package datadog.trace.bootstrap.instrumentation.java.concurrent
+
+import datadog.trace.bootstrap.ContextStore
+import datadog.trace.bootstrap.instrumentation.api.AgentScope
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer.NoopAgentSpan
+import datadog.trace.test.util.DDSpecification
+
+class ExecutorInstrumentationUtilsTest extends DDSpecification {
+
+  def "isPropagating with #description"() {
+    setup:
+    AgentScope scope = null
+    if (hasScope) {
+      def span = noop ? NoopAgentSpan.INSTANCE : Stub(AgentSpan)
+      scope = Stub(AgentScope) {
+        isAsyncPropagating() >> asyncPropagating
+        span() >> span
+      }
+    }
+
+    expect:
+    ExecutorInstrumentationUtils.isPropagating(scope) == expected
+
+    where:
+    description               | hasScope | noop  | asyncPropagating | expected
+    "no scope"                | false    | false | true             | false
+    "a span"                  | true     | false | true             | true
+    "a span, not propagating" | true     | false | false            | false
+    "the no-op span"          | true     | true  | true             | false
+  }
+
+  def "fresh task gets state holding the captured continuation"() {
+    setup:
+    def task = new Object()
+    def contextStore = Mock(ContextStore)
+    def continuation = Mock(AgentScope.Continuation)
+    def scope = Stub(AgentScope) {
+      capture() >> continuation
+    }
+
+    when:
+    def state = ExecutorInstrumentationUtils.setupState(contextStore, task, scope)
+
+    then:
+    1 * contextStore.get(task) >> null
+    1 * contextStore.putIfAbsent(task, _ as State) >> { args -> args[1] }
+    0 * continuation.cancel()
+    state.getAndResetContinuation() == continuation
+  }
+
+  def "losing the race to state which already holds a continuation cancels the captured one"() {
+    setup:
+    def task = new Object()
+    def contextStore = Mock(ContextStore)
+    def winning = Mock(AgentScope.Continuation)
+    def losing = Mock(AgentScope.Continuation)
+    def winningState = State.withContinuation(winning)
+    def scope = Stub(AgentScope) {
+      capture() >> losing
+    }
+
+    when:
+    def state = ExecutorInstrumentationUtils.setupState(contextStore, task, scope)
+
+    then:
+    // another thread published its state between the lookup and the put
+    1 * contextStore.get(task) >> null
+    1 * contextStore.putIfAbsent(task, _ as State) >> winningState
+    1 * losing.cancel()
+    0 * winning.cancel()
+    state.is(winningState)
+    state.getAndResetContinuation() == winning
+  }
+
+  def "losing the race to state without a continuation sets the captured one"() {
+    setup:
+    def task = new Object()
+    def contextStore = Mock(ContextStore)
+    def continuation = Mock(AgentScope.Continuation)
+    def emptyState = State.FACTORY.create()
+    def scope = Stub(AgentScope) {
+      capture() >> continuation
+    }
+
+    when:
+    def state = ExecutorInstrumentationUtils.setupState(contextStore, task, scope)
+
+    then:
+    1 * contextStore.get(task) >> null
+    1 * contextStore.putIfAbsent(task, _ as State) >> emptyState
+    0 * continuation.cancel()
+    state.is(emptyState)
+    state.getAndResetContinuation() == continuation
+  }
+}
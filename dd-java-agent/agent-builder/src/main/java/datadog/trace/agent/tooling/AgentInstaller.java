@@ -236,7 +236,9 @@ public class AgentInstaller {
 
     InstrumenterState.resetDefaultState();
     try {
-      return transformerBuilder.installOn(inst);
+      ClassFileTransformer transformer = transformerBuilder.installOn(inst);
+      transformerBuilder.startPrescan(skipAdditionalLibraryMatcher);
+      return transformer;
     } finally {
       SharedTypePools.endInstall();
     }
@@ -61,6 +61,8 @@ public final class CombiningTransformerBuilder
 
   private final List<MatchRecorder> matchers = new ArrayList<>();
   private final BitSet knownTypesMask;
+
+  private CombiningMatcher typeMatcher;
   private AdviceStack[] transformers;
 
   // used to allocate ids to instrumentations not known at build-time
@@ -257,14 +259,22 @@ public final class CombiningTransformerBuilder
       applyContextStoreInjection();
     }
 
+    typeMatcher = new CombiningMatcher(instrumentation, knownTypesMask, matchers);
     return agentBuilder
-        .type(new CombiningMatcher(instrumentation, knownTypesMask, matchers))
+        .type(typeMatcher)
         .and(NOT_DECORATOR_MATCHER)
         .transform(defaultTransformers())
         .transform(new SplittingTransformer(transformers))
         .installOn(instrumentation);
   }
 
+  /** Starts pre-scanning the class-path if enabled, once the type matcher has been installed. */
+  public void startPrescan(boolean skipAdditionalIgnores) {
+    if (null != typeMatcher) {
+      StartupPrescan.start(typeMatcher, skipAdditionalIgnores);
+    }
+  }
+
   /** Counts the number of distinct context store injections registered with this builder. */
   private int contextStoreCount() {
     return contextStoreInjection.size();
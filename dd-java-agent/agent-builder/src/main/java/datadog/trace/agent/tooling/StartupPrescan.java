@@ -0,0 +1,178 @@
+package datadog.trace.agent.tooling;
+
+import static datadog.trace.util.AgentThreadFactory.AgentThread.STARTUP_PRESCAN;
+import static datadog.trace.util.AgentThreadFactory.newAgentThread;
+
+import datadog.trace.agent.tooling.bytebuddy.SharedTypePools;
+import datadog.trace.agent.tooling.bytebuddy.matcher.GlobalIgnores;
+import datadog.trace.agent.tooling.bytebuddy.outline.TypePoolFacade;
+import datadog.trace.api.InstrumenterConfig;
+import datadog.trace.api.Platform;
+import java.io.File;
+import java.util.Enumeration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.pool.TypePool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opt-in startup mode that scans the application class-path on background threads, so matching
+ * results and type descriptions are already cached when the application loads its classes.
+ *
+ * <p>Each class found in the class-path jars is described and matched against the installed
+ * instrumentations, as if it was being loaded. This populates the shared outline, memo, and
+ * no-match caches. Classes that match an instrumentation also get their full description parsed
+ * ahead of the actual transformation.
+ *
+ * <p>Only jars on {@code java.class.path} are scanned, as seen by the system class-loader. Nested
+ * jars, such as those in Spring Boot or WAR archives, are loaded by other class-loaders which don't
+ * exist yet at this point.
+ */
+final class StartupPrescan implements Runnable {
+  private static final Logger log = LoggerFactory.getLogger(StartupPrescan.class);
+
+  private static final int MAX_THREADS = 4;
+
+  private final AgentBuilder.RawMatcher matcher;
+  private final boolean skipAdditionalIgnores;
+  private final Queue<String> jars;
+  private final ClassLoader classLoader;
+
+  private StartupPrescan(
+      AgentBuilder.RawMatcher matcher,
+      boolean skipAdditionalIgnores,
+      Queue<String> jars,
+      ClassLoader classLoader) {
+    this.matcher = matcher;
+    this.skipAdditionalIgnores = skipAdditionalIgnores;
+    this.jars = jars;
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * Starts pre-scanning the class-path with the installed matcher, unless the prescan is disabled.
+   *
+   * @return whether the pre-scan was started
+   */
+  static boolean start(AgentBuilder.RawMatcher matcher, boolean skipAdditionalIgnores) {
+    if (!InstrumenterConfig.get().isResolverStartupPrescan() || Platform.isNativeImageBuilder()) {
+      return false;
+    }
+    return start(
+        matcher,
+        skipAdditionalIgnores,
+        System.getProperty("java.class.path"),
+        ClassLoader.getSystemClassLoader());
+  }
+
+  /** Pre-scans the jars of the class-path, as seen by the given class-loader. */
+  static boolean start(
+      AgentBuilder.RawMatcher matcher,
+      boolean skipAdditionalIgnores,
+      String classPath,
+      ClassLoader classLoader) {
+    if (null == classPath || classPath.isEmpty()) {
+      return false;
+    }
+    Queue<String> jars = new ConcurrentLinkedQueue<>();
+    int start = 0;
+    while (start < classPath.length()) {
+      int end = classPath.indexOf(File.pathSeparatorChar, start);
+      if (end < 0) {
+        end = classPath.length();
+      }
+      String entry = classPath.substring(start, end);
+      if (entry.endsWith(".jar")) {
+        jars.add(entry);
+      }
+      start = end + 1;
+    }
+    if (jars.isEmpty()) {
+      return false;
+    }
+
+    // leave at least half of the cores to the application
+    int threads = Math.min(Runtime.getRuntime().availableProcessors() / 2, MAX_THREADS);
+    threads = Math.max(1, Math.min(threads, jars.size()));
+    log.debug("Pre-scanning {} jar(s) with {} thread(s)", jars.size(), threads);
+
+    StartupPrescan prescan = new StartupPrescan(matcher, skipAdditionalIgnores, jars, classLoader);
+    for (int i = 0; i < threads; i++) {
+      newAgentThread(STARTUP_PRESCAN, "-" + i, prescan, true).start();
+    }
+    return true;
+  }
+
+  @Override
+  public void run() {
+    long startNanos = System.nanoTime();
+    int matched = 0;
+    String jar;
+    while (null != (jar = jars.poll())) {
+      try (JarFile jarFile = new JarFile(jar, false)) {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+          String className = className(entries.nextElement().getName());
+          if (null != className && prescan(className)) {
+            matched++;
+          }
+        }
+      } catch (Throwable e) {
+        log.debug("Problem pre-scanning {}", jar, e);
+      }
+    }
+    if (log.isDebugEnabled()) {
+      log.debug(
+          "Pre-scan finished in {} ms, {} matching type(s)",
+          (System.nanoTime() - startNanos) / 1_000_000,
+          matched);
+    }
+  }
+
+  /** Matches the class like it will be when loaded, caching results along the way. */
+  private boolean prescan(String className) {
+    if (GlobalIgnores.isIgnored(className, skipAdditionalIgnores)) {
+      return false;
+    }
+    try {
+      TypePool typePool = SharedTypePools.typePool(classLoader);
+      TypePool.Resolution resolution = typePool.describe(className);
+      if (!resolution.isResolved()) {
+        return false;
+      }
+      TypeDescription type = resolution.resolve();
+      if (!matcher.matches(type, classLoader, null, null, null)) {
+        return false;
+      }
+      // the type will be transformed, prepare its full description
+      TypePoolFacade.enableFullDescriptions();
+      try {
+        typePool.describe(className).resolve().getDeclaredMethods().size();
+      } finally {
+        TypePoolFacade.disableFullDescriptions();
+      }
+      return true;
+    } catch (Throwable e) {
+      log.debug("Problem pre-scanning {}", className, e);
+      return false;
+    }
+  }
+
+  /** @return the class name for class-file entries that the system class-loader can load */
+  private static String className(String entryName) {
+    if (!entryName.endsWith(".class")
+        || entryName.startsWith("META-INF/")
+        || entryName.startsWith("BOOT-INF/")
+        || entryName.startsWith("WEB-INF/")
+        || entryName.endsWith("module-info.class")
+        || entryName.endsWith("package-info.class")) {
+      return null;
+    }
+    return entryName.substring(0, entryName.length() - 6).replace('/', '.');
+  }
+}
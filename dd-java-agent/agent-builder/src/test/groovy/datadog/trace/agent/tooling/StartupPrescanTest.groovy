@@ -0,0 +1,128 @@
+package datadog.trace.agent.tooling
+
+import datadog.trace.agent.tooling.bytebuddy.matcher.DDElementMatchers
+import datadog.trace.agent.tooling.bytebuddy.outline.TypePoolFacade
+import datadog.trace.test.util.DDSpecification
+import net.bytebuddy.ByteBuddy
+import net.bytebuddy.agent.builder.AgentBuilder
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.utility.JavaModule
+import spock.lang.TempDir
+import spock.util.concurrent.PollingConditions
+
+import java.security.ProtectionDomain
+import java.util.concurrent.ConcurrentHashMap
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+
+class StartupPrescanTest extends DDSpecification {
+  static {
+    TypePoolFacade.registerAsSupplier()
+    DDElementMatchers.registerAsSupplier()
+  }
+
+  @TempDir
+  File tempDir
+
+  def "prescanned jar fills the matcher caches"() {
+    setup:
+    def jar = buildJar()
+    def classLoader = new URLClassLoader([jar.toURI().toURL()] as URL[], (ClassLoader) null)
+    def matcher = new RecordingMatcher()
+
+    when:
+    def started = StartupPrescan.start(matcher, false, jar.path, classLoader)
+
+    then:
+    started
+    new PollingConditions(timeout: 10).eventually {
+      assert matcher.cache == ["example.prescan.Matched": true, "example.prescan.Unmatched": false]
+    }
+    matcher.classLoaders == [classLoader] as Set
+  }
+
+  def "class-path without jars is not prescanned"() {
+    setup:
+    def matcher = new RecordingMatcher()
+
+    expect:
+    !StartupPrescan.start(matcher, false, classPath, ClassLoader.getSystemClassLoader())
+
+    where:
+    classPath << [null, "", "classes", "classes" + File.pathSeparator + "lib"]
+  }
+
+  def "prescan is only started when enabled"() {
+    setup:
+    def originalClassPath = System.getProperty("java.class.path")
+    System.setProperty("java.class.path", buildJar().path)
+    if (null != enabled) {
+      injectSysConfig("resolver.startup.prescan", enabled)
+    }
+    def matcher = new RecordingMatcher()
+
+    when:
+    def started = StartupPrescan.start(matcher, false)
+
+    then:
+    started == expected
+    if (expected) {
+      new PollingConditions(timeout: 10).eventually {
+        assert matcher.cache.size() == 2
+      }
+    } else {
+      assert matcher.cache.isEmpty()
+    }
+
+    cleanup:
+    System.setProperty("java.class.path", originalClassPath)
+
+    where:
+    enabled | expected
+    null    | false
+    "false" | false
+    "true"  | true
+  }
+
+  File buildJar() {
+    def jar = new File(tempDir, "prescan.jar")
+    if (jar.exists()) {
+      return jar
+    }
+    new JarOutputStream(new FileOutputStream(jar)).withCloseable { out ->
+      addClass(out, "example/prescan/Matched.class", "example.prescan.Matched")
+      addClass(out, "example/prescan/Unmatched.class", "example.prescan.Unmatched")
+      // entries that the system class-loader wouldn't load from the class-path
+      addClass(out, "META-INF/versions/11/example/prescan/Versioned.class", "example.prescan.Versioned")
+      addClass(out, "BOOT-INF/classes/example/prescan/Nested.class", "example.prescan.Nested")
+      out.putNextEntry(new JarEntry("example/prescan/readme.txt"))
+      out.write("not a class".bytes)
+      out.closeEntry()
+    }
+    return jar
+  }
+
+  static void addClass(JarOutputStream out, String entryName, String className) {
+    out.putNextEntry(new JarEntry(entryName))
+    out.write(new ByteBuddy().subclass(Object).name(className).make().bytes)
+    out.closeEntry()
+  }
+
+  static class RecordingMatcher implements AgentBuilder.RawMatcher {
+    final Map<String, Boolean> cache = new ConcurrentHashMap<>()
+    final Set<ClassLoader> classLoaders = ConcurrentHashMap.newKeySet()
+
+    @Override
+    boolean matches(
+      TypeDescription typeDescription,
+      ClassLoader classLoader,
+      JavaModule module,
+      Class<?> classBeingRedefined,
+      ProtectionDomain protectionDomain) {
+      boolean matched = typeDescription.name == "example.prescan.Matched"
+      cache.put(typeDescription.name, matched)
+      classLoaders.add(classLoader)
+      return matched
+    }
+  }
+}
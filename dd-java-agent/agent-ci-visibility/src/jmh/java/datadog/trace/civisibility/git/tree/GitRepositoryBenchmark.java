@@ -0,0 +1,218 @@
+package datadog.trace.civisibility.git.tree;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.util.IOUtils;
+import datadog.trace.civisibility.utils.FileUtils;
+import datadog.trace.civisibility.utils.ShellCommandExecutor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading a large synthetic repository directly with running the {@code git} commands
+ * that {@link GitClient} used to execute for the same queries. Requires {@code git} on the path.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1)
+public class GitRepositoryBenchmark {
+
+  private static final String SINCE = "1 month ago";
+  private static final int LATEST_COMMITS_LIMIT = 1000;
+  private static final int NEW_COMMITS = 100;
+
+  @Param({"2000"})
+  int commitCount;
+
+  @Param({"100"})
+  int directoryCount;
+
+  Path repoRoot;
+  ShellCommandExecutor commandExecutor;
+  long since;
+  List<String> commitsToSkip;
+  List<String> commitsToInclude;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    repoRoot = Files.createTempDirectory("dd-git-benchmark");
+    commandExecutor = new ShellCommandExecutor(repoRoot.toFile(), 60_000);
+    commandExecutor.executeCommand(ShellCommandExecutor.OutputParser.IGNORE, "git", "init", "-q");
+    commandExecutor.executeCommand(
+        ShellCommandExecutor.OutputParser.IGNORE,
+        fastImportStream(commitCount, directoryCount),
+        "git",
+        "fast-import",
+        "--quiet");
+    commandExecutor.executeCommand(
+        ShellCommandExecutor.OutputParser.IGNORE, "git", "checkout", "-q", "master");
+    commandExecutor.executeCommand(
+        ShellCommandExecutor.OutputParser.IGNORE, "git", "gc", "-q", "--aggressive");
+
+    since = GitRepository.parseRelativeDate(SINCE, System.currentTimeMillis());
+    List<String> latestCommits = latestCommitsWithExecutable();
+    // the backend knows of everything but the most recent commits
+    commitsToInclude = new ArrayList<>(latestCommits.subList(0, NEW_COMMITS));
+    commitsToSkip = new ArrayList<>(latestCommits.subList(NEW_COMMITS, latestCommits.size()));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.delete(repoRoot);
+  }
+
+  @Benchmark
+  public Object headCommitWithRepository() throws IOException {
+    try (GitRepository repository = GitRepository.open(repoRoot)) {
+      GitRepository.Commit commit = repository.getCommit(GitClient.HEAD);
+      return new Object[] {
+        repository.getCurrentBranch(),
+        repository.getTags(commit.sha),
+        commit.fullMessage,
+        commit.author.getIso8601Date(),
+        commit.committer.getIso8601Date()
+      };
+    }
+  }
+
+  @Benchmark
+  public Object headCommitWithExecutable() throws Exception {
+    List<Object> result = new ArrayList<>();
+    result.add(git("branch", "--show-current"));
+    for (String format : new String[] {"%H", "%B", "%an", "%ae", "%aI", "%cn", "%ce", "%cI"}) {
+      result.add(git("log", "-n", "1", "--format=" + format, GitClient.HEAD));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public Object latestCommitsWithRepository() throws IOException {
+    try (GitRepository repository = GitRepository.open(repoRoot)) {
+      return repository.getLatestCommits(since, LATEST_COMMITS_LIMIT);
+    }
+  }
+
+  @Benchmark
+  public Object latestCommitsWithExecutable() throws Exception {
+    return latestCommitsWithExecutable();
+  }
+
+  @Benchmark
+  public Object objectsWithRepository() throws IOException {
+    try (GitRepository repository = GitRepository.open(repoRoot)) {
+      return repository.getObjects(commitsToSkip, commitsToInclude, since);
+    }
+  }
+
+  @Benchmark
+  public Object objectsWithExecutable() throws Exception {
+    String[] command = new String[6 + commitsToSkip.size() + commitsToInclude.size()];
+    command[0] = "git";
+    command[1] = "rev-list";
+    command[2] = "--objects";
+    command[3] = "--no-object-names";
+    command[4] = "--filter=blob:none";
+    command[5] = String.format("--since='%s'", SINCE);
+    int count = 6;
+    for (String commitToSkip : commitsToSkip) {
+      command[count++] = "^" + commitToSkip;
+    }
+    for (String commitToInclude : commitsToInclude) {
+      command[count++] = commitToInclude;
+    }
+    return commandExecutor.executeCommand(IOUtils::readLines, command);
+  }
+
+  private List<String> latestCommitsWithExecutable() throws Exception {
+    return commandExecutor.executeCommand(
+        IOUtils::readLines,
+        "git",
+        "log",
+        "--format=%H",
+        "-n",
+        String.valueOf(LATEST_COMMITS_LIMIT),
+        String.format("--since='%s'", SINCE));
+  }
+
+  private String git(String... args) throws Exception {
+    String[] command = new String[args.length + 1];
+    command[0] = "git";
+    System.arraycopy(args, 0, command, 1, args.length);
+    return commandExecutor.executeCommand(IOUtils::readFully, command);
+  }
+
+  /**
+   * Builds a history where the first commit creates a wide directory structure and every following
+   * commit modifies one file, all within the last days.
+   */
+  private static byte[] fastImportStream(int commitCount, int directoryCount) {
+    StringBuilder stream = new StringBuilder();
+    long time = System.currentTimeMillis() / 1000 - commitCount * 60L;
+    for (int i = 1; i <= commitCount; i++) {
+      String message = "Commit " + i + "\n\nSynthetic commit for benchmarking.\n";
+      stream.append("commit refs/heads/master\n").append("mark :").append(i).append('\n');
+      stream
+          .append("author Bench Author <author@example.com> ")
+          .append(time + i * 60L)
+          .append(" +0100\n");
+      stream
+          .append("committer Bench Committer <committer@example.com> ")
+          .append(time + i * 60L)
+          .append(" +0100\n");
+      data(stream, message);
+      if (i > 1) {
+        stream.append("from :").append(i - 1).append('\n');
+        modify(stream, path(i % directoryCount, i % 10), "content " + i + '\n');
+      } else {
+        for (int d = 0; d < directoryCount; d++) {
+          for (int s = 0; s < 10; s++) {
+            modify(stream, path(d, s), "initial content\n");
+          }
+        }
+      }
+      stream.append('\n');
+    }
+    return stream.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String path(int directory, int subdirectory) {
+    return String.format(
+        Locale.ROOT, "module-%d/src/main/package-%d/File.java", directory, subdirectory);
+  }
+
+  private static void modify(StringBuilder stream, String path, String content) {
+    stream.append("M 100644 inline ").append(path).append('\n');
+    data(stream, content);
+  }
+
+  private static void data(StringBuilder stream, String data) {
+    stream
+        .append("data ")
+        .append(data.getBytes(StandardCharsets.UTF_8).length)
+        .append('\n')
+        .append(data)
+        .append('\n');
+  }
+}
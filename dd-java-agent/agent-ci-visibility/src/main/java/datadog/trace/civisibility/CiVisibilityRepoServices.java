@@ -26,6 +26,7 @@ import datadog.trace.civisibility.ipc.ExecutionSettingsRequest;
 import datadog.trace.civisibility.ipc.ExecutionSettingsResponse;
 import datadog.trace.civisibility.ipc.SignalClient;
 import datadog.trace.civisibility.source.BestEffortSourcePathResolver;
+import datadog.trace.civisibility.source.ByteCodeAnalysisCache;
 import datadog.trace.civisibility.source.CompilerAidedSourcePathResolver;
 import datadog.trace.civisibility.source.NoOpSourcePathResolver;
 import datadog.trace.civisibility.source.SourcePathResolver;
@@ -36,6 +37,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,7 +76,8 @@ public class CiVisibilityRepoServices {
             repoRoot);
     repoIndexProvider = services.repoIndexProviderFactory.create(repoRoot);
     codeowners = buildCodeowners(repoRoot);
-    sourcePathResolver = buildSourcePathResolver(repoRoot, repoIndexProvider);
+    sourcePathResolver =
+        buildSourcePathResolver(repoRoot, repoIndexProvider, services.byteCodeAnalysisCache);
 
     if (ProcessHierarchyUtils.isChild()) {
       executionSettingsFactory = buildExecutionSettingsFetcher(services.signalClientFactory);
@@ -176,12 +179,15 @@ public class CiVisibilityRepoServices {
   }
 
   private static SourcePathResolver buildSourcePathResolver(
-      String repoRoot, RepoIndexProvider indexProvider) {
+      String repoRoot,
+      RepoIndexProvider indexProvider,
+      @Nullable ByteCodeAnalysisCache byteCodeAnalysisCache) {
     SourcePathResolver compilerAidedResolver =
         repoRoot != null
             ? new CompilerAidedSourcePathResolver(repoRoot)
             : NoOpSourcePathResolver.INSTANCE;
-    RepoIndexSourcePathResolver indexResolver = new RepoIndexSourcePathResolver(indexProvider);
+    RepoIndexSourcePathResolver indexResolver =
+        new RepoIndexSourcePathResolver(indexProvider, byteCodeAnalysisCache);
     return new BestEffortSourcePathResolver(compilerAidedResolver, indexResolver);
   }
 
@@ -16,6 +16,7 @@ import datadog.trace.civisibility.git.GitClientGitInfoBuilder;
 import datadog.trace.civisibility.git.tree.GitClient;
 import datadog.trace.civisibility.ipc.SignalClient;
 import datadog.trace.civisibility.source.BestEffortMethodLinesResolver;
+import datadog.trace.civisibility.source.ByteCodeAnalysisCache;
 import datadog.trace.civisibility.source.ByteCodeMethodLinesResolver;
 import datadog.trace.civisibility.source.CompilerAidedMethodLinesResolver;
 import datadog.trace.civisibility.source.MethodLinesResolver;
@@ -49,6 +50,7 @@ public class CiVisibilityServices {
   final GitClient.Factory gitClientFactory;
   final GitInfoProvider gitInfoProvider;
   final MethodLinesResolver methodLinesResolver;
+  @Nullable final ByteCodeAnalysisCache byteCodeAnalysisCache;
   final RepoIndexProvider.Factory repoIndexProviderFactory;
   @Nullable final SignalClient.Factory signalClientFactory;
 
@@ -64,9 +66,11 @@ public class CiVisibilityServices {
     this.jvmInfoFactory = new CachingJvmInfoFactory(config, new JvmInfoFactoryImpl());
     this.gitClientFactory = new GitClient.Factory(config, metricCollector);
     this.ciProviderInfoFactory = new CIProviderInfoFactory(config);
+    this.byteCodeAnalysisCache = openByteCodeAnalysisCache();
     this.methodLinesResolver =
         new BestEffortMethodLinesResolver(
-            new CompilerAidedMethodLinesResolver(), new ByteCodeMethodLinesResolver());
+            new CompilerAidedMethodLinesResolver(),
+            new ByteCodeMethodLinesResolver(byteCodeAnalysisCache));
 
     this.gitInfoProvider = gitInfoProvider;
     gitInfoProvider.registerGitInfoBuilder(new CIProviderGitInfoBuilder());
@@ -94,6 +98,15 @@ public class CiVisibilityServices {
     }
   }
 
+  @Nullable
+  private static ByteCodeAnalysisCache openByteCodeAnalysisCache() {
+    if (!ProcessHierarchyUtils.isChild()) {
+      return null;
+    }
+    Path cachePath = ProcessHierarchyUtils.getByteCodeAnalysisCachePath();
+    return cachePath != null ? ByteCodeAnalysisCache.open(cachePath) : null;
+  }
+
   CiVisibilityRepoServices repoServices(Path path) {
     return new CiVisibilityRepoServices(this, path);
   }
@@ -92,7 +92,9 @@ public class CiVisibilitySystem {
           // we rely on Jacoco instrumentation rather than on our own coverage mechanism
           !config.isCiVisibilityCoverageLinesEnabled()) {
         Predicate<String> instrumentationFilter = createCoverageInstrumentationFilter(config);
-        inst.addTransformer(new CoverageClassTransformer(instrumentationFilter));
+        inst.addTransformer(
+            new CoverageClassTransformer(
+                instrumentationFilter, config.isCiVisibilityCoverageIndexedProbesEnabled()));
       }
 
       CiVisibilityCoverageServices.Child coverageServices =
@@ -1,9 +1,12 @@
 package datadog.trace.civisibility.coverage.file;
 
+import datadog.trace.api.civisibility.coverage.CoverageClassIndex;
 import datadog.trace.api.civisibility.coverage.CoverageProbes;
 import datadog.trace.api.civisibility.telemetry.CiVisibilityCountMetric;
 import datadog.trace.api.civisibility.telemetry.CiVisibilityMetricCollector;
 import datadog.trace.api.civisibility.telemetry.tag.CoverageErrorType;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -25,10 +28,21 @@ public class FileProbes implements CoverageProbes {
 
   private Class<?> lastCoveredClass;
 
+  /**
+   * Bitmap of covered class indices, used by indexed probes. Classes are appended to {@link
+   * #indexedClasses} when their bit is first set.
+   */
+  private long[] indexedBitmap;
+
+  private Class<?>[] indexedClasses;
+  private int indexedClassCount;
+
   FileProbes(CiVisibilityMetricCollector metrics, boolean isTestThread) {
     this.metrics = metrics;
     coveredClasses = isTestThread ? new IdentityHashMap<>() : new ConcurrentHashMap<>();
     nonCodeResources = isTestThread ? new HashMap<>() : new ConcurrentHashMap<>();
+    indexedBitmap = new long[(CoverageClassIndex.size() + 63) >>> 6];
+    indexedClasses = new Class<?>[16];
   }
 
   @Override
@@ -50,13 +64,59 @@ public class FileProbes implements CoverageProbes {
     }
   }
 
+  @Override
+  public void record(Class<?> clazz, long classId, int classIndex, int probeId) {
+    record(clazz, classIndex);
+  }
+
+  @Override
+  public void record(Class<?> clazz, int classIndex) {
+    long[] bitmap = indexedBitmap;
+    int word = classIndex >>> 6;
+    long mask = 1L << classIndex;
+    if (word < bitmap.length && (bitmap[word] & mask) != 0) {
+      return;
+    }
+    recordIndexed(clazz, word, mask);
+  }
+
+  private void recordIndexed(Class<?> clazz, int word, long mask) {
+    try {
+      if (word >= indexedBitmap.length) {
+        // classes instrumented after the probes were created
+        int length = Math.max(word + 1, (CoverageClassIndex.size() + 63) >>> 6);
+        indexedBitmap = Arrays.copyOf(indexedBitmap, length);
+      }
+      indexedBitmap[word] |= mask;
+      if (indexedClassCount == indexedClasses.length) {
+        indexedClasses = Arrays.copyOf(indexedClasses, indexedClassCount << 1);
+      }
+      indexedClasses[indexedClassCount++] = clazz;
+
+    } catch (Exception e) {
+      metrics.add(CiVisibilityCountMetric.CODE_COVERAGE_ERRORS, 1, CoverageErrorType.RECORD);
+      throw e;
+    }
+  }
+
   @Override
   public void recordNonCodeResource(String absolutePath) {
     nonCodeResources.put(absolutePath, absolutePath);
   }
 
   public Collection<Class<?>> getCoveredClasses() {
-    return coveredClasses.keySet();
+    if (indexedClassCount == 0) {
+      return coveredClasses.keySet();
+    }
+    Collection<Class<?>> classes = new ArrayList<>(coveredClasses.keySet());
+    // probes of non-test threads can still be written to when the report is made
+    Class<?>[] indexed = indexedClasses;
+    for (int i = 0, count = Math.min(indexedClassCount, indexed.length); i < count; i++) {
+      if (indexed[i] != null) {
+        classes.add(indexed[i]);
+      }
+    }
+    return classes;
   }
 
   public Collection<String> getNonCodeResources() {
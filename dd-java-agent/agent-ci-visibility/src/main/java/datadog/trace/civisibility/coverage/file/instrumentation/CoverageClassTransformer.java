@@ -13,8 +13,15 @@ public class CoverageClassTransformer implements ClassFileTransformer {
 
   private final Predicate<String> instrumentationFilter;
 
-  public CoverageClassTransformer(Predicate<String> instrumentationFilter) {
+  /**
+   * If {@code true}, probes address covered classes by indices that are assigned at
+   * transformation time (see {@link datadog.trace.api.civisibility.coverage.CoverageClassIndex}).
+   */
+  private final boolean indexedProbes;
+
+  public CoverageClassTransformer(Predicate<String> instrumentationFilter, boolean indexedProbes) {
     this.instrumentationFilter = instrumentationFilter;
+    this.indexedProbes = indexedProbes;
   }
 
   @Override
@@ -40,7 +47,8 @@ public class CoverageClassTransformer implements ClassFileTransformer {
     ClassReader reader = new ClassReader(source);
     ClassWriter writer = new ClassWriter(reader, 0);
     reader.accept(
-        new CoverageClassVisitor(writer, instrumentationFilter), ClassReader.EXPAND_FRAMES);
+        new CoverageClassVisitor(writer, instrumentationFilter, indexedProbes),
+        ClassReader.EXPAND_FRAMES);
     return writer.toByteArray();
   }
 }
@@ -8,11 +8,14 @@ import org.objectweb.asm.Opcodes;
 public class CoverageClassVisitor extends ClassVisitor {
 
   private final Predicate<String> instrumentationFilter;
+  private final boolean indexedProbes;
   private String className;
 
-  protected CoverageClassVisitor(ClassVisitor cv, Predicate<String> instrumentationFilter) {
+  protected CoverageClassVisitor(
+      ClassVisitor cv, Predicate<String> instrumentationFilter, boolean indexedProbes) {
     super(Opcodes.ASM9, cv);
     this.instrumentationFilter = instrumentationFilter;
+    this.indexedProbes = indexedProbes;
   }
 
   @Override
@@ -31,6 +34,6 @@ public class CoverageClassVisitor extends ClassVisitor {
   public MethodVisitor visitMethod(
       int access, String name, String descriptor, String signature, String[] exceptions) {
     MethodVisitor mv = cv.visitMethod(access, name, descriptor, signature, exceptions);
-    return new CoverageMethodVisitor(mv, className, instrumentationFilter);
+    return new CoverageMethodVisitor(mv, className, instrumentationFilter, indexedProbes);
   }
 }
@@ -7,17 +7,22 @@ import org.objectweb.asm.Opcodes;
 public class CoverageMethodVisitor extends MethodVisitor {
   private final String className;
   private final Predicate<String> instrumentationFilter;
+  private final boolean indexedProbes;
 
   protected CoverageMethodVisitor(
-      MethodVisitor mv, String className, Predicate<String> instrumentationFilter) {
+      MethodVisitor mv,
+      String className,
+      Predicate<String> instrumentationFilter,
+      boolean indexedProbes) {
     super(Opcodes.ASM9, mv);
     this.className = className;
     this.instrumentationFilter = instrumentationFilter;
+    this.indexedProbes = indexedProbes;
   }
 
   @Override
   public void visitCode() {
-    CoverageUtils.insertCoverageProbe(className, mv);
+    CoverageUtils.insertCoverageProbe(className, indexedProbes, mv);
   }
 
   @Override
@@ -29,7 +34,7 @@ public class CoverageMethodVisitor extends MethodVisitor {
   public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
     if (instrumentationFilter.test(owner)
         && /* do not insert probe if a class accesses its own field */ !className.equals(owner)) {
-      CoverageUtils.insertCoverageProbe(owner, mv);
+      CoverageUtils.insertCoverageProbe(owner, indexedProbes, mv);
     }
     mv.visitFieldInsn(opcode, owner, name, descriptor);
   }
@@ -1,16 +1,28 @@
 package datadog.trace.civisibility.coverage.file.instrumentation;
 
+import datadog.trace.api.civisibility.coverage.CoverageClassIndex;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
 public class CoverageUtils {
 
-  public static void insertCoverageProbe(String className, MethodVisitor mv) {
+  public static void insertCoverageProbe(String className, boolean indexed, MethodVisitor mv) {
     String typeDescriptor = 'L' + className + ';';
     Type type = Type.getType(typeDescriptor);
     mv.visitLdcInsn(type);
 
+    if (indexed) {
+      mv.visitLdcInsn(CoverageClassIndex.get(className));
+      mv.visitMethodInsn(
+          Opcodes.INVOKESTATIC,
+          "datadog/trace/api/civisibility/coverage/CoveragePerTestBridge",
+          "recordCoverage",
+          "(Ljava/lang/Class;I)V",
+          false);
+      return;
+    }
+
     mv.visitMethodInsn(
         Opcodes.INVOKESTATIC,
         "datadog/trace/api/civisibility/coverage/CoveragePerTestBridge",
@@ -1,9 +1,11 @@
 package datadog.trace.civisibility.coverage.line;
 
+import datadog.trace.api.civisibility.coverage.CoverageClassIndex;
 import datadog.trace.api.civisibility.coverage.CoverageProbes;
 import datadog.trace.api.civisibility.telemetry.CiVisibilityCountMetric;
 import datadog.trace.api.civisibility.telemetry.CiVisibilityMetricCollector;
 import datadog.trace.api.civisibility.telemetry.tag.CoverageErrorType;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -27,6 +29,17 @@ public class LineProbes implements CoverageProbes {
   private Class<?> lastCoveredClass;
   private ExecutionDataAdapter lastCoveredExecutionData;
 
+  private static final ExecutionDataAdapter[] NO_EXECUTION_DATA = new ExecutionDataAdapter[0];
+  private static final Class<?>[] NO_CLASSES = new Class<?>[0];
+
+  /**
+   * Execution data of classes instrumented with indexed probes, indexed by class index. Grown when
+   * a class is first covered, so that probes covering few classes stay small on large classpaths.
+   */
+  private ExecutionDataAdapter[] indexedExecutionData = NO_EXECUTION_DATA;
+
+  private Class<?>[] indexedClasses = NO_CLASSES;
+
   LineProbes(
       CiVisibilityMetricCollector metrics, Map<String, Integer> probeCounts, boolean isTestThread) {
     this.metrics = metrics;
@@ -58,13 +71,69 @@ public class LineProbes implements CoverageProbes {
     }
   }
 
+  @Override
+  public void record(Class<?> clazz, int classIndex) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void record(Class<?> clazz, long classId, int classIndex, int probeId) {
+    ExecutionDataAdapter[] data = indexedExecutionData;
+    if (classIndex < data.length && indexedClasses[classIndex] == clazz) {
+      data[classIndex].record(probeId);
+    } else {
+      recordIndexed(clazz, classId, classIndex, probeId);
+    }
+  }
+
+  private void recordIndexed(Class<?> clazz, long classId, int classIndex, int probeId) {
+    try {
+      if (classIndex >= indexedExecutionData.length) {
+        // doubling, but not beyond the number of indexed classes
+        int length =
+            Math.max(
+                classIndex + 1,
+                Math.min(indexedExecutionData.length << 1, CoverageClassIndex.size()));
+        indexedExecutionData = Arrays.copyOf(indexedExecutionData, length);
+        indexedClasses = Arrays.copyOf(indexedClasses, length);
+      }
+      if (indexedClasses[classIndex] != null) {
+        // a class with the same name loaded by a different class loader
+        record(clazz, classId, probeId);
+        return;
+      }
+      String className = clazz.getName();
+      ExecutionDataAdapter adapter =
+          new ExecutionDataAdapter(classId, className, probeCounts.get(className));
+      adapter.record(probeId);
+      indexedExecutionData[classIndex] = adapter;
+      indexedClasses[classIndex] = clazz;
+
+    } catch (Exception e) {
+      metrics.add(CiVisibilityCountMetric.CODE_COVERAGE_ERRORS, 1, CoverageErrorType.RECORD);
+      throw e;
+    }
+  }
+
   @Override
   public void recordNonCodeResource(String absolutePath) {
     nonCodeResources.put(absolutePath, absolutePath);
   }
 
   public Map<Class<?>, ExecutionDataAdapter> getExecutionData() {
-    return executionData;
+    // probes of non-test threads can still be written to when the report is made
+    ExecutionDataAdapter[] indexedData = indexedExecutionData;
+    Class<?>[] classes = indexedClasses;
+    Map<Class<?>, ExecutionDataAdapter> data = null;
+    for (int i = 0, length = Math.min(indexedData.length, classes.length); i < length; i++) {
+      if (indexedData[i] != null && classes[i] != null) {
+        if (data == null) {
+          data = new IdentityHashMap<>(executionData);
+        }
+        data.merge(classes[i], indexedData[i], ExecutionDataAdapter::merge);
+      }
+    }
+    return data != null ? data : executionData;
   }
 
   public Collection<String> getNonCodeResources() {
@@ -59,6 +59,7 @@ public class BuildSystemModuleImpl extends AbstractTestModule implements BuildSy
       BuildModuleLayout moduleLayout,
       @Nullable Collection<Path> classpath,
       @Nullable JavaAgent jacocoAgent,
+      @Nullable Path byteCodeAnalysisCache,
       Config config,
       CiVisibilityMetricCollector metricCollector,
       TestDecorator testDecorator,
@@ -101,6 +102,7 @@ public class BuildSystemModuleImpl extends AbstractTestModule implements BuildSy
                 startCommand,
                 classpath,
                 jacocoAgent,
+                byteCodeAnalysisCache,
                 signalServerAddress,
                 executionSettings,
                 sessionSettings));
@@ -113,6 +115,7 @@ public class BuildSystemModuleImpl extends AbstractTestModule implements BuildSy
       String startCommand,
       @Nullable Collection<Path> classpath,
       @Nullable JavaAgent jacocoAgent,
+      @Nullable Path byteCodeAnalysisCache,
       InetSocketAddress signalServerAddress,
       ExecutionSettings executionSettings,
       BuildSessionSettings sessionSettings) {
@@ -187,6 +190,13 @@ public class BuildSystemModuleImpl extends AbstractTestModule implements BuildSy
             CiVisibilityConfig.CIVISIBILITY_SIGNAL_SERVER_PORT),
         String.valueOf(signalServerAddress != null ? signalServerAddress.getPort() : 0));
 
+    if (byteCodeAnalysisCache != null) {
+      propagatedSystemProperties.put(
+          Strings.propertyNameToSystemPropertyName(
+              CiVisibilityConfig.CIVISIBILITY_BYTECODE_ANALYSIS_CACHE_PATH),
+          byteCodeAnalysisCache.toString());
+    }
+
     List<String> coverageEnabledPackages = sessionSettings.getCoverageEnabledPackages();
     propagatedSystemProperties.put(
         Strings.propertyNameToSystemPropertyName(
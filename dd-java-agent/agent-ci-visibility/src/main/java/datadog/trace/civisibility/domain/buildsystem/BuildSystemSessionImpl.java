@@ -6,6 +6,7 @@ import datadog.trace.api.civisibility.CIConstants;
 import datadog.trace.api.civisibility.domain.BuildModuleLayout;
 import datadog.trace.api.civisibility.domain.BuildSessionSettings;
 import datadog.trace.api.civisibility.domain.JavaAgent;
+import datadog.trace.api.civisibility.domain.SourceSet;
 import datadog.trace.api.civisibility.telemetry.CiVisibilityMetricCollector;
 import datadog.trace.api.civisibility.telemetry.TagValue;
 import datadog.trace.api.civisibility.telemetry.tag.EarlyFlakeDetectionAbortReason;
@@ -29,23 +30,32 @@ import datadog.trace.civisibility.ipc.RepoIndexResponse;
 import datadog.trace.civisibility.ipc.SignalResponse;
 import datadog.trace.civisibility.ipc.SignalServer;
 import datadog.trace.civisibility.ipc.SignalType;
+import datadog.trace.civisibility.source.ByteCodeAnalysisCache;
 import datadog.trace.civisibility.source.MethodLinesResolver;
 import datadog.trace.civisibility.source.SourcePathResolver;
 import datadog.trace.civisibility.source.index.RepoIndex;
 import datadog.trace.civisibility.source.index.RepoIndexProvider;
 import datadog.trace.civisibility.utils.SpanUtils;
+import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class BuildSystemSessionImpl<T extends CoverageCalculator> extends AbstractTestSession
     implements BuildSystemSession {
 
+  private static final Logger log = LoggerFactory.getLogger(BuildSystemSessionImpl.class);
+
   private final String startCommand;
   private final ModuleSignalRouter moduleSignalRouter;
   private final ExecutionSettingsFactory executionSettingsFactory;
@@ -55,6 +65,7 @@ public class BuildSystemSessionImpl<T extends CoverageCalculator> extends Abstra
   private final T coverageCalculator;
   private final BuildSessionSettings settings;
   private final Object tagPropagationLock = new Object();
+  private final Queue<Path> byteCodeAnalysisCaches = new ConcurrentLinkedQueue<>();
 
   public BuildSystemSessionImpl(
       String projectName,
@@ -179,6 +190,10 @@ public class BuildSystemSessionImpl<T extends CoverageCalculator> extends Abstra
       @Nullable Collection<Path> classpath,
       @Nullable JavaAgent jacocoAgent) {
     ExecutionSettings executionSettings = executionSettingsFactory.create(jvmInfo, moduleName);
+    Path byteCodeAnalysisCache =
+        config.isCiVisibilityBytecodeAnalysisCacheEnabled()
+            ? writeByteCodeAnalysisCache(moduleName, moduleLayout)
+            : null;
     return new BuildSystemModuleImpl(
         span.context(),
         span.getSpanId(),
@@ -189,6 +204,7 @@ public class BuildSystemSessionImpl<T extends CoverageCalculator> extends Abstra
         moduleLayout,
         classpath,
         jacocoAgent,
+        byteCodeAnalysisCache,
         config,
         metricCollector,
         testDecorator,
@@ -203,6 +219,35 @@ public class BuildSystemSessionImpl<T extends CoverageCalculator> extends Abstra
         this::onModuleFinish);
   }
 
+  /**
+   * Analyzes the compiled classes of the module once, so that the forked test JVMs can look the
+   * results up instead of analyzing the same classes again.
+   *
+   * @return the path of the cache file or {@code null} if it could not be written
+   */
+  @Nullable
+  private Path writeByteCodeAnalysisCache(String moduleName, BuildModuleLayout moduleLayout) {
+    Collection<File> classDirectories = new ArrayList<>();
+    for (SourceSet sourceSet : moduleLayout.getSourceSets()) {
+      classDirectories.addAll(sourceSet.getDestinations());
+    }
+    if (classDirectories.isEmpty()) {
+      return null;
+    }
+
+    try {
+      Path cache = Files.createTempFile("dd-ci-bytecode-analysis-", ".bin");
+      byteCodeAnalysisCaches.add(cache);
+      int classCount = ByteCodeAnalysisCache.write(cache, classDirectories);
+      log.debug("Analyzed {} class files of module {}", classCount, moduleName);
+      return cache;
+
+    } catch (Exception e) {
+      log.warn("Could not write byte code analysis cache for module {}", moduleName, e);
+      return null;
+    }
+  }
+
   private void onModuleFinish(AgentSpan moduleSpan) {
     // multiple modules can finish in parallel
     synchronized (tagPropagationLock) {
@@ -238,6 +283,15 @@ public class BuildSystemSessionImpl<T extends CoverageCalculator> extends Abstra
   public void end(@Nullable Long endTime) {
     signalServer.stop();
 
+    Path byteCodeAnalysisCache;
+    while ((byteCodeAnalysisCache = byteCodeAnalysisCaches.poll()) != null) {
+      try {
+        Files.deleteIfExists(byteCodeAnalysisCache);
+      } catch (Exception e) {
+        log.debug("Could not delete byte code analysis cache {}", byteCodeAnalysisCache, e);
+      }
+    }
+
     Long coveragePercentage = coverageCalculator.calculateCoveragePercentage();
     if (coveragePercentage != null) {
       setTag(Tags.TEST_CODE_COVERAGE_LINES_PERCENTAGE, coveragePercentage);
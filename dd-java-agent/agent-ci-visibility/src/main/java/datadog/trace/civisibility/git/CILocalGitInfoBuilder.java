@@ -34,8 +34,7 @@ public class CILocalGitInfoBuilder implements GitInfoBuilder {
   }
 
   private Path getGitPath(String repositoryPath) {
-    try {
-      GitClient gitClient = gitClientFactory.create(repositoryPath);
+    try (GitClient gitClient = gitClientFactory.create(repositoryPath)) {
       String gitFolder = gitClient.getGitFolder();
       if (Strings.isNotBlank(gitFolder)) {
         Path gitFolderPath = Paths.get(gitFolder);
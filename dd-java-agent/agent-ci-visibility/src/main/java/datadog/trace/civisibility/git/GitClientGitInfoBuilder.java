@@ -29,8 +29,7 @@ public class GitClientGitInfoBuilder implements GitInfoBuilder {
       return GitInfo.NOOP;
     }
 
-    GitClient gitClient = gitClientFactory.create(repositoryPath);
-    try {
+    try (GitClient gitClient = gitClientFactory.create(repositoryPath)) {
       String remoteName = config.getCiVisibilityGitRemoteName();
       String remoteUrl = gitClient.getRemoteUrl(remoteName);
       String branch = gitClient.getCurrentBranch();
@@ -0,0 +1,272 @@
+package datadog.trace.civisibility.git.pack;
+
+import datadog.trace.civisibility.git.GitObject;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+
+/**
+ * Reads complete Git objects from a v2 packfile, resolving deltified objects against their base.
+ *
+ * <p>Pack entries are either whole objects (commit, tree, blob, tag) or deltas (OFS_DELTA,
+ * REF_DELTA) that describe an object as a sequence of copy/insert instructions applied to another
+ * object:
+ * https://git-scm.com/docs/pack-format#_deltified_representation
+ *
+ * <p>Recently resolved objects are kept in a small cache keyed by pack offset, since consecutive
+ * commits and trees commonly share the same delta bases.
+ */
+public final class GitPackFile implements Closeable {
+
+  /** Looks up objects stored outside of this pack, used to resolve REF_DELTA bases. */
+  public interface ObjectLookup {
+    @Nullable
+    GitObject read(byte[] sha) throws IOException;
+  }
+
+  // https://git-scm.com/docs/pack-format#_object_types
+  private static final int OFS_DELTA = 6;
+  private static final int REF_DELTA = 7;
+
+  // Trees of very large repositories are still well below this
+  private static final int MAX_OBJECT_SIZE = 16 * 1024 * 1024;
+  private static final int MAX_HEADER_SIZE = 32;
+  private static final int MAX_CACHED_OBJECTS = 256;
+  private static final int WINDOW_SIZE = 64 * 1024;
+
+  private final GitPackIndex index;
+  private final FileChannel pack;
+  private final Inflater inflater = new Inflater();
+  private final byte[] window = new byte[WINDOW_SIZE];
+  private long windowStart;
+  private int windowLength;
+  private final Map<Long, GitObject> cache =
+      new LinkedHashMap<Long, GitObject>(MAX_CACHED_OBJECTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, GitObject> eldest) {
+          return size() > MAX_CACHED_OBJECTS;
+        }
+      };
+
+  private GitPackFile(final GitPackIndex index, final FileChannel pack) {
+    this.index = index;
+    this.pack = pack;
+  }
+
+  public static GitPackFile open(final File idxFile) throws IOException {
+    final GitPackIndex index = GitPackIndex.open(idxFile);
+    final File packFile = GitPackUtils.getPackFile(idxFile);
+    return new GitPackFile(index, FileChannel.open(packFile.toPath(), StandardOpenOption.READ));
+  }
+
+  public boolean contains(final byte[] sha) {
+    return index.findOffset(sha) != GitPackIndex.NOT_FOUND_OFFSET;
+  }
+
+  /**
+   * Reads the object with the given id.
+   *
+   * @param sha 20 bytes object id
+   * @param lookup used to resolve delta bases that are not stored in this pack
+   * @return the inflated object, or {@code null} if the pack does not contain it
+   */
+  @Nullable
+  public synchronized GitObject read(final byte[] sha, final ObjectLookup lookup)
+      throws IOException {
+    final long offset = index.findOffset(sha);
+    if (offset == GitPackIndex.NOT_FOUND_OFFSET) {
+      return null;
+    }
+    return readAt(offset, lookup);
+  }
+
+  private GitObject readAt(final long offset, final ObjectLookup lookup) throws IOException {
+    final GitObject cached = cache.get(offset);
+    if (cached != null) {
+      return cached;
+    }
+
+    int p = window(offset, MAX_HEADER_SIZE);
+    int b = window[p++] & 0xFF;
+    final int type = (b >> 4) & 0x07;
+    long size = b & 0x0F;
+    int shift = 4;
+    while ((b & 0x80) != 0) {
+      b = window[p++] & 0xFF;
+      size |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    }
+    if (size > MAX_OBJECT_SIZE) {
+      throw new IOException("Object at offset " + offset + " is too large: " + size);
+    }
+
+    final GitObject object;
+    if (type == OFS_DELTA) {
+      b = window[p++] & 0xFF;
+      long baseDistance = b & 0x7F;
+      while ((b & 0x80) != 0) {
+        b = window[p++] & 0xFF;
+        baseDistance = ((baseDistance + 1) << 7) | (b & 0x7F);
+      }
+      final long dataPosition = windowStart + p;
+      final GitObject base = readAt(offset - baseDistance, lookup);
+      final byte[] delta = inflate(dataPosition, (int) size);
+      object = new GitObject(base.getType(), 0, applyDelta(base.getContent(), delta));
+
+    } else if (type == REF_DELTA) {
+      final byte[] baseSha = Arrays.copyOfRange(window, p, p + 20);
+      final long dataPosition = windowStart + p + 20;
+      final long baseOffset = index.findOffset(baseSha);
+      final GitObject base =
+          baseOffset != GitPackIndex.NOT_FOUND_OFFSET
+              ? readAt(baseOffset, lookup)
+              : lookup.read(baseSha);
+      if (base == null) {
+        throw new IOException("Missing delta base for object at offset " + offset);
+      }
+      final byte[] delta = inflate(dataPosition, (int) size);
+      object = new GitObject(base.getType(), 0, applyDelta(base.getContent(), delta));
+
+    } else {
+      final byte[] content = inflate(windowStart + p, (int) size);
+      object = new GitObject((byte) type, content.length, content);
+    }
+
+    cache.put(offset, object);
+    return object;
+  }
+
+  private byte[] inflate(final long position, final int size) throws IOException {
+    final byte[] content = new byte[size];
+    if (size == 0) {
+      return content;
+    }
+    inflater.reset();
+    try {
+      long inputPosition = position;
+      int inflated = 0;
+      while (inflated < size) {
+        if (inflater.needsInput()) {
+          final int p = window(inputPosition, 1);
+          inflater.setInput(window, p, windowLength - p);
+          inputPosition += windowLength - p;
+        }
+        final int n = inflater.inflate(content, inflated, size - inflated);
+        if (n == 0 && (inflater.finished() || inflater.needsDictionary())) {
+          throw new IOException("Truncated object at offset " + position);
+        }
+        inflated += n;
+      }
+      return content;
+    } catch (final DataFormatException e) {
+      throw new IOException("Invalid compressed data at offset " + position, e);
+    }
+  }
+
+  /**
+   * Makes sure that the window contains the given range of the pack file, unless the file ends
+   * before, and returns the position of the range start in the window. Objects that are read
+   * together, like the commits of a walk, are usually stored next to each other, so most reads are
+   * served from the window without accessing the file.
+   */
+  private int window(final long position, final int length) throws IOException {
+    if (position < windowStart || position + length > windowStart + windowLength) {
+      final ByteBuffer buffer = ByteBuffer.wrap(window);
+      while (buffer.hasRemaining()) {
+        if (pack.read(buffer, position + buffer.position()) < 0) {
+          break;
+        }
+      }
+      windowStart = position;
+      windowLength = buffer.position();
+      if (windowLength == 0) {
+        throw new EOFException("Unexpected end of pack file at offset " + position);
+      }
+    }
+    return (int) (position - windowStart);
+  }
+
+  /** Applies the copy/insert instructions of a delta to its base object. */
+  static byte[] applyDelta(final byte[] base, final byte[] delta) throws IOException {
+    try {
+      int p = 0;
+      long baseSize = 0;
+      int shift = 0;
+      int b;
+      do {
+        b = delta[p++] & 0xFF;
+        baseSize |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      if (baseSize != base.length) {
+        throw new IOException("Delta base size mismatch");
+      }
+
+      long resultSize = 0;
+      shift = 0;
+      do {
+        b = delta[p++] & 0xFF;
+        resultSize |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      if (resultSize > MAX_OBJECT_SIZE) {
+        throw new IOException("Delta result is too large: " + resultSize);
+      }
+
+      final byte[] result = new byte[(int) resultSize];
+      int r = 0;
+      while (p < delta.length) {
+        final int cmd = delta[p++] & 0xFF;
+        if ((cmd & 0x80) != 0) {
+          // copy from base: the low bits tell which offset and size bytes are present
+          long copyOffset = 0;
+          int copySize = 0;
+          for (int i = 0; i < 4; i++) {
+            if ((cmd & (1 << i)) != 0) {
+              copyOffset |= (long) (delta[p++] & 0xFF) << (8 * i);
+            }
+          }
+          for (int i = 0; i < 3; i++) {
+            if ((cmd & (0x10 << i)) != 0) {
+              copySize |= (delta[p++] & 0xFF) << (8 * i);
+            }
+          }
+          if (copySize == 0) {
+            copySize = 0x10000;
+          }
+          System.arraycopy(base, (int) copyOffset, result, r, copySize);
+          r += copySize;
+        } else if (cmd != 0) {
+          // insert the next cmd bytes of the delta
+          System.arraycopy(delta, p, result, r, cmd);
+          p += cmd;
+          r += cmd;
+        } else {
+          throw new IOException("Invalid delta instruction");
+        }
+      }
+      if (r != result.length) {
+        throw new IOException("Delta result size mismatch");
+      }
+      return result;
+    } catch (final IndexOutOfBoundsException e) {
+      throw new IOException("Corrupted delta", e);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    inflater.end();
+    pack.close();
+  }
+}
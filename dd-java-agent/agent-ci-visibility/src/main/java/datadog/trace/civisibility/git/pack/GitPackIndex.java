@@ -0,0 +1,102 @@
+package datadog.trace.civisibility.git.pack;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * In-memory view of a v2 IDX file (see {@link V2PackGitInfoExtractor} for the layout).
+ *
+ * <p>Unlike {@link V2PackGitInfoExtractor}, which scans the SHA listing of a fanout bucket for a
+ * single lookup, the index is mapped once and objects are located with a binary search, so that
+ * walking thousands of commits and trees does not reopen and rescan the file for every object.
+ */
+public final class GitPackIndex {
+
+  public static final long NOT_FOUND_OFFSET = -1;
+
+  private static final int SHA_LENGTH = 20;
+  private static final int FANOUT_OFFSET = 8;
+  private static final int SHA_LISTING_OFFSET = FANOUT_OFFSET + 256 * 4;
+
+  private final MappedByteBuffer buffer;
+  private final int totalObjects;
+  private final int offsetsTable;
+  private final int largeOffsetsTable;
+
+  private GitPackIndex(final MappedByteBuffer buffer) {
+    this.buffer = buffer;
+    this.totalObjects = buffer.getInt(FANOUT_OFFSET + 255 * 4);
+    // the CRC table is skipped
+    this.offsetsTable = SHA_LISTING_OFFSET + totalObjects * (SHA_LENGTH + 4);
+    this.largeOffsetsTable = offsetsTable + totalObjects * 4;
+  }
+
+  public static GitPackIndex open(final File idxFile) throws IOException {
+    try (final FileChannel channel = FileChannel.open(idxFile.toPath(), StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size < SHA_LISTING_OFFSET || size > Integer.MAX_VALUE) {
+        throw new IOException("Invalid IDX file " + idxFile);
+      }
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      for (int i = 0; i < GitPackUtils.HEADER.length; i++) {
+        if (buffer.get(i) != GitPackUtils.HEADER[i]) {
+          throw new IOException("Unsupported IDX file version in " + idxFile);
+        }
+      }
+      if (buffer.getInt(4) != V2PackGitInfoExtractor.VERSION) {
+        throw new IOException("Unsupported IDX file version in " + idxFile);
+      }
+      return new GitPackIndex(buffer);
+    }
+  }
+
+  public int getTotalObjects() {
+    return totalObjects;
+  }
+
+  /**
+   * Returns the offset of the object in the pack file.
+   *
+   * @param sha 20 bytes object id
+   * @return offset in the pack file or {@link #NOT_FOUND_OFFSET} if the object is not in the pack
+   */
+  public long findOffset(final byte[] sha) {
+    final int bucket = sha[0] & 0xFF;
+    int low = bucket == 0 ? 0 : buffer.getInt(FANOUT_OFFSET + (bucket - 1) * 4);
+    int high = buffer.getInt(FANOUT_OFFSET + bucket * 4) - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int cmp = compare(SHA_LISTING_OFFSET + mid * SHA_LENGTH, sha);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return offset(mid);
+      }
+    }
+    return NOT_FOUND_OFFSET;
+  }
+
+  private int compare(final int position, final byte[] sha) {
+    for (int i = 0; i < SHA_LENGTH; i++) {
+      final int diff = (buffer.get(position + i) & 0xFF) - (sha[i] & 0xFF);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return 0;
+  }
+
+  private long offset(final int shaIndex) {
+    final int offset = buffer.getInt(offsetsTable + shaIndex * 4);
+    if ((offset & 0x80000000) == 0) {
+      return offset;
+    }
+    // offsets in packfiles larger than 2Gb are stored in the fifth layer
+    return buffer.getLong(largeOffsetsTable + (offset & 0x7FFFFFFF) * 8);
+  }
+}
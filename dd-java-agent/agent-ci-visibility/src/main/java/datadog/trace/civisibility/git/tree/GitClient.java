@@ -10,6 +10,7 @@ import datadog.trace.api.civisibility.telemetry.tag.ExitCode;
 import datadog.trace.civisibility.utils.ShellCommandExecutor;
 import datadog.trace.util.Strings;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -23,9 +24,20 @@ import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeoutException;
 import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-/** Client for fetching data and performing operations on a local Git repository. */
-public class GitClient {
+/**
+ * Client for fetching data and performing operations on a local Git repository.
+ *
+ * <p>Read-only queries are answered by reading the repository files directly whenever possible,
+ * since spawning a {@code git} process for every query is expensive in large repositories. The
+ * {@code git} executable is used for operations that modify the repository or create pack files,
+ * and as a fallback whenever the repository cannot be read directly.
+ */
+public class GitClient implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GitClient.class);
 
   public static final String HEAD = "HEAD";
 
@@ -36,6 +48,8 @@ public class GitClient {
   private final String latestCommitsSince;
   private final int latestCommitsLimit;
   private final ShellCommandExecutor commandExecutor;
+  private GitRepository repository;
+  private boolean repositoryUnreadable;
 
   /**
    * Creates a new git client
@@ -73,6 +87,7 @@ public class GitClient {
   public boolean isShallow() throws IOException, TimeoutException, InterruptedException {
     return executeCommand(
         Command.CHECK_SHALLOW,
+        GitRepository::isShallow,
         () -> {
           String output =
               commandExecutor
@@ -157,6 +172,8 @@ public class GitClient {
                 remote);
           }
 
+          // shallow commits and packs have changed
+          close();
           return (Void) null;
         });
   }
@@ -173,6 +190,7 @@ public class GitClient {
   public @NonNull String getGitFolder() throws IOException, TimeoutException, InterruptedException {
     return executeCommand(
         Command.OTHER,
+        GitRepository::getGitFolder,
         () ->
             commandExecutor
                 .executeCommand(IOUtils::readFully, "git", "rev-parse", "--absolute-git-dir")
@@ -193,6 +211,7 @@ public class GitClient {
       throws IOException, TimeoutException, InterruptedException {
     return executeCommand(
         Command.GET_REPOSITORY,
+        repository -> repository.getRemoteUrl(remoteName),
         () ->
             commandExecutor
                 .executeCommand(
@@ -213,6 +232,7 @@ public class GitClient {
       throws IOException, TimeoutException, InterruptedException {
     return executeCommand(
         Command.GET_BRANCH,
+        GitRepository::getCurrentBranch,
         () ->
             commandExecutor
                 .executeCommand(IOUtils::readFully, "git", "branch", "--show-current")
@@ -233,6 +253,10 @@ public class GitClient {
       throws IOException, TimeoutException, InterruptedException {
     return executeCommand(
         Command.OTHER,
+        repository -> {
+          GitRepository.Commit c = repository.getCommit(commit);
+          return c != null ? repository.getTags(c.sha) : null;
+        },
         () -> {
           try {
             return commandExecutor.executeCommand(
@@ -259,6 +283,7 @@ public class GitClient {
       throws IOException, TimeoutException, InterruptedException {
     return executeCommand(
         Command.OTHER,
+        repository -> repository.resolve(reference),
         () ->
             commandExecutor
                 .executeCommand(IOUtils::readFully, "git", "rev-parse", reference)
@@ -277,12 +302,7 @@ public class GitClient {
    */
   public @NonNull String getFullMessage(String commit)
       throws IOException, TimeoutException, InterruptedException {
-    return executeCommand(
-        Command.OTHER,
-        () ->
-            commandExecutor
-                .executeCommand(IOUtils::readFully, "git", "log", "-n", "1", "--format=%B", commit)
-                .trim());
+    return getCommitData(commit, c -> c.fullMessage.trim(), "--format=%B");
   }
 
   /**
@@ -297,12 +317,7 @@ public class GitClient {
    */
   public @NonNull String getAuthorName(String commit)
       throws IOException, TimeoutException, InterruptedException {
-    return executeCommand(
-        Command.OTHER,
-        () ->
-            commandExecutor
-                .executeCommand(IOUtils::readFully, "git", "log", "-n", "1", "--format=%an", commit)
-                .trim());
+    return getCommitData(commit, c -> c.author.name, "--format=%an");
   }
 
   /**
@@ -317,12 +332,7 @@ public class GitClient {
    */
   public @NonNull String getAuthorEmail(String commit)
       throws IOException, TimeoutException, InterruptedException {
-    return executeCommand(
-        Command.OTHER,
-        () ->
-            commandExecutor
-                .executeCommand(IOUtils::readFully, "git", "log", "-n", "1", "--format=%ae", commit)
-                .trim());
+    return getCommitData(commit, c -> c.author.email, "--format=%ae");
   }
 
   /**
@@ -337,12 +347,7 @@ public class GitClient {
    */
   public @NonNull String getAuthorDate(String commit)
       throws IOException, TimeoutException, InterruptedException {
-    return executeCommand(
-        Command.OTHER,
-        () ->
-            commandExecutor
-                .executeCommand(IOUtils::readFully, "git", "log", "-n", "1", "--format=%aI", commit)
-                .trim());
+    return getCommitData(commit, c -> c.author.getIso8601Date(), "--format=%aI");
   }
 
   /**
@@ -357,12 +362,7 @@ public class GitClient {
    */
   public @NonNull String getCommitterName(String commit)
       throws IOException, TimeoutException, InterruptedException {
-    return executeCommand(
-        Command.OTHER,
-        () ->
-            commandExecutor
-                .executeCommand(IOUtils::readFully, "git", "log", "-n", "1", "--format=%cn", commit)
-                .trim());
+    return getCommitData(commit, c -> c.committer.name, "--format=%cn");
   }
 
   /**
@@ -377,12 +377,7 @@ public class GitClient {
    */
   public @NonNull String getCommitterEmail(String commit)
       throws IOException, TimeoutException, InterruptedException {
-    return executeCommand(
-        Command.OTHER,
-        () ->
-            commandExecutor
-                .executeCommand(IOUtils::readFully, "git", "log", "-n", "1", "--format=%ce", commit)
-                .trim());
+    return getCommitData(commit, c -> c.committer.email, "--format=%ce");
   }
 
   /**
@@ -397,12 +392,7 @@ public class GitClient {
    */
   public @NonNull String getCommitterDate(String commit)
       throws IOException, TimeoutException, InterruptedException {
-    return executeCommand(
-        Command.OTHER,
-        () ->
-            commandExecutor
-                .executeCommand(IOUtils::readFully, "git", "log", "-n", "1", "--format=%cI", commit)
-                .trim());
+    return getCommitData(commit, c -> c.committer.getIso8601Date(), "--format=%cI");
   }
 
   /**
@@ -417,8 +407,12 @@ public class GitClient {
    */
   public List<String> getLatestCommits()
       throws IOException, TimeoutException, InterruptedException {
+    Long since = GitRepository.parseRelativeDate(latestCommitsSince, System.currentTimeMillis());
+    RepositoryQuery<List<String>> query =
+        since != null ? repository -> repository.getLatestCommits(since, latestCommitsLimit) : null;
     return executeCommand(
         Command.GET_LOCAL_COMMITS,
+        query,
         () ->
             commandExecutor.executeCommand(
                 IOUtils::readLines,
@@ -445,8 +439,14 @@ public class GitClient {
   public List<String> getObjects(
       Collection<String> commitsToSkip, Collection<String> commitsToInclude)
       throws IOException, TimeoutException, InterruptedException {
+    Long since = GitRepository.parseRelativeDate(latestCommitsSince, System.currentTimeMillis());
+    RepositoryQuery<List<String>> query =
+        since != null
+            ? repository -> repository.getObjects(commitsToSkip, commitsToInclude, since)
+            : null;
     return executeCommand(
         Command.GET_OBJECTS,
+        query,
         () -> {
           String[] command = new String[6 + commitsToSkip.size() + commitsToInclude.size()];
           command[0] = "git";
@@ -520,6 +520,62 @@ public class GitClient {
     }
   }
 
+  private String getCommitData(String commit, CommitField field, String format)
+      throws IOException, TimeoutException, InterruptedException {
+    return executeCommand(
+        Command.OTHER,
+        repository -> {
+          GitRepository.Commit c = repository.getCommit(commit);
+          return c != null ? field.get(c) : null;
+        },
+        () ->
+            commandExecutor
+                .executeCommand(IOUtils::readFully, "git", "log", "-n", "1", format, commit)
+                .trim());
+  }
+
+  /**
+   * Runs a query against the repository files.
+   *
+   * @return the query result, or {@code null} if the query cannot be answered without {@code git}
+   */
+  @Nullable
+  private synchronized <T> T queryRepository(RepositoryQuery<T> query) {
+    if (repositoryUnreadable) {
+      return null;
+    }
+    try {
+      if (repository == null) {
+        repository = GitRepository.open(Paths.get(repoRoot));
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Could not open repository {}, falling back to git executable", repoRoot, e);
+      repositoryUnreadable = true;
+      return null;
+    }
+    try {
+      return query.query(repository);
+    } catch (Exception e) {
+      LOGGER.debug("Could not read repository {}, falling back to git executable", repoRoot, e);
+      return null;
+    }
+  }
+
+  /**
+   * Releases the files held open to read the repository. The client can still be used afterwards.
+   */
+  @Override
+  public synchronized void close() {
+    if (repository != null) {
+      try {
+        repository.close();
+      } catch (IOException e) {
+        LOGGER.debug("Error while closing repository {}", repoRoot, e);
+      }
+      repository = null;
+    }
+  }
+
   @Override
   public String toString() {
     return "GitClient{" + repoRoot + "}";
@@ -529,6 +585,29 @@ public class GitClient {
     T execute() throws IOException, TimeoutException, InterruptedException;
   }
 
+  private interface RepositoryQuery<T> {
+    @Nullable
+    T query(GitRepository repository) throws IOException;
+  }
+
+  private interface CommitField {
+    String get(GitRepository.Commit commit);
+  }
+
+  /**
+   * Answers the query from the repository files when possible. Only runs {@code git}, and records
+   * it in the command metrics, when the repository files cannot answer it.
+   */
+  private <T> T executeCommand(
+      Command commandType, @Nullable RepositoryQuery<T> query, GitCommand<T> command)
+      throws IOException, TimeoutException, InterruptedException {
+    T result = query != null ? queryRepository(query) : null;
+    if (result != null) {
+      return result;
+    }
+    return executeCommand(commandType, command);
+  }
+
   private <T> T executeCommand(Command commandType, GitCommand<T> command)
       throws IOException, TimeoutException, InterruptedException {
     long startTime = System.currentTimeMillis();
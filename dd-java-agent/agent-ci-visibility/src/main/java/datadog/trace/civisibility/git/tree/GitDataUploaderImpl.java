@@ -167,6 +167,7 @@ public class GitDataUploaderImpl implements GitDataUploader {
       LOGGER.error("Failed to upload git tree data for remote {}", remoteName, e);
       callback.completeExceptionally(e);
     } finally {
+      gitClient.close();
       removeShutdownHook();
     }
   }
@@ -0,0 +1,164 @@
+package datadog.trace.civisibility.git.tree;
+
+import datadog.trace.civisibility.git.GitObject;
+import datadog.trace.civisibility.git.pack.GitPackFile;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.InflaterInputStream;
+import javax.annotation.Nullable;
+
+/**
+ * Reads objects from the object directories of a repository: loose objects, packfiles and the
+ * object directories listed in {@code objects/info/alternates}.
+ */
+final class GitObjectDatabase implements GitPackFile.ObjectLookup, Closeable {
+
+  private final List<Path> objectDirectories;
+  private final Set<String> openedPacks = new HashSet<>();
+  private final List<GitPackFile> packs = new ArrayList<>();
+
+  GitObjectDatabase(Path objectDirectory) throws IOException {
+    objectDirectories = new ArrayList<>();
+    objectDirectories.add(objectDirectory);
+    Path alternates = objectDirectory.resolve("info").resolve("alternates");
+    if (Files.isRegularFile(alternates)) {
+      for (String line : Files.readAllLines(alternates, StandardCharsets.UTF_8)) {
+        if (!line.isEmpty() && !line.startsWith("#")) {
+          objectDirectories.add(objectDirectory.resolve(line.trim()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Opens packs that were not known yet. Packs are opened lazily when an object is not found, which
+   * also picks up the ones created by a fetch after the database was created.
+   *
+   * @return {@code true} if new packs were found
+   */
+  private boolean scanPacks() throws IOException {
+    boolean found = false;
+    for (Path objectDirectory : objectDirectories) {
+      File[] idxFiles =
+          objectDirectory.resolve("pack").toFile().listFiles((dir, name) -> name.endsWith(".idx"));
+      if (idxFiles == null) {
+        continue;
+      }
+      for (File idxFile : idxFiles) {
+        if (openedPacks.add(idxFile.getAbsolutePath())) {
+          packs.add(GitPackFile.open(idxFile));
+          found = true;
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Reads the object with the given ID.
+   *
+   * @param sha 20 bytes object ID
+   * @return the object or {@code null} if it does not exist in the repository
+   */
+  @Nullable
+  @Override
+  public GitObject read(byte[] sha) throws IOException {
+    GitObject object = readFromPacks(sha);
+    if (object != null) {
+      return object;
+    }
+    object = readLoose(sha);
+    if (object != null) {
+      return object;
+    }
+    return scanPacks() ? readFromPacks(sha) : null;
+  }
+
+  private GitObject readFromPacks(byte[] sha) throws IOException {
+    for (GitPackFile pack : packs) {
+      GitObject object = pack.read(sha, this);
+      if (object != null) {
+        return object;
+      }
+    }
+    return null;
+  }
+
+  private GitObject readLoose(byte[] sha) throws IOException {
+    String hex = GitRepository.toHex(sha);
+    for (Path objectDirectory : objectDirectories) {
+      Path object = objectDirectory.resolve(hex.substring(0, 2)).resolve(hex.substring(2));
+      byte[] raw;
+      try (InputStream input = new InflaterInputStream(Files.newInputStream(object))) {
+        raw = readFully(input);
+      } catch (NoSuchFileException e) {
+        continue;
+      }
+      // loose objects are prefixed with "<type> <size>\0"
+      int space = indexOf(raw, (byte) ' ', 0);
+      int separator = indexOf(raw, (byte) 0, space + 1);
+      if (space < 0 || separator < 0) {
+        throw new IOException("Invalid loose object " + hex);
+      }
+      String type = new String(raw, 0, space, StandardCharsets.US_ASCII);
+      byte[] content = Arrays.copyOfRange(raw, separator + 1, raw.length);
+      return new GitObject(typeToByte(type), content.length, content);
+    }
+    return null;
+  }
+
+  private static byte[] readFully(InputStream input) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int n;
+    while ((n = input.read(buffer)) != -1) {
+      output.write(buffer, 0, n);
+    }
+    return output.toByteArray();
+  }
+
+  private static int indexOf(byte[] bytes, byte b, int from) {
+    for (int i = from; i < bytes.length; i++) {
+      if (bytes[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static byte typeToByte(String type) {
+    switch (type) {
+      case "commit":
+        return GitObject.COMMIT_TYPE;
+      case "tree":
+        return GitObject.TREE_TYPE;
+      case "blob":
+        return GitObject.BLOB_TYPE;
+      case "tag":
+        return GitObject.TAG_TYPE;
+      default:
+        return GitObject.UNKNOWN_TYPE;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (GitPackFile pack : packs) {
+      pack.close();
+    }
+    packs.clear();
+    openedPacks.clear();
+  }
+}
@@ -0,0 +1,790 @@
+package datadog.trace.civisibility.git.tree;
+
+import datadog.trace.civisibility.git.GitConfig;
+import datadog.trace.civisibility.git.GitObject;
+import datadog.trace.civisibility.git.pack.GitPackUtils;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * Read-only access to a local Git repository that does not require spawning {@code git}
+ * processes: resolves references, parses commits and walks the commit graph and trees directly
+ * from the object database.
+ *
+ * <p>Only the common cases are supported. Whenever something cannot be answered with certainty
+ * (unsupported reference syntax, ambiguous tags, unknown repository formats) methods return {@code
+ * null} and callers are expected to fall back to the {@code git} executable.
+ */
+final class GitRepository implements Closeable {
+
+  private static final String REF_PREFIX = "ref: ";
+  private static final String HEADS_PREFIX = "refs/heads/";
+  private static final String TAGS_PREFIX = "refs/tags/";
+  private static final String TREE_MODE = "40000";
+
+  private static final int MAX_CACHED_COMMITS = 10_000;
+  private static final int MAX_SYMREF_DEPTH = 5;
+
+  private static final DateTimeFormatter STRICT_ISO_8601 =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssxxx");
+
+  private final Path gitDir;
+  private final Path commonDir;
+  private final GitObjectDatabase objects;
+  private final Set<String> shallowCommits;
+  private final Map<String, Commit> commits = new HashMap<>();
+  private Map<String, PackedRef> packedRefs;
+  private boolean packedRefsFullyPeeled;
+
+  private GitRepository(Path gitDir, Path commonDir, GitObjectDatabase objects) throws IOException {
+    this.gitDir = gitDir;
+    this.commonDir = commonDir;
+    this.objects = objects;
+    this.shallowCommits = readShallowCommits(commonDir.resolve("shallow"));
+  }
+
+  static GitRepository open(Path repoRoot) throws IOException {
+    Path dotGit = repoRoot.resolve(".git");
+    Path gitDir;
+    if (Files.isDirectory(dotGit)) {
+      gitDir = dotGit;
+    } else if (Files.isRegularFile(dotGit)) {
+      // worktrees and submodules use a file pointing to the actual git directory
+      String content = readFirstLine(dotGit);
+      if (content == null || !content.startsWith("gitdir: ")) {
+        throw new IOException("Invalid .git file in " + repoRoot);
+      }
+      gitDir = repoRoot.resolve(content.substring("gitdir: ".length())).normalize();
+    } else {
+      throw new IOException("Not a git repository: " + repoRoot);
+    }
+
+    Path commonDir = gitDir;
+    String commonDirPath = readFirstLine(gitDir.resolve("commondir"));
+    if (commonDirPath != null) {
+      commonDir = gitDir.resolve(commonDirPath).normalize();
+    }
+
+    GitConfig config = new GitConfig(commonDir.resolve("config").toString());
+    String objectFormat = config.getString("extensions", "objectformat");
+    if (objectFormat != null && !"sha1".equalsIgnoreCase(objectFormat)) {
+      throw new IOException("Unsupported object format " + objectFormat);
+    }
+
+    GitObjectDatabase objects = new GitObjectDatabase(commonDir.resolve("objects"));
+    return new GitRepository(gitDir, commonDir, objects);
+  }
+
+  String getGitFolder() throws IOException {
+    return gitDir.toRealPath().toString();
+  }
+
+  boolean isShallow() {
+    return !shallowCommits.isEmpty();
+  }
+
+  @Nullable
+  String getRemoteUrl(String remoteName) {
+    GitConfig config = new GitConfig(commonDir.resolve("config").toString());
+    return config.getString("remote \"" + remoteName + "\"", "url");
+  }
+
+  /** Returns the checked-out branch, or an empty string if HEAD is detached. */
+  String getCurrentBranch() throws IOException {
+    String head = readFirstLine(gitDir.resolve("HEAD"));
+    if (head != null && head.startsWith(REF_PREFIX + HEADS_PREFIX)) {
+      return head.substring(REF_PREFIX.length() + HEADS_PREFIX.length());
+    }
+    return "";
+  }
+
+  /**
+   * Resolves a reference to the ID of the object it points to, following the same lookup rules as
+   * {@code git rev-parse}.
+   *
+   * @return the object ID, or {@code null} if the reference cannot be resolved without {@code git}
+   */
+  @Nullable
+  String resolve(String reference) throws IOException {
+    if (isObjectId(reference)) {
+      return reference.toLowerCase(Locale.ROOT);
+    }
+    if (!isPlainRefName(reference)) {
+      return null;
+    }
+    String[] candidates = {
+      reference,
+      "refs/" + reference,
+      TAGS_PREFIX + reference,
+      HEADS_PREFIX + reference,
+      "refs/remotes/" + reference,
+      "refs/remotes/" + reference + "/HEAD"
+    };
+    for (String candidate : candidates) {
+      String sha = readRef(candidate, 0);
+      if (sha != null) {
+        return sha;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the names of the tags pointing to the given commit.
+   *
+   * @return the matching tag, an empty list if there is none, or {@code null} if several tags match
+   *     and choosing one requires {@code git describe}
+   */
+  @Nullable
+  List<String> getTags(String commitSha) throws IOException {
+    Map<String, String> tags = new HashMap<>();
+    for (Map.Entry<String, PackedRef> e : getPackedRefs().entrySet()) {
+      if (e.getKey().startsWith(TAGS_PREFIX)) {
+        tags.put(e.getKey(), e.getValue().sha);
+      }
+    }
+    Path looseTags = commonDir.resolve(TAGS_PREFIX);
+    if (Files.isDirectory(looseTags)) {
+      try (Stream<Path> files = Files.walk(looseTags)) {
+        for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+          String sha = readFirstLine(file);
+          if (sha != null && isObjectId(sha)) {
+            tags.put(TAGS_PREFIX + looseTags.relativize(file).toString().replace('\\', '/'), sha);
+          }
+        }
+      }
+    }
+
+    List<String> matching = new ArrayList<>(1);
+    for (Map.Entry<String, String> tag : tags.entrySet()) {
+      String sha = tag.getValue();
+      if (commitSha.equals(sha) || commitSha.equals(peel(tag.getKey(), sha))) {
+        matching.add(tag.getKey().substring(TAGS_PREFIX.length()));
+      }
+    }
+    return matching.size() <= 1 ? matching : null;
+  }
+
+  private String peel(String refName, String sha) throws IOException {
+    PackedRef packed = getPackedRefs().get(refName);
+    if (packed != null && packed.sha.equals(sha)) {
+      if (packed.peeled != null) {
+        return packed.peeled;
+      } else if (packedRefsFullyPeeled) {
+        // every annotated tag has a peeled line, so this one is a lightweight tag
+        return sha;
+      }
+    }
+    GitObject object = objects.read(GitPackUtils.hexToByteArray(sha));
+    while (object != null && object.getType() == GitObject.TAG_TYPE) {
+      sha = parseTagTarget(object.getContent());
+      object = objects.read(GitPackUtils.hexToByteArray(sha));
+    }
+    return sha;
+  }
+
+  /**
+   * Returns the commit that the reference points to, peeling annotated tags.
+   *
+   * @return the commit or {@code null} if the reference cannot be resolved without {@code git}
+   */
+  @Nullable
+  Commit getCommit(String reference) throws IOException {
+    String sha = resolve(reference);
+    return sha != null ? readCommit(sha) : null;
+  }
+
+  /**
+   * Returns the IDs of the commits reachable from HEAD, newest first, the same way {@code git log}
+   * lists them.
+   *
+   * @param since commits with an older commit date are not listed, and their parents not visited
+   * @param limit maximum number of commits to return
+   */
+  List<String> getLatestCommits(long since, int limit) throws IOException {
+    Commit head = getCommit("HEAD");
+    if (head == null) {
+      throw new IOException("Could not resolve HEAD");
+    }
+    List<String> result = new ArrayList<>();
+    CommitQueue queue = new CommitQueue();
+    Set<String> visited = new HashSet<>();
+    visited.add(head.sha);
+    queue.add(head);
+    while (!queue.isEmpty() && result.size() < limit) {
+      Commit commit = queue.poll();
+      if (commit.commitTime < since) {
+        continue;
+      }
+      result.add(commit.sha);
+      for (String parent : getParents(commit)) {
+        if (visited.add(parent)) {
+          queue.add(readCommit(parent));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the IDs of the commits and trees that are reachable from {@code commitsToInclude} but
+   * not from {@code commitsToSkip}, the same way {@code git rev-list --objects --filter=blob:none}
+   * lists them: commits newest first, followed by the trees of each commit in pre-order.
+   */
+  List<String> getObjects(
+      Collection<String> commitsToSkip, Collection<String> commitsToInclude, long since)
+      throws IOException {
+    // commits are walked newest first, propagating the "uninteresting" flag from the skipped
+    // commits to their ancestors, until only uninteresting commits are left to visit
+    boolean limited = !commitsToSkip.isEmpty();
+    Set<String> uninteresting = new HashSet<>();
+    // the commits visited by this walk, independently of what the commit cache still holds
+    Map<String, Commit> visited = new HashMap<>();
+    CommitQueue queue = new CommitQueue();
+    for (String sha : commitsToSkip) {
+      Commit commit = readCommit(sha);
+      uninteresting.add(commit.sha);
+      if (visited.putIfAbsent(commit.sha, commit) == null) {
+        queue.add(commit);
+      }
+    }
+    for (String sha : commitsToInclude) {
+      Commit commit = readCommit(sha);
+      if (visited.putIfAbsent(commit.sha, commit) == null) {
+        queue.add(commit);
+      }
+    }
+
+    List<Commit> interesting = new ArrayList<>();
+    while (!queue.isEmpty() && !queue.containsOnly(uninteresting)) {
+      Commit commit = queue.poll();
+      if (commit.commitTime < since) {
+        if (!limited) {
+          continue;
+        }
+        markUninteresting(commit, uninteresting, visited);
+      }
+      boolean isUninteresting = uninteresting.contains(commit.sha);
+      for (String parentSha : getParents(commit)) {
+        if (isUninteresting) {
+          markUninteresting(parentSha, uninteresting, visited);
+        }
+        if (!visited.containsKey(parentSha)) {
+          Commit parent = readCommit(parentSha);
+          visited.put(parentSha, parent);
+          queue.add(parent);
+        }
+      }
+      if (!isUninteresting) {
+        interesting.add(commit);
+      }
+    }
+
+    List<String> result = new ArrayList<>();
+    Set<String> seenTrees = new HashSet<>();
+    for (Commit commit : interesting) {
+      if (uninteresting.contains(commit.sha)) {
+        // found to be reachable from a skipped commit after it was visited
+        continue;
+      }
+      result.add(commit.sha);
+      for (String parentSha : getParents(commit)) {
+        if (uninteresting.contains(parentSha)) {
+          // the backend already has the trees of the boundary commits
+          markTrees(readCommit(parentSha).tree, seenTrees);
+        }
+      }
+    }
+    for (Commit commit : interesting) {
+      if (!uninteresting.contains(commit.sha)) {
+        listTrees(commit.tree, seenTrees, result);
+      }
+    }
+    return result;
+  }
+
+  /** Marks a commit and its already visited ancestors as uninteresting. */
+  private void markUninteresting(
+      Commit commit, Set<String> uninteresting, Map<String, Commit> visited) {
+    uninteresting.add(commit.sha);
+    for (String parentSha : getParents(commit)) {
+      markUninteresting(parentSha, uninteresting, visited);
+    }
+  }
+
+  private void markUninteresting(
+      String sha, Set<String> uninteresting, Map<String, Commit> visited) {
+    Deque<String> pending = new ArrayDeque<>();
+    pending.add(sha);
+    while (!pending.isEmpty()) {
+      String current = pending.poll();
+      if (!uninteresting.add(current)) {
+        continue;
+      }
+      Commit commit = visited.get(current);
+      if (commit != null) {
+        pending.addAll(getParents(commit));
+      }
+    }
+  }
+
+  private void markTrees(String treeSha, Set<String> seenTrees) throws IOException {
+    if (!seenTrees.add(treeSha)) {
+      return;
+    }
+    for (String subtree : readSubtrees(treeSha)) {
+      markTrees(subtree, seenTrees);
+    }
+  }
+
+  private void listTrees(String treeSha, Set<String> seenTrees, List<String> result)
+      throws IOException {
+    if (!seenTrees.add(treeSha)) {
+      return;
+    }
+    result.add(treeSha);
+    for (String subtree : readSubtrees(treeSha)) {
+      listTrees(subtree, seenTrees, result);
+    }
+  }
+
+  /** Returns the IDs of the trees directly contained in a tree, skipping blobs and submodules. */
+  private List<String> readSubtrees(String treeSha) throws IOException {
+    GitObject tree = objects.read(GitPackUtils.hexToByteArray(treeSha));
+    if (tree == null || tree.getType() != GitObject.TREE_TYPE) {
+      throw new IOException("Could not read tree " + treeSha);
+    }
+    // entries are "<mode> <name>\0<20 bytes ID>"
+    byte[] content = tree.getContent();
+    List<String> subtrees = new ArrayList<>();
+    int p = 0;
+    while (p < content.length) {
+      int space = p;
+      while (content[space] != ' ') {
+        space++;
+      }
+      boolean isTree = space - p == TREE_MODE.length() && startsWith(content, p, TREE_MODE);
+      int separator = space;
+      while (content[separator] != 0) {
+        separator++;
+      }
+      if (isTree) {
+        subtrees.add(toHex(content, separator + 1));
+      }
+      p = separator + 21;
+    }
+    return subtrees;
+  }
+
+  private Collection<String> getParents(Commit commit) {
+    // shallow commits are grafted and treated as having no parents
+    return shallowCommits.contains(commit.sha) ? Collections.emptyList() : commit.parents;
+  }
+
+  private Commit readCommit(String sha) throws IOException {
+    Commit commit = commits.get(sha);
+    if (commit != null) {
+      return commit;
+    }
+    String objectSha = sha;
+    GitObject object = objects.read(GitPackUtils.hexToByteArray(objectSha));
+    while (object != null && object.getType() == GitObject.TAG_TYPE) {
+      objectSha = parseTagTarget(object.getContent());
+      object = objects.read(GitPackUtils.hexToByteArray(objectSha));
+    }
+    if (object == null || object.getType() != GitObject.COMMIT_TYPE) {
+      throw new IOException("Could not read commit " + sha);
+    }
+    commit = Commit.parse(objectSha, object.getContent());
+    if (commits.size() >= MAX_CACHED_COMMITS) {
+      commits.clear();
+    }
+    commits.put(sha, commit);
+    return commit;
+  }
+
+  private static String parseTagTarget(byte[] content) throws IOException {
+    // "object <sha>\ntype <type>\n..."
+    if (content.length < 47 || !startsWith(content, 0, "object ")) {
+      throw new IOException("Invalid tag object");
+    }
+    return new String(content, 7, 40, StandardCharsets.US_ASCII);
+  }
+
+  @Nullable
+  private String readRef(String name, int depth) throws IOException {
+    if (depth > MAX_SYMREF_DEPTH) {
+      return null;
+    }
+    // per-worktree refs such as HEAD live in the git dir, shared refs in the common dir
+    String content = readFirstLine(gitDir.resolve(name));
+    if (content == null && !commonDir.equals(gitDir)) {
+      content = readFirstLine(commonDir.resolve(name));
+    }
+    if (content != null) {
+      if (content.startsWith(REF_PREFIX)) {
+        return readRef(content.substring(REF_PREFIX.length()).trim(), depth + 1);
+      }
+      return isObjectId(content) ? content : null;
+    }
+    PackedRef packed = getPackedRefs().get(name);
+    return packed != null ? packed.sha : null;
+  }
+
+  private Map<String, PackedRef> getPackedRefs() throws IOException {
+    if (packedRefs == null) {
+      Map<String, PackedRef> refs = new HashMap<>();
+      Path file = commonDir.resolve("packed-refs");
+      if (Files.isRegularFile(file)) {
+        PackedRef last = null;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+          if (line.startsWith("#")) {
+            packedRefsFullyPeeled |= line.contains(" fully-peeled");
+            continue;
+          }
+          if (line.length() < 41) {
+            continue;
+          }
+          if (line.charAt(0) == '^') {
+            // peeled value of the preceding annotated tag
+            if (last != null) {
+              last.peeled = line.substring(1, 41);
+            }
+          } else {
+            last = new PackedRef(line.substring(0, 40));
+            refs.put(line.substring(41).trim(), last);
+          }
+        }
+      }
+      packedRefs = refs;
+    }
+    return packedRefs;
+  }
+
+  private static Set<String> readShallowCommits(Path file) throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return Collections.emptySet();
+    }
+    Set<String> shallow = new HashSet<>();
+    for (String line : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+      if (isObjectId(line.trim())) {
+        shallow.add(line.trim());
+      }
+    }
+    return shallow;
+  }
+
+  @Nullable
+  private static String readFirstLine(Path file) throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    byte[] bytes = Files.readAllBytes(file);
+    int end = 0;
+    while (end < bytes.length && bytes[end] != '\n') {
+      end++;
+    }
+    return new String(bytes, 0, end, StandardCharsets.UTF_8).trim();
+  }
+
+  private static boolean isObjectId(String s) {
+    return s.length() == 40 && isHex(s);
+  }
+
+  private static boolean isHex(String s) {
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Revision syntax (abbreviated IDs, ancestry, reflog, upstream, etc.) is left to git. */
+  private static boolean isPlainRefName(String s) {
+    if (s.isEmpty() || s.startsWith("/") || s.startsWith(".") || s.contains("..")) {
+      return false;
+    }
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c <= ' ' || c == '~' || c == '^' || c == ':' || c == '@' || c == '\\' || c == '*') {
+        return false;
+      }
+      if (c == '?' || c == '[' || c == '{' || c == '}') {
+        return false;
+      }
+    }
+    // short hex strings are likely abbreviated IDs
+    return s.length() < 4 || !isHex(s);
+  }
+
+  private static boolean startsWith(byte[] bytes, int offset, String prefix) {
+    if (offset + prefix.length() > bytes.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (bytes[offset + i] != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  static String toHex(byte[] sha) {
+    return toHex(sha, 0);
+  }
+
+  private static String toHex(byte[] bytes, int offset) {
+    char[] chars = new char[40];
+    for (int i = 0; i < 20; i++) {
+      int b = bytes[offset + i] & 0xFF;
+      chars[2 * i] = HEX[b >>> 4];
+      chars[2 * i + 1] = HEX[b & 0x0F];
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Parses relative dates such as {@code "1 month ago"} or {@code "2 years ago"}.
+   *
+   * @return epoch seconds, or {@code null} if the format is not supported
+   */
+  @Nullable
+  static Long parseRelativeDate(String date, long nowMillis) {
+    String s = date.trim();
+    if (s.length() > 1 && (s.charAt(0) == '\'' || s.charAt(0) == '"')) {
+      s = s.substring(1, s.length() - 1).trim();
+    }
+    int firstSpace = s.indexOf(' ');
+    int lastSpace = s.lastIndexOf(' ');
+    if (firstSpace <= 0 || lastSpace == firstSpace || !s.endsWith(" ago")) {
+      return null;
+    }
+    long amount;
+    try {
+      amount = Long.parseLong(s.substring(0, firstSpace));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    String unit = s.substring(firstSpace + 1, lastSpace).trim();
+    if (unit.endsWith("s")) {
+      unit = unit.substring(0, unit.length() - 1);
+    }
+    ChronoUnit chronoUnit;
+    switch (unit) {
+      case "second":
+        chronoUnit = ChronoUnit.SECONDS;
+        break;
+      case "minute":
+        chronoUnit = ChronoUnit.MINUTES;
+        break;
+      case "hour":
+        chronoUnit = ChronoUnit.HOURS;
+        break;
+      case "day":
+        chronoUnit = ChronoUnit.DAYS;
+        break;
+      case "week":
+        chronoUnit = ChronoUnit.WEEKS;
+        break;
+      case "month":
+        chronoUnit = ChronoUnit.MONTHS;
+        break;
+      case "year":
+        chronoUnit = ChronoUnit.YEARS;
+        break;
+      default:
+        return null;
+    }
+    ZonedDateTime now = ZonedDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), ZoneOffset.UTC);
+    return now.minus(amount, chronoUnit).toEpochSecond();
+  }
+
+  @Override
+  public void close() throws IOException {
+    objects.close();
+  }
+
+  private static final class PackedRef {
+    private final String sha;
+    private String peeled;
+
+    private PackedRef(String sha) {
+      this.sha = sha;
+    }
+  }
+
+  /** Orders commits newest first, in insertion order for equal dates, like git's commit queue. */
+  private static final class CommitQueue {
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private long counter;
+
+    void add(Commit commit) {
+      queue.add(new Entry(commit, counter++));
+    }
+
+    Commit poll() {
+      return queue.poll().commit;
+    }
+
+    boolean isEmpty() {
+      return queue.isEmpty();
+    }
+
+    boolean containsOnly(Set<String> shas) {
+      for (Entry entry : queue) {
+        if (!shas.contains(entry.commit.sha)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+      private final Commit commit;
+      private final long insertionOrder;
+
+      private Entry(Commit commit, long insertionOrder) {
+        this.commit = commit;
+        this.insertionOrder = insertionOrder;
+      }
+
+      @Override
+      public int compareTo(Entry other) {
+        int cmp = Long.compare(other.commit.commitTime, commit.commitTime);
+        return cmp != 0 ? cmp : Long.compare(insertionOrder, other.insertionOrder);
+      }
+    }
+  }
+
+  static final class Person {
+    final String name;
+    final String email;
+    final long when;
+    final int timeZoneOffsetMinutes;
+
+    Person(String name, String email, long when, int timeZoneOffsetMinutes) {
+      this.name = name;
+      this.email = email;
+      this.when = when;
+      this.timeZoneOffsetMinutes = timeZoneOffsetMinutes;
+    }
+
+    /** Returns the date in strict ISO 8601 format, same as git's {@code %aI} and {@code %cI}. */
+    String getIso8601Date() {
+      ZoneOffset offset = ZoneOffset.ofTotalSeconds(timeZoneOffsetMinutes * 60);
+      return STRICT_ISO_8601.format(Instant.ofEpochSecond(when).atOffset(offset));
+    }
+
+    /** Parses "Name <email> 1613137668 +0100". */
+    static Person parse(String line) throws IOException {
+      int emailStart = line.indexOf('<');
+      int emailEnd = line.indexOf('>', emailStart + 1);
+      if (emailStart < 0 || emailEnd < 0) {
+        throw new IOException("Invalid person line: " + line);
+      }
+      String name = line.substring(0, emailStart).trim();
+      String email = line.substring(emailStart + 1, emailEnd);
+      String date = line.substring(emailEnd + 1).trim();
+      int space = date.indexOf(' ');
+      try {
+        long when = Long.parseLong(space < 0 ? date : date.substring(0, space));
+        int timeZoneOffsetMinutes = 0;
+        if (space >= 0) {
+          String tz = date.substring(space + 1).trim();
+          int value = Integer.parseInt(tz.substring(1));
+          int sign = tz.charAt(0) == '-' ? -1 : 1;
+          timeZoneOffsetMinutes = sign * (value / 100 * 60 + value % 100);
+        }
+        return new Person(name, email, when, timeZoneOffsetMinutes);
+      } catch (RuntimeException e) {
+        throw new IOException("Invalid person line: " + line, e);
+      }
+    }
+  }
+
+  static final class Commit {
+    final String sha;
+    final String tree;
+    final List<String> parents;
+    final Person author;
+    final Person committer;
+    final long commitTime;
+    final String fullMessage;
+
+    private Commit(
+        String sha,
+        String tree,
+        List<String> parents,
+        Person author,
+        Person committer,
+        String fullMessage) {
+      this.sha = sha;
+      this.tree = tree;
+      this.parents = parents;
+      this.author = author;
+      this.committer = committer;
+      this.commitTime = committer.when;
+      this.fullMessage = fullMessage;
+    }
+
+    static Commit parse(String sha, byte[] content) throws IOException {
+      String tree = null;
+      List<String> parents = new ArrayList<>(1);
+      Person author = null;
+      Person committer = null;
+      int p = 0;
+      while (p < content.length && content[p] != '\n') {
+        int end = p;
+        while (end < content.length && content[end] != '\n') {
+          end++;
+        }
+        String line = new String(content, p, end - p, StandardCharsets.UTF_8);
+        if (line.startsWith("tree ")) {
+          tree = line.substring(5);
+        } else if (line.startsWith("parent ")) {
+          parents.add(line.substring(7));
+        } else if (line.startsWith("author ")) {
+          author = Person.parse(line.substring(7));
+        } else if (line.startsWith("committer ")) {
+          committer = Person.parse(line.substring(10));
+        }
+        // other headers (encoding, gpgsig and its continuation lines, etc.) are skipped
+        p = end + 1;
+      }
+      if (tree == null || author == null || committer == null) {
+        throw new IOException("Invalid commit " + sha);
+      }
+      String message =
+          p < content.length
+              ? new String(content, p + 1, content.length - p - 1, StandardCharsets.UTF_8)
+              : "";
+      return new Commit(sha, tree, parents, author, committer, message);
+    }
+  }
+}
@@ -64,18 +64,22 @@ class ChannelContext {
     if (readBuffer.remaining() > 0) {
       readBuffer.compact();
     } else {
-      readBuffer.flip();
+      readBuffer.clear();
     }
   }
 
   private void writeResponse(ByteChannel channel, ByteBuffer[] response) throws IOException {
     int idx = 0;
-    for (; idx < response.length; idx++) {
-      int remaining = response[idx].remaining();
-      if (channel.write(response[idx]) != remaining) {
-        // could not write all the chunk's bytes,
-        // assuming output buffer is full
-        break;
+    // clients can send several requests without waiting for the responses,
+    // so earlier responses might still be waiting for the channel to become writable
+    if (pendingResponses.isEmpty()) {
+      for (; idx < response.length; idx++) {
+        int remaining = response[idx].remaining();
+        if (channel.write(response[idx]) != remaining) {
+          // could not write all the chunk's bytes,
+          // assuming output buffer is full
+          break;
+        }
       }
     }
 
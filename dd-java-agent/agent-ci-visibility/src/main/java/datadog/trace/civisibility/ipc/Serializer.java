@@ -15,7 +15,7 @@ import java.util.function.Function;
 
 public class Serializer {
 
-  private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+  private final Buffer baos = new Buffer();
 
   public void write(byte b) {
     baos.write(b);
@@ -98,12 +98,17 @@ public class Serializer {
     return baos.size();
   }
 
+  /**
+   * @return buffer with the serialized data. The buffer is backed by the serializer's internal
+   *     array (no copying is done), so nothing should be written to the serializer after calling
+   *     this method
+   */
   public ByteBuffer flush() {
-    return ByteBuffer.wrap(baos.toByteArray());
+    return baos.wrap();
   }
 
   public void flush(ByteBuffer byteBuffer) {
-    byteBuffer.put(baos.toByteArray());
+    byteBuffer.put(baos.wrap());
   }
 
   public static byte readByte(ByteBuffer byteBuffer) {
@@ -179,4 +184,10 @@ public class Serializer {
     }
     return m;
   }
+
+  private static final class Buffer extends ByteArrayOutputStream {
+    ByteBuffer wrap() {
+      return ByteBuffer.wrap(buf, 0, count);
+    }
+  }
 }
@@ -3,15 +3,18 @@ package datadog.trace.civisibility.ipc;
 import datadog.trace.api.Config;
 import de.thetaphi.forbiddenapis.SuppressForbidden;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SocketChannel;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 import org.slf4j.Logger;
@@ -21,8 +24,6 @@ public class SignalClient implements AutoCloseable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SignalClient.class);
 
-  private static final int BUFFER_CAPACITY = 8192;
-
   private static final Map<SignalType, Function<ByteBuffer, SignalResponse>> DESERIALIZERS =
       new EnumMap<>(SignalType.class);
 
@@ -34,10 +35,37 @@ public class SignalClient implements AutoCloseable {
   }
 
   private final SocketChannel socketChannel;
-  private final ByteBuffer buffer;
+  private final ReadableByteChannel inputChannel;
+  private final int socketTimeoutMillis;
+  private final boolean shared;
+
+  private final AtomicInteger requestIdSequence = new AtomicInteger();
+  private final Map<Integer, PendingResponse> pendingResponses = new ConcurrentHashMap<>();
+  private final Object writeLock = new Object();
+
+  /** Guards {@link #reading} */
+  private final Object readLock = new Object();
+
+  /**
+   * Only one thread reads from the socket at a time, dispatching the responses it receives to the
+   * threads that await them
+   */
+  private boolean reading;
+
+  // read state, only accessed by the thread that is currently reading
+  private final SignalFrames.Assembler assembler = new SignalFrames.Assembler();
+  private final ByteBuffer frameLength = ByteBuffer.allocate(Integer.BYTES);
+  private ByteBuffer frame;
+
+  private volatile IOException failure;
 
-  @SuppressForbidden
   public SignalClient(InetSocketAddress serverAddress, int socketTimeoutMillis) throws IOException {
+    this(serverAddress, socketTimeoutMillis, false);
+  }
+
+  @SuppressForbidden
+  private SignalClient(InetSocketAddress serverAddress, int socketTimeoutMillis, boolean shared)
+      throws IOException {
     if (serverAddress == null) {
       throw new IOException("Cannot open connection to signal server: no address specified");
     }
@@ -47,94 +75,240 @@ public class SignalClient implements AutoCloseable {
     socket.setSoTimeout(socketTimeoutMillis);
     socket.connect(serverAddress, socketTimeoutMillis);
 
-    buffer = ByteBuffer.allocate(BUFFER_CAPACITY);
+    // reading is done this way to make socket channel respect timeout
+    inputChannel = Channels.newChannel(socket.getInputStream());
+
+    this.socketTimeoutMillis = socketTimeoutMillis;
+    this.shared = shared;
   }
 
+  /**
+   * Closes the connection, unless the client was created by {@link Factory}: such clients are
+   * shared by all the callers of the factory and keep the connection open to serve subsequent
+   * requests.
+   */
   @Override
   public void close() throws IOException {
-    socketChannel.close();
+    if (!shared) {
+      socketChannel.close();
+    }
+  }
+
+  private boolean isUsable() {
+    return failure == null && socketChannel.isOpen();
   }
 
+  /**
+   * Sends the signal and waits for the server to process it. The method can be called
+   * concurrently: requests of different threads are pipelined over the same connection.
+   */
   public SignalResponse send(Signal signal) throws IOException {
+    IOException failure = this.failure;
+    if (failure != null) {
+      throw new IOException("Connection to signal server is broken", failure);
+    }
+
     ByteBuffer message = signal.serialize();
+    int requestId = requestIdSequence.incrementAndGet();
     LOGGER.debug(
-        "Sending signal of type {} and size {} bytes", signal.getType(), message.remaining());
-
-    ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1);
-    header.putInt(message.remaining() + 1); // +1 is for signal type
-    header.put(signal.getType().getCode());
-    header.flip();
-    socketChannel.write(header);
-    socketChannel.write(message);
+        "Sending signal of type {} and size {} bytes, request ID {}",
+        signal.getType(),
+        message.remaining(),
+        requestId);
+
+    PendingResponse pendingResponse = new PendingResponse();
+    pendingResponses.put(requestId, pendingResponse);
+    try {
+      write(SignalFrames.encode(requestId, signal.getType(), message));
+    } catch (IOException e) {
+      fail(e);
+      throw e;
+    }
     LOGGER.debug("Signal sent");
 
-    // reading is done this way to make socket channel respect timeout
-    Socket socket = socketChannel.socket();
-    InputStream inputStream = socket.getInputStream();
-    ReadableByteChannel inputChannel = Channels.newChannel(inputStream);
+    SignalResponse response = await(requestId, pendingResponse);
+    if (response instanceof ErrorResponse) {
+      throw new IOException(getErrorMessage((ErrorResponse) response));
+    }
+    return response;
+  }
 
-    while (buffer.position() < Integer.BYTES) {
-      int read = inputChannel.read(buffer);
-      if (read == -1) {
-        throw new IOException("Stream closed before response length could be fully read");
+  private void write(ByteBuffer[] frames) throws IOException {
+    for (int i = 0; i < frames.length; i += 2) {
+      ByteBuffer header = frames[i];
+      ByteBuffer chunk = frames[i + 1];
+      // the lock is taken for every frame rather than for the whole message,
+      // so that chunks of a large payload do not hold back other requests
+      synchronized (writeLock) {
+        while (header.hasRemaining() || chunk.hasRemaining()) {
+          socketChannel.write(new ByteBuffer[] {header, chunk});
+        }
       }
     }
+  }
 
-    buffer.flip();
-    int payloadLength = buffer.getInt();
-    ByteBuffer payload = ByteBuffer.allocate(payloadLength);
-    payload.put(buffer);
-    buffer.flip();
+  private SignalResponse await(int requestId, PendingResponse pendingResponse)
+      throws IOException {
+    long deadline = System.currentTimeMillis() + socketTimeoutMillis;
+    while (true) {
+      synchronized (readLock) {
+        while (reading && !pendingResponse.isDone()) {
+          long remaining = deadline - System.currentTimeMillis();
+          if (remaining <= 0) {
+            pendingResponses.remove(requestId);
+            throw new SocketTimeoutException(
+                "Timed out waiting for response to request " + requestId);
+          }
+          try {
+            readLock.wait(remaining);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pendingResponses.remove(requestId);
+            throw new InterruptedIOException("Interrupted while waiting for response");
+          }
+        }
+        if (pendingResponse.isDone()) {
+          return pendingResponse.get();
+        }
+        reading = true;
+      }
 
-    while (payload.hasRemaining()) {
-      int read = inputChannel.read(payload);
-      if (read == -1) {
-        throw new IOException("Stream closed before response payload could be fully read");
+      try {
+        readFrame();
+      } catch (SocketTimeoutException e) {
+        // read state is preserved, the connection can still be used by other requests
+        pendingResponses.remove(requestId);
+        throw e;
+      } catch (IOException e) {
+        fail(e);
+        throw e;
+      } finally {
+        synchronized (readLock) {
+          reading = false;
+          readLock.notifyAll();
+        }
       }
     }
+  }
 
-    payload.flip();
+  private void readFrame() throws IOException {
+    if (frame == null) {
+      readFully(frameLength, "Stream closed before frame length could be fully read");
+      frameLength.flip();
+      frame = ByteBuffer.allocate(frameLength.getInt());
+      frameLength.clear();
+    }
+    readFully(frame, "Stream closed before frame could be fully read");
+    frame.flip();
 
-    byte signalTypeCode = payload.get();
-    SignalType signalType = SignalType.fromCode(signalTypeCode);
-    if (signalType == null) {
-      throw new IOException("Unknown signal type code " + signalTypeCode);
+    SignalFrames.Message message = assembler.onFrame(frame);
+    frame = null;
+    if (message == null) {
+      return;
     }
 
-    Function<ByteBuffer, SignalResponse> deserializer = DESERIALIZERS.get(signalType);
-    if (deserializer == null) {
-      throw new IOException("Could not find deserializer for signal type " + signalType);
+    PendingResponse pendingResponse = pendingResponses.remove(message.getRequestId());
+    if (pendingResponse != null) {
+      pendingResponse.complete(message);
+    } else {
+      LOGGER.debug("Discarding response to request {}", message.getRequestId());
     }
+  }
 
-    SignalResponse response = deserializer.apply(payload);
-    if (response instanceof ErrorResponse) {
-      throw new IOException(getErrorMessage((ErrorResponse) response));
+  private void readFully(ByteBuffer buffer, String errorMessage) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (inputChannel.read(buffer) == -1) {
+        throw new IOException(errorMessage);
+      }
+    }
+  }
+
+  private void fail(IOException e) {
+    failure = e;
+    for (Integer requestId : pendingResponses.keySet()) {
+      PendingResponse pendingResponse = pendingResponses.remove(requestId);
+      if (pendingResponse != null) {
+        pendingResponse.fail(e);
+      }
+    }
+    try {
+      socketChannel.close();
+    } catch (IOException ce) {
+      LOGGER.debug("Error while closing signal client connection", ce);
+    }
+  }
+
+  private static final class PendingResponse {
+    private volatile SignalFrames.Message message;
+    private volatile IOException failure;
+
+    void complete(SignalFrames.Message message) {
+      this.message = message;
+    }
+
+    void fail(IOException failure) {
+      this.failure = failure;
+    }
+
+    boolean isDone() {
+      return message != null || failure != null;
+    }
+
+    SignalResponse get() throws IOException {
+      if (failure != null) {
+        throw new IOException("Connection to signal server is broken", failure);
+      }
+
+      byte signalTypeCode = message.getTypeCode();
+      SignalType signalType = SignalType.fromCode(signalTypeCode);
+      if (signalType == null) {
+        throw new IOException("Unknown signal type code " + signalTypeCode);
+      }
+
+      Function<ByteBuffer, SignalResponse> deserializer = DESERIALIZERS.get(signalType);
+      if (deserializer == null) {
+        throw new IOException("Could not find deserializer for signal type " + signalType);
+      }
+      return deserializer.apply(message.getPayload());
     }
-    return response;
   }
 
   static String getErrorMessage(ErrorResponse response) {
     return "Server returned an error: " + response.getMessage();
   }
 
+  /**
+   * Creates clients that share a long-lived connection to the signal server. A forked test JVM
+   * sends several signals to the build system process; reusing the connection saves a connect and
+   * accept per signal, and concurrent signals are pipelined over it. A new connection is opened
+   * if the previous one is broken.
+   */
   public static final class Factory {
     private final InetSocketAddress signalServerAddress;
     private final Config config;
 
+    /** Guarded by {@code this} */
+    private SignalClient sharedClient;
+
     public Factory(InetSocketAddress signalServerAddress, Config config) {
       this.signalServerAddress = signalServerAddress;
       this.config = config;
     }
 
     @Nonnull
-    public SignalClient create() {
+    public synchronized SignalClient create() {
       if (signalServerAddress == null) {
         throw new IllegalArgumentException(
             "Cannot create signal client: no signal server address configured");
       }
+      if (sharedClient != null && sharedClient.isUsable()) {
+        return sharedClient;
+      }
       try {
-        return new SignalClient(
-            signalServerAddress, config.getCiVisibilitySignalClientTimeoutMillis());
+        sharedClient =
+            new SignalClient(
+                signalServerAddress, config.getCiVisibilitySignalClientTimeoutMillis(), true);
+        return sharedClient;
       } catch (IOException e) {
         throw new RuntimeException(
             "Could not instantiate signal client. Address: " + signalServerAddress, e);
@@ -0,0 +1,143 @@
+package datadog.trace.civisibility.ipc;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Framing of the messages exchanged between {@link SignalClient} and {@link SignalServer}.
+ *
+ * <p>Every frame starts with its length (not including the length field itself), followed by the
+ * ID of the request that the frame belongs to, the frame flags and the signal type code. Responses
+ * carry the ID of the request they answer, so a client can send several requests over the same
+ * connection without waiting for the responses to the previous ones.
+ *
+ * <p>Payloads larger than {@link #MAX_CHUNK_SIZE} are split into several frames, every frame but
+ * the last one has {@link #FLAG_MORE_CHUNKS} set. Chunks of different requests can be interleaved,
+ * so a large coverage upload does not hold back small requests sent over the same connection.
+ */
+final class SignalFrames {
+
+  /** Request ID, flags and signal type code */
+  static final int FRAME_HEADER_SIZE = Integer.BYTES + 2;
+
+  static final int MAX_CHUNK_SIZE = 64 * 1024;
+
+  static final byte FLAG_MORE_CHUNKS = 1;
+
+  private SignalFrames() {}
+
+  /**
+   * Splits the payload into frames.
+   *
+   * @return pairs of buffers: the header of a frame (including the length prefix) followed by its
+   *     chunk of the payload. The chunks share content with the payload buffer
+   */
+  static ByteBuffer[] encode(int requestId, SignalType type, ByteBuffer payload) {
+    int chunks = Math.max(1, (payload.remaining() + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+    ByteBuffer[] frames = new ByteBuffer[chunks * 2];
+    for (int i = 0; i < chunks; i++) {
+      int chunkSize = Math.min(payload.remaining(), MAX_CHUNK_SIZE);
+      ByteBuffer chunk = payload.slice();
+      chunk.limit(chunkSize);
+      payload.position(payload.position() + chunkSize);
+
+      ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + FRAME_HEADER_SIZE);
+      header.putInt(FRAME_HEADER_SIZE + chunkSize);
+      header.putInt(requestId);
+      header.put(i < chunks - 1 ? FLAG_MORE_CHUNKS : 0);
+      header.put(type.getCode());
+      header.flip();
+
+      frames[i * 2] = header;
+      frames[i * 2 + 1] = chunk;
+    }
+    return frames;
+  }
+
+  static final class Message {
+    private final int requestId;
+    private final byte typeCode;
+    private final ByteBuffer payload;
+
+    Message(int requestId, byte typeCode, ByteBuffer payload) {
+      this.requestId = requestId;
+      this.typeCode = typeCode;
+      this.payload = payload;
+    }
+
+    int getRequestId() {
+      return requestId;
+    }
+
+    @Nullable
+    SignalType getType() {
+      return SignalType.fromCode(typeCode);
+    }
+
+    byte getTypeCode() {
+      return typeCode;
+    }
+
+    ByteBuffer getPayload() {
+      return payload;
+    }
+  }
+
+  /**
+   * Reassembles messages from the frames received over a single connection. Not thread-safe: every
+   * connection has its own instance, which is used by one reader at a time.
+   */
+  static final class Assembler {
+    private final Map<Integer, PartialMessage> partialMessages = new HashMap<>();
+
+    /**
+     * @param frame frame contents (without the length prefix)
+     * @return the message if the frame is the last chunk of its payload, {@code null} otherwise
+     */
+    @Nullable
+    Message onFrame(ByteBuffer frame) {
+      int requestId = frame.getInt();
+      byte flags = frame.get();
+      byte typeCode = frame.get();
+      boolean moreChunks = (flags & FLAG_MORE_CHUNKS) != 0;
+
+      PartialMessage partialMessage = partialMessages.get(requestId);
+      if (partialMessage == null) {
+        if (!moreChunks) {
+          // most of the messages fit into a single frame, they are used without copying
+          return new Message(requestId, typeCode, frame);
+        }
+        partialMessage = new PartialMessage();
+        partialMessages.put(requestId, partialMessage);
+      }
+
+      partialMessage.append(frame);
+      if (moreChunks) {
+        return null;
+      }
+      partialMessages.remove(requestId);
+      return new Message(requestId, typeCode, partialMessage.toBuffer());
+    }
+  }
+
+  private static final class PartialMessage {
+    private byte[] data = new byte[MAX_CHUNK_SIZE * 2];
+    private int length;
+
+    void append(ByteBuffer chunk) {
+      int chunkSize = chunk.remaining();
+      if (length + chunkSize > data.length) {
+        data = Arrays.copyOf(data, Math.max(data.length << 1, length + chunkSize));
+      }
+      chunk.get(data, length, chunkSize);
+      length += chunkSize;
+    }
+
+    ByteBuffer toBuffer() {
+      return ByteBuffer.wrap(data, 0, length);
+    }
+  }
+}
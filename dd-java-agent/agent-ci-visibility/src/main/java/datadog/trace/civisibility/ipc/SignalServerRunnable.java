@@ -18,6 +18,7 @@ class SignalServerRunnable implements Runnable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SignalServerRunnable.class);
   private static final long SELECT_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+  private static final ByteBuffer[] NO_RESPONSE = new ByteBuffer[0];
   private static final Map<SignalType, Function<ByteBuffer, Signal>> DESERIALIZERS =
       new EnumMap<>(SignalType.class);
 
@@ -82,29 +83,62 @@ class SignalServerRunnable implements Runnable {
     SocketChannel childChannel = serverChannel.accept();
     childChannel.configureBlocking(false);
 
-    ChannelContext context = new ChannelContext(bufferCapacity, this::onMessage);
-    childChannel.register(key.selector(), SelectionKey.OP_READ | SelectionKey.OP_WRITE, context);
+    SignalFrames.Assembler assembler = new SignalFrames.Assembler();
+    ChannelContext context =
+        new ChannelContext(bufferCapacity, frame -> onFrame(assembler, frame));
+    childChannel.register(key.selector(), SelectionKey.OP_READ, context);
   }
 
   private void read(SelectionKey key) throws IOException {
     ChannelContext context = (ChannelContext) key.attachment();
     SocketChannel childChannel = (SocketChannel) key.channel();
     context.read(childChannel);
+    updateInterestOps(key, context);
   }
 
   private void write(SelectionKey key) throws IOException {
     ChannelContext context = (ChannelContext) key.attachment();
     SocketChannel childChannel = (SocketChannel) key.channel();
     context.write(childChannel);
+    updateInterestOps(key, context);
   }
 
-  private ByteBuffer[] onMessage(ByteBuffer message) {
-    SignalType signalType = SignalType.fromCode(message.get());
+  /**
+   * Connections are long-lived and stay idle most of the time, so write readiness is only
+   * requested while there are responses that could not be written right away. Otherwise every
+   * select call would return immediately for each connected client.
+   */
+  private static void updateInterestOps(SelectionKey key, ChannelContext context) {
+    if (key.isValid()) {
+      key.interestOps(
+          context.hasPendingResponses()
+              ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+              : SelectionKey.OP_READ);
+    }
+  }
+
+  private ByteBuffer[] onFrame(SignalFrames.Assembler assembler, ByteBuffer frame) {
+    SignalFrames.Message message = assembler.onFrame(frame);
+    if (message == null) {
+      // waiting for the remaining chunks of the payload
+      return NO_RESPONSE;
+    }
 
+    SignalResponse response = onMessage(message.getType(), message.getPayload());
+    ByteBuffer payload = response.serialize();
+    LOGGER.debug(
+        "Serialized response of type {} and size {} bytes to request {}",
+        response.getType(),
+        payload.remaining(),
+        message.getRequestId());
+    return SignalFrames.encode(message.getRequestId(), response.getType(), payload);
+  }
+
+  private SignalResponse onMessage(SignalType signalType, ByteBuffer message) {
     Function<ByteBuffer, Signal> deserializer = DESERIALIZERS.get(signalType);
     if (deserializer == null) {
       LOGGER.error("Deserializer not defined for signal type {}, skipping processing", signalType);
-      return serialize(new ErrorResponse("Deserializer not found for " + signalType));
+      return new ErrorResponse("Deserializer not found for " + signalType);
     }
 
     Signal signal = deserializer.apply(message);
@@ -114,24 +148,9 @@ class SignalServerRunnable implements Runnable {
     if (handler == null) {
       LOGGER.warn(
           "No handler registered for signal type {}, skipping signal {}", signalType, signal);
-      return serialize(new ErrorResponse("No handler registered for " + signalType));
+      return new ErrorResponse("No handler registered for " + signalType);
     }
 
-    SignalResponse response = handler.apply(signal);
-    return serialize(response);
-  }
-
-  private ByteBuffer[] serialize(SignalResponse response) {
-    ByteBuffer payload = response.serialize();
-    LOGGER.debug(
-        "Serialized response of type {} and size {} bytes",
-        response.getType(),
-        payload.remaining());
-
-    ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1);
-    header.putInt(payload.remaining() + 1);
-    header.put(response.getType().getCode());
-    header.flip();
-    return new ByteBuffer[] {header, payload};
+    return handler.apply(signal);
   }
 }
@@ -0,0 +1,131 @@
+package datadog.trace.civisibility.source;
+
+import datadog.trace.civisibility.ipc.Serializer;
+import datadog.trace.civisibility.source.MethodLinesResolver.MethodLines;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Data extracted from a class file: the name of the source file and the line ranges of the
+ * methods.
+ */
+public final class ByteCodeAnalysis {
+
+  @Nullable private final String sourceFile;
+  private final Map<String, MethodLines> linesByMethodFingerprint;
+
+  ByteCodeAnalysis(
+      @Nullable String sourceFile, @Nonnull Map<String, MethodLines> linesByMethodFingerprint) {
+    this.sourceFile = sourceFile;
+    this.linesByMethodFingerprint = linesByMethodFingerprint;
+  }
+
+  /** @return the name of the source file, as specified by the {@code SourceFile} attribute */
+  @Nullable
+  public String getSourceFile() {
+    return sourceFile;
+  }
+
+  @Nonnull
+  public MethodLines getMethodLines(@Nonnull Method method) {
+    MethodLines methodLines = linesByMethodFingerprint.get(getFingerprint(method));
+    return methodLines != null ? methodLines : MethodLines.EMPTY;
+  }
+
+  public static ByteCodeAnalysis analyze(byte[] classFile) {
+    Analyzer analyzer = new Analyzer();
+    ClassReader classReader = new ClassReader(classFile);
+    classReader.accept(analyzer, ClassReader.SKIP_FRAMES);
+    return analyzer.build();
+  }
+
+  static String getFingerprint(Method method) {
+    return getFingerprint(method.getName(), Type.getMethodDescriptor(method));
+  }
+
+  static String getFingerprint(String methodName, String methodDescriptor) {
+    return methodName + ';' + methodDescriptor;
+  }
+
+  static void serialize(Serializer s, ByteCodeAnalysis analysis) {
+    s.write(analysis.sourceFile);
+    s.write(analysis.linesByMethodFingerprint.size());
+    for (Map.Entry<String, MethodLines> e : analysis.linesByMethodFingerprint.entrySet()) {
+      MethodLines methodLines = e.getValue();
+      s.write(e.getKey());
+      s.write(methodLines.getStartLineNumber());
+      s.write(methodLines.getFinishLineNumber());
+    }
+  }
+
+  static ByteCodeAnalysis deserialize(ByteBuffer buffer) {
+    String sourceFile = Serializer.readString(buffer);
+    int methodCount = Serializer.readInt(buffer);
+    Map<String, MethodLines> linesByMethodFingerprint = new HashMap<>(methodCount * 4 / 3 + 1);
+    for (int i = 0; i < methodCount; i++) {
+      String fingerprint = Serializer.readString(buffer);
+      int startLineNumber = Serializer.readInt(buffer);
+      int finishLineNumber = Serializer.readInt(buffer);
+      linesByMethodFingerprint.put(fingerprint, new MethodLines(startLineNumber, finishLineNumber));
+    }
+    return new ByteCodeAnalysis(sourceFile, linesByMethodFingerprint);
+  }
+
+  private static final class Analyzer extends ClassVisitor {
+    private final Map<String, MethodLinesRecorder> recordersByMethodFingerprint = new HashMap<>();
+    private String sourceFile;
+
+    Analyzer() {
+      super(Opcodes.ASM9);
+    }
+
+    @Override
+    public void visitSource(String source, String debug) {
+      sourceFile = source;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(
+        int access, String name, String descriptor, String signature, String[] exceptions) {
+      MethodLinesRecorder recorder = new MethodLinesRecorder();
+      recordersByMethodFingerprint.put(getFingerprint(name, descriptor), recorder);
+      return recorder;
+    }
+
+    ByteCodeAnalysis build() {
+      Map<String, MethodLines> linesByMethodFingerprint =
+          new HashMap<>(recordersByMethodFingerprint.size() * 4 / 3 + 1);
+      for (Map.Entry<String, MethodLinesRecorder> e : recordersByMethodFingerprint.entrySet()) {
+        MethodLinesRecorder recorder = e.getValue();
+        linesByMethodFingerprint.put(
+            e.getKey(), new MethodLines(recorder.startLineNumber, recorder.finishLineNumber));
+      }
+      return new ByteCodeAnalysis(sourceFile, linesByMethodFingerprint);
+    }
+  }
+
+  private static final class MethodLinesRecorder extends MethodVisitor {
+    private int startLineNumber = Integer.MAX_VALUE;
+    private int finishLineNumber = Integer.MIN_VALUE;
+
+    MethodLinesRecorder() {
+      super(Opcodes.ASM9);
+    }
+
+    @Override
+    public void visitLineNumber(int line, Label start) {
+      startLineNumber = Math.min(startLineNumber, line);
+      finishLineNumber = Math.max(finishLineNumber, line);
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package datadog.trace.civisibility.source;
+
+import datadog.trace.civisibility.ipc.Serializer;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.jacoco.core.internal.data.CRC64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-only file with the results of analyzing class files, keyed by the hash of the class file
+ * contents. The file is written by the build system process before forking test JVMs, which
+ * memory-map it and look up classes there instead of analyzing them again.
+ *
+ * <p>File layout: a header (magic, version, entry count), the index (entry hashes sorted in
+ * ascending order, each followed by the offset of the entry data) and the serialized entries.
+ */
+public final class ByteCodeAnalysisCache {
+
+  private static final Logger log = LoggerFactory.getLogger(ByteCodeAnalysisCache.class);
+
+  private static final int MAGIC = 0x44444243; // "DDBC"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 12;
+  private static final int INDEX_ENTRY_SIZE = 12;
+
+  private final ByteBuffer buffer;
+  private final int entryCount;
+
+  private ByteCodeAnalysisCache(ByteBuffer buffer, int entryCount) {
+    this.buffer = buffer;
+    this.entryCount = entryCount;
+  }
+
+  /**
+   * @param classFile the contents of the class file
+   * @return the analysis results for the class file, or {@code null} if the class file is not in
+   *     the cache
+   */
+  @Nullable
+  public ByteCodeAnalysis get(@Nonnull byte[] classFile) {
+    long hash = hash(classFile);
+    int low = 0;
+    int high = entryCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int position = HEADER_SIZE + mid * INDEX_ENTRY_SIZE;
+      long midHash = buffer.getLong(position);
+      if (midHash < hash) {
+        low = mid + 1;
+      } else if (midHash > hash) {
+        high = mid - 1;
+      } else {
+        ByteBuffer entry = buffer.duplicate();
+        entry.position(buffer.getInt(position + 8));
+        return ByteCodeAnalysis.deserialize(entry);
+      }
+    }
+    return null;
+  }
+
+  static long hash(byte[] classFile) {
+    return CRC64.classId(classFile);
+  }
+
+  /**
+   * Maps the cache file into memory.
+   *
+   * @return the cache or {@code null} if the file could not be read
+   */
+  @Nullable
+  public static ByteCodeAnalysisCache open(@Nonnull Path file) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // the mapping remains valid after the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.limit() < HEADER_SIZE
+          || buffer.getInt(0) != MAGIC
+          || buffer.getInt(4) != VERSION) {
+        log.warn("Ignoring byte code analysis cache {}: unknown format", file);
+        return null;
+      }
+      int entryCount = buffer.getInt(8);
+      if (buffer.limit() < HEADER_SIZE + (long) entryCount * INDEX_ENTRY_SIZE) {
+        log.warn("Ignoring byte code analysis cache {}: file is truncated", file);
+        return null;
+      }
+      return new ByteCodeAnalysisCache(buffer, entryCount);
+
+    } catch (Exception e) {
+      log.warn("Could not open byte code analysis cache {}", file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Analyzes the class files found in the given directories and writes the results to the cache
+   * file. The file is replaced atomically, so that it is never read while partially written.
+   *
+   * @return the number of analyzed class files
+   */
+  public static int write(@Nonnull Path file, @Nonnull Collection<File> classDirectories)
+      throws IOException {
+    Map<Long, ByteCodeAnalysis> analysesByHash = new TreeMap<>();
+    Deque<File> directories = new ArrayDeque<>(classDirectories);
+    while (!directories.isEmpty()) {
+      File[] children = directories.poll().listFiles();
+      if (children == null) {
+        continue;
+      }
+      for (File child : children) {
+        if (child.isDirectory()) {
+          directories.push(child);
+        } else if (child.getName().endsWith(".class")) {
+          byte[] classFile = Files.readAllBytes(child.toPath());
+          try {
+            analysesByHash.putIfAbsent(hash(classFile), ByteCodeAnalysis.analyze(classFile));
+          } catch (Exception e) {
+            log.debug("Could not analyze class file {}", child, e);
+          }
+        }
+      }
+    }
+
+    Serializer index = new Serializer();
+    index.write(MAGIC);
+    index.write(VERSION);
+    index.write(analysesByHash.size());
+
+    Serializer entries = new Serializer();
+    int entriesOffset = HEADER_SIZE + analysesByHash.size() * INDEX_ENTRY_SIZE;
+    for (Map.Entry<Long, ByteCodeAnalysis> e : analysesByHash.entrySet()) {
+      index.write(e.getKey());
+      index.write(entriesOffset + entries.length());
+      ByteCodeAnalysis.serialize(entries, e.getValue());
+    }
+
+    Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+      ByteBuffer indexBuffer = index.flush();
+      ByteBuffer entriesBuffer = entries.flush();
+      while (indexBuffer.hasRemaining()) {
+        channel.write(indexBuffer);
+      }
+      while (entriesBuffer.hasRemaining()) {
+        channel.write(entriesBuffer);
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tempFile);
+      throw e;
+    }
+    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return analysesByHash.size();
+  }
+
+  /**
+   * Returns the results of analyzing the class, taking them from the cache if possible.
+   *
+   * @param cache the cache to check first, can be {@code null}
+   * @return the analysis results or {@code null} if the class file could not be read
+   */
+  @Nullable
+  public static ByteCodeAnalysis analyze(@Nullable ByteCodeAnalysisCache cache, Class<?> clazz)
+      throws IOException {
+    byte[] classFile;
+    try (InputStream classStream = Utils.getClassStream(clazz)) {
+      if (classStream == null) {
+        return null;
+      }
+      classFile = readAllBytes(classStream);
+    }
+    ByteCodeAnalysis analysis = cache != null ? cache.get(classFile) : null;
+    return analysis != null ? analysis : ByteCodeAnalysis.analyze(classFile);
+  }
+
+  private static byte[] readAllBytes(InputStream input) throws IOException {
+    byte[] buffer = new byte[8192];
+    int length = 0;
+    int n;
+    while ((n = input.read(buffer, length, buffer.length - length)) != -1) {
+      length += n;
+      if (length == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length << 1);
+      }
+    }
+    return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+  }
+}
@@ -2,17 +2,9 @@ package datadog.trace.civisibility.source;
 
 import datadog.trace.api.cache.DDCache;
 import datadog.trace.api.cache.DDCaches;
-import java.io.InputStream;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
 import javax.annotation.Nonnull;
-import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.ClassVisitor;
-import org.objectweb.asm.Label;
-import org.objectweb.asm.MethodVisitor;
-import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,16 +12,27 @@ public class ByteCodeMethodLinesResolver implements MethodLinesResolver {
 
   private static final Logger log = LoggerFactory.getLogger(ByteCodeMethodLinesResolver.class);
 
-  private final DDCache<Class<?>, ClassMethodLines> methodLinesCache =
+  private final DDCache<Class<?>, ByteCodeAnalysis> methodLinesCache =
       DDCaches.newFixedSizeIdentityCache(16);
 
+  @Nullable private final ByteCodeAnalysisCache analysisCache;
+
+  public ByteCodeMethodLinesResolver() {
+    this(null);
+  }
+
+  /** @param analysisCache cache of class files analyzed by the build system, can be null */
+  public ByteCodeMethodLinesResolver(@Nullable ByteCodeAnalysisCache analysisCache) {
+    this.analysisCache = analysisCache;
+  }
+
   @Nonnull
   @Override
   public MethodLines getLines(@Nonnull Method method) {
     try {
-      ClassMethodLines classMethodLines =
-          methodLinesCache.computeIfAbsent(method.getDeclaringClass(), ClassMethodLines::parse);
-      return classMethodLines.get(method);
+      ByteCodeAnalysis analysis =
+          methodLinesCache.computeIfAbsent(method.getDeclaringClass(), this::analyze);
+      return analysis.getMethodLines(method);
 
     } catch (Exception e) {
       log.error("Could not determine method borders for {}", method, e);
@@ -37,80 +40,17 @@ public class ByteCodeMethodLinesResolver implements MethodLinesResolver {
     }
   }
 
-  static final class ClassMethodLines {
-    private final Map<String, MethodLinesRecorder> recordersByMethodFingerprint = new HashMap<>();
-
-    public MethodLinesRecorder createRecorder(String methodFingerprint) {
-      MethodLinesRecorder recorder = new MethodLinesRecorder();
-      recordersByMethodFingerprint.put(methodFingerprint, recorder);
-      return recorder;
-    }
-
-    public MethodLines get(Method method) {
-      String methodFingerprint = getFingerprint(method);
-      MethodLinesRecorder methodLinesRecorder = recordersByMethodFingerprint.get(methodFingerprint);
-      if (methodLinesRecorder != null) {
-        return new MethodLines(
-            methodLinesRecorder.startLineNumber, methodLinesRecorder.finishLineNumber);
-      } else {
-        return MethodLines.EMPTY;
-      }
-    }
-
-    public static ClassMethodLines parse(Class<?> clazz) {
-      try {
-        ClassMethodLines classMethodLines = new ClassMethodLines();
-        try (InputStream classStream = Utils.getClassStream(clazz)) {
-          ClassReader classReader = new ClassReader(classStream);
-          MethodLocator methodLocator = new MethodLocator(classMethodLines);
-          classReader.accept(methodLocator, ClassReader.SKIP_FRAMES);
-        }
-        return classMethodLines;
-
-      } catch (Exception e) {
-        // do not cache failure
-        throw new RuntimeException(e);
+  private ByteCodeAnalysis analyze(Class<?> clazz) {
+    try {
+      ByteCodeAnalysis analysis = ByteCodeAnalysisCache.analyze(analysisCache, clazz);
+      if (analysis == null) {
+        throw new IllegalStateException("Could not read class file of " + clazz.getName());
       }
-    }
+      return analysis;
 
-    public static String getFingerprint(Method method) {
-      String methodName = method.getName();
-      String methodDescriptor = Type.getMethodDescriptor(method);
-      return getFingerprint(methodName, methodDescriptor);
-    }
-
-    public static String getFingerprint(String methodName, String methodDescriptor) {
-      return methodName + ';' + methodDescriptor;
-    }
-  }
-
-  private static class MethodLocator extends ClassVisitor {
-    private final ClassMethodLines classMethodLines;
-
-    MethodLocator(ClassMethodLines classMethodLines) {
-      super(Opcodes.ASM9);
-      this.classMethodLines = classMethodLines;
-    }
-
-    @Override
-    public MethodVisitor visitMethod(
-        int access, String name, String descriptor, String signature, String[] exceptions) {
-      return classMethodLines.createRecorder(ClassMethodLines.getFingerprint(name, descriptor));
-    }
-  }
-
-  private static class MethodLinesRecorder extends MethodVisitor {
-    private int startLineNumber = Integer.MAX_VALUE;
-    private int finishLineNumber = Integer.MIN_VALUE;
-
-    MethodLinesRecorder() {
-      super(Opcodes.ASM9);
-    }
-
-    @Override
-    public void visitLineNumber(int line, Label start) {
-      startLineNumber = Math.min(startLineNumber, line);
-      finishLineNumber = Math.max(finishLineNumber, line);
+    } catch (Exception e) {
+      // do not cache failure
+      throw new RuntimeException(e);
     }
   }
 }
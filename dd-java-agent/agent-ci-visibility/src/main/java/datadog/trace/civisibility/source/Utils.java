@@ -43,6 +43,24 @@ public abstract class Utils {
     }
   }
 
+  /**
+   * Same as {@link #getFileName(Class)}, but checks the cache of class files analyzed by the build
+   * system first.
+   */
+  @Nullable
+  public static String getFileName(
+      @Nonnull Class<?> clazz, @Nullable ByteCodeAnalysisCache analysisCache) throws IOException {
+    if (analysisCache == null) {
+      return getFileName(clazz);
+    }
+    ByteCodeAnalysis analysis = ByteCodeAnalysisCache.analyze(analysisCache, clazz);
+    if (analysis == null) {
+      log.debug("Could not get input stream for class {}", clazz.getName());
+      return null;
+    }
+    return analysis.getSourceFile();
+  }
+
   private static final class SourceFileAttributeVisitor extends ClassVisitor {
     private String source;
 
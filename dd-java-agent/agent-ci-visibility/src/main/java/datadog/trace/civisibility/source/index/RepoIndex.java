@@ -2,6 +2,7 @@ package datadog.trace.civisibility.source.index;
 
 import datadog.trace.api.civisibility.domain.Language;
 import datadog.trace.civisibility.ipc.Serializer;
+import datadog.trace.civisibility.source.ByteCodeAnalysisCache;
 import datadog.trace.civisibility.source.Utils;
 import datadog.trace.util.ClassNameTrie;
 import java.io.ByteArrayInputStream;
@@ -43,9 +44,18 @@ public class RepoIndex {
 
   @Nullable
   public String getSourcePath(@Nonnull Class<?> c) {
+    return getSourcePath(c, null);
+  }
+
+  /**
+   * @param analysisCache cache of class files analyzed by the build system, used if the source
+   *     file name needs to be retrieved from the bytecode
+   */
+  @Nullable
+  public String getSourcePath(@Nonnull Class<?> c, @Nullable ByteCodeAnalysisCache analysisCache) {
     String topLevelClassName = Utils.stripNestedClassNames(c.getName());
     String sourcePath = doGetSourcePath(topLevelClassName);
-    return sourcePath != null ? sourcePath : getFallbackSourcePath(c);
+    return sourcePath != null ? sourcePath : getFallbackSourcePath(c, analysisCache);
   }
 
   /**
@@ -54,9 +64,10 @@ public class RepoIndex {
    * retrieved from the bytecode.
    */
   @Nullable
-  private String getFallbackSourcePath(@Nonnull Class<?> c) {
+  private String getFallbackSourcePath(
+      @Nonnull Class<?> c, @Nullable ByteCodeAnalysisCache analysisCache) {
     try {
-      String fileName = Utils.getFileName(c);
+      String fileName = Utils.getFileName(c, analysisCache);
       if (fileName == null) {
         log.error("Could not retrieve file name for class {}", c.getName());
         return null;
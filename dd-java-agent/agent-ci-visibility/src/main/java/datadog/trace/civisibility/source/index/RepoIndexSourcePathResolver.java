@@ -1,5 +1,6 @@
 package datadog.trace.civisibility.source.index;
 
+import datadog.trace.civisibility.source.ByteCodeAnalysisCache;
 import datadog.trace.civisibility.source.SourcePathResolver;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -7,15 +8,22 @@ import javax.annotation.Nullable;
 public class RepoIndexSourcePathResolver implements SourcePathResolver {
 
   private final RepoIndexProvider indexProvider;
+  @Nullable private final ByteCodeAnalysisCache analysisCache;
 
   public RepoIndexSourcePathResolver(RepoIndexProvider indexProvider) {
+    this(indexProvider, null);
+  }
+
+  public RepoIndexSourcePathResolver(
+      RepoIndexProvider indexProvider, @Nullable ByteCodeAnalysisCache analysisCache) {
     this.indexProvider = indexProvider;
+    this.analysisCache = analysisCache;
   }
 
   @Nullable
   @Override
   public String getSourcePath(@Nonnull Class<?> c) {
-    return indexProvider.getIndex().getSourcePath(c);
+    return indexProvider.getIndex().getSourcePath(c, analysisCache);
   }
 
   @Nullable
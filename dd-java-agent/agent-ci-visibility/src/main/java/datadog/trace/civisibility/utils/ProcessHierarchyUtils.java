@@ -3,6 +3,8 @@ package datadog.trace.civisibility.utils;
 import datadog.trace.api.config.CiVisibilityConfig;
 import datadog.trace.util.Strings;
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import javax.annotation.Nullable;
 
 public abstract class ProcessHierarchyUtils {
@@ -87,4 +89,16 @@ public abstract class ProcessHierarchyUtils {
       return null;
     }
   }
+
+  /** @return the byte code analysis cache written by the parent process, if any */
+  @Nullable
+  public static Path getByteCodeAnalysisCachePath() {
+    // System.getProperty is used rather than Config,
+    // because system variables can be set after config was initialized
+    String path =
+        System.getProperty(
+            Strings.propertyNameToSystemPropertyName(
+                CiVisibilityConfig.CIVISIBILITY_BYTECODE_ANALYSIS_CACHE_PATH));
+    return path != null ? Paths.get(path) : null;
+  }
 }
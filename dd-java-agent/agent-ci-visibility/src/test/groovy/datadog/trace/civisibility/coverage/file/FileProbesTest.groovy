@@ -0,0 +1,37 @@
+package datadog.trace.civisibility.coverage.file
+
+import datadog.trace.api.civisibility.coverage.CoverageClassIndex
+import datadog.trace.api.civisibility.telemetry.CiVisibilityMetricCollector
+import spock.lang.Specification
+
+class FileProbesTest extends Specification {
+
+  def "test indexed probes record covered classes"() {
+    given:
+    def probes = new FileProbes(Stub(CiVisibilityMetricCollector), true)
+    def stringIndex = CoverageClassIndex.get("java/lang/String")
+    def integerIndex = CoverageClassIndex.get("java.lang.Integer")
+
+    when:
+    probes.record(String, stringIndex)
+    probes.record(String, stringIndex)
+    probes.record(Integer, integerIndex)
+    probes.record(Long)
+
+    then:
+    probes.getCoveredClasses() as Set == [String, Integer, Long] as Set
+    probes.getCoveredClasses().size() == 3
+  }
+
+  def "test indexed probes accept classes instrumented after probes creation"() {
+    given:
+    def probes = new FileProbes(Stub(CiVisibilityMetricCollector), false)
+    def indices = (0..<200).collect { CoverageClassIndex.get("datadog.test.IndexedClass" + it) }
+
+    when:
+    indices.each { probes.record(Object, it) }
+
+    then:
+    probes.getCoveredClasses().size() == 200
+  }
+}
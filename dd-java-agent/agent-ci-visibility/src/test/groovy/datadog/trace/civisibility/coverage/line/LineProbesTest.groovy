@@ -0,0 +1,59 @@
+package datadog.trace.civisibility.coverage.line
+
+import datadog.trace.api.civisibility.coverage.CoverageClassIndex
+import datadog.trace.api.civisibility.telemetry.CiVisibilityMetricCollector
+import spock.lang.Specification
+
+class LineProbesTest extends Specification {
+
+  def "test indexed probes record covered lines"() {
+    given:
+    def probes = new LineProbes(Stub(CiVisibilityMetricCollector), [(String.name): 4, (Integer.name): 2], true)
+    def stringIndex = CoverageClassIndex.get(String.name)
+    def integerIndex = CoverageClassIndex.get(Integer.name)
+
+    when:
+    probes.record(String, 1L, stringIndex, 0)
+    probes.record(String, 1L, stringIndex, 3)
+    probes.record(Integer, 2L, integerIndex, 1)
+    def data = probes.getExecutionData()
+
+    then:
+    data.keySet() == [String, Integer] as Set
+    data[String].toExecutionData().probes == [true, false, false, true] as boolean[]
+    data[Integer].toExecutionData().probes == [false, true] as boolean[]
+  }
+
+  def "test indexed probes accept classes instrumented after probes creation"() {
+    given:
+    def classes = (0..<50).collect { new GroovyClassLoader().parseClass("class LineIndexedClass$it {}") }
+    def probes = new LineProbes(Stub(CiVisibilityMetricCollector), classes.collectEntries { [(it.name): 1] }, false)
+
+    when:
+    classes.each { probes.record(it, 1L, CoverageClassIndex.get(it.name), 0) }
+    def data = probes.getExecutionData()
+
+    then:
+    data.keySet() == classes as Set
+    data.values().every { it.toExecutionData().probes == [true] as boolean[] }
+  }
+
+  def "test indexed probes keep classes with the same name from different class loaders apart"() {
+    given:
+    def first = new GroovyClassLoader().parseClass("class LineSameNameClass {}")
+    def second = new GroovyClassLoader().parseClass("class LineSameNameClass {}")
+    def probes = new LineProbes(Stub(CiVisibilityMetricCollector), [(first.name): 2], true)
+    def index = CoverageClassIndex.get(first.name)
+
+    when:
+    probes.record(first, 1L, index, 0)
+    probes.record(second, 1L, index, 1)
+    probes.record(first, 1L, index, 0)
+    def data = probes.getExecutionData()
+
+    then:
+    data.size() == 2
+    data[first].toExecutionData().probes == [true, false] as boolean[]
+    data[second].toExecutionData().probes == [false, true] as boolean[]
+  }
+}
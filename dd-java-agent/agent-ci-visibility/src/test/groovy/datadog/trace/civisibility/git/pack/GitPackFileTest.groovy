@@ -0,0 +1,49 @@
+package datadog.trace.civisibility.git.pack
+
+import datadog.trace.test.util.DDSpecification
+
+class GitPackFileTest extends DDSpecification {
+
+  def "test apply delta"() {
+    given:
+    def base = "Hello, World!".bytes
+    byte[] delta = [
+      13, // base size
+      15, // result size
+      0x91, 0, 7, // copy 7 bytes from offset 0: "Hello, "
+      3, 'G' as char, 'i' as char, 't' as char, // insert "Git"
+      0x91, 12, 1, // copy 1 byte from offset 12: "!"
+      4, ' ' as char, ':' as char, '-' as char, ')' as char // insert " :-)"
+    ] as byte[]
+
+    when:
+    def result = GitPackFile.applyDelta(base, delta)
+
+    then:
+    new String(result) == "Hello, Git! :-)"
+  }
+
+  def "test apply delta with wrong base size"() {
+    given:
+    def base = "Hello".bytes
+    byte[] delta = [13, 1, 1, 'a' as char] as byte[]
+
+    when:
+    GitPackFile.applyDelta(base, delta)
+
+    then:
+    thrown(IOException)
+  }
+
+  def "test apply corrupted delta"() {
+    given:
+    def base = "Hello".bytes
+    byte[] delta = [5, 10, 0x91, 0, 10] as byte[]
+
+    when:
+    GitPackFile.applyDelta(base, delta)
+
+    then:
+    thrown(IOException)
+  }
+}
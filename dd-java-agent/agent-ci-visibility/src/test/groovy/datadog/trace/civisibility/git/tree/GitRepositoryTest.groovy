@@ -0,0 +1,154 @@
+package datadog.trace.civisibility.git.tree
+
+import datadog.communication.util.IOUtils
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.time.Instant
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+class GitRepositoryTest extends Specification {
+
+  private static final long SINCE_25_YEARS_AGO = GitRepository.parseRelativeDate("25 years ago", System.currentTimeMillis())
+
+  @TempDir
+  private Path tempDir
+
+  def "test reads repository state"() {
+    given:
+    def repository = givenRepository("ci/git/shallow/git")
+
+    expect:
+    repository.getGitFolder() == tempDir.resolve(".git").toRealPath().toString()
+    repository.isShallow()
+    repository.getCurrentBranch() == "master"
+    repository.getRemoteUrl("origin") == "git@github.com:Netflix/zuul.git"
+
+    cleanup:
+    repository.close()
+  }
+
+  def "test resolves references"() {
+    given:
+    def repository = givenRepository("ci/git/shallow/git")
+
+    expect:
+    repository.resolve(reference) == sha
+
+    cleanup:
+    repository.close()
+
+    where:
+    reference                                  | sha
+    "HEAD"                                     | "98b944cc44f18bfb78e3021de2999cdcda8efdf6"
+    "master"                                   | "98b944cc44f18bfb78e3021de2999cdcda8efdf6"
+    "98B944CC44F18BFB78E3021DE2999CDCDA8EFDF6" | "98b944cc44f18bfb78e3021de2999cdcda8efdf6"
+    "HEAD~1"                                   | null
+    "98b944c"                                  | null
+    "@{upstream}"                              | null
+  }
+
+  def "test reads commit"() {
+    given:
+    def repository = givenRepository("ci/git/shallow/git")
+
+    when:
+    def commit = repository.getCommit(GitClient.HEAD)
+
+    then:
+    commit.sha == "98b944cc44f18bfb78e3021de2999cdcda8efdf6"
+    commit.tree == "0b04628e3bdba9b0ab9050a96072f0749574d415"
+    commit.author.name == "dependabot[bot]"
+    commit.author.email == "49699333+dependabot[bot]@users.noreply.github.com"
+    commit.author.getIso8601Date() == "2023-06-19T10:19:12-07:00"
+    commit.committer.name == "GitHub"
+    commit.committer.email == "noreply@github.com"
+    commit.committer.getIso8601Date() == "2023-06-19T10:19:12-07:00"
+    commit.fullMessage.startsWith("build(deps): bump org.openrewrite.rewrite from 5.40.4 to 6.1.4 (#1602)\n\n")
+    repository.getTags(commit.sha) == []
+
+    cleanup:
+    repository.close()
+  }
+
+  def "test shallow commits have no parents"() {
+    given:
+    def repository = givenRepository("ci/git/shallow/git")
+
+    when:
+    def commits = repository.getLatestCommits(SINCE_25_YEARS_AGO, 10)
+
+    then:
+    commits == ["98b944cc44f18bfb78e3021de2999cdcda8efdf6"]
+
+    cleanup:
+    repository.close()
+  }
+
+  def "test lists commits and trees"() {
+    given:
+    def repository = givenRepository("ci/git/shallow/git")
+
+    when:
+    def objects = repository.getObjects([], ["98b944cc44f18bfb78e3021de2999cdcda8efdf6"], SINCE_25_YEARS_AGO)
+
+    then:
+    objects.size() == 207
+    objects.subList(0, 3) == [
+      "98b944cc44f18bfb78e3021de2999cdcda8efdf6",
+      "0b04628e3bdba9b0ab9050a96072f0749574d415",
+      "2df3ae204b5f71412adf71ba419e1a75c19fa32a"
+    ]
+
+    cleanup:
+    repository.close()
+  }
+
+  def "test skipped commits are not listed"() {
+    given:
+    def repository = givenRepository("ci/git/shallow/git")
+
+    when:
+    def objects = repository.getObjects(["98b944cc44f18bfb78e3021de2999cdcda8efdf6"], ["98b944cc44f18bfb78e3021de2999cdcda8efdf6"], SINCE_25_YEARS_AGO)
+
+    then:
+    objects.empty
+
+    cleanup:
+    repository.close()
+  }
+
+  def "test parses relative dates: #date"() {
+    given:
+    def now = ZonedDateTime.of(2024, 3, 31, 12, 0, 0, 0, ZoneOffset.UTC)
+
+    when:
+    def parsed = GitRepository.parseRelativeDate(date, now.toInstant().toEpochMilli())
+
+    then:
+    parsed == (expected != null ? Instant.parse(expected).epochSecond : null)
+
+    where:
+    date            | expected
+    "1 month ago"   | "2024-02-29T12:00:00Z"
+    "'1 month ago'" | "2024-02-29T12:00:00Z"
+    "2 years ago"   | "2022-03-31T12:00:00Z"
+    "3 days ago"    | "2024-03-28T12:00:00Z"
+    "1 week ago"    | "2024-03-24T12:00:00Z"
+    "yesterday"     | null
+    "2024-01-01"    | null
+    "a month ago"   | null
+  }
+
+  private GitRepository givenRepository(String resourceName) {
+    def gitFolder = Paths.get(getClass().getClassLoader().getResource(resourceName).toURI())
+    def tempGitFolder = tempDir.resolve(".git")
+    Files.createDirectories(tempGitFolder)
+    IOUtils.copyFolder(gitFolder, tempGitFolder)
+    return GitRepository.open(tempDir)
+  }
+}
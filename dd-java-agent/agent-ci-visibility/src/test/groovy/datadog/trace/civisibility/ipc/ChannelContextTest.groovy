@@ -144,6 +144,32 @@ class ChannelContextTest extends Specification {
     Arrays.equals(messages.poll(), "t".bytes)
   }
 
+  def "test buffer capacity is restored after a message is fully consumed"() {
+    given:
+    def messages = new LinkedList<byte[]>()
+    def context = new ChannelContext(10, { ByteBuffer bb ->
+      messages.offer(bb.array())
+      return new ByteBuffer[0]
+    })
+
+    when:
+    def channel = new InMemoryReadableByteChannel()
+    writeMessage("1".bytes, channel)
+
+    context.read(channel)
+
+    writeMessage("12345".bytes, channel)
+
+    context.read(channel)
+
+    then:
+    messages.size() == 2
+    Arrays.equals(messages.poll(), "1".bytes)
+    Arrays.equals(messages.poll(), "12345".bytes)
+    // the second message fits into the buffer, so it is read at once
+    channel.reads == [5, 9]
+  }
+
   def "test partial message length write: #length"() {
     given:
     def messages = new LinkedList<byte[]>()
@@ -315,6 +341,7 @@ class ChannelContextTest extends Specification {
     private boolean eos
     private final Deque<byte[]> input = new ArrayDeque<>()
     private final Deque<byte[]> output = new ArrayDeque<>()
+    private final List<Integer> reads = new ArrayList<>()
 
     private final int outputBufferCapacity
 
@@ -346,6 +373,10 @@ class ChannelContextTest extends Specification {
       return bytes
     }
 
+    List<Integer> getReads() {
+      return reads
+    }
+
     void eos() {
       eos = true
     }
@@ -376,6 +407,9 @@ class ChannelContextTest extends Specification {
           read += whatFits.length
         }
       }
+      if (read > 0) {
+        reads.add(read)
+      }
       return read
     }
 
@@ -0,0 +1,86 @@
+package datadog.trace.civisibility.ipc
+
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+
+class SignalFramesTest extends Specification {
+
+  def "test payload of size #payloadSize is split into #expectedFrames frames"() {
+    given:
+    def payload = new byte[payloadSize]
+    new Random(0).nextBytes(payload)
+
+    when:
+    def frames = SignalFrames.encode(42, SignalType.MODULE_COVERAGE_DATA_JACOCO, ByteBuffer.wrap(payload))
+    def message = assemble(new SignalFrames.Assembler(), frames)
+
+    then:
+    frames.length == expectedFrames * 2
+    message.requestId == 42
+    message.type == SignalType.MODULE_COVERAGE_DATA_JACOCO
+    toArray(message.payload) == payload
+
+    where:
+    payloadSize                         | expectedFrames
+    0                                   | 1
+    100                                 | 1
+    SignalFrames.MAX_CHUNK_SIZE         | 1
+    SignalFrames.MAX_CHUNK_SIZE + 1     | 2
+    SignalFrames.MAX_CHUNK_SIZE * 5 + 7 | 6
+  }
+
+  def "test interleaved frames of different requests are reassembled"() {
+    given:
+    def payloadA = new byte[SignalFrames.MAX_CHUNK_SIZE * 2 + 1]
+    def payloadB = new byte[SignalFrames.MAX_CHUNK_SIZE + 1]
+    Arrays.fill(payloadA, (byte) 1)
+    Arrays.fill(payloadB, (byte) 2)
+    def framesA = SignalFrames.encode(1, SignalType.MODULE_COVERAGE_DATA_JACOCO, ByteBuffer.wrap(payloadA))
+    def framesB = SignalFrames.encode(2, SignalType.MODULE_EXECUTION_RESULT, ByteBuffer.wrap(payloadB))
+    def assembler = new SignalFrames.Assembler()
+
+    when:
+    def messages = []
+    for (int i = 0; i < Math.max(framesA.length, framesB.length); i += 2) {
+      if (i < framesA.length) {
+        messages << assembler.onFrame(toFrame(framesA[i], framesA[i + 1]))
+      }
+      if (i < framesB.length) {
+        messages << assembler.onFrame(toFrame(framesB[i], framesB[i + 1]))
+      }
+    }
+    messages.removeAll { it == null }
+
+    then:
+    messages.size() == 2
+    messages[0].requestId == 2
+    toArray(messages[0].payload) == payloadB
+    messages[1].requestId == 1
+    toArray(messages[1].payload) == payloadA
+  }
+
+  private static SignalFrames.Message assemble(SignalFrames.Assembler assembler, ByteBuffer[] frames) {
+    SignalFrames.Message message = null
+    for (int i = 0; i < frames.length; i += 2) {
+      assert message == null
+      message = assembler.onFrame(toFrame(frames[i], frames[i + 1]))
+    }
+    return message
+  }
+
+  private static ByteBuffer toFrame(ByteBuffer header, ByteBuffer chunk) {
+    def frameLength = header.getInt()
+    def frame = ByteBuffer.allocate(frameLength)
+    frame.put(header)
+    frame.put(chunk)
+    frame.flip()
+    return frame
+  }
+
+  private static byte[] toArray(ByteBuffer buffer) {
+    def bytes = new byte[buffer.remaining()]
+    buffer.get(bytes)
+    return bytes
+  }
+}
@@ -1,7 +1,11 @@
 package datadog.trace.civisibility.ipc
 
+import datadog.trace.api.Config
 import spock.lang.Specification
 
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
 import java.util.concurrent.atomic.AtomicBoolean
 
 class SignalServerTest extends Specification {
@@ -151,4 +155,87 @@ class SignalServerTest extends Specification {
     cleanup:
     server.stop()
   }
+
+  def "test concurrent requests are pipelined over shared connection"() {
+    given:
+    def server = new SignalServer()
+    def received = new ConcurrentLinkedQueue()
+    server.registerSignalHandler(SignalType.MODULE_EXECUTION_RESULT, {
+      received.add(it)
+      return AckResponse.INSTANCE
+    })
+    server.start()
+
+    def config = Stub(Config)
+    config.getCiVisibilitySignalClientTimeoutMillis() >> signalClientTimeoutMillis
+    def factory = new SignalClient.Factory(server.getAddress(), config)
+    def executor = Executors.newFixedThreadPool(8)
+
+    when:
+    def futures = (0..<100).collect { idx ->
+      executor.submit({
+        try (def client = factory.create()) {
+          client.send(new ModuleExecutionResult(idx, idx, false, false, false, false, 0, Collections.singletonList(new TestFramework("junit", "4.13.2"))))
+        }
+      } as Callable)
+    }
+    futures*.get()
+
+    then:
+    factory.create().is(factory.create())
+    received.size() == 100
+    received.collect { it.sessionId } as Set == (0L..<100L) as Set
+
+    cleanup:
+    executor.shutdownNow()
+    server.stop()
+  }
+
+  def "test load from many child processes sending large coverage payloads"() {
+    given:
+    def childProcesses = 50
+    def signalsPerChildProcess = 10
+    def coverageData = new byte[SignalFrames.MAX_CHUNK_SIZE * 3 + 123]
+    new Random(0).nextBytes(coverageData)
+
+    def server = new SignalServer()
+    def received = new ConcurrentLinkedQueue<ModuleCoverageDataJacoco>()
+    server.registerSignalHandler(SignalType.MODULE_COVERAGE_DATA_JACOCO, {
+      received.add(it as ModuleCoverageDataJacoco)
+      return AckResponse.INSTANCE
+    })
+    server.registerSignalHandler(SignalType.MODULE_EXECUTION_RESULT, {
+      return AckResponse.INSTANCE
+    })
+    server.start()
+
+    // every client simulates a child process with a single connection used by several threads
+    def clients = (0..<childProcesses).collect { new SignalClient(server.getAddress(), signalClientTimeoutMillis) }
+    def executor = Executors.newFixedThreadPool(32)
+
+    when:
+    def futures = []
+    for (int child = 0; child < childProcesses; child++) {
+      def client = clients[child]
+      def moduleId = child
+      for (int i = 0; i < signalsPerChildProcess; i++) {
+        def signalIdx = i
+        futures << executor.submit({
+          client.send(new ModuleCoverageDataJacoco(signalIdx, moduleId, coverageData))
+          client.send(new ModuleExecutionResult(signalIdx, moduleId, false, false, false, false, 0, Collections.singletonList(new TestFramework("junit", "4.13.2"))))
+        } as Callable)
+      }
+    }
+    futures*.get()
+
+    then:
+    received.size() == childProcesses * signalsPerChildProcess
+    received.every { Arrays.equals(it.coverageData, coverageData) }
+    received.collect { [it.sessionId, it.moduleId] } as Set == [(0L..<signalsPerChildProcess), (0L..<childProcesses)].combinations() as Set
+
+    cleanup:
+    clients*.close()
+    executor.shutdownNow()
+    server.stop()
+  }
 }
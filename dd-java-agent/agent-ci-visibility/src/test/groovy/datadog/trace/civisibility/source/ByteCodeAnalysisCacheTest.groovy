@@ -0,0 +1,92 @@
+package datadog.trace.civisibility.source
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ByteCodeAnalysisCacheTest extends Specification {
+
+  @TempDir
+  Path tempDir
+
+  def "test cache returns analysis of written class files"() {
+    setup:
+    def classesDir = tempDir.resolve("classes")
+    def classFile = givenClassFile(classesDir, NestedClass)
+    def cacheFile = tempDir.resolve("cache.bin")
+
+    when:
+    def classCount = ByteCodeAnalysisCache.write(cacheFile, [classesDir.toFile()])
+    def cache = ByteCodeAnalysisCache.open(cacheFile)
+    def analysis = cache.get(classFile)
+
+    then:
+    classCount == 1
+    analysis.sourceFile == "ByteCodeAnalysisCacheTest.groovy"
+    analysis.getMethodLines(NestedClass.getDeclaredMethod("aTestMethod")) == ByteCodeAnalysis.analyze(classFile).getMethodLines(NestedClass.getDeclaredMethod("aTestMethod"))
+    analysis.getMethodLines(NestedClass.getDeclaredMethod("aTestMethod")).isValid()
+    !analysis.getMethodLines(NestedClass.getDeclaredMethod("abstractMethod")).isValid()
+  }
+
+  def "test cache returns null for unknown class files"() {
+    setup:
+    def classesDir = tempDir.resolve("classes")
+    givenClassFile(classesDir, NestedClass)
+    def cacheFile = tempDir.resolve("cache.bin")
+    ByteCodeAnalysisCache.write(cacheFile, [classesDir.toFile()])
+
+    when:
+    def cache = ByteCodeAnalysisCache.open(cacheFile)
+
+    then:
+    cache.get(readClassFile(ByteCodeAnalysisCacheTest)) == null
+  }
+
+  def "test method lines resolver uses cache"() {
+    setup:
+    def classesDir = tempDir.resolve("classes")
+    givenClassFile(classesDir, NestedClass)
+    def cacheFile = tempDir.resolve("cache.bin")
+    ByteCodeAnalysisCache.write(cacheFile, [classesDir.toFile()])
+    def aTestMethod = NestedClass.getDeclaredMethod("aTestMethod")
+
+    when:
+    def methodLines = new ByteCodeMethodLinesResolver(ByteCodeAnalysisCache.open(cacheFile)).getLines(aTestMethod)
+
+    then:
+    methodLines == new ByteCodeMethodLinesResolver().getLines(aTestMethod)
+  }
+
+  def "test invalid cache file is ignored"() {
+    setup:
+    def cacheFile = tempDir.resolve("cache.bin")
+    Files.write(cacheFile, "not a cache".bytes)
+
+    expect:
+    ByteCodeAnalysisCache.open(cacheFile) == null
+    ByteCodeAnalysisCache.open(tempDir.resolve("missing.bin")) == null
+  }
+
+  private static byte[] givenClassFile(Path classesDir, Class<?> clazz) {
+    def classFile = readClassFile(clazz)
+    def path = classesDir.resolve(clazz.name.replace('.', '/') + ".class")
+    Files.createDirectories(path.parent)
+    Files.write(path, classFile)
+    return classFile
+  }
+
+  private static byte[] readClassFile(Class<?> clazz) {
+    return Utils.getClassStream(clazz).withCloseable { it.bytes }
+  }
+
+  private static abstract class NestedClass {
+    static double aTestMethod() {
+      def random = Math.random()
+      return random
+    }
+
+    abstract void abstractMethod()
+  }
+}
@@ -56,10 +56,10 @@ class ByteCodeMethodLinesResolverTest extends Specification {
   def "test returns empty method lines when unknown method is attempted to be resolved"() {
     setup:
     def aTestMethod = NestedClass.getDeclaredMethod("abstractMethod")
-    def classMethodLines = new ByteCodeMethodLinesResolver.ClassMethodLines()
+    def analysis = new ByteCodeAnalysis(null, [:])
 
     when:
-    def methodLines = classMethodLines.get(aTestMethod)
+    def methodLines = analysis.getMethodLines(aTestMethod)
 
     then:
     !methodLines.isValid()
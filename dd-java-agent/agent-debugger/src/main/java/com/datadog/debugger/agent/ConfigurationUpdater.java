@@ -79,6 +79,8 @@ public class ConfigurationUpdater implements DebuggerContext.ProbeResolver, Conf
   // the exception will be reported in the next request to the conf service
   @Override
   public void accept(Source source, Collection<? extends ProbeDefinition> definitions) {
+    // definitions from all sources are merged under the lock, so concurrent updates don't race
+    configurationLock.lock();
     try {
       LOGGER.debug("Received new definitions from {}", source);
       definitionSources.put(source, definitions);
@@ -87,6 +89,8 @@ public class ConfigurationUpdater implements DebuggerContext.ProbeResolver, Conf
     } catch (RuntimeException e) {
       ExceptionHelper.logException(LOGGER, e, "Error during accepting new debugger configuration:");
       throw e;
+    } finally {
+      configurationLock.unlock();
     }
   }
 
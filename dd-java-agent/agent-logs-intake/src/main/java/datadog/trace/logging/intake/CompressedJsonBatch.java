@@ -0,0 +1,122 @@
+package datadog.trace.logging.intake;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+
+/**
+ * JSON array of log events that is gzip-compressed as the events are added. The uncompressed size
+ * is tracked incrementally, so that the dispatcher can split batches without materializing them.
+ *
+ * <p>The instance (including its deflater and buffers) is reused for subsequent batches, it is not
+ * thread-safe.
+ */
+final class CompressedJsonBatch {
+
+  private static final MediaType JSON = MediaType.get("application/json");
+
+  private static final byte[] GZIP_HEADER = {
+    0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+  };
+  private static final int GZIP_TRAILER_SIZE = 8;
+
+  private static final byte[] ARRAY_START = {'['};
+  private static final byte[] ARRAY_END = {']'};
+  private static final byte[] SEPARATOR = {','};
+
+  private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+  private final CRC32 crc = new CRC32();
+  private final byte[] inputChunk = new byte[8192];
+
+  private byte[] compressed = new byte[64 * 1024];
+  private int compressedLength;
+
+  private int count;
+  private long uncompressedSize;
+
+  CompressedJsonBatch() {
+    reset();
+  }
+
+  int count() {
+    return count;
+  }
+
+  /** @return combined size of the events in the batch, not including separators */
+  long uncompressedSize() {
+    return uncompressedSize;
+  }
+
+  /** Adds an event, consuming the contents of the buffer. */
+  void add(Buffer json) {
+    if (count != 0) {
+      write(SEPARATOR, SEPARATOR.length);
+    }
+    uncompressedSize += json.size();
+    count++;
+
+    int read;
+    while ((read = json.read(inputChunk, 0, inputChunk.length)) > 0) {
+      write(inputChunk, read);
+    }
+  }
+
+  /**
+   * Completes the batch. The returned body is backed by the internal buffer of this instance, so it
+   * has to be sent before {@link #reset()} is called.
+   */
+  RequestBody finish() {
+    write(ARRAY_END, ARRAY_END.length);
+    deflater.finish();
+    while (!deflater.finished()) {
+      deflate();
+    }
+
+    ensureCapacity(GZIP_TRAILER_SIZE);
+    writeIntLE((int) crc.getValue());
+    writeIntLE(deflater.getTotalIn());
+    return RequestBody.create(JSON, compressed, 0, compressedLength);
+  }
+
+  void reset() {
+    deflater.reset();
+    crc.reset();
+    count = 0;
+    uncompressedSize = 0;
+    compressedLength = GZIP_HEADER.length;
+    System.arraycopy(GZIP_HEADER, 0, compressed, 0, GZIP_HEADER.length);
+    write(ARRAY_START, ARRAY_START.length);
+  }
+
+  private void write(byte[] bytes, int length) {
+    crc.update(bytes, 0, length);
+    deflater.setInput(bytes, 0, length);
+    while (!deflater.needsInput()) {
+      deflate();
+    }
+  }
+
+  private void deflate() {
+    ensureCapacity(1);
+    compressedLength +=
+        deflater.deflate(
+            compressed, compressedLength, compressed.length - compressedLength, Deflater.NO_FLUSH);
+  }
+
+  private void ensureCapacity(int bytes) {
+    if (compressed.length - compressedLength < bytes) {
+      compressed =
+          Arrays.copyOf(compressed, Math.max(compressed.length << 1, compressedLength + bytes));
+    }
+  }
+
+  private void writeIntLE(int value) {
+    compressed[compressedLength++] = (byte) value;
+    compressed[compressedLength++] = (byte) (value >> 8);
+    compressed[compressedLength++] = (byte) (value >> 16);
+    compressed[compressedLength++] = (byte) (value >> 24);
+  }
+}
@@ -3,15 +3,12 @@ package datadog.trace.logging.intake;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
 import datadog.communication.BackendApi;
-import datadog.communication.http.OkHttpUtils;
 import datadog.communication.util.IOThrowingFunction;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
-import okhttp3.MediaType;
-import okhttp3.RequestBody;
+import okio.Buffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,7 +16,6 @@ public class LogsDispatcher {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LogsDispatcher.class);
 
-  private static final MediaType JSON = MediaType.get("application/json");
   private static final IOThrowingFunction<InputStream, Object> IGNORE_RESPONSE = is -> null;
 
   // Maximum array size if sending multiple logs in an array: 1000 entries
@@ -33,6 +29,8 @@ public class LogsDispatcher {
 
   private final BackendApi backendApi;
   private final JsonAdapter<Map> jsonAdapter;
+  private final Buffer encodedMessage = new Buffer();
+  private final CompressedJsonBatch batch = new CompressedJsonBatch();
   private final int maxBatchRecords;
   private final int maxBatchBytes;
   private final int maxMessageBytes;
@@ -53,41 +51,43 @@ public class LogsDispatcher {
     this.maxMessageBytes = maxMessageBytes;
   }
 
+  /** Not thread-safe: the buffers used for encoding are reused between invocations. */
   public void dispatch(List<Map<String, Object>> messages) {
-    StringBuilder batch = new StringBuilder("[");
-    int batchCount = 0, batchLength = 0;
+    batch.reset();
 
     for (Map<String, Object> message : messages) {
-      String json = jsonAdapter.toJson(message);
-      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
-      if (bytes.length > maxMessageBytes) {
-        LOGGER.debug("Discarding a log message whose size {} exceeds the limit", bytes.length);
+      try {
+        jsonAdapter.toJson(encodedMessage, message);
+      } catch (IOException e) {
+        LOGGER.debug("Could not encode log message", e);
+        encodedMessage.clear();
         continue;
       }
 
-      if (batchCount + 1 > maxBatchRecords || batchLength + bytes.length >= maxBatchBytes) {
-        flush(batch.append("]"));
-        batch = new StringBuilder("[");
-        batchCount = 0;
-        batchLength = 0;
+      long messageBytes = encodedMessage.size();
+      if (messageBytes > maxMessageBytes) {
+        LOGGER.debug("Discarding a log message whose size {} exceeds the limit", messageBytes);
+        encodedMessage.clear();
+        continue;
       }
 
-      if (batchCount != 0) {
-        batch.append(",");
+      if (batch.count() + 1 > maxBatchRecords
+          || batch.uncompressedSize() + messageBytes >= maxBatchBytes) {
+        flush();
+        batch.reset();
       }
-      batch.append(json);
-      batchCount += 1;
-      batchLength += bytes.length;
+
+      batch.add(encodedMessage);
     }
 
-    flush(batch.append("]"));
+    if (batch.count() != 0) {
+      flush();
+    }
   }
 
-  private void flush(StringBuilder batch) {
+  private void flush() {
     try {
-      RequestBody requestBody = RequestBody.create(JSON, batch.toString());
-      RequestBody gzippedRequestBody = OkHttpUtils.gzippedRequestBodyOf(requestBody);
-      backendApi.post("logs", gzippedRequestBody, IGNORE_RESPONSE, null, true);
+      backendApi.post("logs", batch.finish(), IGNORE_RESPONSE, null, true);
     } catch (IOException e) {
       LOGGER.error("Could not dispatch logs", e);
     }
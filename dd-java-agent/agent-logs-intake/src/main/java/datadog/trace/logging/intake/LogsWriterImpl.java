@@ -9,9 +9,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.TimeUnit;
+import org.jctools.queues.MpscBlockingConsumerArrayQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,11 +18,10 @@ public class LogsWriterImpl implements LogsWriter {
   private static final Logger LOGGER = LoggerFactory.getLogger(LogsWriterImpl.class);
 
   private static final long POLLING_THREAD_SHUTDOWN_TIMEOUT_MILLIS = 5_000;
-  private static final int ENQUEUE_LOG_TIMEOUT_MILLIS = 1_000;
 
   private final Map<String, Object> commonTags;
   private final LogsDispatcher logsDispatcher;
-  private final BlockingQueue<Map<String, Object>> messageQueue;
+  private final MpscBlockingConsumerArrayQueue<Map<String, Object>> messageQueue;
   private final Thread messagePollingThread;
 
   public LogsWriterImpl(Config config, LogsDispatcher logsDispatcher) {
@@ -36,7 +33,8 @@ public class LogsWriterImpl implements LogsWriter {
     commonTags.put("service", config.getServiceName());
     commonTags.put("hostname", config.getHostName());
 
-    messageQueue = new ArrayBlockingQueue<>(config.getAgentlessLogSubmissionQueueSize());
+    messageQueue =
+        new MpscBlockingConsumerArrayQueue<>(config.getAgentlessLogSubmissionQueueSize());
     messagePollingThread =
         AgentThreadFactory.newAgentThread(
             AgentThreadFactory.AgentThread.LOGS_INTAKE, this::logPollingLoop);
@@ -71,32 +69,29 @@ public class LogsWriterImpl implements LogsWriter {
 
   @Override
   public void log(Map<String, Object> message) {
-    try {
-      message.putAll(commonTags);
+    message.putAll(commonTags);
 
-      if (!messageQueue.offer(message, ENQUEUE_LOG_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
-        LOGGER.debug("Timeout while trying to enqueue log message");
-      }
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      LOGGER.debug("Interrupted while trying to log");
+    // logging threads are never blocked: if the queue is full, the message is dropped
+    if (!messageQueue.offer(message)) {
+      LOGGER.debug("Log message queue is full, dropping log message");
     }
   }
 
   private void logPollingLoop() {
+    List<Map<String, Object>> batch = new ArrayList<>();
     while (!Thread.currentThread().isInterrupted()) {
       try {
-        List<Map<String, Object>> batch = new ArrayList<>();
         batch.add(messageQueue.take());
         messageQueue.drainTo(batch);
         logsDispatcher.dispatch(batch);
+        batch.clear();
 
       } catch (InterruptedException e) {
         break;
       }
     }
 
-    List<Map<String, Object>> batch = new ArrayList<>();
+    batch.clear();
     messageQueue.drainTo(batch);
     if (!batch.isEmpty()) {
       logsDispatcher.dispatch(batch);
@@ -67,6 +67,24 @@ class LogsDispatcherTest extends Specification {
     "e" == api.messages.poll()["message"]
   }
 
+  def "dispatcher can be reused for subsequent batches"() {
+    setup:
+    def api = new DummyBackendApi()
+    def dispatcher = new LogsDispatcher(api)
+    def longMessage = "abcdefghij" * 10_000
+
+    when:
+    dispatcher.dispatch([["message": longMessage], ["message": "b"]])
+    dispatcher.dispatch([["message": "c"]])
+
+    then:
+    2 == api.requestsReceived
+    3 == api.messages.size()
+    longMessage == api.messages.poll()["message"]
+    "b" == api.messages.poll()["message"]
+    "c" == api.messages.poll()["message"]
+  }
+
   private static final class DummyBackendApi implements BackendApi {
     private final listJsonAdapter = new Moshi.Builder().build().adapter(List.class)
     private final Queue<Map<String, Object>> messages = new ArrayDeque<>()
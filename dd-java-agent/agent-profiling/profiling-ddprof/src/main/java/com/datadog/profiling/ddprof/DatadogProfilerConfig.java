@@ -5,6 +5,8 @@ import static datadog.trace.api.config.ProfilingConfig.PROFILING_ALLOCATION_ENAB
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_CONTEXT_ATTRIBUTES;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_CONTEXT_ATTRIBUTES_RESOURCE_NAME_ENABLED;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_CONTEXT_ATTRIBUTES_SPAN_NAME_ENABLED;
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_CONTEXT_BATCHING_ENABLED;
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_CONTEXT_BATCHING_ENABLED_DEFAULT;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_ALLOC_ENABLED;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_ALLOC_INTERVAL;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_ALLOC_INTERVAL_DEFAULT;
@@ -306,6 +308,17 @@ public class DatadogProfilerConfig {
         ProfilingConfig.PROFILING_ENDPOINT_COLLECTION_ENABLED_DEFAULT);
   }
 
+  public static boolean isContextBatchingEnabled() {
+    return isContextBatchingEnabled(ConfigProvider.getInstance());
+  }
+
+  public static boolean isContextBatchingEnabled(ConfigProvider configProvider) {
+    return getBoolean(
+        configProvider,
+        PROFILING_CONTEXT_BATCHING_ENABLED,
+        PROFILING_CONTEXT_BATCHING_ENABLED_DEFAULT);
+  }
+
   public static boolean isQueueTimeEnabled() {
     return isQueueTimeEnabled(ConfigProvider.getInstance());
   }
@@ -28,6 +28,9 @@ public class DatadogProfilingIntegration implements ProfilingContextIntegration
   private static final boolean IS_PROFILING_QUEUEING_TIME_ENABLED =
       DatadogProfilerConfig.isQueueTimeEnabled();
 
+  private static final boolean IS_CONTEXT_BATCHING_ENABLED =
+      DatadogProfilerConfig.isContextBatchingEnabled();
+
   private final Stateful contextManager =
       new Stateful() {
         @Override
@@ -48,9 +51,46 @@ public class DatadogProfilingIntegration implements ProfilingContextIntegration
         }
       };
 
+  /**
+   * Only writes to the profiler when the context actually changes on the current thread, which
+   * avoids rewriting identical values when the same span is activated over and over.
+   */
+  private final Stateful batchingContextManager =
+      new Stateful() {
+        @Override
+        public void close() {
+          if (ThreadContextSlot.current().clear()) {
+            DDPROF.clearSpanContext();
+            DDPROF.clearContextValue(SPAN_NAME_INDEX);
+            DDPROF.clearContextValue(RESOURCE_NAME_INDEX);
+          }
+        }
+
+        @Override
+        public void activate(Object context) {
+          if (context instanceof ProfilerContext) {
+            ProfilerContext profilerContext = (ProfilerContext) context;
+            ThreadContextSlot slot = ThreadContextSlot.current();
+            if (slot.updateSpanContext(
+                profilerContext.getSpanId(), profilerContext.getRootSpanId())) {
+              DDPROF.setSpanContext(profilerContext.getSpanId(), profilerContext.getRootSpanId());
+            }
+            int encodedOperationName = profilerContext.getEncodedOperationName();
+            if (slot.updateOperationName(encodedOperationName)) {
+              DDPROF.setContextValue(SPAN_NAME_INDEX, encodedOperationName);
+            }
+            // the resource name may be set late, so compare the encoding rather than the span
+            int encodedResourceName = profilerContext.getEncodedResourceName();
+            if (slot.updateResourceName(encodedResourceName)) {
+              DDPROF.setContextValue(RESOURCE_NAME_INDEX, encodedResourceName);
+            }
+          }
+        }
+      };
+
   @Override
   public Stateful newScopeState(ProfilerContext profilerContext) {
-    return contextManager;
+    return IS_CONTEXT_BATCHING_ENABLED ? batchingContextManager : contextManager;
   }
 
   @Override
@@ -94,6 +134,9 @@ public class DatadogProfilingIntegration implements ProfilingContextIntegration
   }
 
   public void clearContext() {
+    if (IS_CONTEXT_BATCHING_ENABLED) {
+      ThreadContextSlot.current().clear();
+    }
     DDPROF.clearSpanContext();
     DDPROF.clearContextValue(SPAN_NAME_INDEX);
     DDPROF.clearContextValue(RESOURCE_NAME_INDEX);
@@ -0,0 +1,62 @@
+package com.datadog.profiling.ddprof;
+
+/**
+ * Mirrors the context last written into the profiler for the owning thread, so that repeated
+ * activations of the same span (common in deep reactive call chains) do not write identical values
+ * into the native context again. Instances are thread confined and must only be accessed from the
+ * thread they were created for.
+ */
+final class ThreadContextSlot {
+
+  private static final ThreadLocal<ThreadContextSlot> SLOTS =
+      ThreadLocal.withInitial(ThreadContextSlot::new);
+
+  static ThreadContextSlot current() {
+    return SLOTS.get();
+  }
+
+  private long spanId;
+  private long rootSpanId;
+  private int encodedOperationName;
+  private int encodedResourceName;
+
+  /** @return true if the span context differs from the last value written from this thread */
+  boolean updateSpanContext(long spanId, long rootSpanId) {
+    if (this.spanId == spanId && this.rootSpanId == rootSpanId) {
+      return false;
+    }
+    this.spanId = spanId;
+    this.rootSpanId = rootSpanId;
+    return true;
+  }
+
+  /** @return true if the operation name differs from the last value written from this thread */
+  boolean updateOperationName(int encodedOperationName) {
+    if (this.encodedOperationName == encodedOperationName) {
+      return false;
+    }
+    this.encodedOperationName = encodedOperationName;
+    return true;
+  }
+
+  /** @return true if the resource name differs from the last value written from this thread */
+  boolean updateResourceName(int encodedResourceName) {
+    if (this.encodedResourceName == encodedResourceName) {
+      return false;
+    }
+    this.encodedResourceName = encodedResourceName;
+    return true;
+  }
+
+  /** @return true if there was any context to clear */
+  boolean clear() {
+    if ((spanId | rootSpanId) == 0 && (encodedOperationName | encodedResourceName) == 0) {
+      return false;
+    }
+    spanId = 0;
+    rootSpanId = 0;
+    encodedOperationName = 0;
+    encodedResourceName = 0;
+    return true;
+  }
+}
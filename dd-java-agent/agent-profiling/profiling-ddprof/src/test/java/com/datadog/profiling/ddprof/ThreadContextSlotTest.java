@@ -0,0 +1,59 @@
+package com.datadog.profiling.ddprof;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ThreadContextSlotTest {
+
+  @Test
+  void repeatedActivationIsSkipped() {
+    ThreadContextSlot slot = new ThreadContextSlot();
+    assertTrue(slot.updateSpanContext(1L, 2L));
+    assertTrue(slot.updateOperationName(3));
+    assertTrue(slot.updateResourceName(4));
+
+    assertFalse(slot.updateSpanContext(1L, 2L));
+    assertFalse(slot.updateOperationName(3));
+    assertFalse(slot.updateResourceName(4));
+  }
+
+  @Test
+  void changedValuesAreWritten() {
+    ThreadContextSlot slot = new ThreadContextSlot();
+    slot.updateSpanContext(1L, 2L);
+    slot.updateResourceName(4);
+
+    assertTrue(slot.updateSpanContext(5L, 2L));
+    assertTrue(slot.updateSpanContext(5L, 6L));
+    assertTrue(slot.updateResourceName(7));
+  }
+
+  @Test
+  void clearOnlyWhenSet() {
+    ThreadContextSlot slot = new ThreadContextSlot();
+    assertFalse(slot.clear());
+
+    slot.updateOperationName(3);
+    assertTrue(slot.clear());
+    assertFalse(slot.clear());
+
+    // after clearing the same context must be written again
+    assertFalse(slot.updateSpanContext(0L, 0L));
+    assertTrue(slot.updateSpanContext(1L, 2L));
+    assertTrue(slot.updateOperationName(3));
+  }
+
+  @Test
+  void slotIsThreadConfined() throws Exception {
+    ThreadContextSlot mine = ThreadContextSlot.current();
+    assertSame(mine, ThreadContextSlot.current());
+    ThreadContextSlot[] other = new ThreadContextSlot[1];
+    Thread thread = new Thread(() -> other[0] = ThreadContextSlot.current());
+    thread.start();
+    thread.join();
+    assertTrue(mine != other[0]);
+  }
+}
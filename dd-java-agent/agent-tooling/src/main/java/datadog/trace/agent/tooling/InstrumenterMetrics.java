@@ -1,6 +1,10 @@
 package datadog.trace.agent.tooling;
 
 import datadog.trace.api.InstrumenterConfig;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 public final class InstrumenterMetrics {
@@ -10,6 +14,8 @@ public final class InstrumenterMetrics {
   private static final long COUNT_BIT = 1L << COUNT_SHIFT;
   private static final long NANOS_MASK = COUNT_BIT - 1;
 
+  private static final int MUZZLE_MODULES_SHOWN = 10;
+
   static final class Stats {
     static final AtomicLong matching = new AtomicLong();
     static final AtomicLong transforming = new AtomicLong();
@@ -31,6 +37,7 @@ public final class InstrumenterMetrics {
     static final AtomicLong reuseFullType = new AtomicLong();
     static final AtomicLong resolveClassFile = new AtomicLong();
     static final AtomicLong missingClassFile = new AtomicLong();
+    static final Map<String, AtomicLong> muzzleModules = new ConcurrentHashMap<>();
   }
 
   private static final boolean ENABLED = InstrumenterConfig.get().isTriageEnabled();
@@ -167,6 +174,12 @@ public final class InstrumenterMetrics {
     }
   }
 
+  public static void muzzleModule(String moduleName, long fromTick) {
+    if (ENABLED) {
+      record(Stats.muzzleModules.computeIfAbsent(moduleName, k -> new AtomicLong()), fromTick);
+    }
+  }
+
   public static String summary() {
     if (!ENABLED) {
       return "Set DD_TRACE_TRIAGE=true to collect instrumenter metrics during startup";
@@ -197,11 +210,27 @@ public final class InstrumenterMetrics {
     summarize(buf, "Reuse full-type:       ", Stats.reuseFullType);
     summarize(buf, "Resolve class-file:    ", Stats.resolveClassFile);
     summarize(buf, "Missing class-file:    ", Stats.missingClassFile);
+    buf.append("----------------------------------------------------------------\n");
+    summarizeMuzzleModules(buf);
     buf.append("----------------------------------------------------------------");
 
     return buf.toString();
   }
 
+  /** Lists the modules which spent the most time in muzzle checks. */
+  private static void summarizeMuzzleModules(StringBuilder buf) {
+    List<Map.Entry<String, AtomicLong>> modules = new ArrayList<>(Stats.muzzleModules.entrySet());
+    modules.sort(
+        (a, b) -> Long.compare(b.getValue().get() & NANOS_MASK, a.getValue().get() & NANOS_MASK));
+    for (int i = 0; i < Math.min(modules.size(), MUZZLE_MODULES_SHOWN); i++) {
+      String moduleName = modules.get(i).getKey();
+      buf.append("Muzzle ")
+          .append(moduleName.substring(moduleName.lastIndexOf('.') + 1))
+          .append(":\n");
+      summarize(buf, "                       ", modules.get(i).getValue());
+    }
+  }
+
   private static void summarize(StringBuilder buf, String prefix, AtomicLong stat) {
     long value = stat.get();
     buf.append(prefix)
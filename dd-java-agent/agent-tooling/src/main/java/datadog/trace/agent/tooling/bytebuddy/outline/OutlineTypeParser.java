@@ -1,12 +1,16 @@
 package datadog.trace.agent.tooling.bytebuddy.outline;
 
-import static datadog.trace.agent.tooling.bytebuddy.outline.AnnotationOutline.annotationOutline;
 import static net.bytebuddy.jar.asm.ClassReader.SKIP_CODE;
 import static net.bytebuddy.jar.asm.ClassReader.SKIP_DEBUG;
 
+import datadog.trace.api.InstrumenterConfig;
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.zip.CRC32;
 import net.bytebuddy.ClassFileVersion;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.jar.asm.AnnotationVisitor;
@@ -17,80 +21,121 @@ import net.bytebuddy.jar.asm.MethodVisitor;
 import net.bytebuddy.jar.asm.Type;
 import net.bytebuddy.utility.OpenedClassReader;
 
-/** Attempts a minimal parse of just the named elements we need for matching. */
+/**
+ * Attempts a minimal parse of just the named elements we need for matching.
+ *
+ * <p>Outlines parsed from bytecode are kept in a store keyed by the class-file content, so copies
+ * of the same library loaded by different class-loaders are only parsed once.
+ */
 final class OutlineTypeParser implements TypeParser {
 
+  private static final DDCache<OutlineKey, PackedOutline> packedOutlines =
+      DDCaches.newFixedSizeAdmissionCache(
+          Math.max(InstrumenterConfig.get().getResolverOutlinePoolSize(), 16), "type-outlines");
+
+  static void clear() {
+    packedOutlines.clear();
+  }
+
   @Override
   public TypeDescription parse(byte[] bytecode) {
     ClassReader classReader = OpenedClassReader.of(bytecode);
+    OutlineKey key = new OutlineKey(classReader.getClassName(), bytecode);
+    return new TypeOutline(packedOutlines.computeIfAbsent(key, k -> extract(classReader)));
+  }
+
+  private static PackedOutline extract(ClassReader classReader) {
     OutlineTypeExtractor typeExtractor = new OutlineTypeExtractor();
     classReader.accept(typeExtractor, SKIP_CODE | SKIP_DEBUG);
-    return typeExtractor.typeOutline;
+    return typeExtractor.outline.build();
   }
 
   @Override
   public TypeDescription parse(Class<?> loadedType) {
     Class<?> superClass = loadedType.getSuperclass();
 
-    TypeOutline typeOutline =
-        new TypeOutline(
+    PackedOutline.Builder outline =
+        new PackedOutline.Builder(
             ClassFileVersion.ofThisVm().getMinorMajorVersion(),
             loadedType.getModifiers(),
-            loadedType.getName(),
-            null != superClass ? superClass.getName() : null,
+            Type.getInternalName(loadedType),
+            null != superClass ? Type.getInternalName(superClass) : null,
             extractTypeNames(loadedType.getInterfaces()));
 
     Class<?> declaringClass = loadedType.getDeclaringClass();
     if (null != declaringClass) {
-      typeOutline.declaredBy(declaringClass.getName());
+      outline.declaredBy(Type.getInternalName(declaringClass));
     }
 
     for (Annotation a : loadedType.getDeclaredAnnotations()) {
-      typeOutline.declare(annotationOutline(Type.getDescriptor(a.annotationType())));
+      outline.typeAnnotation(Type.getDescriptor(a.annotationType()));
     }
 
     for (Field field : loadedType.getDeclaredFields()) {
-      FieldOutline fieldOutline =
-          new FieldOutline(
-              typeOutline,
-              field.getModifiers(),
-              field.getName(),
-              Type.getDescriptor(field.getType()));
+      outline.field(field.getModifiers(), field.getName(), Type.getDescriptor(field.getType()));
       for (Annotation a : field.getDeclaredAnnotations()) {
-        fieldOutline.declare(annotationOutline(Type.getDescriptor(a.annotationType())));
+        outline.memberAnnotation(Type.getDescriptor(a.annotationType()));
       }
-      typeOutline.declare(fieldOutline);
     }
 
     for (Method method : loadedType.getDeclaredMethods()) {
-      MethodOutline methodOutline =
-          new MethodOutline(
-              typeOutline,
-              method.getModifiers(),
-              method.getName(),
-              Type.getMethodDescriptor(method));
+      outline.method(method.getModifiers(), method.getName(), Type.getMethodDescriptor(method));
       for (Annotation a : method.getDeclaredAnnotations()) {
-        methodOutline.declare(annotationOutline(Type.getDescriptor(a.annotationType())));
+        outline.memberAnnotation(Type.getDescriptor(a.annotationType()));
       }
-      typeOutline.declare(methodOutline);
     }
 
-    return typeOutline;
+    return new TypeOutline(outline.build());
   }
 
   private static String[] extractTypeNames(Class[] types) {
     String[] typeNames = new String[types.length];
     for (int i = 0; i < types.length; i++) {
-      typeNames[i] = types[i].getName();
+      typeNames[i] = Type.getInternalName(types[i]);
     }
     return typeNames;
   }
 
+  /** Identifies a class-file by its name and content, independent of its location. */
+  static final class OutlineKey {
+    private final String className;
+    private final int length;
+    private final int checksum;
+    private final int contentHash;
+
+    OutlineKey(String className, byte[] bytecode) {
+      this.className = className;
+      this.length = bytecode.length;
+      CRC32 crc = new CRC32();
+      crc.update(bytecode, 0, bytecode.length);
+      this.checksum = (int) crc.getValue();
+      this.contentHash = Arrays.hashCode(bytecode);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof OutlineKey)) {
+        return false;
+      }
+      OutlineKey that = (OutlineKey) o;
+      return length == that.length
+          && checksum == that.checksum
+          && contentHash == that.contentHash
+          && className.equals(that.className);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * className.hashCode() + checksum;
+    }
+  }
+
   static final class OutlineTypeExtractor extends ClassVisitor {
 
-    TypeOutline typeOutline;
-    FieldOutline fieldOutline;
-    MethodOutline methodOutline;
+    PackedOutline.Builder outline;
     boolean selfContained = true;
 
     OutlineTypeExtractor() {
@@ -105,7 +150,7 @@ final class OutlineTypeParser implements TypeParser {
         String signature,
         String superName,
         String[] interfaces) {
-      typeOutline = new TypeOutline(version, access, name, superName, interfaces);
+      outline = new PackedOutline.Builder(version, access, name, superName, interfaces);
     }
 
     @Override
@@ -115,34 +160,32 @@ final class OutlineTypeParser implements TypeParser {
 
     @Override
     public void visitInnerClass(String name, String outerName, String innerName, int access) {
-      if (typeOutline.getInternalName().equals(name)) {
+      if (outline.internalName.equals(name)) {
         if (null != outerName) {
-          typeOutline.declaredBy(outerName);
+          outline.declaredBy(outerName);
         } else if (null == innerName && !selfContained) {
-          typeOutline.anonymousType();
+          outline.anonymousType();
         }
       }
     }
 
     @Override
     public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
-      typeOutline.declare(annotationOutline(descriptor));
+      outline.typeAnnotation(descriptor);
       return null;
     }
 
     @Override
     public FieldVisitor visitField(
         int access, String name, String descriptor, String signature, Object value) {
-      fieldOutline = new FieldOutline(typeOutline, access, name, descriptor);
-      typeOutline.declare(fieldOutline);
+      outline.field(access, name, descriptor);
       return fieldAnnotationExtractor;
     }
 
     @Override
     public MethodVisitor visitMethod(
         int access, String name, String descriptor, String signature, String[] exceptions) {
-      methodOutline = new MethodOutline(typeOutline, access, name, descriptor);
-      typeOutline.declare(methodOutline);
+      outline.method(access, name, descriptor);
       return methodAnnotationExtractor;
     }
 
@@ -150,7 +193,7 @@ final class OutlineTypeParser implements TypeParser {
         new FieldVisitor(OpenedClassReader.ASM_API) {
           @Override
           public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
-            fieldOutline.declare(annotationOutline(descriptor));
+            outline.memberAnnotation(descriptor);
             return null;
           }
         };
@@ -159,7 +202,7 @@ final class OutlineTypeParser implements TypeParser {
         new MethodVisitor(OpenedClassReader.ASM_API) {
           @Override
           public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
-            methodOutline.declare(annotationOutline(descriptor));
+            outline.memberAnnotation(descriptor);
             return null;
           }
         };
@@ -0,0 +1,244 @@
+package datadog.trace.agent.tooling.bytebuddy.outline;
+
+import static datadog.trace.agent.tooling.bytebuddy.outline.AnnotationOutline.annotationOutline;
+
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.field.FieldDescription;
+import net.bytebuddy.description.method.MethodDescription;
+
+/**
+ * Compact, immutable form of a type outline that can be shared between class-loaders.
+ *
+ * <p>Field and method outlines are packed into byte arrays as indexes into a table of symbols, one
+ * entry per distinct name or descriptor used by the type. Symbols are de-duplicated across types,
+ * so common descriptors such as {@code ()V} are only retained once. {@link TypeOutline} unpacks
+ * the members when they are first requested.
+ */
+final class PackedOutline {
+  private static final String[] NO_STRINGS = {};
+  private static final byte[] NO_MEMBERS = {};
+
+  /** De-duplicates names and descriptors retained by packed outlines. */
+  private static final DDCache<String, String> SYMBOLS = DDCaches.newFixedSizeCache(8192);
+
+  private static final Function<String, String> SAME_SYMBOL = Function.identity();
+
+  final int classFileVersion;
+  final int modifiers;
+  final String internalName;
+  final String superName;
+  final String[] interfaces;
+  final String declaringName;
+  final boolean anonymousType;
+  final String[] annotations;
+
+  private final String[] symbols;
+  private final byte[] fields;
+  private final byte[] methods;
+
+  private PackedOutline(Builder builder) {
+    this.classFileVersion = builder.classFileVersion;
+    this.modifiers = builder.modifiers;
+    this.internalName = builder.internalName;
+    this.superName = builder.superName;
+    this.interfaces = builder.interfaces;
+    this.declaringName = builder.declaringName;
+    this.anonymousType = builder.anonymousType;
+    this.annotations =
+        null == builder.annotations ? NO_STRINGS : builder.annotations.toArray(NO_STRINGS);
+    this.symbols = builder.symbols.toArray(NO_STRINGS);
+    this.fields = builder.fields.toByteArray();
+    this.methods = builder.methods.toByteArray();
+  }
+
+  boolean hasFields() {
+    return fields.length > 0;
+  }
+
+  boolean hasMethods() {
+    return methods.length > 0;
+  }
+
+  List<FieldDescription.InDefinedShape> unpackFields(TypeOutline declaringType) {
+    List<FieldDescription.InDefinedShape> outlines = new ArrayList<>();
+    int offset = 0;
+    while (offset < fields.length) {
+      FieldOutline field =
+          new FieldOutline(
+              declaringType,
+              readShort(fields, offset),
+              symbols[readShort(fields, offset + 2)],
+              symbols[readShort(fields, offset + 4)]);
+      int annotationCount = fields[offset + 6] & 0xFF;
+      offset += 7;
+      for (int i = 0; i < annotationCount; i++, offset += 2) {
+        field.declare(annotationOutline(symbols[readShort(fields, offset)]));
+      }
+      outlines.add(field);
+    }
+    return outlines;
+  }
+
+  List<MethodDescription.InDefinedShape> unpackMethods(TypeOutline declaringType) {
+    List<MethodDescription.InDefinedShape> outlines = new ArrayList<>();
+    int offset = 0;
+    while (offset < methods.length) {
+      MethodOutline method =
+          new MethodOutline(
+              declaringType,
+              readShort(methods, offset),
+              symbols[readShort(methods, offset + 2)],
+              symbols[readShort(methods, offset + 4)]);
+      int annotationCount = methods[offset + 6] & 0xFF;
+      offset += 7;
+      for (int i = 0; i < annotationCount; i++, offset += 2) {
+        method.declare(annotationOutline(symbols[readShort(methods, offset)]));
+      }
+      outlines.add(method);
+    }
+    return outlines;
+  }
+
+  private static int readShort(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+  }
+
+  static String symbol(String value) {
+    return null == value ? null : SYMBOLS.computeIfAbsent(value, SAME_SYMBOL);
+  }
+
+  /** Collects the outline of a type as it is being parsed. */
+  static final class Builder {
+    int classFileVersion;
+    int modifiers;
+    String internalName;
+    String superName;
+    String[] interfaces;
+    String declaringName;
+    boolean anonymousType;
+    List<String> annotations;
+
+    final List<String> symbols = new ArrayList<>();
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+
+    final Members fields = new Members();
+    final Members methods = new Members();
+
+    private Members currentMembers;
+
+    Builder(int version, int access, String internalName, String superName, String[] interfaces) {
+      this.classFileVersion = version;
+      this.modifiers = access;
+      this.internalName = symbol(internalName);
+      this.superName = symbol(superName);
+      if (null == interfaces || interfaces.length == 0) {
+        this.interfaces = NO_STRINGS;
+      } else {
+        this.interfaces = new String[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+          this.interfaces[i] = symbol(interfaces[i]);
+        }
+      }
+    }
+
+    void declaredBy(String declaringName) {
+      this.declaringName = symbol(declaringName);
+    }
+
+    void anonymousType() {
+      anonymousType = true;
+    }
+
+    /** Records a type annotation, as long as it is of interest for matching. */
+    void typeAnnotation(String descriptor) {
+      AnnotationDescription annotation = annotationOutline(descriptor);
+      if (null != annotation) {
+        if (null == annotations) {
+          annotations = new ArrayList<>();
+        }
+        annotations.add(symbol(descriptor));
+      }
+    }
+
+    void field(int access, String name, String descriptor) {
+      currentMembers = fields;
+      fields.add(access, symbolId(name), symbolId(descriptor));
+    }
+
+    void method(int access, String name, String descriptor) {
+      currentMembers = methods;
+      methods.add(access, symbolId(name), symbolId(descriptor));
+    }
+
+    /** Records an annotation of the last field or method, if it is of interest for matching. */
+    void memberAnnotation(String descriptor) {
+      if (null != currentMembers && null != annotationOutline(descriptor)) {
+        currentMembers.annotate(symbolId(descriptor));
+      }
+    }
+
+    PackedOutline build() {
+      return new PackedOutline(this);
+    }
+
+    private int symbolId(String value) {
+      Integer id = symbolIds.get(value);
+      if (null == id) {
+        id = symbols.size();
+        symbols.add(symbol(value));
+        symbolIds.put(value, id);
+      }
+      return id;
+    }
+  }
+
+  /**
+   * Packs members as: access (2 bytes), name (2 bytes), descriptor (2 bytes), annotation count (1
+   * byte), followed by the annotations (2 bytes each).
+   */
+  static final class Members {
+    private byte[] bytes = NO_MEMBERS;
+    private int length;
+    private int annotationCountOffset = -1;
+
+    void add(int access, int nameId, int descriptorId) {
+      ensureCapacity(7);
+      writeShort(access);
+      writeShort(nameId);
+      writeShort(descriptorId);
+      annotationCountOffset = length;
+      bytes[length++] = 0;
+    }
+
+    void annotate(int descriptorId) {
+      if (annotationCountOffset >= 0 && bytes[annotationCountOffset] != (byte) 0xFF) {
+        ensureCapacity(2);
+        writeShort(descriptorId);
+        bytes[annotationCountOffset]++;
+      }
+    }
+
+    byte[] toByteArray() {
+      return length == 0 ? NO_MEMBERS : Arrays.copyOf(bytes, length);
+    }
+
+    private void writeShort(int value) {
+      bytes[length++] = (byte) (value >>> 8);
+      bytes[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+      if (length + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(64, Math.max(length + extra, bytes.length << 1)));
+      }
+    }
+  }
+}
@@ -134,6 +134,7 @@ final class TypeFactory {
   static void clear() {
     outlineTypes.clear();
     fullTypes.clear();
+    OutlineTypeParser.clear();
   }
 
   /**
@@ -1,5 +1,6 @@
 package datadog.trace.agent.tooling.bytebuddy.outline;
 
+import static datadog.trace.agent.tooling.bytebuddy.outline.AnnotationOutline.annotationOutline;
 import static datadog.trace.agent.tooling.bytebuddy.outline.TypeFactory.findType;
 
 import java.util.ArrayList;
@@ -14,7 +15,12 @@ import net.bytebuddy.description.method.MethodList;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.description.type.TypeList;
 
-/** Provides an outline of a type; i.e. the named elements making up its structure. */
+/**
+ * Provides an outline of a type; i.e. the named elements making up its structure.
+ *
+ * <p>Backed by a {@link PackedOutline}, which may be shared with other class-loaders. Fields and
+ * methods are unpacked on first request.
+ */
 final class TypeOutline extends WithName {
   private static final int ALLOWED_TYPE_MODIFIERS = 0x0000ffdf; // excludes ACC_SUPER
 
@@ -26,24 +32,16 @@ final class TypeOutline extends WithName {
   private static final MethodList<MethodDescription.InDefinedShape> NO_METHODS =
       new MethodList.Empty<>();
 
-  private final int classFileVersion;
+  private final PackedOutline packed;
   private final int modifiers;
-  private final String superName;
-  private final String[] interfaces;
-  private String declaringName;
-  private boolean anonymousType;
-
-  private List<AnnotationDescription> declaredAnnotations;
-
-  private final List<FieldDescription.InDefinedShape> declaredFields = new ArrayList<>();
-  private final List<MethodDescription.InDefinedShape> declaredMethods = new ArrayList<>();
-
-  TypeOutline(int version, int access, String internalName, String superName, String[] interfaces) {
-    super(internalName.replace('/', '.'));
-    this.classFileVersion = version;
-    this.modifiers = access & ALLOWED_TYPE_MODIFIERS;
-    this.superName = superName;
-    this.interfaces = interfaces;
+
+  private List<FieldDescription.InDefinedShape> declaredFields;
+  private List<MethodDescription.InDefinedShape> declaredMethods;
+
+  TypeOutline(PackedOutline packed) {
+    super(packed.internalName.replace('/', '.'));
+    this.packed = packed;
+    this.modifiers = packed.modifiers & ALLOWED_TYPE_MODIFIERS;
   }
 
   @Override
@@ -53,19 +51,19 @@ final class TypeOutline extends WithName {
 
   @Override
   public Generic getSuperClass() {
-    if (null != superName) {
-      return findType(superName.replace('/', '.')).asGenericType();
+    if (null != packed.superName) {
+      return findType(packed.superName.replace('/', '.')).asGenericType();
     }
     return null;
   }
 
   @Override
   public TypeList.Generic getInterfaces() {
-    if (interfaces.length == 0) {
+    if (packed.interfaces.length == 0) {
       return NO_TYPES;
     }
-    List<Generic> outlines = new ArrayList<>(interfaces.length);
-    for (final String iface : interfaces) {
+    List<Generic> outlines = new ArrayList<>(packed.interfaces.length);
+    for (final String iface : packed.interfaces) {
       outlines.add(findType(iface.replace('/', '.')).asGenericType());
     }
     return new TypeList.Generic.Explicit(outlines);
@@ -73,8 +71,8 @@ final class TypeOutline extends WithName {
 
   @Override
   public TypeDescription getDeclaringType() {
-    if (null != declaringName) {
-      return findType(declaringName.replace('/', '.'));
+    if (null != packed.declaringName) {
+      return findType(packed.declaringName.replace('/', '.'));
     }
     return null;
   }
@@ -91,57 +89,48 @@ final class TypeOutline extends WithName {
 
   @Override
   public ClassFileVersion getClassFileVersion() {
-    return ClassFileVersion.ofMinorMajor(classFileVersion);
+    return ClassFileVersion.ofMinorMajor(packed.classFileVersion);
   }
 
   @Override
   public AnnotationList getDeclaredAnnotations() {
-    return null == declaredAnnotations
-        ? NO_ANNOTATIONS
-        : new AnnotationList.Explicit(declaredAnnotations);
+    if (packed.annotations.length == 0) {
+      return NO_ANNOTATIONS;
+    }
+    List<AnnotationDescription> annotations = new ArrayList<>(packed.annotations.length);
+    for (String descriptor : packed.annotations) {
+      AnnotationDescription annotation = annotationOutline(descriptor);
+      if (null != annotation) {
+        annotations.add(annotation);
+      }
+    }
+    return new AnnotationList.Explicit(annotations);
   }
 
   @Override
   public FieldList<FieldDescription.InDefinedShape> getDeclaredFields() {
-    return declaredFields.isEmpty() ? NO_FIELDS : new FieldList.Explicit<>(declaredFields);
+    if (!packed.hasFields()) {
+      return NO_FIELDS;
+    }
+    if (null == declaredFields) {
+      declaredFields = packed.unpackFields(this);
+    }
+    return new FieldList.Explicit<>(declaredFields);
   }
 
   @Override
   public MethodList<MethodDescription.InDefinedShape> getDeclaredMethods() {
-    return declaredMethods.isEmpty() ? NO_METHODS : new MethodList.Explicit<>(declaredMethods);
-  }
-
-  @Override
-  public boolean isAnonymousType() {
-    return anonymousType;
-  }
-
-  void declaredBy(String declaringName) {
-    this.declaringName = declaringName;
-  }
-
-  void declare(AnnotationDescription annotation) {
-    if (null != annotation) {
-      if (null == declaredAnnotations) {
-        declaredAnnotations = new ArrayList<>();
-      }
-      declaredAnnotations.add(annotation);
+    if (!packed.hasMethods()) {
+      return NO_METHODS;
     }
-  }
-
-  void declare(FieldDescription.InDefinedShape field) {
-    if (null != field) {
-      declaredFields.add(field);
+    if (null == declaredMethods) {
+      declaredMethods = packed.unpackMethods(this);
     }
+    return new MethodList.Explicit<>(declaredMethods);
   }
 
-  void declare(MethodDescription.InDefinedShape method) {
-    if (null != method) {
-      declaredMethods.add(method);
-    }
-  }
-
-  void anonymousType() {
-    anonymousType = true;
+  @Override
+  public boolean isAnonymousType() {
+    return packed.anonymousType;
   }
 }
@@ -1,5 +1,6 @@
 package datadog.trace.agent.tooling.muzzle;
 
+import datadog.trace.agent.tooling.InstrumenterMetrics;
 import datadog.trace.agent.tooling.InstrumenterModule;
 import datadog.trace.agent.tooling.InstrumenterState;
 import datadog.trace.agent.tooling.Utils;
@@ -28,7 +29,9 @@ public class MuzzleCheck implements ElementMatcher<ClassLoader> {
     if (null != applicable) {
       return applicable;
     }
+    long fromTick = InstrumenterMetrics.tick();
     boolean muzzleMatches = muzzle().matches(classLoader);
+    InstrumenterMetrics.muzzleModule(instrumentationClass, fromTick);
     if (muzzleMatches) {
       InstrumenterState.applyInstrumentation(classLoader, instrumentationId);
     } else {
@@ -27,4 +27,23 @@ class OutlineTypeParserTest extends Specification {
     'datadog.trace.agent.test.EnclosedClasses$Inner$1'       | true
     'datadog.trace.agent.test.EnclosedClasses$InnerStatic$1' | true
   }
+
+  void 'test outlines of identical class-files are shared'() {
+    setup:
+    final parser = new OutlineTypeParser()
+    final locator = ClassFileLocators.classFileLocator(Thread.currentThread().contextClassLoader)
+    final bytes = locator.locate('datadog.trace.agent.test.EnclosedClasses$Inner').resolve()
+
+    when:
+    final first = parser.parse(bytes)
+    final second = parser.parse(bytes.clone())
+
+    then:
+    !first.is(second)
+    first.packed.is(second.packed)
+    first.name == 'datadog.trace.agent.test.EnclosedClasses$Inner'
+    first.declaredMethods*.internalName == second.declaredMethods*.internalName
+    first.declaredMethods*.descriptor == second.declaredMethods*.descriptor
+    first.declaringType.name == 'datadog.trace.agent.test.EnclosedClasses'
+  }
 }
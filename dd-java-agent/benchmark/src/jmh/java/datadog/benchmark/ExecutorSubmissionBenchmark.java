@@ -0,0 +1,80 @@
+package datadog.benchmark;
+
+import datadog.trace.api.Trace;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Submits batches of tiny tasks to a {@link ThreadPoolExecutor} or a {@link ForkJoinPool}, with
+ * and without an active span, to measure what capturing and restoring the context costs per task.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ExecutorSubmissionBenchmark {
+
+  private static final int BATCH_SIZE = 1000;
+
+  @Param({"threadPool", "forkJoin"})
+  String executorType;
+
+  private ExecutorService executor;
+
+  @Setup
+  public void setup() {
+    if ("forkJoin".equals(executorType)) {
+      executor = new ForkJoinPool(4);
+    } else {
+      executor = new ThreadPoolExecutor(4, 4, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public void submitUntraced() throws InterruptedException {
+    submitBatch();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  @Trace
+  public void submitTraced() throws InterruptedException {
+    submitBatch();
+  }
+
+  private void submitBatch() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      executor.execute(latch::countDown);
+    }
+    latch.await();
+  }
+
+  @Fork(jvmArgsAppend = "-javaagent:/path/to/dd-java-agent-master.jar")
+  public static class WithAgentMaster extends ExecutorSubmissionBenchmark {}
+
+  @Fork(
+      jvmArgsAppend =
+          "-javaagent:/path/to/dd-trace-java/dd-java-agent/build/libs/dd-java-agent.jar")
+  public static class WithAgent extends ExecutorSubmissionBenchmark {}
+}
@@ -0,0 +1,73 @@
+package datadog.benchmark;
+
+import datadog.trace.api.Trace;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs a long {@link Flux} pipeline under a span, to compare wrapping the subscriber of every
+ * operator with carrying the span in the Reactor context.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ReactorPipelineBenchmark {
+
+  private static final Function<Integer, Integer> INCREMENT = i -> i + 1;
+
+  @Param({"32"})
+  int operators;
+
+  @Param({"100"})
+  int elements;
+
+  @Benchmark
+  @Trace
+  public Integer pipeline() {
+    Flux<Integer> flux = Flux.range(0, elements);
+    for (int i = 0; i < operators; i++) {
+      flux = flux.map(INCREMENT);
+    }
+    return flux.blockLast();
+  }
+
+  @Benchmark
+  @Trace
+  public Integer pipelineWithThreadHop() {
+    Flux<Integer> flux = Flux.range(0, elements);
+    for (int i = 0; i < operators; i++) {
+      flux = flux.map(INCREMENT);
+      if (i == operators / 2) {
+        flux = flux.publishOn(Schedulers.parallel());
+      }
+    }
+    return flux.blockLast();
+  }
+
+  private static final String AGENT =
+      "-javaagent:/path/to/dd-trace-java/dd-java-agent/build/libs/dd-java-agent.jar";
+
+  @Fork(jvmArgsAppend = AGENT)
+  public static class WithAgent extends ReactorPipelineBenchmark {}
+
+  @Fork(jvmArgsAppend = {AGENT, "-Ddd.integration.reactor-hooks.enabled=true"})
+  public static class WithReactorHooks extends ReactorPipelineBenchmark {}
+
+  @Fork(
+      jvmArgsAppend = {
+        AGENT,
+        "-Ddd.integration.reactor-hooks.enabled=true",
+        "-Ddd.reactor.context.mode.enabled=true"
+      })
+  public static class WithReactorContextMode extends ReactorPipelineBenchmark {}
+}
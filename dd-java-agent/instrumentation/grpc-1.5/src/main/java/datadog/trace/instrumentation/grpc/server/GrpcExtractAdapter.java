@@ -1,21 +1,98 @@
 package datadog.trace.instrumentation.grpc.server;
 
+import datadog.trace.api.Config;
+import datadog.trace.api.TraceConfig;
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
 import io.grpc.Metadata;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Visits the metadata needed to extract the trace context, looking it up with keys built once from
+ * the headers the tracer reads when extracting a context.
+ *
+ * <p>Styles carrying baggage in prefixed keys need all the metadata keys to find them, as do
+ * request header tags and baggage mappings, in which case only the matching keys are visited.
+ * Otherwise the metadata is only searched for the known keys, without listing the others.
+ */
 public final class GrpcExtractAdapter implements AgentPropagation.ContextVisitor<Metadata> {
 
   public static final GrpcExtractAdapter GETTER = new GrpcExtractAdapter();
 
+  // built from the tracer on first use, racing threads build the same keys
+  private ExtractedKeys extractedKeys;
+
+  private GrpcExtractAdapter() {}
+
+  GrpcExtractAdapter(AgentPropagation propagation) {
+    this.extractedKeys = new ExtractedKeys(propagation);
+  }
+
   @Override
   public void forEachKey(Metadata carrier, AgentPropagation.KeyClassifier classifier) {
-    for (String key : carrier.keys()) {
-      if (!key.endsWith(Metadata.BINARY_HEADER_SUFFIX)) {
-        if (!classifier.accept(
-            key, carrier.get(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER)))) {
+    ExtractedKeys extracted = extractedKeys;
+    if (null == extracted) {
+      // only reached once the tracer extracts contexts, so its propagation is installed
+      extractedKeys = extracted = new ExtractedKeys(AgentTracer.propagate());
+    }
+    TraceConfig traceConfig = AgentTracer.traceConfig();
+    boolean allKeys =
+        Config.get().isLogExtractHeaderNames()
+            || !traceConfig.getRequestHeaderTags().isEmpty()
+            || !traceConfig.getBaggageMapping().isEmpty();
+    if (allKeys || extracted.baggagePrefixes.length > 0) {
+      for (String name : carrier.keys()) {
+        if (!name.endsWith(Metadata.BINARY_HEADER_SUFFIX)) {
+          Metadata.Key<String> key = extracted.keys.get(name);
+          if (null == key) {
+            if (!allKeys && !extracted.hasBaggagePrefix(name)) {
+              continue;
+            }
+            key = Metadata.Key.of(name, Metadata.ASCII_STRING_MARSHALLER);
+          }
+          if (!classifier.accept(name, carrier.get(key))) {
+            return;
+          }
+        }
+      }
+    } else {
+      for (Metadata.Key<String> key : extracted.keyArray) {
+        String value = carrier.get(key);
+        if (null != value && !classifier.accept(key.name(), value)) {
           return;
         }
       }
     }
   }
+
+  /** Metadata keys of the headers read by the tracer when extracting a context. */
+  static final class ExtractedKeys {
+    final Map<String, Metadata.Key<String>> keys = new HashMap<>();
+    final Metadata.Key<String>[] keyArray;
+    final String[] baggagePrefixes;
+
+    @SuppressWarnings("unchecked")
+    ExtractedKeys(AgentPropagation propagation) {
+      // the names are lower case, like metadata keys
+      for (String name : propagation.extractedHeaderNames()) {
+        try {
+          keys.put(name, Metadata.Key.of(name, Metadata.ASCII_STRING_MARSHALLER));
+        } catch (IllegalArgumentException ignored) {
+          // not a valid metadata key, so it can't be sent over grpc
+        }
+      }
+      keyArray = keys.values().toArray(new Metadata.Key[0]);
+      baggagePrefixes = propagation.extractedHeaderPrefixes().toArray(new String[0]);
+    }
+
+    boolean hasBaggagePrefix(String name) {
+      for (String prefix : baggagePrefixes) {
+        if (name.length() > prefix.length() && name.startsWith(prefix)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
 }
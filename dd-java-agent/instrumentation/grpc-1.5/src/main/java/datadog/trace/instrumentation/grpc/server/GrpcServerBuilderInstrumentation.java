@@ -67,6 +67,7 @@ public class GrpcServerBuilderInstrumentation extends InstrumenterModule.Tracing
       packageName + ".GrpcServerDecorator",
       packageName + ".GrpcServerDecorator$1",
       packageName + ".GrpcExtractAdapter",
+      packageName + ".GrpcExtractAdapter$ExtractedKeys",
       packageName + ".TracingServerInterceptor",
       packageName + ".TracingServerInterceptor$TracingServerCall",
       packageName + ".TracingServerInterceptor$TracingServerCallListener",
@@ -12,6 +12,7 @@ import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.InternalSpanTypes;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import datadog.trace.bootstrap.instrumentation.decorator.ServerDecorator;
+import io.grpc.MethodDescriptor;
 import io.grpc.ServerCall;
 import io.grpc.Status;
 import io.grpc.StatusException;
@@ -43,29 +44,26 @@ public class GrpcServerDecorator extends ServerDecorator {
       createServerPathwaySortedTags();
   public static final GrpcServerDecorator DECORATE = new GrpcServerDecorator();
 
-  private static final Function<String, String> NORMALIZE =
+  private static final Function<MethodDescriptor<?, ?>, UTF8BytesString> RESOURCE_NAME =
       // Uses inner class for predictable name for Instrumenter.Default.helperClassNames()
-      new Function<String, String>() {
+      new Function<MethodDescriptor<?, ?>, UTF8BytesString>() {
         @Override
-        public String apply(String fullName) {
-          int index = fullName.lastIndexOf(".");
-          if (index > 0) {
-            return fullName.substring(index + 1);
-          } else {
-            return fullName;
+        public UTF8BytesString apply(MethodDescriptor<?, ?> method) {
+          String fullName = method.getFullMethodName();
+          if (TRIM_RESOURCE_PACKAGE_NAME) {
+            int index = fullName.lastIndexOf(".");
+            if (index > 0) {
+              fullName = fullName.substring(index + 1);
+            }
           }
+          return UTF8BytesString.create(fullName);
         }
       };
 
-  private final DDCache<String, String> cachedResourceNames;
-
-  public GrpcServerDecorator() {
-    if (TRIM_RESOURCE_PACKAGE_NAME) {
-      cachedResourceNames = DDCaches.newFixedSizeCache(512);
-    } else {
-      cachedResourceNames = null;
-    }
-  }
+  // method descriptors are usually constants of the generated service stubs, so the resource name
+  // is computed and encoded once per method rather than once per call
+  private final DDCache<MethodDescriptor<?, ?>, UTF8BytesString> cachedResourceNames =
+      DDCaches.newFixedSizeIdentityCache(512);
 
   @Override
   protected String[] instrumentationNames() {
@@ -89,13 +87,8 @@ public class GrpcServerDecorator extends ServerDecorator {
   }
 
   public <RespT, ReqT> AgentSpan onCall(final AgentSpan span, ServerCall<ReqT, RespT> call) {
-    if (TRIM_RESOURCE_PACKAGE_NAME) {
-      span.setResourceName(
-          cachedResourceNames.computeIfAbsent(
-              call.getMethodDescriptor().getFullMethodName(), NORMALIZE));
-    } else {
-      span.setResourceName(call.getMethodDescriptor().getFullMethodName());
-    }
+    span.setResourceName(
+        cachedResourceNames.computeIfAbsent(call.getMethodDescriptor(), RESOURCE_NAME));
     return span;
   }
 
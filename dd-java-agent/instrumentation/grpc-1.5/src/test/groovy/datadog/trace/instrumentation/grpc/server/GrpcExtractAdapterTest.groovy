@@ -0,0 +1,86 @@
+package datadog.trace.instrumentation.grpc.server
+
+import static datadog.trace.api.config.TracerConfig.PROPAGATION_EXTRACT_LOG_HEADER_NAMES_ENABLED
+import static datadog.trace.api.config.TracerConfig.TRACE_CLIENT_IP_HEADER
+import static datadog.trace.api.config.TracerConfig.TRACE_PROPAGATION_STYLE_EXTRACT
+
+import datadog.trace.agent.test.AgentTestRunner
+import datadog.trace.bootstrap.instrumentation.api.AgentPropagation
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer
+import io.grpc.Metadata
+
+class GrpcExtractAdapterTest extends AgentTestRunner {
+
+  @Override
+  protected void configurePreAgent() {
+    super.configurePreAgent()
+    injectSysConfig(TRACE_CLIENT_IP_HEADER, "My-Client-IP")
+  }
+
+  static Metadata metadata() {
+    Metadata metadata = new Metadata()
+    [
+      "x-datadog-trace-id": "123",
+      "traceparent"       : "00-0000000000000000000000000000007b-00000000000001c8-01",
+      "x-b3-traceid"      : "7b",
+      "x-amzn-trace-id"   : "Root=1-00000000-00000000000000000000007b",
+      "x-real-ip"         : "1.2.3.4",
+      "my-client-ip"      : "5.6.7.8",
+      "ot-baggage-key"    : "value",
+      "content-type"      : "application/grpc"
+    ].each { name, value ->
+      metadata.put(Metadata.Key.of(name, Metadata.ASCII_STRING_MARSHALLER), value)
+    }
+    metadata.put(Metadata.Key.of("x-datadog-bin", Metadata.BINARY_BYTE_MARSHALLER), [1, 2] as byte[])
+    return metadata
+  }
+
+  static Map<String, String> visit(GrpcExtractAdapter adapter, Metadata metadata) {
+    Map<String, String> visited = [:]
+    adapter.forEachKey(metadata, { String key, String value ->
+      visited.put(key, value)
+      return true
+    } as AgentPropagation.KeyClassifier)
+    return visited
+  }
+
+  def "looks up the pre-built keys when no style reads prefixed baggage"() {
+    setup:
+    injectSysConfig(TRACE_PROPAGATION_STYLE_EXTRACT, "b3multi,xray")
+    def adapter = new GrpcExtractAdapter(AgentTracer.propagate())
+
+    expect:
+    adapter.extractedKeys.baggagePrefixes.length == 0
+    visit(adapter, metadata()) == [
+      "x-b3-traceid"   : "7b",
+      "x-amzn-trace-id": "Root=1-00000000-00000000000000000000007b",
+      "x-real-ip"      : "1.2.3.4",
+      "my-client-ip"   : "5.6.7.8"
+    ]
+  }
+
+  def "lists the keys to find prefixed baggage"() {
+    setup:
+    def adapter = new GrpcExtractAdapter(AgentTracer.propagate())
+
+    expect:
+    visit(adapter, metadata()) == [
+      "x-datadog-trace-id": "123",
+      "traceparent"       : "00-0000000000000000000000000000007b-00000000000001c8-01",
+      "x-amzn-trace-id"   : "Root=1-00000000-00000000000000000000007b",
+      "x-real-ip"         : "1.2.3.4",
+      "my-client-ip"      : "5.6.7.8",
+      "ot-baggage-key"    : "value"
+    ]
+  }
+
+  def "visits all the ascii keys when header names are logged"() {
+    setup:
+    injectSysConfig(TRACE_PROPAGATION_STYLE_EXTRACT, "b3multi")
+    injectSysConfig(PROPAGATION_EXTRACT_LOG_HEADER_NAMES_ENABLED, "true")
+    def adapter = new GrpcExtractAdapter(AgentTracer.propagate())
+
+    expect:
+    visit(adapter, metadata()).keySet() == metadata().keys() - "x-datadog-bin"
+  }
+}
@@ -16,6 +16,7 @@ import com.google.auto.service.AutoService;
 import datadog.trace.agent.tooling.Instrumenter;
 import datadog.trace.agent.tooling.InstrumenterModule;
 import datadog.trace.api.Config;
+import datadog.trace.api.civisibility.coverage.CoverageClassIndex;
 import de.thetaphi.forbiddenapis.SuppressForbidden;
 import java.lang.reflect.Field;
 import java.util.Set;
@@ -124,7 +125,8 @@ public class ProbeInserterInstrumentation extends InstrumenterModule.CiVisibilit
   public static class VisitMaxsAdvice {
     @Advice.OnMethodEnter(suppress = Throwable.class)
     static void enter(@Advice.Argument(value = 0, readOnly = false) int maxStack) {
-      maxStack = maxStack + 2;
+      // class, class ID, class index (if indexed probes are enabled) and probe ID
+      maxStack = maxStack + 3;
     }
   }
 
@@ -154,6 +156,19 @@ public class ProbeInserterInstrumentation extends InstrumenterModule.CiVisibilit
 
       methodVisitor.pushClass(className);
       methodVisitor.visitLdcInsn(classId);
+
+      if (Config.get().isCiVisibilityCoverageIndexedProbesEnabled()) {
+        methodVisitor.push(CoverageClassIndex.get(className));
+        methodVisitor.push(id);
+        methodVisitor.visitMethodInsn(
+            Opcodes.INVOKESTATIC,
+            "datadog/trace/api/civisibility/coverage/CoveragePerTestBridge",
+            "recordCoverage",
+            "(Ljava/lang/Class;JII)V",
+            false);
+        return;
+      }
+
       methodVisitor.push(id);
 
       methodVisitor.visitMethodInsn(
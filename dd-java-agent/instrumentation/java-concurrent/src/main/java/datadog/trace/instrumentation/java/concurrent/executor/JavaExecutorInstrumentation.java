@@ -47,7 +47,7 @@ public final class JavaExecutorInstrumentation extends AbstractExecutorInstrumen
       // which calls ScheduledExecutorService.schedule (which we also instrument)
       // where all of this could be dodged the second time
       final AgentScope scope = activeScope();
-      if (null != scope) {
+      if (ExecutorInstrumentationUtils.isPropagating(scope)) {
         final Runnable newTask = RunnableWrapper.wrapIfNeeded(task);
         // It is important to check potentially wrapped task if we can instrument task in this
         // executor. Some executors do not support wrapped tasks.
@@ -8,6 +8,7 @@ import datadog.trace.bootstrap.instrumentation.java.concurrent.RunnableWrapper
 import datadog.trace.core.DDSpan
 import forkjoin.PeriodicTask
 import org.apache.tomcat.util.threads.TaskQueue
+import runnable.ActiveSpanChild
 import runnable.ComparableAsyncChild
 import runnable.JavaAsyncChild
 import spock.lang.Shared
@@ -26,7 +27,9 @@ import java.util.concurrent.ScheduledThreadPoolExecutor
 import java.util.concurrent.ThreadPoolExecutor
 import java.util.concurrent.TimeUnit
 
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpan
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activeScope
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.noopSpan
 import static org.junit.Assume.assumeTrue
 
 abstract class ExecutorInstrumentationTest extends AgentTestRunner {
@@ -310,6 +313,61 @@ abstract class ExecutorInstrumentationTest extends AgentTestRunner {
     poolName = poolImpl.class.simpleName
   }
 
+  def "#poolName '#name' propagates #parentName"() {
+    setup:
+    def pool = poolImpl
+    def m = method
+    def child = new ActiveSpanChild()
+
+    when:
+    new Runnable() {
+        @Override
+        @Trace(operationName = "parent")
+        void run() {
+          activeScope().setAsyncPropagation(true)
+          if (hideParent) {
+            // the no-op span hides the parent span from the task
+            def noopScope = activateSpan(noopSpan())
+            try {
+              m(pool, child)
+            } finally {
+              noopScope.close()
+            }
+          } else {
+            m(pool, child)
+          }
+        }
+      }.run()
+    def taskSpan = child.awaitActiveSpan()
+    TEST_WRITER.waitForTraces(1)
+
+    then:
+    if (hideParent) {
+      // no continuation is captured from the no-op span, so the task runs without an active span
+      assert taskSpan == null
+    } else {
+      assert taskSpan.operationName == "parent"
+    }
+
+    cleanup:
+    pool?.shutdown()
+
+    where:
+    // spotless:off
+    name                | method           | poolImpl                                                                                      | hideParent
+    "execute Runnable"  | executeRunnable  | new ThreadPoolExecutor(1, 1, 1000, TimeUnit.NANOSECONDS, new ArrayBlockingQueue<Runnable>(1)) | false
+    "execute Runnable"  | executeRunnable  | new ThreadPoolExecutor(1, 1, 1000, TimeUnit.NANOSECONDS, new ArrayBlockingQueue<Runnable>(1)) | true
+    "submit Runnable"   | submitRunnable   | new ThreadPoolExecutor(1, 1, 1000, TimeUnit.NANOSECONDS, new ArrayBlockingQueue<Runnable>(1)) | true
+    "submit Callable"   | submitCallable   | new ThreadPoolExecutor(1, 1, 1000, TimeUnit.NANOSECONDS, new ArrayBlockingQueue<Runnable>(1)) | true
+    "schedule Runnable" | scheduleRunnable | new ScheduledThreadPoolExecutor(1)                                                            | false
+    "schedule Runnable" | scheduleRunnable | new ScheduledThreadPoolExecutor(1)                                                            | true
+    "execute Runnable"  | executeRunnable  | new ForkJoinPool()                                                                            | false
+    "execute Runnable"  | executeRunnable  | new ForkJoinPool()                                                                            | true
+    // spotless:on
+    poolName = poolImpl.class.simpleName
+    parentName = hideParent ? "the no-op span" : "the parent span"
+  }
+
   def "excluded ToBeIgnoredExecutor doesn't propagate"() {
     setup:
     def pool = new ToBeIgnoredExecutor()
@@ -0,0 +1,33 @@
+package runnable;
+
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activeSpan;
+
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/** Records the span that is active while the task runs. */
+public class ActiveSpanChild implements Runnable, Callable<Object> {
+  private final CountDownLatch done = new CountDownLatch(1);
+  private volatile AgentSpan activeSpan;
+
+  @Override
+  public void run() {
+    activeSpan = activeSpan();
+    done.countDown();
+  }
+
+  @Override
+  public Object call() {
+    run();
+    return null;
+  }
+
+  public AgentSpan awaitActiveSpan() throws InterruptedException {
+    if (!done.await(10, TimeUnit.SECONDS)) {
+      throw new IllegalStateException("task did not run");
+    }
+    return activeSpan;
+  }
+}
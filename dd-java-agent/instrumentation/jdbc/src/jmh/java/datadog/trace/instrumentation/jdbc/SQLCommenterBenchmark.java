@@ -22,6 +22,7 @@ public class SQLCommenterBenchmark {
   private static final String env = "env";
   private static final String version = "version";
   private static final boolean injectTrace = true;
+  private static final String sql = "SELECT * FROM users WHERE id = ?";
 
   @Benchmark
   public void testToComment() {
@@ -37,4 +38,10 @@ public class SQLCommenterBenchmark {
         version,
         traceParent);
   }
+
+  @Benchmark
+  public String testInject() {
+    return SQLCommenter.inject(
+        sql, dbService, "postgresql", hostname, dbName, traceParent, injectTrace, false);
+  }
 }
@@ -4,6 +4,7 @@ import datadog.trace.api.Config;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +27,10 @@ public class SQLCommenter {
   private static final String CLOSE_COMMENT = "*/";
   private static final int INITIAL_CAPACITY = computeInitialCapacity();
 
+  // the static part of comments only changes with the connection and the service
+  private static final int STATIC_COMMENTS_SIZE = 64; // must be a power of two
+  private static final StaticComment[] STATIC_COMMENTS = new StaticComment[STATIC_COMMENTS_SIZE];
+
   public static String append(
       final String sql,
       final String dbService,
@@ -90,48 +95,36 @@ public class SQLCommenter {
     }
 
     final Config config = Config.get();
-    final String parentService = config.getServiceName();
-    final String env = config.getEnv();
-    final String version = config.getVersion();
-    final int commentSize = capacity(traceParent, parentService, dbService, env, version);
+    final String staticComment =
+        staticComment(
+            config.getServiceName(),
+            dbService,
+            hostname,
+            dbName,
+            config.getEnv(),
+            config.getVersion());
+    final boolean addTraceParent = injectTrace && null != traceParent && !traceParent.isEmpty();
+    if (staticComment.isEmpty() && !addTraceParent) {
+      return sql;
+    }
+    int commentSize = staticComment.length() + OPEN_COMMENT.length() + CLOSE_COMMENT.length() + 1;
+    if (addTraceParent) {
+      commentSize += TRACEPARENT.length() + traceParent.length() + 4;
+    }
     StringBuilder sb = new StringBuilder(sql.length() + commentSize);
-    boolean commentAdded = false;
     if (appendComment) {
       sb.append(sql);
       sb.append(SPACE);
       sb.append(OPEN_COMMENT);
-      commentAdded =
-          toComment(
-              sb,
-              injectTrace,
-              parentService,
-              dbService,
-              hostname,
-              dbName,
-              env,
-              version,
-              traceParent);
+      appendComment(sb, staticComment, addTraceParent ? traceParent : null);
       sb.append(CLOSE_COMMENT);
     } else {
       sb.append(OPEN_COMMENT);
-      commentAdded =
-          toComment(
-              sb,
-              injectTrace,
-              parentService,
-              dbService,
-              hostname,
-              dbName,
-              env,
-              version,
-              traceParent);
+      appendComment(sb, staticComment, addTraceParent ? traceParent : null);
       sb.append(CLOSE_COMMENT);
       sb.append(SPACE);
       sb.append(sql);
     }
-    if (!commentAdded) {
-      return sql;
-    }
     return sb.toString();
   }
 
@@ -198,18 +191,57 @@ public class SQLCommenter {
       final String version,
       final String traceparent) {
     int emptySize = sb.length();
-    append(sb, PARENT_SERVICE, parentService, false);
-    append(sb, DATABASE_SERVICE, dbService, sb.length() > emptySize);
-    append(sb, DD_HOSTNAME, hostname, sb.length() > emptySize);
-    append(sb, DD_DB_NAME, dbName, sb.length() > emptySize);
-    append(sb, DD_ENV, env, sb.length() > emptySize);
-    append(sb, DD_VERSION, version, sb.length() > emptySize);
-    if (injectTrace) {
-      append(sb, TRACEPARENT, traceparent, sb.length() > emptySize);
-    }
+    appendComment(
+        sb,
+        staticComment(parentService, dbService, hostname, dbName, env, version),
+        injectTrace && null != traceparent && !traceparent.isEmpty() ? traceparent : null);
     return sb.length() > emptySize;
   }
 
+  private static void appendComment(
+      StringBuilder sb, final String staticComment, final String traceparent) {
+    sb.append(staticComment);
+    if (null != traceparent) {
+      if (!staticComment.isEmpty()) {
+        sb.append(COMMA);
+      }
+      // traceparent is made of hex digits and dashes, which need no encoding
+      sb.append(TRACEPARENT).append(EQUALS).append(QUOTE).append(traceparent).append(QUOTE);
+    }
+  }
+
+  /**
+   * @return the encoded tags of a comment which don't change between executions, looked up in a
+   *     small cache so the encoding is only done once for each connection and service
+   */
+  static String staticComment(
+      final String parentService,
+      final String dbService,
+      final String hostname,
+      final String dbName,
+      final String env,
+      final String version) {
+    int hash = hash(parentService);
+    hash = 31 * hash + hash(dbService);
+    hash = 31 * hash + hash(hostname);
+    hash = 31 * hash + hash(dbName);
+    hash = 31 * hash + hash(env);
+    hash = 31 * hash + hash(version);
+    int index = (hash ^ (hash >>> 16)) & (STATIC_COMMENTS_SIZE - 1);
+    StaticComment comment = STATIC_COMMENTS[index];
+    if (null == comment
+        || !comment.matches(parentService, dbService, hostname, dbName, env, version)) {
+      // entries are immutable, so racing writers can only replace one valid entry with another
+      comment = new StaticComment(parentService, dbService, hostname, dbName, env, version);
+      STATIC_COMMENTS[index] = comment;
+    }
+    return comment.encoded;
+  }
+
+  private static int hash(final String value) {
+    return null == value ? 0 : value.hashCode();
+  }
+
   private static void append(StringBuilder sb, String key, String value, boolean prependComma) {
     if (null != value && !value.isEmpty()) {
       try {
@@ -229,31 +261,6 @@ public class SQLCommenter {
     }
   }
 
-  private static int capacity(
-      final String traceparent,
-      final String parentService,
-      final String dbService,
-      final String env,
-      final String version) {
-    int len = INITIAL_CAPACITY;
-    if (null != traceparent) {
-      len += traceparent.length();
-    }
-    if (null != parentService) {
-      len += parentService.length();
-    }
-    if (null != dbService) {
-      len += dbService.length();
-    }
-    if (null != env) {
-      len += env.length();
-    }
-    if (null != version) {
-      len += version.length();
-    }
-    return len;
-  }
-
   private static int computeInitialCapacity() {
     int tagKeysLen =
         PARENT_SERVICE.length()
@@ -269,4 +276,52 @@ public class SQLCommenter {
             + CLOSE_COMMENT.length(); // two quotes, one equals & one comma * 5 + \* */
     return tagKeysLen + extraCharsLen;
   }
+
+  private static final class StaticComment {
+    final String parentService;
+    final String dbService;
+    final String hostname;
+    final String dbName;
+    final String env;
+    final String version;
+    final String encoded;
+
+    StaticComment(
+        final String parentService,
+        final String dbService,
+        final String hostname,
+        final String dbName,
+        final String env,
+        final String version) {
+      this.parentService = parentService;
+      this.dbService = dbService;
+      this.hostname = hostname;
+      this.dbName = dbName;
+      this.env = env;
+      this.version = version;
+      StringBuilder sb = new StringBuilder(INITIAL_CAPACITY);
+      append(sb, PARENT_SERVICE, parentService, false);
+      append(sb, DATABASE_SERVICE, dbService, sb.length() > 0);
+      append(sb, DD_HOSTNAME, hostname, sb.length() > 0);
+      append(sb, DD_DB_NAME, dbName, sb.length() > 0);
+      append(sb, DD_ENV, env, sb.length() > 0);
+      append(sb, DD_VERSION, version, sb.length() > 0);
+      this.encoded = sb.toString();
+    }
+
+    boolean matches(
+        final String parentService,
+        final String dbService,
+        final String hostname,
+        final String dbName,
+        final String env,
+        final String version) {
+      return Objects.equals(this.parentService, parentService)
+          && Objects.equals(this.dbService, dbService)
+          && Objects.equals(this.hostname, hostname)
+          && Objects.equals(this.dbName, dbName)
+          && Objects.equals(this.env, env)
+          && Objects.equals(this.version, version);
+    }
+  }
 }
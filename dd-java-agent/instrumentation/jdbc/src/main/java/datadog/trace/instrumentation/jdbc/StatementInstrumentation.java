@@ -59,6 +59,7 @@ public final class StatementInstrumentation extends InstrumenterModule.Tracing
     return new String[] {
       packageName + ".JDBCDecorator",
       packageName + ".SQLCommenter",
+      packageName + ".SQLCommenter$StaticComment",
       packageName + ".InstrumentationLogger",
     };
   }
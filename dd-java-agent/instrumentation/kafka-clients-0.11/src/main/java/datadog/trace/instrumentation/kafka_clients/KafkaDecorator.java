@@ -2,8 +2,11 @@ package datadog.trace.instrumentation.kafka_clients;
 
 import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.CONSUMER_GROUP;
 import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.KAFKA_BOOTSTRAP_SERVERS;
+import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.KAFKA_RECORDS_COUNT;
 import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.OFFSET;
 import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.PARTITION;
+import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.RECORD_QUEUE_TIME_AVG_MS;
+import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.RECORD_QUEUE_TIME_MAX_MS;
 import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.RECORD_QUEUE_TIME_MS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
@@ -38,6 +41,9 @@ public class KafkaDecorator extends MessagingClientDecorator {
   public static final boolean KAFKA_LEGACY_TRACING = Config.get().isKafkaLegacyTracingEnabled();
   public static final boolean TIME_IN_QUEUE_ENABLED =
       Config.get().isTimeInQueueEnabled(!KAFKA_LEGACY_TRACING, KAFKA);
+  public static final boolean KAFKA_BATCH_SPANS = Config.get().isKafkaClientBatchSpansEnabled();
+  public static final int KAFKA_BATCH_SPAN_LINKS_MAX =
+      Config.get().getKafkaClientBatchSpanLinksMax();
   public static final String KAFKA_PRODUCED_KEY = "x_datadog_kafka_produced";
   private final String spanKind;
   private final CharSequence spanType;
@@ -136,6 +142,20 @@ public class KafkaDecorator extends MessagingClientDecorator {
     }
   }
 
+  /** Adds the statistics of the records consumed in a batch, once they have all been consumed. */
+  public void onConsumeBatch(
+      final AgentSpan span,
+      final int recordCount,
+      final int timedRecordCount,
+      final long totalQueueTimeMs,
+      final long maxQueueTimeMs) {
+    span.setTag(KAFKA_RECORDS_COUNT, recordCount);
+    if (timedRecordCount > 0) {
+      span.setTag(RECORD_QUEUE_TIME_AVG_MS, totalQueueTimeMs / timedRecordCount);
+      span.setTag(RECORD_QUEUE_TIME_MAX_MS, maxQueueTimeMs);
+    }
+  }
+
   public void onTimeInQueue(final AgentSpan span, final ConsumerRecord record) {
     if (record != null) {
       String topic = record.topic() == null ? "kafka" : record.topic();
@@ -11,6 +11,8 @@ import static datadog.trace.core.datastreams.TagsProcessor.KAFKA_CLUSTER_ID_TAG;
 import static datadog.trace.core.datastreams.TagsProcessor.TOPIC_TAG;
 import static datadog.trace.core.datastreams.TagsProcessor.TYPE_TAG;
 import static datadog.trace.instrumentation.kafka_clients.KafkaDecorator.BROKER_DECORATE;
+import static datadog.trace.instrumentation.kafka_clients.KafkaDecorator.KAFKA_BATCH_SPANS;
+import static datadog.trace.instrumentation.kafka_clients.KafkaDecorator.KAFKA_BATCH_SPAN_LINKS_MAX;
 import static datadog.trace.instrumentation.kafka_clients.KafkaDecorator.KAFKA_DELIVER;
 import static datadog.trace.instrumentation.kafka_clients.KafkaDecorator.TIME_IN_QUEUE_ENABLED;
 import static datadog.trace.instrumentation.kafka_clients.TextMapExtractAdapter.GETTER;
@@ -18,15 +20,21 @@ import static datadog.trace.instrumentation.kafka_clients.TextMapInjectAdapter.S
 import static datadog.trace.instrumentation.kafka_common.StreamingContext.STREAMING_CONTEXT;
 import static datadog.trace.instrumentation.kafka_common.Utils.computePayloadSizeBytes;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import datadog.trace.api.Config;
+import datadog.trace.api.DDTraceId;
+import datadog.trace.bootstrap.instrumentation.api.AgentDataStreamsMonitoring;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan.Context;
 import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
 import datadog.trace.bootstrap.instrumentation.api.InstrumentationTags;
+import datadog.trace.bootstrap.instrumentation.api.PathwayContext;
+import datadog.trace.bootstrap.instrumentation.api.SpanLink;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.record.TimestampType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +49,17 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
   private final String clusterId;
   private final String bootstrapServers;
 
+  // batch mode: one span covers all the records consumed from this iterator
+  private AgentSpan batchSpan;
+  private long batchStartMillis;
+  private int batchRecords;
+  private int batchTimedRecords;
+  private int batchLinks;
+  private long totalQueueTimeMs;
+  private long maxQueueTimeMs;
+  private String lastTopic;
+  private int lastPartition = -1;
+
   public TracingIterator(
       final Iterator<ConsumerRecord<?, ?>> delegateIterator,
       final CharSequence operationName,
@@ -61,7 +80,7 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
     boolean moreRecords = delegateIterator.hasNext();
     if (!moreRecords) {
       // no more records, use this as a signal to close the last iteration scope
-      closePrevious(true);
+      closeIteration();
     }
     return moreRecords;
   }
@@ -69,10 +88,35 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
   @Override
   public ConsumerRecord<?, ?> next() {
     final ConsumerRecord<?, ?> next = delegateIterator.next();
-    startNewRecordSpan(next);
+    traceRecord(next);
     return next;
   }
 
+  protected void traceRecord(ConsumerRecord<?, ?> val) {
+    if (KAFKA_BATCH_SPANS) {
+      addToBatchSpan(val);
+    } else {
+      startNewRecordSpan(val);
+    }
+  }
+
+  protected void closeIteration() {
+    if (null != batchSpan) {
+      decorator.onConsumeBatch(
+          batchSpan, batchRecords, batchTimedRecords, totalQueueTimeMs, maxQueueTimeMs);
+      // the iterator can be resumed after hasNext() returned false, starting a new batch
+      batchSpan = null;
+      batchRecords = 0;
+      batchTimedRecords = 0;
+      batchLinks = 0;
+      totalQueueTimeMs = 0;
+      maxQueueTimeMs = 0;
+      lastTopic = null;
+      lastPartition = -1;
+    }
+    closePrevious(true);
+  }
+
   protected void startNewRecordSpan(ConsumerRecord<?, ?> val) {
     try {
       closePrevious(true);
@@ -94,14 +138,7 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
             // spans are written out together by TraceStructureWriter when running in strict mode
           }
 
-          LinkedHashMap<String, String> sortedTags = new LinkedHashMap<>();
-          sortedTags.put(DIRECTION_TAG, DIRECTION_IN);
-          sortedTags.put(GROUP_TAG, group);
-          if (clusterId != null) {
-            sortedTags.put(KAFKA_CLUSTER_ID_TAG, clusterId);
-          }
-          sortedTags.put(TOPIC_TAG, val.topic());
-          sortedTags.put(TYPE_TAG, "kafka");
+          LinkedHashMap<String, String> sortedTags = checkpointTags(val.topic());
 
           final long payloadSize =
               span.traceConfig().isDataStreamsEnabled() ? computePayloadSizeBytes(val) : 0;
@@ -139,6 +176,104 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
     }
   }
 
+  /**
+   * Adds the record to the span covering the whole batch, which is started with the first record.
+   *
+   * <p>Instead of one span per record, the batch span gets links to the sampled traces of up to
+   * {@link KafkaDecorator#KAFKA_BATCH_SPAN_LINKS_MAX} records, and time-in-queue statistics. The
+   * data streams checkpoint is set once for each partition in the batch.
+   */
+  protected void addToBatchSpan(ConsumerRecord<?, ?> val) {
+    if (val == null) {
+      return;
+    }
+    try {
+      if (null == batchSpan) {
+        closePrevious(true);
+        batchSpan = startSpan(operationName, null);
+        batchStartMillis = NANOSECONDS.toMillis(batchSpan.getStartTime());
+        decorator.afterStart(batchSpan);
+        decorator.onConsume(batchSpan, val, group, bootstrapServers);
+        activateNext(batchSpan);
+      }
+      batchRecords++;
+      if (val.timestampType() != TimestampType.NO_TIMESTAMP_TYPE) {
+        long queueTimeMs = Math.max(0L, batchStartMillis - val.timestamp());
+        batchTimedRecords++;
+        totalQueueTimeMs += queueTimeMs;
+        maxQueueTimeMs = Math.max(maxQueueTimeMs, queueTimeMs);
+      }
+
+      // records of the same partition are iterated one after the other
+      boolean newPartition = val.partition() != lastPartition || !val.topic().equals(lastTopic);
+      if (newPartition) {
+        lastTopic = val.topic();
+        lastPartition = val.partition();
+      }
+      Context spanContext = null;
+      if (!Config.get().isKafkaClientPropagationDisabledForTopic(val.topic())) {
+        if (newPartition || batchLinks < KAFKA_BATCH_SPAN_LINKS_MAX) {
+          spanContext = propagate().extract(val.headers(), GETTER);
+        }
+        if (null != spanContext
+            && batchLinks < KAFKA_BATCH_SPAN_LINKS_MAX
+            && spanContext.getSamplingPriority() > 0
+            && !DDTraceId.ZERO.equals(spanContext.getTraceId())) {
+          batchSpan.addLink(SpanLink.from(spanContext));
+          batchLinks++;
+        }
+      }
+      if (STREAMING_CONTEXT.isDisabledForTopic(val.topic())) {
+        if (newPartition) {
+          setBatchCheckpoint(val, spanContext);
+        }
+      } else if (STREAMING_CONTEXT.isSourceTopic(val.topic())) {
+        // the records may leave the topology on another instance, see startNewRecordSpan
+        final long payloadSize =
+            batchSpan.traceConfig().isDataStreamsEnabled() ? computePayloadSizeBytes(val) : 0;
+        propagate()
+            .injectPathwayContext(
+                batchSpan,
+                val.headers(),
+                SETTER,
+                checkpointTags(val.topic()),
+                val.timestamp(),
+                payloadSize);
+      }
+    } catch (final Exception e) {
+      log.debug("Error adding record to batch span", e);
+    }
+  }
+
+  private void setBatchCheckpoint(ConsumerRecord<?, ?> val, Context spanContext) {
+    if (!batchSpan.traceConfig().isDataStreamsEnabled()) {
+      return;
+    }
+    AgentDataStreamsMonitoring dataStreams = AgentTracer.get().getDataStreamsMonitoring();
+    // continue the pathway of the first record from the partition, as the batch span has none
+    PathwayContext pathwayContext = null != spanContext ? spanContext.getPathwayContext() : null;
+    if (null == pathwayContext) {
+      pathwayContext = dataStreams.newPathwayContext();
+    }
+    pathwayContext.setCheckpoint(
+        checkpointTags(val.topic()),
+        dataStreams::add,
+        val.timestamp(),
+        computePayloadSizeBytes(val));
+  }
+
+  private LinkedHashMap<String, String> checkpointTags(String topic) {
+    LinkedHashMap<String, String> sortedTags = new LinkedHashMap<>();
+    sortedTags.put(DIRECTION_TAG, DIRECTION_IN);
+    sortedTags.put(GROUP_TAG, group);
+    if (clusterId != null) {
+      sortedTags.put(KAFKA_CLUSTER_ID_TAG, clusterId);
+    }
+    sortedTags.put(TOPIC_TAG, topic);
+    sortedTags.put(TYPE_TAG, "kafka");
+    return sortedTags;
+  }
+
   @Override
   public void remove() {
     delegateIterator.remove();
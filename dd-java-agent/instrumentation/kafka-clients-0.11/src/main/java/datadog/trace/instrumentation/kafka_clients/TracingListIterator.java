@@ -1,7 +1,5 @@
 package datadog.trace.instrumentation.kafka_clients;
 
-import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.closePrevious;
-
 import java.util.ListIterator;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 
@@ -26,7 +24,7 @@ public class TracingListIterator extends TracingIterator
     boolean moreRecords = delegateIterator.hasPrevious();
     if (!moreRecords) {
       // no more records, use this as a signal to close the last iteration scope
-      closePrevious(true);
+      closeIteration();
     }
     return moreRecords;
   }
@@ -34,7 +32,7 @@ public class TracingListIterator extends TracingIterator
   @Override
   public ConsumerRecord<?, ?> previous() {
     final ConsumerRecord<?, ?> prev = delegateIterator.previous();
-    startNewRecordSpan(prev);
+    traceRecord(prev);
     return prev;
   }
 
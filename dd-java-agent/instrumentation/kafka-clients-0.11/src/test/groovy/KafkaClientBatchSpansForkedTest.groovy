@@ -0,0 +1,73 @@
+import static datadog.trace.agent.test.utils.TraceUtils.runUnderTrace
+
+import datadog.trace.agent.test.AgentTestRunner
+import datadog.trace.bootstrap.instrumentation.api.InstrumentationTags
+import datadog.trace.common.writer.ListWriter
+import datadog.trace.core.DDSpan
+import org.apache.kafka.clients.consumer.ConsumerConfig
+import org.apache.kafka.clients.consumer.KafkaConsumer
+import org.apache.kafka.clients.producer.KafkaProducer
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.apache.kafka.common.TopicPartition
+import org.junit.Rule
+import org.springframework.kafka.test.rule.KafkaEmbedded
+import org.springframework.kafka.test.utils.KafkaTestUtils
+
+class KafkaClientBatchSpansForkedTest extends AgentTestRunner {
+  static final BATCH_TOPIC = "batch.topic"
+
+  @Rule
+  KafkaEmbedded embeddedKafka = new KafkaEmbedded(1, true, BATCH_TOPIC)
+
+  @Override
+  void configurePreAgent() {
+    super.configurePreAgent()
+    injectSysConfig("dd.kafka.client.batch.spans.enabled", "true")
+    injectSysConfig("dd.kafka.client.batch.span.links.max", "2")
+  }
+
+  def setup() {
+    TEST_WRITER.setFilter(new ListWriter.Filter() {
+        @Override
+        boolean accept(List<DDSpan> trace) {
+          return !(trace.size() == 1 && trace.get(0).getResourceName().toString() == "kafka.poll")
+        }
+      })
+  }
+
+  def "test one consume span per batch"() {
+    setup:
+    def consumerProperties = KafkaTestUtils.consumerProps("sender", "false", embeddedKafka)
+    consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest")
+    def consumer = new KafkaConsumer<String, String>(consumerProperties)
+    def producer = new KafkaProducer(KafkaTestUtils.senderProps(embeddedKafka.getBrokersAsString()))
+    consumer.assign([new TopicPartition(BATCH_TOPIC, 0)])
+
+    when:
+    runUnderTrace("parent") {
+      (1..3).each {
+        producer.send(new ProducerRecord<Integer, String>(BATCH_TOPIC, 0, null, "message " + it)).get()
+      }
+    }
+    def values = []
+    def records = KafkaTestUtils.getRecords(consumer)
+    for (def record : records) {
+      values << record.value()
+    }
+    TEST_WRITER.waitForTraces(2)
+    def consumeSpans = TEST_WRITER.flatten().findAll {
+      it.operationName.toString() == "kafka.consume"
+    }
+
+    then:
+    values == ["message 1", "message 2", "message 3"]
+    consumeSpans.size() == 1
+    consumeSpans[0].getTag(InstrumentationTags.KAFKA_RECORDS_COUNT) == 3
+    consumeSpans[0].getTag(InstrumentationTags.RECORD_QUEUE_TIME_MAX_MS) != null
+    consumeSpans[0].getTag("_dd.span_links") != null
+
+    cleanup:
+    consumer.close()
+    producer.close()
+  }
+}
@@ -53,6 +53,8 @@ public class ChannelFutureListenerInstrumentation extends InstrumenterModule.Tra
       packageName + ".client.HttpClientTracingHandler",
       // server helpers
       packageName + ".server.ResponseExtractAdapter",
+      packageName + ".server.RequestExtractAdapter",
+      packageName + ".server.RequestExtractAdapter$ExtractedHeaders",
       packageName + ".server.NettyHttpServerDecorator",
       packageName + ".server.NettyHttpServerDecorator$NettyBlockResponseFunction",
       packageName + ".server.BlockingResponseHandler",
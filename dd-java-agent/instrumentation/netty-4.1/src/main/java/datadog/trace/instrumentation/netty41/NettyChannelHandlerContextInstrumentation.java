@@ -48,6 +48,8 @@ public class NettyChannelHandlerContextInstrumentation extends InstrumenterModul
       packageName + ".AttributeKeys",
       packageName + ".client.NettyHttpClientDecorator",
       packageName + ".server.ResponseExtractAdapter",
+      packageName + ".server.RequestExtractAdapter",
+      packageName + ".server.RequestExtractAdapter$ExtractedHeaders",
       packageName + ".server.NettyHttpServerDecorator",
       packageName + ".server.NettyHttpServerDecorator$NettyBlockResponseFunction",
       packageName + ".server.BlockingResponseHandler",
@@ -68,6 +68,8 @@ public class NettyChannelPipelineInstrumentation extends InstrumenterModule.Trac
       packageName + ".client.HttpClientTracingHandler",
       // server helpers
       packageName + ".server.ResponseExtractAdapter",
+      packageName + ".server.RequestExtractAdapter",
+      packageName + ".server.RequestExtractAdapter$ExtractedHeaders",
       packageName + ".server.NettyHttpServerDecorator",
       packageName + ".server.NettyHttpServerDecorator$NettyBlockResponseFunction",
       packageName + ".server.BlockingResponseHandler",
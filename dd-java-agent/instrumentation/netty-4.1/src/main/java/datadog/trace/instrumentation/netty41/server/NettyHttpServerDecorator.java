@@ -4,6 +4,7 @@ import datadog.appsec.api.blocking.BlockingContentType;
 import datadog.trace.api.gateway.BlockResponseFunction;
 import datadog.trace.api.internal.TraceSegment;
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.ContextVisitors;
 import datadog.trace.bootstrap.instrumentation.api.URIDataAdapter;
 import datadog.trace.bootstrap.instrumentation.api.URIDataAdapterBase;
@@ -48,6 +49,16 @@ public class NettyHttpServerDecorator
     return ContextVisitors.stringValuesEntrySet();
   }
 
+  @Override
+  public AgentSpan.Context.Extracted extract(HttpHeaders carrier) {
+    if (null == carrier) {
+      return null;
+    }
+    // only visit the headers needed for extraction, the getter still visits all of them for the
+    // request header callbacks
+    return tracer().propagate().extract(carrier, RequestExtractAdapter.GETTER);
+  }
+
   @Override
   protected AgentPropagation.ContextVisitor<HttpResponse> responseGetter() {
     return ResponseExtractAdapter.GETTER;
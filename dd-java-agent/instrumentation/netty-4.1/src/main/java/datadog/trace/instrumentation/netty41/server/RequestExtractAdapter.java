@@ -0,0 +1,106 @@
+package datadog.trace.instrumentation.netty41.server;
+
+import datadog.trace.api.Config;
+import datadog.trace.api.TraceConfig;
+import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.AsciiString;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Visits the request headers needed to extract the trace context, without converting the others.
+ *
+ * <p>Header names are matched directly against the {@link CharSequence} names held by netty, which
+ * are {@link AsciiString}s with a cached case-insensitive hash for HTTP/2 requests and well-known
+ * HTTP/1 headers. Only the names and values of matching headers are converted to strings. When
+ * request header tags or baggage mappings are configured, any header may be needed, so all of them
+ * are visited.
+ */
+public final class RequestExtractAdapter implements AgentPropagation.ContextVisitor<HttpHeaders> {
+  public static final RequestExtractAdapter GETTER = new RequestExtractAdapter();
+
+  // built from the tracer on first use, racing threads build the same headers
+  private ExtractedHeaders extractedHeaders;
+
+  private RequestExtractAdapter() {}
+
+  RequestExtractAdapter(AgentPropagation propagation) {
+    this.extractedHeaders = new ExtractedHeaders(propagation);
+  }
+
+  @Override
+  public void forEachKey(HttpHeaders carrier, AgentPropagation.KeyClassifier classifier) {
+    TraceConfig traceConfig = AgentTracer.traceConfig();
+    boolean allHeaders =
+        Config.get().isLogExtractHeaderNames()
+            || !traceConfig.getRequestHeaderTags().isEmpty()
+            || !traceConfig.getBaggageMapping().isEmpty();
+    ExtractedHeaders extracted = extractedHeaders;
+    if (null == extracted && !allHeaders) {
+      // only reached once the tracer extracts contexts, so its propagation is installed
+      extractedHeaders = extracted = new ExtractedHeaders(AgentTracer.propagate());
+    }
+    Iterator<Map.Entry<CharSequence, CharSequence>> headers = carrier.iteratorCharSequence();
+    while (headers.hasNext()) {
+      Map.Entry<CharSequence, CharSequence> header = headers.next();
+      CharSequence name = header.getKey();
+      CharSequence value = header.getValue();
+      if (null != value
+          && (allHeaders || extracted.contains(name))
+          && !classifier.accept(name.toString(), value.toString())) {
+        return;
+      }
+    }
+  }
+
+  /** Open-addressing table of the header names read by the tracer when extracting a context. */
+  static final class ExtractedHeaders {
+    private final AsciiString[] table;
+    private final String[] prefixes;
+
+    ExtractedHeaders(AgentPropagation propagation) {
+      Collection<String> names = propagation.extractedHeaderNames();
+      // at most half full
+      table = new AsciiString[Integer.highestOneBit(Math.max(names.size(), 1)) << 2];
+      for (String name : names) {
+        add(name);
+      }
+      prefixes = propagation.extractedHeaderPrefixes().toArray(new String[0]);
+    }
+
+    private void add(String name) {
+      int mask = table.length - 1;
+      int index = AsciiString.hashCode(name) & mask;
+      while (null != table[index]) {
+        if (table[index].contentEqualsIgnoreCase(name)) {
+          return;
+        }
+        index = (index + 1) & mask;
+      }
+      table[index] = AsciiString.of(name);
+    }
+
+    boolean contains(CharSequence name) {
+      // AsciiString hashes are case-insensitive and cached for AsciiString names
+      int mask = table.length - 1;
+      int index = AsciiString.hashCode(name) & mask;
+      AsciiString candidate;
+      while (null != (candidate = table[index])) {
+        if (candidate.contentEqualsIgnoreCase(name)) {
+          return true;
+        }
+        index = (index + 1) & mask;
+      }
+      for (String prefix : prefixes) {
+        if (name.length() > prefix.length()
+            && AsciiString.regionMatches(name, true, 0, prefix, 0, prefix.length())) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
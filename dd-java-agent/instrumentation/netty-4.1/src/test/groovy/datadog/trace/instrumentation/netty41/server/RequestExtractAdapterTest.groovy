@@ -0,0 +1,107 @@
+package datadog.trace.instrumentation.netty41.server
+
+import static datadog.trace.api.config.TracerConfig.PROPAGATION_EXTRACT_LOG_HEADER_NAMES_ENABLED
+import static datadog.trace.api.config.TracerConfig.TRACE_CLIENT_IP_HEADER
+
+import datadog.trace.agent.test.AgentTestRunner
+import datadog.trace.bootstrap.instrumentation.api.AgentPropagation
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer
+import io.netty.handler.codec.http.DefaultHttpHeaders
+import io.netty.handler.codec.http.HttpHeaders
+import io.netty.util.AsciiString
+
+class RequestExtractAdapterTest extends AgentTestRunner {
+
+  @Override
+  protected void configurePreAgent() {
+    super.configurePreAgent()
+    injectSysConfig(TRACE_CLIENT_IP_HEADER, "My-Client-IP")
+  }
+
+  static HttpHeaders headers() {
+    HttpHeaders headers = new DefaultHttpHeaders()
+    headers.add("X-Datadog-Trace-Id", "123")
+    headers.add(new AsciiString("x-datadog-parent-id"), "456")
+    headers.add("TraceParent", "00-0000000000000000000000000000007b-00000000000001c8-01")
+    headers.add(new AsciiString("X-FORWARDED-FOR"), "1.2.3.4")
+    headers.add("my-client-ip", "5.6.7.8")
+    headers.add(new AsciiString("OT-Baggage-Key"), "value")
+    headers.add("ot-baggage-", "empty key")
+    headers.add(new AsciiString("Content-Type"), "text/plain")
+    headers.add("X-Datadog-Unknown", "not extracted")
+    headers.add("Some-Header", "not extracted")
+    return headers
+  }
+
+  static Map<String, String> visit(RequestExtractAdapter adapter, HttpHeaders headers) {
+    Map<String, String> visited = [:]
+    adapter.forEachKey(headers, { String key, String value ->
+      visited.put(key, value)
+      return true
+    } as AgentPropagation.KeyClassifier)
+    return visited
+  }
+
+  def "visits only the headers read when extracting a context"() {
+    when:
+    def visited = visit(new RequestExtractAdapter(AgentTracer.propagate()), headers())
+
+    then:
+    visited == [
+      "X-Datadog-Trace-Id" : "123",
+      "x-datadog-parent-id": "456",
+      "TraceParent"        : "00-0000000000000000000000000000007b-00000000000001c8-01",
+      "X-FORWARDED-FOR"    : "1.2.3.4",
+      "my-client-ip"       : "5.6.7.8",
+      "OT-Baggage-Key"     : "value"
+    ]
+  }
+
+  def "matches header names regardless of case and type"() {
+    setup:
+    def extracted = new RequestExtractAdapter.ExtractedHeaders(AgentTracer.propagate())
+
+    expect:
+    extracted.contains(name) == expected
+
+    where:
+    name                                   | expected
+    "x-datadog-trace-id"                   | true
+    "X-DATADOG-TRACE-ID"                   | true
+    new AsciiString("X-Datadog-Trace-Id")  | true
+    new StringBuilder("x-real-ip")         | true
+    new AsciiString("My-Client-Ip")        | true
+    "ot-baggage-user"                      | true
+    new AsciiString("Ot-Baggage-User")     | true
+    "ot-baggage-"                          | false
+    "x-datadog-trace"                      | false
+    "x-datadog-trace-id-2"                 | false
+    new AsciiString("content-type")        | false
+    "baggage-user"                         | false
+  }
+
+  def "visits all the headers when header names are logged"() {
+    setup:
+    injectSysConfig(PROPAGATION_EXTRACT_LOG_HEADER_NAMES_ENABLED, "true")
+
+    when:
+    def visited = visit(new RequestExtractAdapter(AgentTracer.propagate()), headers())
+
+    then:
+    visited.keySet() == headers().names()
+  }
+
+  def "stops visiting when the classifier is done"() {
+    setup:
+    def visited = []
+
+    when:
+    new RequestExtractAdapter(AgentTracer.propagate()).forEachKey(headers(), { String key, String value ->
+      visited.add(key)
+      return false
+    } as AgentPropagation.KeyClassifier)
+
+    then:
+    visited == ["X-Datadog-Trace-Id"]
+  }
+}
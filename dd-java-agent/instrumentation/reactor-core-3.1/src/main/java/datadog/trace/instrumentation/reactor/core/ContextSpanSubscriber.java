@@ -0,0 +1,60 @@
+package datadog.trace.instrumentation.reactor.core;
+
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.util.context.Context;
+
+/**
+ * Carries the span in the Reactor {@link Context} seen by upstream operators, without activating it
+ * around each signal. Used when context mode is enabled, where only the operators that start
+ * emitting on a thread get a {@link TracingSubscriber}.
+ */
+public class ContextSpanSubscriber<T> implements CoreSubscriber<T> {
+  static final String SPAN_KEY = "datadog.trace.span";
+
+  private final Subscriber<? super T> subscriber;
+  private final Context context;
+
+  public ContextSpanSubscriber(final Subscriber<? super T> subscriber, final Context context) {
+    this.subscriber = subscriber;
+    this.context = context;
+  }
+
+  public static AgentSpan spanFrom(final Context context) {
+    return context.getOrDefault(SPAN_KEY, null);
+  }
+
+  /** @return the span carried in the subscriber's context, or null */
+  public static AgentSpan spanFrom(final Subscriber<?> subscriber) {
+    return subscriber instanceof CoreSubscriber
+        ? spanFrom(((CoreSubscriber<?>) subscriber).currentContext())
+        : null;
+  }
+
+  @Override
+  public void onSubscribe(final Subscription subscription) {
+    subscriber.onSubscribe(subscription);
+  }
+
+  @Override
+  public void onNext(final T o) {
+    subscriber.onNext(o);
+  }
+
+  @Override
+  public void onError(final Throwable throwable) {
+    subscriber.onError(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    subscriber.onComplete();
+  }
+
+  @Override
+  public Context currentContext() {
+    return context;
+  }
+}
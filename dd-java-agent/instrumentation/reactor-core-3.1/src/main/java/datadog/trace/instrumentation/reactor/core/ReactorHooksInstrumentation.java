@@ -28,7 +28,10 @@ public final class ReactorHooksInstrumentation extends InstrumenterModule.Tracin
   @Override
   public String[] helperClassNames() {
     return new String[] {
-      packageName + ".TracingOperator", packageName + ".TracingSubscriber",
+      packageName + ".TracingOperator",
+      packageName + ".TracingOperator$ThreadBoundary",
+      packageName + ".TracingSubscriber",
+      packageName + ".ContextSpanSubscriber",
     };
   }
 
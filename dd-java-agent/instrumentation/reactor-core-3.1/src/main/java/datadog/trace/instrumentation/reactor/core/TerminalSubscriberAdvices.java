@@ -15,6 +15,10 @@ public class TerminalSubscriberAdvices {
     @Advice.OnMethodEnter
     public static void onSubscribe(@Advice.This final Subscriber thiz) {
       AgentSpan span = AgentTracer.activeSpan();
+      if (span == null) {
+        // in context mode the span may only be carried in the subscriber's context
+        span = ContextSpanSubscriber.spanFrom(thiz);
+      }
       InstrumentationContext.get(Subscriber.class, AgentSpan.class)
           .put(thiz, span == null ? noopSpan() : span);
     }
@@ -26,6 +26,13 @@ public class TerminalSubscriberInstrumentation extends InstrumenterModule.Tracin
     };
   }
 
+  @Override
+  public String[] helperClassNames() {
+    return new String[] {
+      packageName + ".ContextSpanSubscriber",
+    };
+  }
+
   @Override
   public Map<String, String> contextStore() {
     return singletonMap("org.reactivestreams.Subscriber", AgentSpan.class.getName());
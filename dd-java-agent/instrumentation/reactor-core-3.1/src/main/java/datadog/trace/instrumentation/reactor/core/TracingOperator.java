@@ -1,18 +1,29 @@
 package datadog.trace.instrumentation.reactor.core;
 
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activeSpan;
+import static datadog.trace.instrumentation.reactor.core.ContextSpanSubscriber.SPAN_KEY;
+import static datadog.trace.instrumentation.reactor.core.ContextSpanSubscriber.spanFrom;
 
+import datadog.trace.api.Config;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Function;
 import org.reactivestreams.Publisher;
 import reactor.core.Fuseable;
+import reactor.core.Scannable;
 import reactor.core.publisher.Hooks;
 import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
 
 /** Based on Spring Sleuth's Reactor instrumentation. */
 public class TracingOperator extends ClassValue<Boolean> {
 
   private static final TracingOperator FILTER = new TracingOperator();
+  private static final ThreadBoundary THREAD_BOUNDARY = new ThreadBoundary();
+  private static final Scannable.Attr<?> RUN_ON = runOnAttr();
 
   @Override
   protected Boolean computeValue(final Class<?> type) {
@@ -26,7 +37,9 @@ public class TracingOperator extends ClassValue<Boolean> {
    * application.
    */
   public static void registerOnEachOperator() {
-    Hooks.onEachOperator(TracingSubscriber.class.getName(), tracingLift());
+    Hooks.onEachOperator(
+        TracingSubscriber.class.getName(),
+        Config.get().isReactorContextModeEnabled() ? contextLift() : tracingLift());
   }
 
   private static <T> Function<? super Publisher<T>, ? extends Publisher<T>> tracingLift() {
@@ -41,4 +54,116 @@ public class TracingOperator extends ClassValue<Boolean> {
               : new TracingSubscriber<>(subscriber, subscriber.currentContext(), span);
         });
   }
+
+  /**
+   * Carries the span in the {@link Context} instead of activating it around every signal of every
+   * operator. The span is only activated where signals may start on a new thread or under another
+   * subscriber's span: at sources, at operators like {@code publishOn} which emit from a scheduler,
+   * and at operators shared by several subscribers. Operators in between are called synchronously
+   * from there, so they still run with the span active.
+   */
+  private static <T> Function<? super Publisher<T>, ? extends Publisher<T>> contextLift() {
+    return Operators.lift(
+        (publisher, subscriber) -> {
+          if (publisher instanceof Fuseable.ScalarCallable
+              || subscriber instanceof TracingSubscriber
+              || FILTER.get(publisher.getClass())) {
+            return subscriber;
+          }
+          Context context = subscriber.currentContext();
+          AgentSpan contextSpan = spanFrom(context);
+          AgentSpan span = activeSpan();
+          if (null == span) {
+            // subscribed from a scheduler thread, e.g. by subscribeOn
+            if (null == contextSpan) {
+              return subscriber;
+            }
+            span = contextSpan;
+          }
+          if (span != contextSpan) {
+            context = context.put(SPAN_KEY, span);
+          }
+          if (null == publisher.scanUnsafe(Scannable.Attr.PARENT)
+              || THREAD_BOUNDARY.get(publisher.getClass())
+              || runsOnScheduler(publisher)) {
+            return new TracingSubscriber<>(subscriber, context, span);
+          }
+          return span == contextSpan
+              ? subscriber
+              : new ContextSpanSubscriber<>(subscriber, context);
+        });
+  }
+
+  /** Scheduler-backed operators report their scheduler from reactor 3.3 onwards. */
+  private static boolean runsOnScheduler(Scannable publisher) {
+    if (null == RUN_ON) {
+      return false;
+    }
+    Object scheduler = publisher.scanUnsafe(RUN_ON);
+    return null != scheduler && scheduler != Schedulers.immediate();
+  }
+
+  private static Scannable.Attr<?> runOnAttr() {
+    try {
+      return (Scannable.Attr<?>) Scannable.Attr.class.getField("RUN_ON").get(null);
+    } catch (ReflectiveOperationException e) {
+      return null; // before reactor 3.3
+    }
+  }
+
+  /**
+   * Operators which may signal downstream from a different thread than their upstream, or under
+   * the span of another subscriber.
+   */
+  static final class ThreadBoundary extends ClassValue<Boolean> {
+    private static final Set<String> BOUNDARIES =
+        new HashSet<>(
+            Arrays.asList(
+                // emit from a scheduler
+                "reactor.core.publisher.FluxPublishOn",
+                "reactor.core.publisher.MonoPublishOn",
+                "reactor.core.publisher.FluxSubscribeOn",
+                "reactor.core.publisher.FluxSubscribeOnCallable",
+                "reactor.core.publisher.FluxSubscribeOnValue",
+                "reactor.core.publisher.MonoSubscribeOn",
+                "reactor.core.publisher.MonoSubscribeOnCallable",
+                "reactor.core.publisher.MonoSubscribeOnValue",
+                "reactor.core.publisher.ParallelRunOn",
+                // emit from a timer
+                "reactor.core.publisher.FluxDelaySequence",
+                "reactor.core.publisher.FluxDelaySubscription",
+                "reactor.core.publisher.MonoDelayElement",
+                "reactor.core.publisher.MonoDelaySubscription",
+                "reactor.core.publisher.MonoDelayUntil",
+                "reactor.core.publisher.FluxTimeout",
+                "reactor.core.publisher.MonoTimeout",
+                "reactor.core.publisher.FluxBufferTimeout",
+                "reactor.core.publisher.FluxWindowTimeout",
+                "reactor.core.publisher.FluxSampleTimeout",
+                "reactor.core.publisher.FluxOnBackpressureBufferTimeout",
+                // shared by several subscribers, which may receive signals under another one's span
+                "reactor.core.publisher.FluxPublish",
+                "reactor.core.publisher.FluxReplay",
+                "reactor.core.publisher.FluxRefCount",
+                "reactor.core.publisher.FluxRefCountGrace",
+                "reactor.core.publisher.FluxAutoConnect",
+                "reactor.core.publisher.FluxAutoConnectFuseable",
+                "reactor.core.publisher.MonoCacheTime",
+                "reactor.core.publisher.MonoProcessor",
+                // adapt publishers which are not reactor operators
+                "reactor.core.publisher.FluxSource",
+                "reactor.core.publisher.FluxSourceFuseable",
+                "reactor.core.publisher.FluxSourceMono",
+                "reactor.core.publisher.FluxSourceMonoFuseable",
+                "reactor.core.publisher.MonoSource",
+                "reactor.core.publisher.MonoSourceFuseable",
+                "reactor.core.publisher.MonoSourceFlux",
+                "reactor.core.publisher.MonoSourceFluxFuseable",
+                "reactor.core.publisher.MonoFromPublisher"));
+
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      return BOUNDARIES.contains(type.getName());
+    }
+  }
 }
@@ -12,6 +12,8 @@ import reactor.core.scheduler.Schedulers
 import spock.lang.Shared
 
 import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 
 import static datadog.trace.agent.test.utils.TraceUtils.basicSpan
 import static datadog.trace.agent.test.utils.TraceUtils.runUnderTrace
@@ -438,3 +440,105 @@ class ReactorCoreTest extends AgentTestRunner {
     return i + 2
   }
 }
+
+class ReactorContextModeForkedTest extends ReactorCoreTest {
+  @Override
+  void configurePreAgent() {
+    super.configurePreAgent()
+
+    injectSysConfig("dd.integration.reactor-hooks.enabled", "true")
+    injectSysConfig("dd.reactor.context.mode.enabled", "true")
+  }
+
+  def "parallel rails run on the '#schedulerName' scheduler with the span active"() {
+    when:
+    def result = runUnderTrace("trace-parent") {
+      Flux.range(1, 4)
+        .parallel(2)
+        .runOn(scheduler)
+        .map(addOne)
+        .sequential()
+        .collectList()
+        .block()
+    }
+
+    then:
+    result.sort() == [2, 3, 4, 5]
+    assertTraces(1) {
+      trace(5) {
+        sortSpansByStart()
+        span {
+          operationName "trace-parent"
+          parent()
+        }
+        for (int i = 0; i < 4; i++) {
+          span {
+            operationName "addOne"
+            childOf span(0)
+            tags {
+              "$Tags.COMPONENT" "trace"
+              defaultTags()
+            }
+          }
+        }
+      }
+    }
+
+    where:
+    schedulerName | scheduler
+    "parallel"    | Schedulers.parallel()
+    "single"      | Schedulers.single()
+  }
+
+  def "subscribers of a published flux get their own span as parent"() {
+    setup:
+    def published = Flux.just(1, 2).publish().autoConnect(2)
+    def done = new CountDownLatch(2)
+    def first = startSpan("first")
+    def second = startSpan("second")
+
+    when:
+    // the first subscriber waits for the second one, whose subscription connects the flux
+    def firstScope = activateSpan(first)
+    published.map(addOne).doFinally { done.countDown() }.subscribe()
+    firstScope.close()
+    def secondScope = activateSpan(second)
+    published.map(addTwo).doFinally { done.countDown() }.subscribe()
+    secondScope.close()
+    done.await(10, TimeUnit.SECONDS)
+    first.finish()
+    second.finish()
+
+    then:
+    assertTraces(2) {
+      trace(3) {
+        sortSpansByStart()
+        basicSpan(it, "first")
+        for (int i = 0; i < 2; i++) {
+          span {
+            operationName "addOne"
+            childOf span(0)
+            tags {
+              "$Tags.COMPONENT" "trace"
+              defaultTags()
+            }
+          }
+        }
+      }
+      trace(3) {
+        sortSpansByStart()
+        basicSpan(it, "second")
+        for (int i = 0; i < 2; i++) {
+          span {
+            operationName "addTwo"
+            childOf span(0)
+            tags {
+              "$Tags.COMPONENT" "trace"
+              defaultTags()
+            }
+          }
+        }
+      }
+    }
+  }
+}
@@ -204,6 +204,8 @@ public final class ConfigDefaults {
 
   static final int DEFAULT_RESOLVER_RESET_INTERVAL = 300; // seconds
 
+  static final int DEFAULT_AGENT_TASK_SCHEDULER_WORKERS = 2;
+
   static final boolean DEFAULT_TELEMETRY_ENABLED = true;
   static final int DEFAULT_TELEMETRY_HEARTBEAT_INTERVAL = 60; // in seconds
   static final int DEFAULT_TELEMETRY_EXTENDED_HEARTBEAT_INTERVAL =
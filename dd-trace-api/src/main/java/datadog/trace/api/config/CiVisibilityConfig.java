@@ -75,6 +75,8 @@ public final class CiVisibilityConfig {
       "civisibility.code.coverage.enabled";
   public static final String CIVISIBILITY_CODE_COVERAGE_LINES_ENABLED =
       "civisibility.code.coverage.lines.enabled";
+  public static final String CIVISIBILITY_CODE_COVERAGE_INDEXED_PROBES_ENABLED =
+      "civisibility.code.coverage.indexed.probes.enabled";
   public static final String CIVISIBILITY_CODE_COVERAGE_INCLUDES =
       "civisibility.code.coverage.includes";
   public static final String CIVISIBILITY_CODE_COVERAGE_EXCLUDES =
@@ -83,6 +85,10 @@ public final class CiVisibilityConfig {
       "civisibility.code.coverage.root.packages.limit";
   public static final String CIVISIBILITY_CODE_COVERAGE_REPORT_DUMP_DIR =
       "civisibility.code.coverage.report.dump.dir";
+  public static final String CIVISIBILITY_BYTECODE_ANALYSIS_CACHE_ENABLED =
+      "civisibility.bytecode.analysis.cache.enabled";
+  public static final String CIVISIBILITY_BYTECODE_ANALYSIS_CACHE_PATH =
+      "civisibility.bytecode.analysis.cache.path";
   public static final String CIVISIBILITY_JACOCO_PLUGIN_VERSION =
       "civisibility.jacoco.plugin.version";
   public static final String CIVISIBILITY_GRADLE_SOURCE_SETS = "civisibility.gradle.sourcesets";
@@ -199,6 +199,11 @@ public final class ProfilingConfig {
   public static final String PROFILING_CONTEXT_ATTRIBUTES_RESOURCE_NAME_ENABLED =
       "profiling.context.attributes.resource.name.enabled";
 
+  public static final String PROFILING_CONTEXT_BATCHING_ENABLED =
+      "profiling.context.batching.enabled";
+
+  public static final boolean PROFILING_CONTEXT_BATCHING_ENABLED_DEFAULT = false;
+
   public static final String PROFILING_QUEUEING_TIME_ENABLED = "profiling.queueing.time.enabled";
 
   public static final boolean PROFILING_QUEUEING_TIME_ENABLED_DEFAULT = true;
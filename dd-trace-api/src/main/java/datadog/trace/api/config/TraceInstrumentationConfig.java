@@ -49,6 +49,7 @@ public final class TraceInstrumentationConfig {
   public static final String HTTP_SERVER_DECODED_RESOURCE_PRESERVE_SPACES =
       "http.server.decoded.resource.preserve-spaces";
   public static final String HTTP_SERVER_ROUTE_BASED_NAMING = "http.server.route-based-naming";
+  public static final String HTTP_SERVER_LAZY_TAGGING = "http.server.lazy-tagging";
   public static final String HTTP_CLIENT_TAG_QUERY_STRING = "http.client.tag.query-string";
   public static final String HTTP_CLIENT_TAG_HEADERS = "http.client.tag.headers";
   public static final String HTTP_CLIENT_HOST_SPLIT_BY_DOMAIN = "trace.http.client.split-by-domain";
@@ -84,6 +85,9 @@ public final class TraceInstrumentationConfig {
       "kafka.client.propagation.disabled.topics";
   public static final String KAFKA_CLIENT_BASE64_DECODING_ENABLED =
       "kafka.client.base64.decoding.enabled";
+  public static final String KAFKA_CLIENT_BATCH_SPANS_ENABLED = "kafka.client.batch.spans.enabled";
+  public static final String KAFKA_CLIENT_BATCH_SPAN_LINKS_MAX =
+      "kafka.client.batch.span.links.max";
 
   public static final String JMS_PROPAGATION_DISABLED_TOPICS = "jms.propagation.disabled.topics";
   public static final String JMS_PROPAGATION_DISABLED_QUEUES = "jms.propagation.disabled.queues";
@@ -100,6 +104,8 @@ public final class TraceInstrumentationConfig {
   public static final String MESSAGE_BROKER_SPLIT_BY_DESTINATION =
       "message.broker.split-by-destination";
 
+  public static final String REACTOR_CONTEXT_MODE_ENABLED = "reactor.context.mode.enabled";
+
   public static final String GRPC_IGNORED_INBOUND_METHODS = "trace.grpc.ignored.inbound.methods";
   public static final String GRPC_IGNORED_OUTBOUND_METHODS = "trace.grpc.ignored.outbound.methods";
 
@@ -137,6 +143,8 @@ public final class TraceInstrumentationConfig {
   public static final String RESOLVER_USE_URL_CACHES = "resolver.use.url.caches";
   public static final String RESOLVER_RESET_INTERVAL = "resolver.reset.interval";
   public static final String RESOLVER_NAMES_ARE_UNIQUE = "resolver.names.are.unique";
+  public static final String RESOLVER_STARTUP_PRESCAN = "resolver.startup.prescan";
+  public static final String AGENT_TASK_SCHEDULER_WORKERS = "agent.task.scheduler.workers";
   public static final String COUCHBASE_INTERNAL_SPANS_ENABLED =
       "trace.couchbase.internal-spans.enabled";
   public static final String ELASTICSEARCH_BODY_ENABLED = "trace.elasticsearch.body.enabled";
@@ -9,12 +9,15 @@ import static datadog.trace.bootstrap.instrumentation.api.Tags.SPAN_KIND;
 import static datadog.trace.bootstrap.instrumentation.api.Tags.SPAN_KIND_CLIENT;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import datadog.communication.monitor.StatsDAggregator;
 import datadog.trace.api.StatsDClient;
+import datadog.trace.api.cache.DDCacheStats;
 import datadog.trace.api.cache.RadixTreeCache;
 import datadog.trace.bootstrap.instrumentation.api.ScopeSource;
 import datadog.trace.common.writer.RemoteApi;
 import datadog.trace.core.DDSpan;
 import datadog.trace.util.AgentTaskScheduler;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -134,6 +137,7 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
       CountersFactory.createFixedSizeStripedCounter(8);
 
   private final StatsDClient statsd;
+  private final StatsDAggregator aggregator;
   private final long interval;
   private final TimeUnit units;
 
@@ -152,6 +156,7 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
 
   public TracerHealthMetrics(final StatsDClient statsd, long interval, TimeUnit units) {
     this.statsd = statsd;
+    this.aggregator = StatsDAggregator.of(statsd);
     this.interval = interval;
     this.units = units;
   }
@@ -379,115 +384,150 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
     private static final String[] SINGLE_SPAN_SAMPLER = new String[] {"sampler:single-span"};
 
     private final long[] previousCounts = new long[43];
+    private final StatsDAggregator.Count[] aggregatedCounts =
+        new StatsDAggregator.Count[previousCounts.length];
     private int countIndex;
+    private final List<CacheCounts> cacheCounts = new ArrayList<>();
+    private StatsDAggregator.Count schedulerOverruns;
+    private long previousSchedulerOverruns;
 
     @Override
     public void run(TracerHealthMetrics target) {
       countIndex = -1; // reposition so _next_ value is 0
       try {
 
-        reportIfChanged(target.statsd, "api.requests.total", target.apiRequests, NO_TAGS);
-        reportIfChanged(target.statsd, "api.errors.total", target.apiErrors, NO_TAGS);
+        reportIfChanged(target.aggregator, "api.requests.total", target.apiRequests, NO_TAGS);
+        reportIfChanged(target.aggregator, "api.errors.total", target.apiErrors, NO_TAGS);
         // non-OK responses are reported immediately in onSendAttempt with different status tags
         reportIfChanged(
-            target.statsd, "api.responses.total", target.apiResponsesOK, STATUS_OK_TAGS);
+            target.aggregator, "api.responses.total", target.apiResponsesOK, STATUS_OK_TAGS);
 
         reportIfChanged(
-            target.statsd, "queue.enqueued.traces", target.userDropEnqueuedTraces, USER_DROP_TAG);
+            target.aggregator,
+            "queue.enqueued.traces",
+            target.userDropEnqueuedTraces,
+            USER_DROP_TAG);
         reportIfChanged(
-            target.statsd, "queue.enqueued.traces", target.userKeepEnqueuedTraces, USER_KEEP_TAG);
+            target.aggregator,
+            "queue.enqueued.traces",
+            target.userKeepEnqueuedTraces,
+            USER_KEEP_TAG);
         reportIfChanged(
-            target.statsd,
+            target.aggregator,
             "queue.enqueued.traces",
             target.samplerDropEnqueuedTraces,
             SAMPLER_DROP_TAG);
         reportIfChanged(
-            target.statsd,
+            target.aggregator,
             "queue.enqueued.traces",
             target.samplerKeepEnqueuedTraces,
             SAMPLER_KEEP_TAG);
         reportIfChanged(
-            target.statsd, "queue.enqueued.traces", target.unsetPriorityEnqueuedTraces, UNSET_TAG);
+            target.aggregator,
+            "queue.enqueued.traces",
+            target.unsetPriorityEnqueuedTraces,
+            UNSET_TAG);
 
         reportIfChanged(
-            target.statsd, "queue.dropped.traces", target.userDropDroppedTraces, USER_DROP_TAG);
+            target.aggregator, "queue.dropped.traces", target.userDropDroppedTraces, USER_DROP_TAG);
         reportIfChanged(
-            target.statsd, "queue.dropped.traces", target.userKeepDroppedTraces, USER_KEEP_TAG);
+            target.aggregator, "queue.dropped.traces", target.userKeepDroppedTraces, USER_KEEP_TAG);
         reportIfChanged(
-            target.statsd,
+            target.aggregator,
             "queue.dropped.traces",
             target.samplerDropDroppedTraces,
             SAMPLER_DROP_TAG);
         reportIfChanged(
-            target.statsd,
+            target.aggregator,
             "queue.dropped.traces",
             target.samplerKeepDroppedTraces,
             SAMPLER_KEEP_TAG);
         reportIfChanged(
-            target.statsd,
+            target.aggregator,
             "queue.dropped.traces",
             target.serialFailedDroppedTraces,
             SERIAL_FAILED_TAG);
         reportIfChanged(
-            target.statsd, "queue.dropped.traces", target.unsetPriorityDroppedTraces, UNSET_TAG);
+            target.aggregator,
+            "queue.dropped.traces",
+            target.unsetPriorityDroppedTraces,
+            UNSET_TAG);
 
         reportIfChanged(
-            target.statsd, "queue.dropped.spans", target.userDropDroppedSpans, USER_DROP_TAG);
+            target.aggregator, "queue.dropped.spans", target.userDropDroppedSpans, USER_DROP_TAG);
         reportIfChanged(
-            target.statsd, "queue.dropped.spans", target.userKeepDroppedSpans, USER_KEEP_TAG);
+            target.aggregator, "queue.dropped.spans", target.userKeepDroppedSpans, USER_KEEP_TAG);
         reportIfChanged(
-            target.statsd, "queue.dropped.spans", target.samplerDropDroppedSpans, SAMPLER_DROP_TAG);
+            target.aggregator,
+            "queue.dropped.spans",
+            target.samplerDropDroppedSpans,
+            SAMPLER_DROP_TAG);
         reportIfChanged(
-            target.statsd, "queue.dropped.spans", target.samplerKeepDroppedSpans, SAMPLER_KEEP_TAG);
+            target.aggregator,
+            "queue.dropped.spans",
+            target.samplerKeepDroppedSpans,
+            SAMPLER_KEEP_TAG);
         reportIfChanged(
-            target.statsd,
+            target.aggregator,
             "queue.dropped.spans",
             target.serialFailedDroppedSpans,
             SERIAL_FAILED_TAG);
         reportIfChanged(
-            target.statsd, "queue.dropped.spans", target.unsetPriorityDroppedSpans, UNSET_TAG);
-
-        reportIfChanged(target.statsd, "queue.enqueued.spans", target.enqueuedSpans, NO_TAGS);
-        reportIfChanged(target.statsd, "queue.enqueued.bytes", target.enqueuedBytes, NO_TAGS);
-        reportIfChanged(target.statsd, "trace.pending.created", target.createdTraces, NO_TAGS);
-        reportIfChanged(target.statsd, "span.pending.created", target.createdSpans, NO_TAGS);
-        reportIfChanged(target.statsd, "span.pending.finished", target.finishedSpans, NO_TAGS);
-        reportIfChanged(target.statsd, "flush.traces.total", target.flushedTraces, NO_TAGS);
-        reportIfChanged(target.statsd, "flush.bytes.total", target.flushedBytes, NO_TAGS);
-        reportIfChanged(target.statsd, "queue.partial.traces", target.partialTraces, NO_TAGS);
-        reportIfChanged(target.statsd, "span.flushed.partial", target.partialBytes, NO_TAGS);
+            target.aggregator, "queue.dropped.spans", target.unsetPriorityDroppedSpans, UNSET_TAG);
+
+        reportIfChanged(target.aggregator, "queue.enqueued.spans", target.enqueuedSpans, NO_TAGS);
+        reportIfChanged(target.aggregator, "queue.enqueued.bytes", target.enqueuedBytes, NO_TAGS);
+        reportIfChanged(target.aggregator, "trace.pending.created", target.createdTraces, NO_TAGS);
+        reportIfChanged(target.aggregator, "span.pending.created", target.createdSpans, NO_TAGS);
+        reportIfChanged(target.aggregator, "span.pending.finished", target.finishedSpans, NO_TAGS);
+        reportIfChanged(target.aggregator, "flush.traces.total", target.flushedTraces, NO_TAGS);
+        reportIfChanged(target.aggregator, "flush.bytes.total", target.flushedBytes, NO_TAGS);
+        reportIfChanged(target.aggregator, "queue.partial.traces", target.partialTraces, NO_TAGS);
+        reportIfChanged(target.aggregator, "span.flushed.partial", target.partialBytes, NO_TAGS);
         reportIfChanged(
-            target.statsd, "span.client.no-context", target.clientSpansWithoutContext, NO_TAGS);
+            target.aggregator, "span.client.no-context", target.clientSpansWithoutContext, NO_TAGS);
 
         reportIfChanged(
-            target.statsd, "span.sampling.sampled", target.singleSpanSampled, SINGLE_SPAN_SAMPLER);
+            target.aggregator,
+            "span.sampling.sampled",
+            target.singleSpanSampled,
+            SINGLE_SPAN_SAMPLER);
         reportIfChanged(
-            target.statsd,
+            target.aggregator,
             "span.sampling.unsampled",
             target.singleSpanUnsampled,
             SINGLE_SPAN_SAMPLER);
 
         reportIfChanged(
-            target.statsd, "span.continuations.captured", target.capturedContinuations, NO_TAGS);
+            target.aggregator,
+            "span.continuations.captured",
+            target.capturedContinuations,
+            NO_TAGS);
         reportIfChanged(
-            target.statsd, "span.continuations.canceled", target.cancelledContinuations, NO_TAGS);
+            target.aggregator,
+            "span.continuations.canceled",
+            target.cancelledContinuations,
+            NO_TAGS);
         reportIfChanged(
-            target.statsd, "span.continuations.finished", target.finishedContinuations, NO_TAGS);
+            target.aggregator,
+            "span.continuations.finished",
+            target.finishedContinuations,
+            NO_TAGS);
 
-        reportIfChanged(target.statsd, "scope.activate.count", target.activatedScopes, NO_TAGS);
-        reportIfChanged(target.statsd, "scope.close.count", target.closedScopes, NO_TAGS);
+        reportIfChanged(target.aggregator, "scope.activate.count", target.activatedScopes, NO_TAGS);
+        reportIfChanged(target.aggregator, "scope.close.count", target.closedScopes, NO_TAGS);
         reportIfChanged(
-            target.statsd, "scope.error.stack-overflow", target.scopeStackOverflow, NO_TAGS);
-        reportIfChanged(target.statsd, "scope.close.error", target.scopeCloseErrors, NO_TAGS);
+            target.aggregator, "scope.error.stack-overflow", target.scopeStackOverflow, NO_TAGS);
+        reportIfChanged(target.aggregator, "scope.close.error", target.scopeCloseErrors, NO_TAGS);
         reportIfChanged(
-            target.statsd, "scope.user.close.error", target.userScopeCloseErrors, NO_TAGS);
+            target.aggregator, "scope.user.close.error", target.userScopeCloseErrors, NO_TAGS);
 
         reportIfChanged(
-            target.statsd, "long-running.write", target.longRunningTracesWrite, NO_TAGS);
+            target.aggregator, "long-running.write", target.longRunningTracesWrite, NO_TAGS);
         reportIfChanged(
-            target.statsd, "long-running.dropped", target.longRunningTracesDropped, NO_TAGS);
+            target.aggregator, "long-running.dropped", target.longRunningTracesDropped, NO_TAGS);
         reportIfChanged(
-            target.statsd, "long-running.expired", target.longRunningTracesExpired, NO_TAGS);
+            target.aggregator, "long-running.expired", target.longRunningTracesExpired, NO_TAGS);
 
       } catch (ArrayIndexOutOfBoundsException e) {
         log.warn(
@@ -495,22 +535,83 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
             countIndex + 1,
             previousCounts.length);
       }
+      reportCacheStats(target.aggregator);
+      reportSchedulerStats(target.aggregator);
+      target.aggregator.flush();
+    }
+
+    private void reportCacheStats(StatsDAggregator aggregator) {
+      // caches are only ever added to the registry, so new caches are at the end
+      List<DDCacheStats> registered = DDCacheStats.registered();
+      for (int i = cacheCounts.size(); i < registered.size(); i++) {
+        cacheCounts.add(new CacheCounts(aggregator, registered.get(i)));
+      }
+      for (CacheCounts counts : cacheCounts) {
+        counts.report();
+      }
+    }
+
+    private void reportSchedulerStats(StatsDAggregator aggregator) {
+      long overruns = AgentTaskScheduler.INSTANCE.getOverrunCount();
+      if (overruns > previousSchedulerOverruns) {
+        if (schedulerOverruns == null) {
+          schedulerOverruns = aggregator.count("scheduler.overruns", NO_TAGS);
+        }
+        schedulerOverruns.add(overruns - previousSchedulerOverruns);
+        previousSchedulerOverruns = overruns;
+      }
     }
 
     private void reportIfChanged(
-        StatsDClient statsDClient,
+        StatsDAggregator aggregator,
         String aspect,
         FixedSizeStripedLongCounter counter,
         String[] tags) {
       long count = counter.get();
       long delta = count - previousCounts[++countIndex];
       if (delta > 0) {
-        statsDClient.count(aspect, delta, tags);
+        StatsDAggregator.Count aggregatedCount = aggregatedCounts[countIndex];
+        if (aggregatedCount == null) {
+          // name and tags are encoded once, when the metric is first reported
+          aggregatedCount = aggregator.count(aspect, tags);
+          aggregatedCounts[countIndex] = aggregatedCount;
+        }
+        aggregatedCount.add(delta);
         previousCounts[countIndex] = count;
       }
     }
   }
 
+  private static final class CacheCounts {
+    private final DDCacheStats stats;
+    private final StatsDAggregator.Count hits;
+    private final StatsDAggregator.Count misses;
+    private final StatsDAggregator.Count evictions;
+    private long previousHits;
+    private long previousMisses;
+    private long previousEvictions;
+
+    CacheCounts(StatsDAggregator aggregator, DDCacheStats stats) {
+      this.stats = stats;
+      String[] tags = new String[] {"cache:" + stats.getName()};
+      this.hits = aggregator.count("cache.hits", tags);
+      this.misses = aggregator.count("cache.misses", tags);
+      this.evictions = aggregator.count("cache.evictions", tags);
+    }
+
+    void report() {
+      long currentHits = stats.getHits();
+      hits.add(currentHits - previousHits);
+      previousHits = currentHits;
+      long currentMisses = stats.getMisses();
+      misses.add(currentMisses - previousMisses);
+      previousMisses = currentMisses;
+      long currentEvictions = stats.getEvictions();
+      evictions.add(currentEvictions - previousEvictions);
+      previousEvictions = currentEvictions;
+    }
+  }
+
   @Override
   public String summary() {
     return "apiRequests="
@@ -8,6 +8,7 @@ import datadog.trace.core.DDSpanContext;
 import datadog.trace.core.datastreams.DataStreamContextInjector;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class CorePropagation implements AgentPropagation {
   private final HttpCodec.Injector injector;
@@ -104,4 +105,14 @@ public class CorePropagation implements AgentPropagation {
   public <C> AgentSpan.Context.Extracted extract(final C carrier, final ContextVisitor<C> getter) {
     return extractor.extract(carrier, getter);
   }
+
+  @Override
+  public Set<String> extractedHeaderNames() {
+    return HttpCodec.extractedHeaderNames(Config.get());
+  }
+
+  @Override
+  public Set<String> extractedHeaderPrefixes() {
+    return HttpCodec.extractedHeaderPrefixes(Config.get());
+  }
 }
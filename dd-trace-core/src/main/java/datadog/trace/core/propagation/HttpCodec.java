@@ -12,6 +12,7 @@ import datadog.trace.api.DDTraceId;
 import datadog.trace.api.TraceConfig;
 import datadog.trace.api.TracePropagationStyle;
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
+import datadog.trace.bootstrap.instrumentation.api.PathwayContext;
 import datadog.trace.bootstrap.instrumentation.api.TagContext;
 import datadog.trace.core.DDSpanContext;
 import datadog.trace.core.DDSpanLink;
@@ -21,7 +22,9 @@ import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -174,6 +177,113 @@ public class HttpCodec {
     }
   }
 
+  /**
+   * Gets the names of the headers read when extracting a context with the configured propagation
+   * styles, along with the data streams headers and the headers used to resolve client IPs.
+   *
+   * @param config The tracer configuration.
+   * @return The header names, in lower case.
+   */
+  public static Set<String> extractedHeaderNames(Config config) {
+    Set<String> names = new LinkedHashSet<>();
+    for (final TracePropagationStyle style : config.getTracePropagationStylesToExtract()) {
+      switch (style) {
+        case DATADOG:
+          addLowerCase(
+              names,
+              DatadogHttpCodec.TRACE_ID_KEY,
+              DatadogHttpCodec.SPAN_ID_KEY,
+              DatadogHttpCodec.SAMPLING_PRIORITY_KEY,
+              DatadogHttpCodec.ORIGIN_KEY,
+              DatadogHttpCodec.DATADOG_TAGS_KEY,
+              XRayHttpCodec.X_AMZN_TRACE_ID);
+          break;
+        case B3SINGLE:
+          addLowerCase(names, B3HttpCodec.B3_KEY);
+          break;
+        case B3MULTI:
+          addLowerCase(
+              names,
+              B3HttpCodec.TRACE_ID_KEY,
+              B3HttpCodec.SPAN_ID_KEY,
+              B3HttpCodec.SAMPLING_PRIORITY_KEY);
+          break;
+        case HAYSTACK:
+          addLowerCase(
+              names,
+              HaystackHttpCodec.TRACE_ID_KEY,
+              HaystackHttpCodec.SPAN_ID_KEY,
+              HaystackHttpCodec.PARENT_ID_KEY);
+          break;
+        case XRAY:
+          addLowerCase(names, XRayHttpCodec.X_AMZN_TRACE_ID);
+          break;
+        case TRACECONTEXT:
+          addLowerCase(names, W3CHttpCodec.TRACE_PARENT_KEY, W3CHttpCodec.TRACE_STATE_KEY);
+          break;
+        default:
+          break;
+      }
+    }
+    addLowerCase(
+        names,
+        PathwayContext.PROPAGATION_KEY,
+        PathwayContext.PROPAGATION_KEY_BASE64,
+        FORWARDED_KEY,
+        FORWARDED_FOR_KEY,
+        X_FORWARDED_PROTO_KEY,
+        X_FORWARDED_HOST_KEY,
+        X_FORWARDED_KEY,
+        X_FORWARDED_FOR_KEY,
+        X_FORWARDED_PORT_KEY,
+        X_CLIENT_IP_KEY,
+        TRUE_CLIENT_IP_KEY,
+        X_CLUSTER_CLIENT_IP_KEY,
+        X_REAL_IP_KEY,
+        USER_AGENT_KEY,
+        FASTLY_CLIENT_IP_KEY,
+        CF_CONNECTING_IP_KEY,
+        CF_CONNECTING_IP_V6_KEY);
+    String customIpHeader = config.getTraceClientIpHeader();
+    if (null != customIpHeader && !customIpHeader.isEmpty()) {
+      addLowerCase(names, customIpHeader);
+    }
+    return names;
+  }
+
+  /**
+   * Gets the prefixes of the baggage headers read when extracting a context with the configured
+   * propagation styles.
+   *
+   * @param config The tracer configuration.
+   * @return The header name prefixes, in lower case.
+   */
+  public static Set<String> extractedHeaderPrefixes(Config config) {
+    Set<String> prefixes = new LinkedHashSet<>();
+    for (final TracePropagationStyle style : config.getTracePropagationStylesToExtract()) {
+      switch (style) {
+        case DATADOG:
+          addLowerCase(prefixes, DatadogHttpCodec.OT_BAGGAGE_PREFIX);
+          break;
+        case HAYSTACK:
+          addLowerCase(prefixes, HaystackHttpCodec.OT_BAGGAGE_PREFIX);
+          break;
+        case TRACECONTEXT:
+          addLowerCase(prefixes, W3CHttpCodec.OT_BAGGAGE_PREFIX);
+          break;
+        default:
+          break;
+      }
+    }
+    return prefixes;
+  }
+
+  private static void addLowerCase(Set<String> names, String... keys) {
+    for (String key : keys) {
+      names.add(key.toLowerCase(Locale.ROOT));
+    }
+  }
+
   public static class CompoundInjector implements Injector {
 
     private final List<Injector> injectors;
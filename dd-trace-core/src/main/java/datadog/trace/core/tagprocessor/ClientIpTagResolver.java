@@ -0,0 +1,21 @@
+package datadog.trace.core.tagprocessor;
+
+import datadog.trace.bootstrap.instrumentation.api.Tags;
+import datadog.trace.core.DDSpanContext;
+import java.util.Map;
+
+/**
+ * Resolves the client IP tag, which with lazy http server tagging is only inferred when first read,
+ * and removes it when no address could be inferred.
+ */
+public class ClientIpTagResolver implements TagsPostProcessor {
+  @Override
+  public Map<String, Object> processTags(
+      Map<String, Object> unsafeTags, DDSpanContext spanContext) {
+    Object clientIp = unsafeTags.get(Tags.HTTP_CLIENT_IP);
+    if (clientIp instanceof CharSequence && ((CharSequence) clientIp).length() == 0) {
+      unsafeTags.remove(Tags.HTTP_CLIENT_IP);
+    }
+    return unsafeTags;
+  }
+}
@@ -10,12 +10,13 @@ public final class TagsPostProcessorFactory {
 
   private static class Lazy {
     private static TagsPostProcessor create() {
-      final List<TagsPostProcessor> processors = new ArrayList<>(4);
+      final List<TagsPostProcessor> processors = new ArrayList<>(5);
       processors.add(new PeerServiceCalculator());
       if (addBaseService) {
         processors.add(new BaseServiceAdder(Config.get().getServiceName()));
       }
       processors.add(new QueryObfuscator(Config.get().getObfuscationQueryRegexp()));
+      processors.add(new ClientIpTagResolver());
       if (addRemoteHostname) {
         processors.add(new RemoteHostnameAdder(Config.get().getHostNameSupplier()));
       }
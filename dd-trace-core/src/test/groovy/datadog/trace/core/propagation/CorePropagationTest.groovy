@@ -226,4 +226,46 @@ class CorePropagationTest extends DDCoreSpecification {
     span.finish()
     tracer.close()
   }
+
+  def 'test extracted headers of propagation styles #styles'() {
+    setup:
+    injectSysConfig('trace.propagation.style.extract', styles)
+    injectSysConfig('trace.client-ip-header', 'My-Client-IP')
+    def common = [
+      'dd-pathway-ctx',
+      'dd-pathway-ctx-base64',
+      'forwarded',
+      'forwarded-for',
+      'x-forwarded-proto',
+      'x-forwarded-host',
+      'x-forwarded',
+      'x-forwarded-for',
+      'x-forwarded-port',
+      'x-client-ip',
+      'true-client-ip',
+      'x-cluster-client-ip',
+      'x-real-ip',
+      'user-agent',
+      'fastly-client-ip',
+      'cf-connecting-ip',
+      'cf-connecting-ipv6',
+      'my-client-ip'
+    ]
+
+    expect:
+    propagation.extractedHeaderNames().containsAll(common)
+    propagation.extractedHeaderNames() - common == names as Set
+    propagation.extractedHeaderPrefixes() == prefixes as Set
+
+    where:
+    styles             | names                                                                                                                                 | prefixes
+    'datadog'          | ['x-datadog-trace-id', 'x-datadog-parent-id', 'x-datadog-sampling-priority', 'x-datadog-origin', 'x-datadog-tags', 'x-amzn-trace-id'] | ['ot-baggage-']
+    'b3multi'          | ['x-b3-traceid', 'x-b3-spanid', 'x-b3-sampled']                                                                                       | []
+    'b3 single header' | ['b3']                                                                                                                                | []
+    'haystack'         | ['trace-id', 'span-id', 'parent-id']                                                                                                  | ['baggage-']
+    'xray'             | ['x-amzn-trace-id']                                                                                                                   | []
+    'tracecontext'     | ['traceparent', 'tracestate']                                                                                                         | ['ot-baggage-']
+    'b3multi,xray'     | ['x-b3-traceid', 'x-b3-spanid', 'x-b3-sampled', 'x-amzn-trace-id']                                                                    | []
+    'none'             | []                                                                                                                                    | []
+  }
 }
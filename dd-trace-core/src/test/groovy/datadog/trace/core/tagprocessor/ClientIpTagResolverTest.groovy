@@ -0,0 +1,23 @@
+package datadog.trace.core.tagprocessor
+
+import datadog.trace.bootstrap.instrumentation.api.Tags
+import datadog.trace.test.util.DDSpecification
+
+class ClientIpTagResolverTest extends DDSpecification {
+  def "should remove the client ip when no address was inferred"() {
+    setup:
+    def resolver = new ClientIpTagResolver()
+
+    when:
+    def processedTags = resolver.processTags(tags, null)
+
+    then:
+    assert processedTags == expectedTags
+
+    where:
+    tags                                                           | expectedTags
+    [:]                                                            | [:]
+    [(Tags.HTTP_CLIENT_IP): "1.2.3.4"]                             | [(Tags.HTTP_CLIENT_IP): "1.2.3.4"]
+    [(Tags.HTTP_CLIENT_IP): new StringBuilder(), "other": "value"] | ["other": "value"]
+  }
+}
@@ -0,0 +1,122 @@
+package datadog.trace.api.cache;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the hit rate (reported as an auxiliary counter) and the throughput of the fixed size
+ * caches on keys following a Zipf distribution, where a few keys are very frequent and many keys
+ * are only seen once.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode(Mode.Throughput)
+@State(Scope.Benchmark)
+public class FixedSizeCacheBenchmark {
+
+  private static final int KEY_COUNT = 1 << 16;
+  private static final int KEY_MASK = KEY_COUNT - 1;
+
+  @Param({"fixed", "admission"})
+  String cacheType;
+
+  @Param("256")
+  int capacity;
+
+  @Param({"0.8", "1.2"})
+  double skew;
+
+  private DDCache<String, String> cache;
+  private String[] keys;
+
+  @Setup
+  public void setup() {
+    cache =
+        "admission".equals(cacheType)
+            ? DDCaches.newFixedSizeAdmissionCache(capacity)
+            : DDCaches.newFixedSizeCache(capacity);
+    keys = zipfKeys(1 << 20, skew);
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int index = (int) (Math.random() * KEY_COUNT);
+  }
+
+  @Threads(4)
+  @Benchmark
+  public String lookup(Cursor cursor, CacheCounters counters) {
+    String key = keys[cursor.index++ & (keys.length - 1)];
+    ++counters.lookups;
+    return cache.computeIfAbsent(key, Counting.of(counters));
+  }
+
+  /** Producer counting the misses of the calling thread. */
+  private static final class Counting implements Function<String, String> {
+    private static final ThreadLocal<Counting> CURRENT = new ThreadLocal<>();
+
+    private CacheCounters counters;
+
+    static Counting of(CacheCounters counters) {
+      Counting counting = CURRENT.get();
+      if (counting == null) {
+        counting = new Counting();
+        CURRENT.set(counting);
+      }
+      counting.counters = counters;
+      return counting;
+    }
+
+    @Override
+    public String apply(String key) {
+      ++counters.misses;
+      return key;
+    }
+  }
+
+  private static String[] zipfKeys(int size, double skew) {
+    double[] cumulative = new double[KEY_COUNT];
+    double sum = 0;
+    for (int i = 0; i < KEY_COUNT; i++) {
+      sum += 1 / Math.pow(i + 1, skew);
+      cumulative[i] = sum;
+    }
+    String[] names = new String[KEY_COUNT];
+    for (int i = 0; i < KEY_COUNT; i++) {
+      names[i] = "key-" + i;
+    }
+    SplittableRandom random = new SplittableRandom(42);
+    String[] keys = new String[size];
+    for (int i = 0; i < size; i++) {
+      double target = random.nextDouble() * sum;
+      int low = 0;
+      int high = KEY_MASK;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (cumulative[mid] < target) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      keys[i] = names[low];
+    }
+    return keys;
+  }
+}
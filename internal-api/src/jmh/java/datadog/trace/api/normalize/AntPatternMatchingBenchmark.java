@@ -0,0 +1,104 @@
+package datadog.trace.api.normalize;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares finding the first matching pattern with {@link AntPathMatcher}, one pattern at a time,
+ * and with the compiled {@link AntPatternTrie}, for a growing number of patterns. Paths are not
+ * cached, which is the cost of each cache miss in {@link AntPatternHttpPathNormalizer}.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class AntPatternMatchingBenchmark {
+
+  private static final int PATH_COUNT = 1024;
+
+  @Param({"10", "50", "200"})
+  int patternCount;
+
+  private final AntPathMatcher matcher = new AntPathMatcher();
+  private List<String> patterns;
+  private AntPatternTrie trie;
+  private String[] paths;
+  private int index;
+
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    patterns = new ArrayList<>(patternCount);
+    for (int i = 0; i < patternCount; i++) {
+      switch (i % 4) {
+        case 0:
+          patterns.add("/api/v" + (i % 3) + "/service" + i + "/*");
+          break;
+        case 1:
+          patterns.add("/api/**/service" + i + "/items/?");
+          break;
+        case 2:
+          patterns.add("/static/service" + i + "/**/*.js");
+          break;
+        default:
+          patterns.add("/users/*/service" + i + "/orders/*");
+          break;
+      }
+    }
+    trie = new AntPatternTrie(patterns);
+    paths = new String[PATH_COUNT];
+    for (int i = 0; i < PATH_COUNT; i++) {
+      int service = random.nextInt(patternCount * 2); // about half of the paths don't match
+      switch (random.nextInt(4)) {
+        case 0:
+          paths[i] = "/api/v" + (service % 3) + "/service" + service + "/" + random.nextInt();
+          break;
+        case 1:
+          paths[i] = "/api/internal/service" + service + "/items/" + random.nextInt(10);
+          break;
+        case 2:
+          paths[i] = "/static/service" + service + "/js/lib/app" + random.nextInt() + ".js";
+          break;
+        default:
+          paths[i] = "/users/" + random.nextInt() + "/service" + service + "/orders/1";
+          break;
+      }
+    }
+  }
+
+  @Benchmark
+  public int antPathMatcher() {
+    String path = nextPath();
+    for (int i = 0; i < patterns.size(); i++) {
+      if (matcher.match(patterns.get(i), path)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Benchmark
+  public int trie() {
+    return trie.match(nextPath());
+  }
+
+  private String nextPath() {
+    return paths[index++ & (PATH_COUNT - 1)];
+  }
+}
@@ -0,0 +1,65 @@
+package datadog.trace.api.normalize;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Normalizes a mix of typical queries and request paths, most of them needing no changes, which is
+ * the common case the scanning in {@link SQLNormalizer} and {@link SimpleHttpPathNormalizer} is
+ * tuned for.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class NormalizerBenchmark {
+
+  private static final String[] QUERIES = {
+    "SELECT * FROM users WHERE id = ?",
+    "SELECT u.id, u.name, u.email FROM users u JOIN orders o ON o.user_id = u.id"
+        + " WHERE o.status = ?",
+    "SELECT * FROM TABLE WHERE userId = 'abc1287681964' ORDER BY FOO DESC",
+    "INSERT INTO visits VALUES (2, 8, '2013-01-02', 'rabies shot')",
+    "UPDATE accounts SET balance = balance - 100.25, updated_at = now() WHERE account_id = 42",
+    "SELECT COUNT(*) FROM TABLE_1 JOIN table_2 ON TABLE_1.foo = table_2.bar where col1 <> 'x\\'y'",
+    "SELECT o.id, o.total, c.name FROM orders o LEFT JOIN customers c ON c.id = o.customer_id"
+        + " WHERE o.created_at > :since AND o.region IN (:regions) ORDER BY o.created_at DESC",
+    "SELECT 'Бегите, глупцы' AS quote FROM dual"
+  };
+
+  private static final String[] PATHS = {
+    "/",
+    "/health",
+    "/api/products/search",
+    "/static/css/main.css",
+    "/api/v2/users/1234/orders",
+    "/user/asdf123/repository/01234567-9ABC-DEF0-1234",
+    "/docs/getting-started/installation",
+    "/account/settings/notifications"
+  };
+
+  private final SimpleHttpPathNormalizer pathNormalizer = new SimpleHttpPathNormalizer();
+  private int index;
+
+  @Benchmark
+  public UTF8BytesString normalizeSql() {
+    return SQLNormalizer.normalize(QUERIES[index++ & (QUERIES.length - 1)]);
+  }
+
+  @Benchmark
+  public String normalizePath() {
+    return pathNormalizer.normalize(PATHS[index++ & (PATHS.length - 1)], false);
+  }
+}
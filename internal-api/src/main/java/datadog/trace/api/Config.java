@@ -172,10 +172,12 @@ import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_AUTO_CONF
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_AUTO_INSTRUMENTATION_PROVIDER;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_BACKEND_API_TIMEOUT_MILLIS;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_BUILD_INSTRUMENTATION_ENABLED;
+import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_BYTECODE_ANALYSIS_CACHE_ENABLED;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_CIPROVIDER_INTEGRATION_ENABLED;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_CODE_COVERAGE_ENABLED;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_CODE_COVERAGE_EXCLUDES;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_CODE_COVERAGE_INCLUDES;
+import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_CODE_COVERAGE_INDEXED_PROBES_ENABLED;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_CODE_COVERAGE_LINES_ENABLED;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_CODE_COVERAGE_REPORT_DUMP_DIR;
 import static datadog.trace.api.config.CiVisibilityConfig.CIVISIBILITY_CODE_COVERAGE_ROOT_PACKAGES_LIMIT;
@@ -395,6 +397,7 @@ import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_CLIENT_HO
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_CLIENT_TAG_HEADERS;
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_CLIENT_TAG_QUERY_STRING;
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_DECODED_RESOURCE_PRESERVE_SPACES;
+import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_LAZY_TAGGING;
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_RAW_QUERY_STRING;
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_RAW_RESOURCE;
 import static datadog.trace.api.config.TraceInstrumentationConfig.HTTP_SERVER_ROUTE_BASED_NAMING;
@@ -408,6 +411,8 @@ import static datadog.trace.api.config.TraceInstrumentationConfig.JMS_PROPAGATIO
 import static datadog.trace.api.config.TraceInstrumentationConfig.JMS_PROPAGATION_DISABLED_TOPICS;
 import static datadog.trace.api.config.TraceInstrumentationConfig.JMS_UNACKNOWLEDGED_MAX_AGE;
 import static datadog.trace.api.config.TraceInstrumentationConfig.KAFKA_CLIENT_BASE64_DECODING_ENABLED;
+import static datadog.trace.api.config.TraceInstrumentationConfig.KAFKA_CLIENT_BATCH_SPANS_ENABLED;
+import static datadog.trace.api.config.TraceInstrumentationConfig.KAFKA_CLIENT_BATCH_SPAN_LINKS_MAX;
 import static datadog.trace.api.config.TraceInstrumentationConfig.KAFKA_CLIENT_PROPAGATION_DISABLED_TOPICS;
 import static datadog.trace.api.config.TraceInstrumentationConfig.LOGS_INJECTION;
 import static datadog.trace.api.config.TraceInstrumentationConfig.LOGS_INJECTION_ENABLED;
@@ -417,6 +422,7 @@ import static datadog.trace.api.config.TraceInstrumentationConfig.PLAY_REPORT_HT
 import static datadog.trace.api.config.TraceInstrumentationConfig.RABBIT_INCLUDE_ROUTINGKEY_IN_RESOURCE;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RABBIT_PROPAGATION_DISABLED_EXCHANGES;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RABBIT_PROPAGATION_DISABLED_QUEUES;
+import static datadog.trace.api.config.TraceInstrumentationConfig.REACTOR_CONTEXT_MODE_ENABLED;
 import static datadog.trace.api.config.TraceInstrumentationConfig.SERVLET_ASYNC_TIMEOUT_ERROR;
 import static datadog.trace.api.config.TraceInstrumentationConfig.SERVLET_PRINCIPAL_ENABLED;
 import static datadog.trace.api.config.TraceInstrumentationConfig.SERVLET_ROOT_CONTEXT_SERVICE_NAME;
@@ -649,6 +655,7 @@ public class Config {
   private final boolean httpServerTagQueryString;
   private final boolean httpServerRawQueryString;
   private final boolean httpServerRawResource;
+  private final boolean httpServerLazyTagging;
   private final boolean httpServerDecodedResourcePreserveSpaces;
   private final boolean httpServerRouteBasedNaming;
   private final Map<String, String> httpServerPathResourceNameMapping;
@@ -807,6 +814,8 @@ public class Config {
   private final boolean ciVisibilityCompilerPluginAutoConfigurationEnabled;
   private final boolean ciVisibilityCodeCoverageEnabled;
   private final Boolean ciVisibilityCoverageLinesEnabled;
+  private final boolean ciVisibilityCoverageIndexedProbesEnabled;
+  private final boolean ciVisibilityBytecodeAnalysisCacheEnabled;
   private final String ciVisibilityCodeCoverageReportDumpDir;
   private final String ciVisibilityCompilerPluginVersion;
   private final String ciVisibilityJacocoPluginVersion;
@@ -897,6 +906,8 @@ public class Config {
   private final boolean kafkaClientPropagationEnabled;
   private final Set<String> kafkaClientPropagationDisabledTopics;
   private final boolean kafkaClientBase64DecodingEnabled;
+  private final boolean kafkaClientBatchSpansEnabled;
+  private final int kafkaClientBatchSpanLinksMax;
 
   private final boolean jmsPropagationEnabled;
   private final Set<String> jmsPropagationDisabledTopics;
@@ -911,6 +922,8 @@ public class Config {
 
   private final boolean messageBrokerSplitByDestination;
 
+  private final boolean reactorContextModeEnabled;
+
   private final boolean hystrixTagsEnabled;
   private final boolean hystrixMeasuredEnabled;
 
@@ -1278,6 +1291,7 @@ public class Config {
     httpServerRawQueryString = configProvider.getBoolean(HTTP_SERVER_RAW_QUERY_STRING, true);
 
     httpServerRawResource = configProvider.getBoolean(HTTP_SERVER_RAW_RESOURCE, false);
+    httpServerLazyTagging = configProvider.getBoolean(HTTP_SERVER_LAZY_TAGGING, false);
 
     httpServerDecodedResourcePreserveSpaces =
         configProvider.getBoolean(HTTP_SERVER_DECODED_RESOURCE_PRESERVE_SPACES, true);
@@ -1824,6 +1838,10 @@ public class Config {
         configProvider.getBoolean(CIVISIBILITY_CODE_COVERAGE_ENABLED, true);
     ciVisibilityCoverageLinesEnabled =
         configProvider.getBoolean(CIVISIBILITY_CODE_COVERAGE_LINES_ENABLED);
+    ciVisibilityCoverageIndexedProbesEnabled =
+        configProvider.getBoolean(CIVISIBILITY_CODE_COVERAGE_INDEXED_PROBES_ENABLED, false);
+    ciVisibilityBytecodeAnalysisCacheEnabled =
+        configProvider.getBoolean(CIVISIBILITY_BYTECODE_ANALYSIS_CACHE_ENABLED, false);
     ciVisibilityCodeCoverageReportDumpDir =
         configProvider.getString(CIVISIBILITY_CODE_COVERAGE_REPORT_DUMP_DIR);
     ciVisibilityCompilerPluginVersion =
@@ -2033,6 +2051,9 @@ public class Config {
         tryMakeImmutableSet(configProvider.getList(KAFKA_CLIENT_PROPAGATION_DISABLED_TOPICS));
     kafkaClientBase64DecodingEnabled =
         configProvider.getBoolean(KAFKA_CLIENT_BASE64_DECODING_ENABLED, false);
+    kafkaClientBatchSpansEnabled =
+        configProvider.getBoolean(KAFKA_CLIENT_BATCH_SPANS_ENABLED, false);
+    kafkaClientBatchSpanLinksMax = configProvider.getInteger(KAFKA_CLIENT_BATCH_SPAN_LINKS_MAX, 32);
 
     jmsPropagationEnabled = isPropagationEnabled(true, "jms");
     jmsPropagationDisabledTopics =
@@ -2052,6 +2073,8 @@ public class Config {
     messageBrokerSplitByDestination =
         configProvider.getBoolean(MESSAGE_BROKER_SPLIT_BY_DESTINATION, false);
 
+    reactorContextModeEnabled = configProvider.getBoolean(REACTOR_CONTEXT_MODE_ENABLED, false);
+
     grpcIgnoredInboundMethods =
         tryMakeImmutableSet(configProvider.getList(GRPC_IGNORED_INBOUND_METHODS));
     final List<String> tmpGrpcIgnoredOutboundMethods = new ArrayList<>();
@@ -2477,6 +2500,10 @@ public class Config {
     return httpServerRawResource;
   }
 
+  public boolean isHttpServerLazyTagging() {
+    return httpServerLazyTagging;
+  }
+
   public boolean isHttpServerDecodedResourcePreserveSpaces() {
     return httpServerDecodedResourcePreserveSpaces;
   }
@@ -3117,6 +3144,18 @@ public class Config {
     return ciVisibilityCoverageLinesEnabled != null && !ciVisibilityCoverageLinesEnabled;
   }
 
+  /**
+   * @return {@code true} if coverage probes should address covered classes by dense indices
+   *     assigned at instrumentation time rather than by class lookups
+   */
+  public boolean isCiVisibilityCoverageIndexedProbesEnabled() {
+    return ciVisibilityCoverageIndexedProbesEnabled;
+  }
+
+  public boolean isCiVisibilityBytecodeAnalysisCacheEnabled() {
+    return ciVisibilityBytecodeAnalysisCacheEnabled;
+  }
+
   public String getCiVisibilityCodeCoverageReportDumpDir() {
     return ciVisibilityCodeCoverageReportDumpDir;
   }
@@ -3486,6 +3525,14 @@ public class Config {
     return kafkaClientBase64DecodingEnabled;
   }
 
+  public boolean isKafkaClientBatchSpansEnabled() {
+    return kafkaClientBatchSpansEnabled;
+  }
+
+  public int getKafkaClientBatchSpanLinksMax() {
+    return kafkaClientBatchSpanLinksMax;
+  }
+
   public boolean isRabbitPropagationEnabled() {
     return rabbitPropagationEnabled;
   }
@@ -3504,6 +3551,10 @@ public class Config {
     return messageBrokerSplitByDestination;
   }
 
+  public boolean isReactorContextModeEnabled() {
+    return reactorContextModeEnabled;
+  }
+
   public boolean isHystrixTagsEnabled() {
     return hystrixTagsEnabled;
   }
@@ -4526,6 +4577,8 @@ public class Config {
         + httpServerRawQueryString
         + ", httpServerRawResource="
         + httpServerRawResource
+        + ", httpServerLazyTagging="
+        + httpServerLazyTagging
         + ", httpServerRouteBasedNaming="
         + httpServerRouteBasedNaming
         + ", httpServerPathResourceNameMapping="
@@ -4734,6 +4787,10 @@ public class Config {
         + kafkaClientPropagationDisabledTopics
         + ", kafkaClientBase64DecodingEnabled="
         + kafkaClientBase64DecodingEnabled
+        + ", kafkaClientBatchSpansEnabled="
+        + kafkaClientBatchSpansEnabled
+        + ", kafkaClientBatchSpanLinksMax="
+        + kafkaClientBatchSpanLinksMax
         + ", jmsPropagationEnabled="
         + jmsPropagationEnabled
         + ", jmsPropagationDisabledTopics="
@@ -4748,6 +4805,8 @@ public class Config {
         + rabbitPropagationDisabledExchanges
         + ", messageBrokerSplitByDestination="
         + messageBrokerSplitByDestination
+        + ", reactorContextModeEnabled="
+        + reactorContextModeEnabled
         + ", hystrixTagsEnabled="
         + hystrixTagsEnabled
         + ", hystrixMeasuredEnabled="
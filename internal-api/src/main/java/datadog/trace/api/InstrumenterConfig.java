@@ -1,5 +1,6 @@
 package datadog.trace.api;
 
+import static datadog.trace.api.ConfigDefaults.DEFAULT_AGENT_TASK_SCHEDULER_WORKERS;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_APPSEC_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_CIVISIBILITY_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_CODE_ORIGIN_FOR_SPANS_ENABLED;
@@ -30,6 +31,7 @@ import static datadog.trace.api.config.ProfilingConfig.PROFILING_DIRECT_ALLOCATI
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_DIRECT_ALLOCATION_ENABLED_DEFAULT;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_ENABLED;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_ENABLED_DEFAULT;
+import static datadog.trace.api.config.TraceInstrumentationConfig.AGENT_TASK_SCHEDULER_WORKERS;
 import static datadog.trace.api.config.TraceInstrumentationConfig.AXIS_TRANSPORT_CLASS_NAME;
 import static datadog.trace.api.config.TraceInstrumentationConfig.CODE_ORIGIN_FOR_SPANS_ENABLED;
 import static datadog.trace.api.config.TraceInstrumentationConfig.EXPERIMENTAL_DEFER_INTEGRATIONS_UNTIL;
@@ -45,6 +47,7 @@ import static datadog.trace.api.config.TraceInstrumentationConfig.RESOLVER_CACHE
 import static datadog.trace.api.config.TraceInstrumentationConfig.RESOLVER_NAMES_ARE_UNIQUE;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RESOLVER_RESET_INTERVAL;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RESOLVER_SIMPLE_METHOD_GRAPH;
+import static datadog.trace.api.config.TraceInstrumentationConfig.RESOLVER_STARTUP_PRESCAN;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RESOLVER_USE_LOADCLASS;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RESOLVER_USE_URL_CACHES;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RUNTIME_CONTEXT_FIELD_INJECTION;
@@ -142,6 +145,9 @@ public class InstrumenterConfig {
   private final boolean resolverUseLoadClass;
   private final Boolean resolverUseUrlCaches;
   private final int resolverResetInterval;
+  private final boolean resolverStartupPrescan;
+
+  private final int agentTaskSchedulerWorkers;
 
   private final boolean runtimeContextFieldInjection;
   private final boolean serialVersionUIDFieldInjection;
@@ -245,6 +251,11 @@ public class InstrumenterConfig {
         Platform.isNativeImageBuilder()
             ? 0
             : configProvider.getInteger(RESOLVER_RESET_INTERVAL, DEFAULT_RESOLVER_RESET_INTERVAL);
+    resolverStartupPrescan = configProvider.getBoolean(RESOLVER_STARTUP_PRESCAN, false);
+
+    agentTaskSchedulerWorkers =
+        configProvider.getInteger(
+            AGENT_TASK_SCHEDULER_WORKERS, DEFAULT_AGENT_TASK_SCHEDULER_WORKERS);
 
     runtimeContextFieldInjection =
         configProvider.getBoolean(
@@ -445,6 +456,14 @@ public class InstrumenterConfig {
     return resolverResetInterval;
   }
 
+  public boolean isResolverStartupPrescan() {
+    return resolverStartupPrescan;
+  }
+
+  public int getAgentTaskSchedulerWorkers() {
+    return agentTaskSchedulerWorkers;
+  }
+
   public boolean isRuntimeContextFieldInjection() {
     return runtimeContextFieldInjection;
   }
@@ -572,6 +591,10 @@ public class InstrumenterConfig {
         + resolverUseUrlCaches
         + ", resolverResetInterval="
         + resolverResetInterval
+        + ", resolverStartupPrescan="
+        + resolverStartupPrescan
+        + ", agentTaskSchedulerWorkers="
+        + agentTaskSchedulerWorkers
         + ", runtimeContextFieldInjection="
         + runtimeContextFieldInjection
         + ", serialVersionUIDFieldInjection="
@@ -0,0 +1,62 @@
+package datadog.trace.api.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss and eviction counters of a named cache. Counters of all the named caches are
+ * periodically reported by the tracer health metrics.
+ */
+public final class DDCacheStats {
+
+  private static final List<DDCacheStats> REGISTERED = new CopyOnWriteArrayList<>();
+
+  private final String name;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private DDCacheStats(String name) {
+    this.name = name;
+  }
+
+  static DDCacheStats register(String name) {
+    DDCacheStats stats = new DDCacheStats(name);
+    REGISTERED.add(stats);
+    return stats;
+  }
+
+  /** @return the counters of all the named caches created so far */
+  public static List<DDCacheStats> registered() {
+    return REGISTERED;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  void recordHit() {
+    hits.increment();
+  }
+
+  void recordMiss() {
+    misses.increment();
+  }
+
+  void recordEviction() {
+    evictions.increment();
+  }
+}
@@ -50,6 +50,27 @@ public final class DDCaches {
     return new FixedSizeWeakKeyCache<>(capacity);
   }
 
+  /**
+   * Specialized fixed-size cache which only replaces cached elements with new ones when the new
+   * keys are accessed more often, so that one-off keys do not evict frequently used elements.
+   *
+   * @see #newFixedSizeCache(int)
+   */
+  public static <K, V> DDCache<K, V> newFixedSizeAdmissionCache(final int capacity) {
+    return new FixedSizeAdmissionCache<>(capacity, null);
+  }
+
+  /**
+   * Same as {@link #newFixedSizeAdmissionCache(int)}, but also counts hits, misses and evictions,
+   * which are reported by the tracer health metrics under the given name.
+   *
+   * @see DDCacheStats
+   */
+  public static <K, V> DDCache<K, V> newFixedSizeAdmissionCache(
+      final int capacity, final String statsName) {
+    return new FixedSizeAdmissionCache<>(capacity, DDCacheStats.register(statsName));
+  }
+
   /**
    * Specialized fixed-size cache which also tracks the overall weight of cached elements.
    *
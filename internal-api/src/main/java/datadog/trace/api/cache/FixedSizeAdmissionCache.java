@@ -0,0 +1,167 @@
+package datadog.trace.api.cache;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Fixed size cache with frequency-aware admission, so that keys seen only once do not evict keys
+ * that are accessed often.
+ *
+ * <p>The cache is made of two segments. New keys are stored in the main segment as long as one of
+ * their slots is free (slots are found the same way as in {@link FixedSizeCache}). Once the main
+ * segment is full, new keys go to a small window segment. A key pushed out of the window is only
+ * moved to the main segment if it was accessed more often than the least frequently accessed key
+ * occupying its slots, according to a {@link FrequencySketch}; otherwise it is dropped.
+ *
+ * <p>Like {@link FixedSizeCache}, the cache is thread safe, assumes the producer passed to <code>
+ * computeIfAbsent</code> is idempotent and tolerates benign races.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class FixedSizeAdmissionCache<K, V> implements DDCache<K, V> {
+
+  private final Entry<K, V>[] main;
+  private final int mainMask;
+  private final Entry<K, V>[] window;
+  private final int windowMask;
+  private final FrequencySketch sketch;
+  private final DDCacheStats stats;
+
+  /**
+   * @param capacity the maximum number of elements that the cache can hold
+   * @param stats the counters to update, can be {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  FixedSizeAdmissionCache(int capacity, DDCacheStats stats) {
+    int mainSize = FixedSizeCache.calculateSize(capacity);
+    int windowSize = FixedSizeCache.calculateSize(Math.max(mainSize >>> 4, 1));
+    this.main = new Entry[mainSize];
+    this.mainMask = mainSize - 1;
+    this.window = new Entry[windowSize];
+    this.windowMask = windowSize - 1;
+    this.sketch = new FrequencySketch(mainSize);
+    this.stats = stats;
+  }
+
+  @Override
+  public V computeIfAbsent(K key, Function<K, ? extends V> producer) {
+    if (key == null) {
+      return null;
+    }
+
+    int h = key.hashCode();
+    int freePos = -1;
+    int probe = h;
+    for (int i = 0; i < 3; i++) {
+      int pos = probe & mainMask;
+      Entry<K, V> current = main[pos];
+      if (current == null) {
+        if (freePos < 0) {
+          freePos = pos;
+        }
+      } else if (current.matches(key, h)) {
+        return hit(current);
+      }
+      probe = FixedSizeCache.rehash(probe);
+    }
+
+    int windowPos = h & windowMask;
+    Entry<K, V> windowed = window[windowPos];
+    if (windowed != null && windowed.matches(key, h)) {
+      return hit(windowed);
+    }
+
+    sketch.increment(h);
+    if (stats != null) {
+      stats.recordMiss();
+    }
+    V value = producer.apply(key);
+    Entry<K, V> created = new Entry<>(key, value, h);
+    if (freePos >= 0) {
+      main[freePos] = created;
+    } else {
+      window[windowPos] = created;
+      if (windowed != null) {
+        admit(windowed);
+      }
+    }
+    return value;
+  }
+
+  private V hit(Entry<K, V> entry) {
+    sketch.increment(entry.hash);
+    if (stats != null) {
+      stats.recordHit();
+    }
+    return entry.value;
+  }
+
+  /** Moves the candidate pushed out of the window to the main segment, if it is worth it. */
+  private void admit(Entry<K, V> candidate) {
+    int victimPos = -1;
+    int victimFrequency = Integer.MAX_VALUE;
+    int probe = candidate.hash;
+    for (int i = 0; i < 3; i++) {
+      int pos = probe & mainMask;
+      Entry<K, V> current = main[pos];
+      if (current == null) {
+        main[pos] = candidate;
+        return;
+      } else if (current.matches(candidate.key, candidate.hash)) {
+        return; // stored concurrently
+      }
+      int frequency = sketch.frequency(current.hash);
+      if (frequency < victimFrequency) {
+        victimFrequency = frequency;
+        victimPos = pos;
+      }
+      probe = FixedSizeCache.rehash(probe);
+    }
+
+    if (sketch.frequency(candidate.hash) > victimFrequency) {
+      main[victimPos] = candidate;
+    }
+    // either the victim or the candidate is evicted
+    if (stats != null) {
+      stats.recordEviction();
+    }
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(main, null);
+    Arrays.fill(window, null);
+  }
+
+  @Override
+  public void visit(BiConsumer<K, V> consumer) {
+    for (Entry<K, V> e : main) {
+      if (null != e) {
+        consumer.accept(e.key, e.value);
+      }
+    }
+    for (Entry<K, V> e : window) {
+      if (null != e) {
+        consumer.accept(e.key, e.value);
+      }
+    }
+  }
+
+  private static final class Entry<K, V> {
+    final K key;
+    final V value;
+    final int hash;
+
+    Entry(K key, V value, int hash) {
+      this.key = key;
+      this.value = value;
+      this.hash = hash;
+    }
+
+    boolean matches(K otherKey, int otherHash) {
+      return hash == otherHash && otherKey.equals(key);
+    }
+  }
+}
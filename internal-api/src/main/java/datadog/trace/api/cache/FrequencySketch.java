@@ -0,0 +1,90 @@
+package datadog.trace.api.cache;
+
+/**
+ * Count-min sketch estimating how often keys were accessed, used to decide whether a new key
+ * should replace an existing one (TinyLFU admission).
+ *
+ * <p>Each key maps to four 4-bit counters, stored 16 to a {@code long}. Once the number of
+ * increments reaches ten times the table size, all counters are halved, so that the estimates
+ * favour recent accesses.
+ *
+ * <p>Like the caches using it, the sketch tolerates benign races: concurrent updates may be lost,
+ * which only makes the estimates slightly less accurate.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(int capacity) {
+    int tableSize = FixedSizeCache.calculateSize(Math.max(capacity, 8));
+    this.table = new long[tableSize];
+    this.tableMask = tableSize - 1;
+    this.sampleSize = tableSize * 10;
+  }
+
+  /** @return the estimated number of accesses to the key with the given hash, at most 15 */
+  int frequency(int hash) {
+    int spread = spread(hash);
+    int start = (spread & 3) << 2;
+    int frequency = 15;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(spread, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  void increment(int hash) {
+    int spread = spread(hash);
+    int start = (spread & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(spread, i), start + i);
+    }
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  /** Halves all the counters. */
+  private void reset() {
+    int oddCounters = 0;
+    for (int i = 0; i < table.length; i++) {
+      oddCounters += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size - (oddCounters >>> 2)) >>> 1;
+  }
+
+  private int indexOf(int spread, int i) {
+    long hash = (spread + SEEDS[i]) * SEEDS[i];
+    hash += hash >>> 32;
+    return ((int) hash) & tableMask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+}
@@ -0,0 +1,38 @@
+package datadog.trace.api.civisibility.coverage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns dense integer indices to instrumented classes. The indices are resolved when a class is
+ * instrumented and are embedded into its coverage probes as constants, so that the probes can
+ * record coverage into arrays rather than into maps keyed by class.
+ *
+ * <p>Classes with the same name share an index, even if they are loaded by different class
+ * loaders.
+ */
+public final class CoverageClassIndex {
+
+  private static final Map<String, Integer> INDICES = new ConcurrentHashMap<>();
+  private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+  private CoverageClassIndex() {}
+
+  /**
+   * @param className internal (slash-separated) or binary (dot-separated) class name
+   * @return the index of the class
+   */
+  public static int get(String className) {
+    Integer index = INDICES.get(className = className.replace('/', '.'));
+    if (index != null) {
+      return index;
+    }
+    return INDICES.computeIfAbsent(className, k -> NEXT_INDEX.getAndIncrement());
+  }
+
+  /** @return the number of indices assigned so far */
+  public static int size() {
+    return NEXT_INDEX.get();
+  }
+}
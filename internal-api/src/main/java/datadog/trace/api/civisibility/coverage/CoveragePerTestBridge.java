@@ -27,6 +27,16 @@ public abstract class CoveragePerTestBridge {
     getCurrentCoverageProbes().record(clazz);
   }
 
+  /* This method is referenced by name in bytecode added in jacoco instrumentation module when indexed probes are enabled (see datadog.trace.instrumentation.jacoco.ProbeInserterInstrumentation.InsertProbeAdvice) */
+  public static void recordCoverage(Class<?> clazz, long classId, int classIndex, int probeId) {
+    getCurrentCoverageProbes().record(clazz, classId, classIndex, probeId);
+  }
+
+  /* This method is referenced by name in bytecode added by coverage probes when indexed probes are enabled (see datadog.trace.civisibility.coverage.instrumentation.CoverageUtils#insertCoverageProbe) */
+  public static void recordCoverage(Class<?> clazz, int classIndex) {
+    getCurrentCoverageProbes().record(clazz, classIndex);
+  }
+
   public static void recordCoverage(String absolutePath) {
     getCurrentCoverageProbes().recordNonCodeResource(absolutePath);
   }
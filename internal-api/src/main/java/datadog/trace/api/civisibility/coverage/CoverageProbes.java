@@ -5,5 +5,19 @@ public interface CoverageProbes {
 
   void record(Class<?> clazz, long classId, int probeId);
 
+  /**
+   * Records that a class was covered.
+   *
+   * @param classIndex index of the class, as assigned by {@link CoverageClassIndex}
+   */
+  void record(Class<?> clazz, int classIndex);
+
+  /**
+   * Records that a probe was activated.
+   *
+   * @param classIndex index of the class, as assigned by {@link CoverageClassIndex}
+   */
+  void record(Class<?> clazz, long classId, int classIndex, int probeId);
+
   void recordNonCodeResource(String absolutePath);
 }
@@ -11,6 +11,12 @@ public class NoOpProbes implements CoverageProbes {
   @Override
   public void record(Class<?> clazz, long classId, int probeId) {}
 
+  @Override
+  public void record(Class<?> clazz, int classIndex) {}
+
+  @Override
+  public void record(Class<?> clazz, long classId, int classIndex, int probeId) {}
+
   @Override
   public void recordNonCodeResource(String absolutePath) {}
 }
@@ -4,33 +4,33 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
-/** The default implementation of {@link SpanMetrics} based on atomic counters. */
+/** The default implementation of {@link SpanMetrics} based on striped counters. */
 public class SpanMetricsImpl implements SpanMetrics {
+  private static final int SPAN_CREATED = 0;
+  private static final int SPAN_FINISHED = 1;
+
   private final String instrumentationName;
-  private final AtomicLong spanCreatedCounter;
-  private final AtomicLong spanFinishedCounter;
+  private final StripedCounters counters;
   private final Collection<CoreCounter> coreCounters;
 
   public SpanMetricsImpl(String instrumentationName) {
     this.instrumentationName = instrumentationName;
-    this.spanCreatedCounter = new AtomicLong(0);
-    this.spanFinishedCounter = new AtomicLong(0);
+    this.counters = new StripedCounters(2);
     List<CoreCounter> coreCounters = new ArrayList<>(2);
-    coreCounters.add(new SpanCounter("spans_created", this.spanCreatedCounter));
-    coreCounters.add(new SpanCounter("spans_finished", this.spanFinishedCounter));
+    coreCounters.add(new SpanCounter("spans_created", this.counters, SPAN_CREATED));
+    coreCounters.add(new SpanCounter("spans_finished", this.counters, SPAN_FINISHED));
     this.coreCounters = Collections.unmodifiableList(coreCounters);
   }
 
   @Override
   public void onSpanCreated() {
-    this.spanCreatedCounter.incrementAndGet();
+    this.counters.increment(SPAN_CREATED);
   }
 
   @Override
   public void onSpanFinished() {
-    this.spanFinishedCounter.incrementAndGet();
+    this.counters.increment(SPAN_FINISHED);
   }
 
   public String getInstrumentationName() {
@@ -43,12 +43,13 @@ public class SpanMetricsImpl implements SpanMetrics {
 
   private static class SpanCounter implements CoreCounter {
     private final String name;
-    private final AtomicLong counter;
-    private long previousCount;
+    private final StripedCounters counters;
+    private final int id;
 
-    private SpanCounter(String name, AtomicLong counter) {
+    private SpanCounter(String name, StripedCounters counters, int id) {
       this.name = name;
-      this.counter = counter;
+      this.counters = counters;
+      this.id = id;
     }
 
     @Override
@@ -58,15 +59,12 @@ public class SpanMetricsImpl implements SpanMetrics {
 
     @Override
     public long getValue() {
-      return counter.get();
+      return counters.get(id);
     }
 
     @Override
     public long getValueAndReset() {
-      long count = counter.get();
-      long delta = count - previousCount;
-      previousCount = count;
-      return delta;
+      return counters.getAndReset(id);
     }
   }
 }
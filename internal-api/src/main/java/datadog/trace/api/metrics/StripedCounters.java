@@ -0,0 +1,59 @@
+package datadog.trace.api.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed set of counters indexed by pre-registered metric ids. Increments are striped across
+ * cells, so concurrent updates on hot paths don't contend on a single memory location, and the
+ * values are flushed as deltas relative to the last reported value instead of being reset.
+ */
+public final class StripedCounters {
+  private final LongAdder[] counters;
+  private final long[] reported;
+
+  public StripedCounters(int size) {
+    this.counters = new LongAdder[size];
+    for (int i = 0; i < size; i++) {
+      this.counters[i] = new LongAdder();
+    }
+    this.reported = new long[size];
+  }
+
+  public int size() {
+    return counters.length;
+  }
+
+  public void increment(int id) {
+    counters[id].increment();
+  }
+
+  public void add(int id, long value) {
+    counters[id].add(value);
+  }
+
+  /**
+   * Get the total value of a counter, including already reported values.
+   *
+   * @param id The metric id.
+   * @return The counter value.
+   */
+  public long get(int id) {
+    return counters[id].sum();
+  }
+
+  /**
+   * Get the value accumulated since the last flush and mark it as reported. Concurrent increments
+   * are never lost, they are reported by the next flush instead.
+   *
+   * @param id The metric id.
+   * @return The delta since the last flush.
+   */
+  public long getAndReset(int id) {
+    synchronized (reported) {
+      long sum = counters[id].sum();
+      long delta = sum - reported[id];
+      reported[id] = sum;
+      return delta;
+    }
+  }
+}
@@ -19,20 +19,23 @@ final class AntPatternHttpPathNormalizer extends HttpPathNormalizer {
   private final Map<String, String> resourceNameMatchers;
   private final AntPathMatcher matcher = new AntPathMatcher();
 
-  private final DDCache<String, String> cache = DDCaches.newFixedSizeCache(512);
+  // patterns compiled in iteration order, so the first matching pattern still wins
+  private final AntPatternTrie trie;
+  private final String[] resourceNames;
+
+  private final DDCache<String, String> cache = DDCaches.newFixedSizeAdmissionCache(512);
   private final Function<String, String> cacheLoader =
       new Function<String, String>() {
         @Override
         public String apply(String path) {
-          for (Map.Entry<String, String> resourceNameMatcher : resourceNameMatchers.entrySet()) {
-            if (matcher.match(resourceNameMatcher.getKey(), path)) {
-              if (KEEP_AS_IS.equals(resourceNameMatcher.getValue())) {
-                return path;
-              }
-              return resourceNameMatcher.getValue();
-            }
+          int index = trie.match(path);
+          if (index < 0) {
+            return null;
+          }
+          if (KEEP_AS_IS.equals(resourceNames[index])) {
+            return path;
           }
-          return null;
+          return resourceNames[index];
         }
       };
 
@@ -50,6 +53,14 @@ final class AntPatternHttpPathNormalizer extends HttpPathNormalizer {
       log.warn("Invalid pattern {} removed from matchers", invalid);
       resourceNameMatchers.remove(invalid);
     }
+
+    List<String> patterns = new ArrayList<>(resourceNameMatchers.size());
+    resourceNames = new String[resourceNameMatchers.size()];
+    for (Map.Entry<String, String> resourceNameMatcher : resourceNameMatchers.entrySet()) {
+      resourceNames[patterns.size()] = resourceNameMatcher.getValue();
+      patterns.add(resourceNameMatcher.getKey());
+    }
+    trie = new AntPatternTrie(patterns);
   }
 
   @Override
@@ -0,0 +1,261 @@
+package datadog.trace.api.normalize;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ant-style path patterns compiled into a trie of path segments, so a path can be matched against
+ * all the patterns at once. Matches the same paths as {@link AntPathMatcher#match}.
+ *
+ * <p>Each node of the trie has literal children, looked up by segment, and children for segments
+ * containing '*' or '?' wildcards. A '**' segment is a child which matches any number of path
+ * segments. Paths are matched in place, without splitting them into segments.
+ *
+ * <p>When several patterns match a path, the first pattern (in the order they were added) wins.
+ */
+final class AntPatternTrie {
+  private static final int NO_MATCH = Integer.MAX_VALUE;
+
+  private final Node absolute = new Node();
+  private final Node relative = new Node();
+
+  /** @param patterns the patterns to compile, in order of precedence */
+  AntPatternTrie(List<String> patterns) {
+    for (int i = 0; i < patterns.size(); i++) {
+      add(patterns.get(i), i);
+    }
+    absolute.compile();
+    relative.compile();
+  }
+
+  /** @return index of the first pattern matching the path, or {@code -1} if none match */
+  int match(String path) {
+    Node root = path.startsWith("/") ? absolute : relative;
+    int index = match(root, path, 0, path.endsWith("/"), NO_MATCH);
+    return index == NO_MATCH ? -1 : index;
+  }
+
+  private void add(String pattern, int index) {
+    boolean anyDepth = false;
+    Node node = pattern.startsWith("/") ? absolute : relative;
+    node.minIndex = Math.min(node.minIndex, index);
+    int length = pattern.length();
+    int start = 0;
+    while (start < length) {
+      int end = pattern.indexOf('/', start);
+      if (end < 0) {
+        end = length;
+      }
+      if (end > start) {
+        String segment = pattern.substring(start, end);
+        // only a whole '**' segment matches any depth, and makes the trailing slash irrelevant
+        anyDepth |= "**".equals(segment);
+        node = node.child(segment);
+        node.minIndex = Math.min(node.minIndex, index);
+      }
+      start = end + 1;
+    }
+    if (anyDepth) {
+      node.anyTerminal = Math.min(node.anyTerminal, index);
+    } else if (pattern.endsWith("/")) {
+      node.slashTerminal = Math.min(node.slashTerminal, index);
+    } else {
+      node.noSlashTerminal = Math.min(node.noSlashTerminal, index);
+    }
+  }
+
+  /**
+   * @param pos where the remaining path starts
+   * @param best index of the best match found so far
+   * @return index of the best match, taking this node and its children into account
+   */
+  private static int match(Node node, String path, int pos, boolean trailingSlash, int best) {
+    if (node.minIndex >= best) {
+      return best; // nothing better can be found under this node
+    }
+    int length = path.length();
+    int start = pos;
+    while (start < length && path.charAt(start) == '/') {
+      start++;
+    }
+
+    if (start == length) {
+      // the path is exhausted, only patterns ending here (or with '**') can match
+      best = Math.min(best, node.anyTerminal);
+      best = Math.min(best, trailingSlash ? node.slashTerminal : node.noSlashTerminal);
+      if (trailingSlash && null != node.singleWildcard) {
+        // like AntPathMatcher, "/a/*" matches "/a/"
+        best = Math.min(best, node.singleWildcard.slashTerminal);
+        best = Math.min(best, node.singleWildcard.noSlashTerminal);
+      }
+      if (null != node.anyDepth) {
+        best = match(node.anyDepth, path, length, trailingSlash, best);
+      }
+      return best;
+    }
+
+    int end = path.indexOf('/', start);
+    if (end < 0) {
+      end = length;
+    }
+    Node literal = node.literal(path, start, end);
+    if (null != literal) {
+      best = match(literal, path, end, trailingSlash, best);
+    }
+    for (int i = 0; i < node.wildcards.length; i++) {
+      Node wildcard = node.wildcardNodes[i];
+      if (wildcard.minIndex < best && matchSegment(node.wildcards[i], path, start, end)) {
+        best = match(wildcard, path, end, trailingSlash, best);
+      }
+    }
+    if (null != node.anyDepth) {
+      // try '**' matching zero segments, then one more segment each time
+      Node anyDepth = node.anyDepth;
+      best = match(anyDepth, path, start, trailingSlash, best);
+      while (end < length && anyDepth.minIndex < best) {
+        best = match(anyDepth, path, end, trailingSlash, best);
+        end = path.indexOf('/', end + 1);
+        if (end < 0) {
+          end = length;
+        }
+      }
+      if (anyDepth.minIndex < best) {
+        best = match(anyDepth, path, length, trailingSlash, best);
+      }
+    }
+    return best;
+  }
+
+  /** Matches a path segment against a segment pattern, where '*' and '?' are wildcards. */
+  static boolean matchSegment(String pattern, String path, int start, int end) {
+    int patternLength = pattern.length();
+    int p = 0;
+    int s = start;
+    int starP = -1;
+    int starS = -1;
+    while (s < end) {
+      char pc = p < patternLength ? pattern.charAt(p) : 0;
+      if (pc == '*') {
+        starP = p++;
+        starS = s;
+      } else if (p < patternLength && (pc == '?' || pc == path.charAt(s))) {
+        p++;
+        s++;
+      } else if (starP >= 0) {
+        // let the last star consume one more character
+        p = starP + 1;
+        s = ++starS;
+      } else {
+        return false;
+      }
+    }
+    while (p < patternLength && pattern.charAt(p) == '*') {
+      p++;
+    }
+    return p == patternLength;
+  }
+
+  static final class Node {
+    private static final String[] NO_WILDCARDS = {};
+    private static final Node[] NO_NODES = {};
+
+    int minIndex = NO_MATCH;
+    int anyTerminal = NO_MATCH; // patterns with a '**' segment
+    int slashTerminal = NO_MATCH; // other patterns ending with '/'
+    int noSlashTerminal = NO_MATCH;
+
+    Node anyDepth;
+    Node singleWildcard;
+
+    String[] wildcards = NO_WILDCARDS;
+    Node[] wildcardNodes = NO_NODES;
+
+    // open-addressing table of literal children, looked up without extracting the segment
+    private String[] literalKeys = NO_WILDCARDS;
+    private Node[] literalNodes = NO_NODES;
+    private int literalMask = -1;
+
+    private Map<String, Node> literalChildren = new LinkedHashMap<>();
+    private Map<String, Node> wildcardChildren = new LinkedHashMap<>();
+
+    Node child(String segment) {
+      if ("**".equals(segment)) {
+        if (null == anyDepth) {
+          anyDepth = new Node();
+        }
+        return anyDepth;
+      }
+      boolean wildcard = segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+      Map<String, Node> children = wildcard ? wildcardChildren : literalChildren;
+      Node child = children.get(segment);
+      if (null == child) {
+        child = new Node();
+        children.put(segment, child);
+        if ("*".equals(segment)) {
+          singleWildcard = child;
+        }
+      }
+      return child;
+    }
+
+    Node literal(String path, int start, int end) {
+      if (literalMask < 0) {
+        return null;
+      }
+      int segmentLength = end - start;
+      int hash = 0;
+      for (int i = start; i < end; i++) {
+        hash = 31 * hash + path.charAt(i);
+      }
+      int slot = spread(hash) & literalMask;
+      String key;
+      while (null != (key = literalKeys[slot])) {
+        if (key.length() == segmentLength
+            && key.hashCode() == hash
+            && path.regionMatches(start, key, 0, segmentLength)) {
+          return literalNodes[slot];
+        }
+        slot = (slot + 1) & literalMask;
+      }
+      return null;
+    }
+
+    void compile() {
+      if (!literalChildren.isEmpty()) {
+        int size = Integer.highestOneBit(literalChildren.size() * 2 - 1) << 1;
+        literalKeys = new String[size];
+        literalNodes = new Node[size];
+        literalMask = size - 1;
+        for (Map.Entry<String, Node> entry : literalChildren.entrySet()) {
+          int slot = spread(entry.getKey().hashCode()) & literalMask;
+          while (null != literalKeys[slot]) {
+            slot = (slot + 1) & literalMask;
+          }
+          literalKeys[slot] = entry.getKey();
+          literalNodes[slot] = entry.getValue();
+          entry.getValue().compile();
+        }
+      }
+      if (!wildcardChildren.isEmpty()) {
+        List<String> keys = new ArrayList<>(wildcardChildren.keySet());
+        wildcards = keys.toArray(NO_WILDCARDS);
+        wildcardNodes = new Node[wildcards.length];
+        for (int i = 0; i < wildcards.length; i++) {
+          wildcardNodes[i] = wildcardChildren.get(wildcards[i]);
+          wildcardNodes[i].compile();
+        }
+      }
+      if (null != anyDepth) {
+        anyDepth.compile();
+      }
+      literalChildren = null;
+      wildcardChildren = null;
+    }
+
+    private static int spread(int hash) {
+      return hash ^ (hash >>> 16);
+    }
+  }
+}
@@ -23,6 +23,11 @@ public final class SQLNormalizer {
   private static final BitSet NUMERIC_LITERAL_PREFIX = new BitSet();
   private static final BitSet SPLITTERS = new BitSet();
 
+  // constants for scanning 8 bytes at a time, see findSplitterPositions
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+  private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
   static {
     for (byte symbol :
         new byte[] {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '-', '+', '.'}) {
@@ -47,10 +52,10 @@ public final class SQLNormalizer {
   public static UTF8BytesString normalize(String sql) {
     byte[] utf8 = sql.getBytes(UTF_8);
     try {
-      BitSet splitters = findSplitterPositions(utf8);
+      long[] splitters = findSplitterPositions(utf8);
       int outputLength = utf8.length;
       int end = outputLength;
-      int start = end > 0 ? splitters.previousSetBit(end - 1) : -1;
+      int start = end > 0 ? previousSetBit(splitters, end - 1) : -1;
       boolean modified = false;
       // strip out anything ending with a quote (covers string and hex literals)
       // or anything starting with a number, a quote, a decimal point, or a sign
@@ -75,7 +80,7 @@ public final class SQLNormalizer {
           }
         }
         end = start;
-        start = splitters.previousSetBit(start - 1);
+        start = previousSetBit(splitters, start - 1);
       }
       if (modified) {
         return UTF8BytesString.create(Arrays.copyOf(utf8, outputLength));
@@ -104,19 +109,111 @@ public final class SQLNormalizer {
     return SPLITTERS.get(symbol & 0xFF);
   }
 
-  private static BitSet findSplitterPositions(byte[] utf8) {
-    BitSet positions = new BitSet(utf8.length);
+  /** @return bit set (one bit per byte) of the splitters outside quoted literals */
+  private static long[] findSplitterPositions(byte[] utf8) {
+    long[] positions = new long[(utf8.length + 63) >>> 6];
     boolean quoted = false;
     boolean escaped = false;
-    for (int i = 0; i < utf8.length; ++i) {
+    int i = 0;
+    // scan 8 bytes at a time, falling back to byte by byte for words with quotes or escapes
+    for (; i + 8 <= utf8.length; i += 8) {
+      long word = readLong(utf8, i);
+      long ascii = word & LOW_BITS;
+      long nonAscii = word & HIGH_BITS;
+      if (((matches(ascii, '\'') | matches(ascii, '\\')) & ~nonAscii) == 0) {
+        if (!quoted) {
+          // i is a multiple of 8, so the 8 bits never straddle two words
+          positions[i >>> 6] |= toBits(splitters(ascii) & ~nonAscii) << (i & 63);
+        }
+        escaped = false; // no backslash in this word
+      } else {
+        for (int j = i; j < i + 8; ++j) {
+          byte b = utf8[j];
+          if (b == '\'' && !escaped) {
+            quoted = !quoted;
+          } else {
+            escaped = (b == '\\') & !escaped;
+            if (!quoted & isSplitter(b)) {
+              positions[j >>> 6] |= 1L << j;
+            }
+          }
+        }
+      }
+    }
+    for (; i < utf8.length; ++i) {
       byte b = utf8[i];
       if (b == '\'' && !escaped) {
         quoted = !quoted;
       } else {
         escaped = (b == '\\') & !escaped;
-        positions.set(i, !quoted & isSplitter(b));
+        if (!quoted & isSplitter(b)) {
+          positions[i >>> 6] |= 1L << i;
+        }
       }
     }
     return positions;
   }
+
+  private static int previousSetBit(long[] positions, int from) {
+    if (from < 0) {
+      return -1;
+    }
+    int index = from >>> 6;
+    long word = positions[index] & (-1L >>> -(from + 1));
+    while (true) {
+      if (word != 0) {
+        return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+      }
+      if (index-- == 0) {
+        return -1;
+      }
+      word = positions[index];
+    }
+  }
+
+  /** Reads 8 bytes in little-endian order, so the first byte ends up in the lowest bits. */
+  private static long readLong(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFFL)
+        | (bytes[offset + 1] & 0xFFL) << 8
+        | (bytes[offset + 2] & 0xFFL) << 16
+        | (bytes[offset + 3] & 0xFFL) << 24
+        | (bytes[offset + 4] & 0xFFL) << 32
+        | (bytes[offset + 5] & 0xFFL) << 40
+        | (bytes[offset + 6] & 0xFFL) << 48
+        | (bytes[offset + 7] & 0xFFL) << 56;
+  }
+
+  /**
+   * @param ascii 8 bytes with their high bits cleared
+   * @return the high bit of each byte which is a splitter
+   */
+  private static long splitters(long ascii) {
+    return inRange(ascii, '\t', '\r') // tab, line feed, vertical tab, form feed, carriage return
+        | inRange(ascii, 0x1C, ' ') // file, group, record and unit separators, space
+        | matches(ascii, ',')
+        | matches(ascii, '(')
+        | matches(ascii, ')')
+        | matches(ascii, '|');
+  }
+
+  /** @return the high bit of each byte equal to {@code symbol} */
+  private static long matches(long ascii, int symbol) {
+    long diff = ascii ^ (ONES * symbol);
+    return ~((diff + LOW_BITS) | diff) & HIGH_BITS;
+  }
+
+  /** @return the high bit of each byte between {@code from} and {@code to}, inclusive */
+  private static long inRange(long ascii, int from, int to) {
+    return atLeast(ascii, from) & ~atLeast(ascii, to + 1);
+  }
+
+  private static long atLeast(long ascii, int bound) {
+    // no borrow can cross bytes, as each byte has its high bit set before subtracting
+    return ((ascii | HIGH_BITS) - ONES * bound) & HIGH_BITS;
+  }
+
+  /** Gathers the high bit of each byte into the lowest 8 bits, first byte in the lowest bit. */
+  private static long toBits(long highBits) {
+    return ((highBits >>> 7) * 0x0102040810204080L) >>> 56;
+  }
 }
@@ -13,6 +13,9 @@ public final class SimpleHttpPathNormalizer extends HttpPathNormalizer {
     if (null == path || path.isEmpty()) {
       return "/";
     }
+    if (isAlreadyNormal(path)) {
+      return path;
+    }
     final boolean preserveSpaces =
         !encoded && Config.get().isHttpServerDecodedResourcePreserveSpaces();
     StringBuilder sb = null;
@@ -76,6 +79,28 @@ public final class SimpleHttpPathNormalizer extends HttpPathNormalizer {
     return sb == null ? path : sb.length() == 0 ? "/" : sb.toString();
   }
 
+  /**
+   * Cheap single pass over the path, to skip building a copy when there are no digits, whitespace
+   * or version-like segments, which is the case for most static paths.
+   */
+  private static boolean isAlreadyNormal(String path) {
+    boolean segmentStart = true;
+    for (int i = 0; i < path.length(); ++i) {
+      char c = path.charAt(i);
+      if (c == '/') {
+        segmentStart = true;
+      } else if (isDigit(c)
+          || c <= ' '
+          || (c >= '\u1680' && Character.isWhitespace(c))
+          || (segmentStart && (c | ' ') == 'v')) {
+        return false;
+      } else {
+        segmentStart = false;
+      }
+    }
+    return true;
+  }
+
   private static boolean isDigit(char c) {
     return c <= '9' && c >= '0';
   }
@@ -1,5 +1,6 @@
 package datadog.trace.api.telemetry;
 
+import datadog.trace.api.metrics.StripedCounters;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -7,8 +8,7 @@ import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 public class WafMetricCollector implements MetricCollector<WafMetricCollector.WafMetric> {
 
@@ -29,12 +29,12 @@ public class WafMetricCollector implements MetricCollector<WafMetricCollector.Wa
   private static final AtomicRequestCounter wafRequestCounter = new AtomicRequestCounter();
   private static final AtomicRequestCounter wafTriggeredRequestCounter = new AtomicRequestCounter();
   private static final AtomicRequestCounter wafBlockedRequestCounter = new AtomicRequestCounter();
-  private static final AtomicLongArray raspRuleEvalCounter =
-      new AtomicLongArray(RuleType.getNumValues());
-  private static final AtomicLongArray raspRuleMatchCounter =
-      new AtomicLongArray(RuleType.getNumValues());
-  private static final AtomicLongArray respTimeoutCounter =
-      new AtomicLongArray(RuleType.getNumValues());
+  private static final StripedCounters raspRuleEvalCounter =
+      new StripedCounters(RuleType.getNumValues());
+  private static final StripedCounters raspRuleMatchCounter =
+      new StripedCounters(RuleType.getNumValues());
+  private static final StripedCounters respTimeoutCounter =
+      new StripedCounters(RuleType.getNumValues());
   private static final AtomicRequestCounter missingUserIdCounter = new AtomicRequestCounter();
 
   /** WAF version that will be initialized with wafInit and reused for all metrics. */
@@ -79,15 +79,15 @@ public class WafMetricCollector implements MetricCollector<WafMetricCollector.Wa
   }
 
   public void raspRuleEval(final RuleType ruleType) {
-    raspRuleEvalCounter.incrementAndGet(ruleType.ordinal());
+    raspRuleEvalCounter.increment(ruleType.ordinal());
   }
 
   public void raspRuleMatch(final RuleType ruleType) {
-    raspRuleMatchCounter.incrementAndGet(ruleType.ordinal());
+    raspRuleMatchCounter.increment(ruleType.ordinal());
   }
 
   public void raspTimeout(final RuleType ruleType) {
-    respTimeoutCounter.incrementAndGet(ruleType.ordinal());
+    respTimeoutCounter.increment(ruleType.ordinal());
   }
 
   public void missingUserId() {
@@ -149,7 +149,7 @@ public class WafMetricCollector implements MetricCollector<WafMetricCollector.Wa
 
     // RASP rule eval per rule type
     for (RuleType ruleType : RuleType.values()) {
-      long counter = raspRuleEvalCounter.getAndSet(ruleType.ordinal(), 0);
+      long counter = raspRuleEvalCounter.getAndReset(ruleType.ordinal());
       if (counter > 0) {
         if (!rawMetricsQueue.offer(
             new RaspRuleEval(counter, ruleType, WafMetricCollector.wafVersion))) {
@@ -160,7 +160,7 @@ public class WafMetricCollector implements MetricCollector<WafMetricCollector.Wa
 
     // RASP rule match per rule type
     for (RuleType ruleType : RuleType.values()) {
-      long counter = raspRuleMatchCounter.getAndSet(ruleType.ordinal(), 0);
+      long counter = raspRuleMatchCounter.getAndReset(ruleType.ordinal());
       if (counter > 0) {
         if (!rawMetricsQueue.offer(
             new RaspRuleMatch(counter, ruleType, WafMetricCollector.wafVersion))) {
@@ -171,7 +171,7 @@ public class WafMetricCollector implements MetricCollector<WafMetricCollector.Wa
 
     // RASP timeout per rule type
     for (RuleType ruleType : RuleType.values()) {
-      long counter = respTimeoutCounter.getAndSet(ruleType.ordinal(), 0);
+      long counter = respTimeoutCounter.getAndReset(ruleType.ordinal());
       if (counter > 0) {
         if (!rawMetricsQueue.offer(
             new RaspTimeout(counter, ruleType, WafMetricCollector.wafVersion))) {
@@ -259,23 +259,27 @@ public class WafMetricCollector implements MetricCollector<WafMetricCollector.Wa
 
   public static class AtomicRequestCounter {
 
-    private final AtomicLong atomicLong = new AtomicLong();
+    private final LongAdder adder = new LongAdder();
+    private long reported;
     private volatile long timestamp;
 
-    public final long get() {
-      return atomicLong.get();
+    public final synchronized long get() {
+      return adder.sum() - reported;
     }
 
-    public final long getAndReset() {
+    public final synchronized long getAndReset() {
       timestamp = 0;
-      return atomicLong.getAndSet(0);
+      long sum = adder.sum();
+      long delta = sum - reported;
+      reported = sum;
+      return delta;
     }
 
     public final void increment() {
       if (timestamp == 0) {
         timestamp = System.currentTimeMillis();
       }
-      atomicLong.incrementAndGet();
+      adder.increment();
     }
   }
 }
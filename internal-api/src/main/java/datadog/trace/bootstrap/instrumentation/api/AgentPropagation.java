@@ -2,6 +2,7 @@ package datadog.trace.bootstrap.instrumentation.api;
 
 import datadog.trace.api.TracePropagationStyle;
 import java.util.LinkedHashMap;
+import java.util.Set;
 
 public interface AgentPropagation {
   <C> void inject(AgentSpan span, C carrier, Setter<C> setter);
@@ -35,6 +36,17 @@ public interface AgentPropagation {
 
   <C> AgentSpan.Context.Extracted extract(C carrier, ContextVisitor<C> getter);
 
+  /**
+   * Lets getters of carriers with many entries only visit the ones read by {@link #extract}, unless
+   * request header tags or baggage mappings need the others.
+   *
+   * @return names of the headers read when extracting a context, in lower case
+   */
+  Set<String> extractedHeaderNames();
+
+  /** @return prefixes of the baggage headers read when extracting a context, in lower case */
+  Set<String> extractedHeaderPrefixes();
+
   interface KeyClassifier {
 
     boolean accept(String key, String value);
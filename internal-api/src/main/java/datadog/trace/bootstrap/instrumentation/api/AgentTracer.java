@@ -29,6 +29,7 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 public class AgentTracer {
@@ -933,6 +934,16 @@ public class AgentTracer {
     public <C> Context.Extracted extract(final C carrier, final ContextVisitor<C> getter) {
       return NoopContext.INSTANCE;
     }
+
+    @Override
+    public Set<String> extractedHeaderNames() {
+      return Collections.emptySet();
+    }
+
+    @Override
+    public Set<String> extractedHeaderPrefixes() {
+      return Collections.emptySet();
+    }
   }
 
   static class NoopContinuation implements AgentScope.Continuation {
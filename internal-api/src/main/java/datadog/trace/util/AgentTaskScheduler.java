@@ -7,24 +7,50 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import datadog.trace.api.InstrumenterConfig;
 import datadog.trace.util.AgentThreadFactory.AgentThread;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.lang.ref.WeakReference;
-import java.util.concurrent.DelayQueue;
-import java.util.concurrent.Delayed;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Schedules agent tasks using a hashed timer wheel.
+ *
+ * <p>A single ticker thread owns the wheel and wakes up when the earliest task is due. Due tasks
+ * either run on the ticker thread, when the scheduler has a single worker, or are handed over to a
+ * small pool of worker threads so that one slow task doesn't hold back the others. New and
+ * rescheduled tasks are passed to the ticker through a lock-free queue.
+ *
+ * <p>A task never runs concurrently with itself. When a fixed-rate task takes longer than its
+ * period, the missed executions are skipped and counted as overruns.
+ *
+ * <p>Tasks on the shared {@link #INSTANCE} may run concurrently with other tasks, so any state they
+ * share must be guarded. Dedicated schedulers run their tasks one at a time, on a single thread.
+ */
 public class AgentTaskScheduler implements Executor {
   private static final Logger log = LoggerFactory.getLogger(AgentTaskScheduler.class);
-  public static final AgentTaskScheduler INSTANCE = new AgentTaskScheduler(TASK_SCHEDULER);
+  public static final AgentTaskScheduler INSTANCE =
+      new AgentTaskScheduler(
+          TASK_SCHEDULER, InstrumenterConfig.get().getAgentTaskSchedulerWorkers());
 
   private static final long SHUTDOWN_TIMEOUT = 5; // seconds
 
+  private static final long TICK_NANOS = 1_000_000; // 1 millisecond
+  private static final int WHEEL_SIZE = 512; // must be a power of two
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+  private static final long MAX_PARK_NANOS = 1_000_000_000; // 1 second
+
   public interface Task<T> {
     void run(T target);
   }
@@ -65,13 +91,36 @@ public class AgentTaskScheduler implements Executor {
     }
   }
 
-  private final DelayQueue<PeriodicTask<?>> workQueue = new DelayQueue<>();
+  private final Queue<PeriodicTask<?>> incoming = new ConcurrentLinkedQueue<>();
+  private final BlockingQueue<PeriodicTask<?>> readyQueue = new LinkedBlockingQueue<>();
+  private final AtomicInteger queuedTasks = new AtomicInteger();
+  private final AtomicLong executions = new AtomicLong();
+  private final AtomicLong overruns = new AtomicLong();
+
+  // only accessed from the ticker thread
+  private final PeriodicTask<?>[] wheel = new PeriodicTask<?>[WHEEL_SIZE];
+  private final long startNanos = System.nanoTime();
+
   private final AgentThread agentThread;
-  private volatile Thread worker;
+  private final int workerCount;
+  private final Object startLock = new Object();
+  private volatile Thread ticker;
+  private volatile Thread[] workers;
+  private volatile long wakeTick = Long.MAX_VALUE;
   private volatile boolean shutdown;
 
   public AgentTaskScheduler(final AgentThread agentThread) {
+    this(agentThread, 1);
+  }
+
+  /**
+   * @param agentThread the agent thread that drives the scheduler
+   * @param workerCount number of threads running due tasks, with 1 meaning tasks are run by the
+   *     thread driving the scheduler
+   */
+  public AgentTaskScheduler(final AgentThread agentThread, final int workerCount) {
     this.agentThread = agentThread;
+    this.workerCount = Math.max(1, workerCount);
   }
 
   @Override
@@ -161,7 +210,6 @@ public class AgentTaskScheduler implements Executor {
     return scheduleWithFixedDelay(RunnableTask.INSTANCE, target, initialDelay, period, unit);
   }
 
-  @SuppressFBWarnings("JLM_JSR166_UTILCONCURRENT_MONITORENTER")
   private <T> void scheduleTarget(
       final Task<T> task,
       final Target<T> target,
@@ -173,15 +221,27 @@ public class AgentTaskScheduler implements Executor {
       return;
     }
 
-    if (!shutdown && worker == null) {
-      synchronized (workQueue) {
-        if (!shutdown && worker == null) {
-          prepareWorkQueue();
+    if (!shutdown && ticker == null) {
+      synchronized (startLock) {
+        if (!shutdown && ticker == null) {
+          preloadSynchronizers();
           try {
-            worker = newAgentThread(agentThread, new Worker());
-            // register hook after worker is assigned, but before we start it
+            ticker = newAgentThread(agentThread, new Ticker());
+            if (workerCount > 1) {
+              Thread[] pool = new Thread[workerCount];
+              for (int i = 0; i < workerCount; i++) {
+                pool[i] = newAgentThread(agentThread, "-worker-" + i, new Worker(), true);
+              }
+              workers = pool;
+            }
+            // register hook after threads are assigned, but before we start them
             Runtime.getRuntime().addShutdownHook(new ShutdownHook());
-            worker.start();
+            ticker.start();
+            if (null != workers) {
+              for (Thread worker : workers) {
+                worker.start();
+              }
+            }
           } catch (final IllegalStateException e) {
             shutdown = true; // couldn't add hook, JVM is shutting down
           }
@@ -190,25 +250,58 @@ public class AgentTaskScheduler implements Executor {
     }
 
     if (!shutdown) {
-      workQueue.offer(new PeriodicTask<>(task, target, initialDelay, period, unit));
+      offer(new PeriodicTask<>(task, target, initialDelay, period, unit));
     } else {
       log.debug("Agent task scheduler is shutdown. Will not run {}", describeTask(task, target));
     }
   }
 
-  private void prepareWorkQueue() {
+  private void preloadSynchronizers() {
     try {
-      // exercise 'poll' method to make sure all relevant queue synchronizer types are preloaded
-      // here rather than in the Worker when it calls 'take' - this avoids a potential loop-back
-      workQueue.poll(1, NANOSECONDS);
+      // exercise 'poll' and 'parkNanos' to make sure all relevant synchronizer types are preloaded
+      // here rather than in the scheduler threads - this avoids a potential loop-back
+      readyQueue.poll(1, NANOSECONDS);
+      LockSupport.parkNanos(1);
     } catch (final InterruptedException e) {
       // ignore, we only want to preload queue internals
     }
   }
 
+  /** Passes a new or rescheduled task to the ticker, waking it up if the task is due earlier. */
+  private void offer(final PeriodicTask<?> task) {
+    task.deadlineTick = deadlineTick(task.nextFireTime);
+    queuedTasks.incrementAndGet();
+    incoming.offer(task);
+    if (task.deadlineTick < wakeTick) {
+      final Thread t = ticker;
+      if (t != null && t != Thread.currentThread()) {
+        LockSupport.unpark(t);
+      }
+    }
+  }
+
+  private long currentTick(final long nanos) {
+    return (nanos - startNanos) / TICK_NANOS;
+  }
+
+  private long deadlineTick(final long nanos) {
+    // round up, so tasks never fire before they are due
+    return (nanos - startNanos + TICK_NANOS - 1) / TICK_NANOS;
+  }
+
   // for testing
   int taskCount() {
-    return workQueue.size();
+    return queuedTasks.get();
+  }
+
+  /** @return number of task executions */
+  public long getExecutionCount() {
+    return executions.get();
+  }
+
+  /** @return number of fixed-rate executions skipped because the previous run overran */
+  public long getOverrunCount() {
+    return overruns.get();
   }
 
   public boolean isShutdown() {
@@ -228,7 +321,13 @@ public class AgentTaskScheduler implements Executor {
 
   public void shutdown(final long timeout, final TimeUnit unit) {
     shutdown = true;
-    final Thread t = worker;
+    final Thread[] pool = workers;
+    if (pool != null) {
+      for (Thread worker : pool) {
+        worker.interrupt();
+      }
+    }
+    final Thread t = ticker;
     if (t != null) {
       t.interrupt();
       if (timeout > 0) {
@@ -245,6 +344,21 @@ public class AgentTaskScheduler implements Executor {
     return "periodic task " + task.getClass().getSimpleName() + " with target " + target.get();
   }
 
+  /** Runs the task, then hands it back to the ticker if it needs to run again. */
+  private void runTask(final PeriodicTask<?> work) {
+    queuedTasks.decrementAndGet();
+    try {
+      work.run();
+    } catch (final Throwable e) {
+      log.debug("Uncaught exception from {}", work, e);
+    } finally {
+      executions.incrementAndGet();
+      if (!shutdown && work.reschedule()) {
+        offer(work);
+      }
+    }
+  }
+
   private final class ShutdownHook extends Thread {
     ShutdownHook() {
       super(AGENT_THREAD_GROUP, agentThread.threadName + "-shutdown-hook");
@@ -256,41 +370,156 @@ public class AgentTaskScheduler implements Executor {
     }
   }
 
-  private final class Worker implements Runnable {
+  private final class Ticker implements Runnable {
+    private final boolean runInline = workerCount == 1;
+    private long lastTick = -1;
+    // earliest deadline of the tasks held in the wheel
+    private long earliestTick = Long.MAX_VALUE;
+
     @Override
     public void run() {
       while (!shutdown) {
-        PeriodicTask<?> work = null;
         try {
-          work = workQueue.take();
-          work.run();
+          final long nowTick = currentTick(System.nanoTime());
+          transferIncoming(nowTick);
+          expireSlots(nowTick);
+          lastTick = nowTick;
+          if (earliestTick <= nowTick) {
+            // the earliest task was dispatched, look for the next one
+            earliestTick = findEarliestTick(nowTick);
+          }
+          awaitNextDeadline();
         } catch (final Throwable e) {
-          if (work != null) {
-            log.debug("Uncaught exception from {}", work, e);
+          log.debug("Unexpected problem in {}", agentThread.threadName, e);
+        }
+      }
+      Arrays.fill(wheel, null);
+      earliestTick = Long.MAX_VALUE;
+      incoming.clear();
+      readyQueue.clear();
+      queuedTasks.set(0);
+      ticker = null;
+    }
+
+    private void transferIncoming(final long nowTick) {
+      PeriodicTask<?> task;
+      while (!shutdown && null != (task = incoming.poll())) {
+        if (task.deadlineTick <= nowTick) {
+          dispatch(task);
+        } else {
+          final int slot = (int) (task.deadlineTick & WHEEL_MASK);
+          task.next = wheel[slot];
+          wheel[slot] = task;
+          if (task.deadlineTick < earliestTick) {
+            earliestTick = task.deadlineTick;
           }
-        } finally {
-          if (work != null && work.reschedule()) {
-            workQueue.offer(work);
+        }
+      }
+    }
+
+    private void expireSlots(final long nowTick) {
+      long elapsedTicks = nowTick - lastTick;
+      if (elapsedTicks <= 0) {
+        return;
+      }
+      if (elapsedTicks > WHEEL_SIZE) {
+        elapsedTicks = WHEEL_SIZE; // visit every slot once
+      }
+      for (long tick = nowTick - elapsedTicks + 1; tick <= nowTick && !shutdown; tick++) {
+        final int slot = (int) (tick & WHEEL_MASK);
+        PeriodicTask<?> previous = null;
+        PeriodicTask<?> task = wheel[slot];
+        while (task != null) {
+          final PeriodicTask<?> next = task.next;
+          if (task.deadlineTick <= nowTick) {
+            if (previous == null) {
+              wheel[slot] = next;
+            } else {
+              previous.next = next;
+            }
+            task.next = null;
+            dispatch(task);
+          } else {
+            previous = task; // due in a later rotation of the wheel
           }
+          task = next;
         }
       }
-      workQueue.clear();
-      worker = null;
+    }
+
+    private void dispatch(final PeriodicTask<?> task) {
+      if (runInline) {
+        runTask(task);
+      } else {
+        readyQueue.offer(task);
+      }
+    }
+
+    /**
+     * Scans forward from the current tick. The first slot holding a task due in this rotation of
+     * the wheel has the earliest deadline, otherwise every task is due in a later rotation.
+     */
+    private long findEarliestTick(final long nowTick) {
+      long earliest = Long.MAX_VALUE;
+      for (long tick = nowTick + 1; tick <= nowTick + WHEEL_SIZE; tick++) {
+        for (PeriodicTask<?> task = wheel[(int) (tick & WHEEL_MASK)];
+            task != null;
+            task = task.next) {
+          if (task.deadlineTick == tick) {
+            return tick;
+          }
+          if (task.deadlineTick < earliest) {
+            earliest = task.deadlineTick;
+          }
+        }
+      }
+      return earliest;
+    }
+
+    private void awaitNextDeadline() {
+      final long nextTick = earliestTick;
+      wakeTick = nextTick;
+      // re-check after publishing the wake tick, so a concurrent offer either sees it or is seen
+      if (incoming.isEmpty() && !shutdown) {
+        long parkNanos = MAX_PARK_NANOS;
+        if (nextTick != Long.MAX_VALUE) {
+          parkNanos = Math.min(startNanos + nextTick * TICK_NANOS - System.nanoTime(), parkNanos);
+        }
+        if (parkNanos > 0) {
+          LockSupport.parkNanos(this, parkNanos);
+        }
+      }
+      wakeTick = Long.MIN_VALUE; // awake, no need to unpark
     }
   }
 
-  private static final AtomicInteger TASK_SEQUENCE_GENERATOR = new AtomicInteger();
+  private final class Worker implements Runnable {
+    @Override
+    public void run() {
+      while (!shutdown) {
+        try {
+          runTask(readyQueue.take());
+        } catch (final InterruptedException e) {
+          // check for shutdown
+        }
+      }
+    }
+  }
 
-  private static final class PeriodicTask<T> implements Delayed {
+  private final class PeriodicTask<T> {
 
     private final Task<T> task;
     private final Target<T> target;
     private final long period;
-    private final int taskSequence;
 
     private long nextFireTime;
+    private long deadlineTick;
+    private int overrunCount;
+
+    // next task in the same slot of the wheel
+    private PeriodicTask<?> next;
 
-    public PeriodicTask(
+    PeriodicTask(
         final Task<T> task,
         final Target<T> target,
         final long initialDelay,
@@ -300,21 +529,30 @@ public class AgentTaskScheduler implements Executor {
       this.task = task;
       this.target = target;
       this.period = unit.toNanos(period);
-      this.taskSequence = TASK_SEQUENCE_GENERATOR.getAndIncrement();
 
       nextFireTime = System.nanoTime() + unit.toNanos(initialDelay);
     }
 
-    public void run() {
+    void run() {
       final T t = target.get();
       if (t != null) {
         task.run(t);
       }
     }
 
-    public boolean reschedule() {
+    boolean reschedule() {
       if (period > 0 && target.get() != null) {
         nextFireTime += period;
+        final long lateNanos = System.nanoTime() - nextFireTime;
+        if (lateNanos >= 0) {
+          // skip executions missed while the task was running, rather than running them in a burst
+          final long missed = lateNanos / period + 1;
+          nextFireTime += missed * period;
+          overruns.addAndGet(missed);
+          if (overrunCount++ == 0) {
+            log.debug("{} overran its period of {} ms", this, NANOSECONDS.toMillis(period));
+          }
+        }
         return true;
       }
       if (period < 0 && target.get() != null) {
@@ -324,38 +562,6 @@ public class AgentTaskScheduler implements Executor {
       return false;
     }
 
-    @Override
-    public long getDelay(final TimeUnit unit) {
-      return unit.convert(nextFireTime - System.nanoTime(), NANOSECONDS);
-    }
-
-    @Override
-    public int compareTo(final Delayed other) {
-      if (this == other) {
-        return 0;
-      }
-      long taskOrder;
-      if (other instanceof PeriodicTask<?>) {
-        final PeriodicTask<?> otherTask = (PeriodicTask<?>) other;
-        taskOrder = nextFireTime - otherTask.nextFireTime;
-        if (taskOrder == 0) {
-          taskOrder = taskSequence - otherTask.taskSequence;
-        }
-      } else {
-        taskOrder = getDelay(NANOSECONDS) - other.getDelay(NANOSECONDS);
-      }
-      return taskOrder < 0 ? -1 : (taskOrder > 0 ? 1 : 0);
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-      try {
-        return obj == null ? false : (this.compareTo((Delayed) obj) != 0 ? false : true);
-      } catch (ClassCastException e) {
-        return false;
-      }
-    }
-
     @Override
     public String toString() {
       return describeTask(task, target);
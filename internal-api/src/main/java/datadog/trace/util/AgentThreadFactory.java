@@ -57,6 +57,7 @@ public final class AgentThreadFactory implements ThreadFactory {
     CI_SIGNAL_SERVER("dd-ci-signal-server"),
 
     RETRANSFORMER("dd-retransformer"),
+    STARTUP_PRESCAN("dd-startup-prescan"),
 
     LOGS_INTAKE("dd-logs-intake");
 
@@ -0,0 +1,93 @@
+package datadog.trace.api.cache
+
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class FixedSizeAdmissionCacheTest extends DDSpecification {
+  def "invalid capacities are rejected"() {
+    when:
+    DDCaches.newFixedSizeAdmissionCache(capacity)
+
+    then:
+    thrown(IllegalArgumentException)
+
+    where:
+    capacity << [Integer.MIN_VALUE, -1, 0]
+  }
+
+  def "cache stores and retrieves values"() {
+    setup:
+    def cache = DDCaches.newFixedSizeAdmissionCache(16)
+    def creationCount = new AtomicInteger()
+
+    when:
+    def first = cache.computeIfAbsent("key", { creationCount.incrementAndGet(); "first" })
+    def second = cache.computeIfAbsent("key", { creationCount.incrementAndGet(); "second" })
+
+    then:
+    first == "first"
+    second == "first"
+    creationCount.get() == 1
+    cache.computeIfAbsent(null, { "null" }) == null
+  }
+
+  def "cache can be explicitly cleared"() {
+    setup:
+    def cache = DDCaches.newFixedSizeAdmissionCache(16)
+    cache.computeIfAbsent("key", { "first" })
+
+    when:
+    cache.clear()
+
+    then:
+    cache.computeIfAbsent("key", { "second" }) == "second"
+  }
+
+  def "one-off keys do not evict frequently used keys"() {
+    setup:
+    def cache = DDCaches.newFixedSizeAdmissionCache(64)
+    def hot = (0..<32).collect { "hot-" + it }
+    def creationCount = new AtomicInteger()
+
+    when:
+    100.times { round ->
+      hot.each { cache.computeIfAbsent(it, { k -> k + "_value" }) }
+      100.times { cache.computeIfAbsent("cold-" + round + "-" + it, { k -> k + "_value" }) }
+    }
+    hot.each { cache.computeIfAbsent(it, { k -> creationCount.incrementAndGet(); k + "_value" }) }
+
+    then:
+    creationCount.get() == 0
+  }
+
+  def "cache visits all the stored values"() {
+    setup:
+    def cache = DDCaches.newFixedSizeAdmissionCache(16)
+    def keys = ["one", "two", "three"]
+    keys.each { cache.computeIfAbsent(it, { k -> k + "_value" }) }
+
+    when:
+    def visited = [:]
+    cache.visit { k, v -> visited[k] = v }
+
+    then:
+    visited == keys.collectEntries { [(it): it + "_value"] }
+  }
+
+  def "named caches count hits, misses and evictions"() {
+    setup:
+    def cache = DDCaches.newFixedSizeAdmissionCache(4, "admission-test")
+    def stats = DDCacheStats.registered().find { it.name == "admission-test" }
+
+    when:
+    cache.computeIfAbsent("key", { "value" })
+    cache.computeIfAbsent("key", { "value" })
+    (0..<100).each { cache.computeIfAbsent("other-" + it, { it }) }
+
+    then:
+    stats.hits == 1
+    stats.misses == 101
+    stats.evictions > 0
+  }
+}
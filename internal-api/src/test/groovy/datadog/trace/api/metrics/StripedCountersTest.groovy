@@ -0,0 +1,65 @@
+package datadog.trace.api.metrics
+
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class StripedCountersTest extends DDSpecification {
+  def 'test counters are flushed as deltas'() {
+    setup:
+    def counters = new StripedCounters(3)
+
+    when:
+    counters.increment(0)
+    counters.increment(0)
+    counters.add(2, 5)
+
+    then:
+    counters.size() == 3
+    counters.get(0) == 2
+    counters.getAndReset(0) == 2
+    counters.getAndReset(0) == 0
+    counters.getAndReset(1) == 0
+    counters.getAndReset(2) == 5
+
+    when:
+    counters.increment(0)
+
+    then:
+    counters.get(0) == 3
+    counters.getAndReset(0) == 1
+  }
+
+  def 'test concurrent increments are not lost'() {
+    setup:
+    def counters = new StripedCounters(1)
+    def threads = 8
+    def increments = 10_000
+    def executor = Executors.newFixedThreadPool(threads)
+    def latch = new CountDownLatch(threads)
+    long flushed = 0
+
+    when:
+    threads.times {
+      executor.submit {
+        increments.times {
+          counters.increment(0)
+        }
+        latch.countDown()
+      }
+    }
+    while (latch.count > 0) {
+      flushed += counters.getAndReset(0)
+    }
+    flushed += counters.getAndReset(0)
+
+    then:
+    flushed == threads * increments
+
+    cleanup:
+    executor.shutdownNow()
+    executor.awaitTermination(5, TimeUnit.SECONDS)
+  }
+}
@@ -0,0 +1,64 @@
+package datadog.trace.api.normalize
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class AntPatternTrieTest extends Specification {
+  @Shared
+  AntPathMatcher matcher = new AntPathMatcher()
+
+  def "matches the same paths as AntPathMatcher"() {
+    when:
+    AntPatternTrie trie = new AntPatternTrie([pattern])
+
+    then:
+    (trie.match(path) == 0) == matcher.match(pattern, path)
+    (trie.match(path) == 0) == expected
+
+    where:
+    pattern               | path                                                  | expected
+    "test"                | "test"                                                | true
+    "/test"               | "test"                                                | false
+    "test"                | "/test"                                               | false
+    "t?st"                | "test"                                                | true
+    "tes?"                | "testt"                                               | false
+    "*"                   | "test"                                                | true
+    "test*"               | "test/"                                               | false
+    "test/*"              | "test/"                                               | true
+    "test/*"              | "test"                                                | false
+    "*test*"              | "AnothertestTest"                                     | true
+    "test*aaa"            | "testblaaaa"                                          | true
+    "test*aaa"            | "testblaaab"                                          | false
+    "/a/??"               | "/a/bb"                                               | true
+    "/**"                 | "/testing/testing"                                    | true
+    "/**/*"               | "/testing/testing"                                    | true
+    "/bla/**/bla"         | "/bla/testing/testing/bla/bla"                        | true
+    "/bla/**/**/bla"      | "/bla/bla/bla/bla/bla/bla"                            | true
+    "/**/*bla"            | "/bla/bla/bla/bbb"                                    | false
+    "/*bla*/**/bla/*"     | "/XXXblaXXXX/testing/testing/bla/testing"             | true
+    "*bla*/**/bla/**"     | "XXXblaXXXX/testing/testing/bla/testing/testing/"     | true
+    "*bla*/**/bla/*"      | "XXXblaXXXX/testing/testing/bla/testing/testing"      | false
+    "/x/x/**/bla"         | "/x/x/x/"                                             | false
+    "/foo/bar/**"         | "/foo/bar"                                            | true
+    "/foo/*"              | "/foo/bar/"                                           | false
+    "/foo//*"             | "/foo/bar"                                            | true
+    "/a/x**"              | "/a/xy"                                               | true
+    "/a/x**"              | "/a/xy/"                                              | false
+  }
+
+  def "first matching pattern wins"() {
+    setup:
+    AntPatternTrie trie = new AntPatternTrie(["/api/**/items", "/api/v1/*", "/api/*/items", "/**"])
+
+    expect:
+    trie.match(path) == index
+
+    where:
+    path                | index
+    "/api/v1/items"     | 0
+    "/api/v1/orders"    | 1
+    "/api/v2/items/"    | 0
+    "/api/v2/orders/1"  | 3
+    "api/v1/orders"     | -1
+  }
+}
@@ -95,6 +95,9 @@ class SimpleHttpPathNormalizerTest extends DDSpecification {
     "/a-b/a-b" | _
     "/a_b/a_b" | _
     "/a.b/a.b" | _
+    "/av/ab"   | _
+    "/a/vv-vv" | _
+    "abc%de/"  | _
   }
 
   def "should handle encoded strings"() {
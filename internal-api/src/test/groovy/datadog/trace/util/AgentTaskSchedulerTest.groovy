@@ -1,11 +1,13 @@
 package datadog.trace.util
 
+import datadog.trace.api.InstrumenterConfig
 import datadog.trace.test.util.DDSpecification
 import datadog.trace.test.util.GCUtils
 
 import java.lang.ref.WeakReference
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
 
 import static datadog.trace.util.AgentThreadFactory.AgentThread.TASK_SCHEDULER
 import static java.util.concurrent.TimeUnit.MILLISECONDS
@@ -213,4 +215,121 @@ class AgentTaskSchedulerTest extends DDSpecification {
     scheduler.taskCount() == 0
     callCount.get() == 0
   }
+
+  def "test slow task does not hold back other tasks"() {
+    setup:
+    def pooledScheduler = new AgentTaskScheduler(TASK_SCHEDULER, 2)
+    def slowLatch = new CountDownLatch(1)
+    def fastLatch = new CountDownLatch(5)
+    def slowTask = new AgentTaskScheduler.Task<CountDownLatch>() {
+        @Override
+        void run(CountDownLatch target) {
+          target.await()
+        }
+      }
+    def fastTask = new AgentTaskScheduler.Task<CountDownLatch>() {
+        @Override
+        void run(CountDownLatch target) {
+          target.countDown()
+        }
+      }
+
+    when:
+    pooledScheduler.schedule(slowTask, slowLatch, 0, MILLISECONDS)
+    pooledScheduler.scheduleAtFixedRate(fastTask, fastLatch, 10, 10, MILLISECONDS)
+
+    then:
+    fastLatch.await(500, MILLISECONDS)
+
+    cleanup:
+    slowLatch.countDown()
+    pooledScheduler.shutdown(10, MILLISECONDS)
+  }
+
+  def "test single worker runs tasks one at a time"() {
+    setup:
+    def running = new AtomicInteger()
+    def maxRunning = new AtomicInteger()
+    def latch = new CountDownLatch(10)
+    def task = new AgentTaskScheduler.Task<CountDownLatch>() {
+        @Override
+        void run(CountDownLatch target) {
+          int now = running.incrementAndGet()
+          if (now > maxRunning.get()) {
+            maxRunning.set(now)
+          }
+          Thread.sleep(5)
+          running.decrementAndGet()
+          target.countDown()
+        }
+      }
+
+    when:
+    for (int i = 0; i < 10; i++) {
+      scheduler.schedule(task, latch, 0, MILLISECONDS)
+    }
+
+    then:
+    latch.await(5, SECONDS)
+    maxRunning.get() == 1
+  }
+
+  def "test blocked task does not delay the deadline of another task on the default pool"() {
+    setup:
+    // sized like the shared scheduler
+    def pooledScheduler = new AgentTaskScheduler(
+      TASK_SCHEDULER, InstrumenterConfig.get().getAgentTaskSchedulerWorkers())
+    def blockedLatch = new CountDownLatch(1)
+    def ranAt = new AtomicLong()
+    def blockedTask = new AgentTaskScheduler.Task<CountDownLatch>() {
+        @Override
+        void run(CountDownLatch target) {
+          target.await()
+        }
+      }
+    def timedTask = new AgentTaskScheduler.Task<AtomicLong>() {
+        @Override
+        void run(AtomicLong target) {
+          target.set(System.nanoTime())
+        }
+      }
+
+    when:
+    pooledScheduler.schedule(blockedTask, blockedLatch, 0, MILLISECONDS)
+    def scheduledAt = System.nanoTime()
+    pooledScheduler.schedule(timedTask, ranAt, 50, MILLISECONDS)
+    sleep(500)
+
+    then:
+    // the blocked task is still running, yet the other task ran close to its deadline
+    blockedLatch.count == 1
+    ranAt.get() != 0
+    NANOSECONDS.toMillis(ranAt.get() - scheduledAt) >= 50
+    NANOSECONDS.toMillis(ranAt.get() - scheduledAt) < 250
+
+    cleanup:
+    blockedLatch.countDown()
+    pooledScheduler.shutdown(10, MILLISECONDS)
+  }
+
+  def "test overrun executions are skipped"() {
+    setup:
+    def runs = new AtomicInteger()
+    def task = new AgentTaskScheduler.Task<AtomicInteger>() {
+        @Override
+        void run(AtomicInteger target) {
+          target.incrementAndGet()
+          Thread.sleep(100)
+        }
+      }
+
+    when:
+    def scheduled = scheduler.scheduleAtFixedRate(task, runs, 0, 10, MILLISECONDS)
+    sleep(350)
+    scheduled.cancel()
+
+    then:
+    runs.get() <= 5
+    scheduler.getOverrunCount() > 0
+  }
 }
@@ -0,0 +1,119 @@
+package datadog.remoteconfig;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.squareup.moshi.Moshi;
+import datadog.remoteconfig.tuf.InstantJsonAdapter;
+import datadog.remoteconfig.tuf.RawJsonAdapter;
+import datadog.remoteconfig.tuf.RemoteConfigResponse;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Locale;
+import okio.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the CPU spent handling one poll response with a large targets document, either parsing
+ * and canonicalizing it from scratch, or reusing the targets of the previous poll when unchanged.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(value = 1)
+public class RemoteConfigPollBenchmark {
+
+  // about 170 bytes per target, 10000 targets make a 2.3MB base64 encoded targets document
+  @Param({"1000", "10000"})
+  int targetCount;
+
+  Moshi moshi;
+  byte[] responseBody;
+  RemoteConfigResponse.Factory pollerFactory;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    moshi =
+        new Moshi.Builder()
+            .add(Instant.class, new InstantJsonAdapter())
+            .add(ByteString.class, new RawJsonAdapter())
+            .build();
+    responseBody = buildResponse(targetCount).getBytes(StandardCharsets.UTF_8);
+    pollerFactory = new RemoteConfigResponse.Factory(moshi);
+    pollerFactory.fromInputStream(new ByteArrayInputStream(responseBody));
+  }
+
+  @Benchmark
+  public Object pollChangedTargets() {
+    RemoteConfigResponse response =
+        new RemoteConfigResponse.Factory(moshi)
+            .fromInputStream(new ByteArrayInputStream(responseBody))
+            .get();
+    return JsonCanonicalizer.canonicalize(response.getUntypedTargetsSigned());
+  }
+
+  @Benchmark
+  public Object pollUnchangedTargets() {
+    // the poller skips canonicalization and signature verification of reused targets
+    return pollerFactory.fromInputStream(new ByteArrayInputStream(responseBody)).get();
+  }
+
+  private static String buildResponse(int targetCount) {
+    StringBuilder targets = new StringBuilder();
+    targets.append("{\"signatures\":[{\"keyid\":\"")
+        .append(hex(1, 64))
+        .append("\",\"sig\":\"")
+        .append(hex(2, 128))
+        .append("\"}],\"signed\":{\"_type\":\"targets\",")
+        .append("\"custom\":{\"opaque_backend_state\":\"")
+        .append(hex(3, 256))
+        .append("\"},\"expires\":\"2030-01-01T00:00:00Z\",\"spec_version\":\"1.0.0\",")
+        .append("\"version\":42,\"targets\":{");
+    for (int i = 0; i < targetCount; i++) {
+      if (i > 0) {
+        targets.append(',');
+      }
+      targets
+          .append("\"datadog/2/ASM_DD/")
+          .append(String.format(Locale.ROOT, "%08x-rules-%d", i, i))
+          .append("/config\":{\"custom\":{\"v\":")
+          .append(i)
+          .append("},\"hashes\":{\"sha256\":\"")
+          .append(hex(i, 64))
+          .append("\"},\"length\":")
+          .append(1000 + i)
+          .append('}');
+    }
+    targets.append("}}}");
+    String encodedTargets =
+        Base64.getEncoder().encodeToString(targets.toString().getBytes(StandardCharsets.UTF_8));
+    return "{\"client_configs\":[],\"targets\":\"" + encodedTargets + "\",\"target_files\":[]}";
+  }
+
+  private static String hex(int seed, int length) {
+    StringBuilder sb = new StringBuilder(length);
+    long state = seed * 0x9E3779B97F4A7C15L + 1;
+    while (sb.length() < length) {
+      state ^= state << 13;
+      state ^= state >>> 7;
+      state ^= state << 17;
+      sb.append(Long.toHexString(state & 0xF));
+    }
+    return sb.toString();
+  }
+}
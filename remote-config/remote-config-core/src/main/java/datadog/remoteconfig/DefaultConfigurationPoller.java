@@ -84,6 +84,8 @@ public class DefaultConfigurationPoller
   private PollerRequestFactory requestFactory;
   private RemoteConfigResponse.Factory responseFactory;
   private boolean fatalOnInitialization = false;
+  // unchanged targets are reused by the response factory, so they only need to be verified once
+  private RemoteConfigResponse.Targets.TargetsSigned lastVerifiedTargetsSigned;
 
   public DefaultConfigurationPoller(
       Config config,
@@ -535,6 +537,11 @@ public class DefaultConfigurationPoller
     if (!integrityChecks) {
       return;
     }
+    RemoteConfigResponse.Targets.TargetsSigned targetsSigned = resp.getTargetsSigned();
+    if (targetsSigned != null && targetsSigned == lastVerifiedTargetsSigned) {
+      log.debug("Skipping signature verification of unchanged targets");
+      return;
+    }
 
     Ed25519Signature sig;
     byte[] canonicalTargetsSigned;
@@ -556,6 +563,7 @@ public class DefaultConfigurationPoller
       throw new ReportableException(
           "Signature verification failed for targets.signed. Key id: " + this.keyId);
     }
+    lastVerifiedTargetsSigned = targetsSigned;
   }
 
   private void verifyTargetsPresence(RemoteConfigResponse resp) {
@@ -42,6 +42,11 @@ public class RemoteConfigResponse {
     private final JsonAdapter<RemoteConfigResponse> adapterRC;
     private final JsonAdapter<Targets> adapterTargets;
 
+    // the agent sends the whole targets document on every poll, so remember the last one parsed
+    // and reuse it as long as it doesn't change
+    private String lastTargetsJson;
+    private Targets lastTargets;
+
     public Factory(Moshi moshi) {
       this.adapterRC = moshi.adapter(RemoteConfigResponse.class);
       this.adapterTargets = moshi.adapter(Targets.class);
@@ -54,13 +59,19 @@ public class RemoteConfigResponse {
         if (targetsJsonBase64 == null) {
           return Optional.empty(); // empty response -- no change
         }
-        byte[] targetsJsonDecoded =
-            Base64.getDecoder().decode(targetsJsonBase64.getBytes(StandardCharsets.ISO_8859_1));
-        if (targetsJsonDecoded.length > 0) {
-          response.targets =
-              adapterTargets.fromJson(
-                  Okio.buffer(Okio.source(new ByteArrayInputStream(targetsJsonDecoded))));
-          response.targets.targetsSignedUntyped = extractUntypedSignedField(targetsJsonDecoded);
+        if (lastTargets != null && targetsJsonBase64.equals(lastTargetsJson)) {
+          response.targets = lastTargets;
+        } else {
+          byte[] targetsJsonDecoded =
+              Base64.getDecoder().decode(targetsJsonBase64.getBytes(StandardCharsets.ISO_8859_1));
+          if (targetsJsonDecoded.length > 0) {
+            response.targets =
+                adapterTargets.fromJson(
+                    Okio.buffer(Okio.source(new ByteArrayInputStream(targetsJsonDecoded))));
+            response.targets.targetsSignedUntyped = extractUntypedSignedField(targetsJsonDecoded);
+          }
+          lastTargetsJson = targetsJsonBase64;
+          lastTargets = response.targets;
         }
         response.targetsJson = null;
         return Optional.of(response);
@@ -0,0 +1,63 @@
+package datadog.remoteconfig.tuf
+
+import com.squareup.moshi.Moshi
+import datadog.trace.test.util.DDSpecification
+import groovy.json.JsonOutput
+import okio.ByteString
+
+import java.nio.charset.StandardCharsets
+import java.time.Instant
+
+class RemoteConfigResponseFactorySpecification extends DDSpecification {
+  RemoteConfigResponse.Factory factory = new RemoteConfigResponse.Factory(
+  new Moshi.Builder()
+  .add(Instant, new InstantJsonAdapter())
+  .add(ByteString, new RawJsonAdapter())
+  .build())
+
+  private static InputStream responseWithVersion(long version) {
+    def targets = [
+      signatures: [[keyid: 'key', sig: 'sig']],
+      signed    : [
+        _type       : 'targets',
+        spec_version: '1.0.0',
+        version     : version,
+        targets     : [
+          'datadog/2/ASM_DD/rules/config': [
+            custom: [v: 1],
+            hashes: [sha256: 'abcd'],
+            length: 2
+          ]
+        ]
+      ]
+    ]
+    def body = [
+      client_configs: ['datadog/2/ASM_DD/rules/config'],
+      targets       : Base64.encoder.encodeToString(JsonOutput.toJson(targets).getBytes(StandardCharsets.UTF_8))
+    ]
+    new ByteArrayInputStream(JsonOutput.toJson(body).getBytes(StandardCharsets.UTF_8))
+  }
+
+  void 'unchanged targets are only parsed once'() {
+    when:
+    def first = factory.fromInputStream(responseWithVersion(1)).get()
+    def second = factory.fromInputStream(responseWithVersion(1)).get()
+
+    then:
+    first.targetsSigned.version == 1
+    second.targetsSigned.is(first.targetsSigned)
+    second.untypedTargetsSigned.is(first.untypedTargetsSigned)
+    second.getTarget('datadog/2/ASM_DD/rules/config').length == 2
+  }
+
+  void 'changed targets are parsed again'() {
+    when:
+    def first = factory.fromInputStream(responseWithVersion(1)).get()
+    def second = factory.fromInputStream(responseWithVersion(2)).get()
+
+    then:
+    !second.targetsSigned.is(first.targetsSigned)
+    second.targetsSigned.version == 2
+    second.untypedTargetsSigned['version'] == 2
+  }
+}
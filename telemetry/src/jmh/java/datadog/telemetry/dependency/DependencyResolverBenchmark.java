@@ -2,6 +2,7 @@ package datadog.telemetry.dependency;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -34,6 +35,9 @@ public class DependencyResolverBenchmark {
               + PROJECT_DIR
               + "/src/test/resources/datadog/telemetry/dependencies/spring-boot-app.jar!/BOOT-INF/lib/opentracing-util-0.33.0.jar!/");
 
+  private static final String NESTED_SPRING_BOOT_JAR_PATH =
+      NESTED_SPRING_BOOT_JAR_URI.getSchemeSpecificPart().substring("file:".length());
+
   @Benchmark
   public void resolveSimpleJar() {
     final List<Dependency> result = DependencyResolver.resolve(SIMPLE_JAR_URI);
@@ -45,4 +49,10 @@ public class DependencyResolverBenchmark {
     final List<Dependency> result = DependencyResolver.resolve(NESTED_SPRING_BOOT_JAR_URI);
     assert !result.isEmpty();
   }
+
+  @Benchmark
+  public JarReader.Extracted readNestedSpringBootJar() throws IOException {
+    // bypasses the resolved dependency cache to measure reading the nested jar metadata
+    return JarReader.readNestedJarFile(NESTED_SPRING_BOOT_JAR_PATH);
+  }
 }
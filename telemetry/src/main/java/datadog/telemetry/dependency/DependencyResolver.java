@@ -1,8 +1,11 @@
 package datadog.telemetry.dependency;
 
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
@@ -13,6 +16,13 @@ public class DependencyResolver {
 
   private static final Logger log = LoggerFactory.getLogger(DependencyResolver.class);
 
+  /**
+   * Dependencies resolved by jar identity, so the same jar seen through different locations (like
+   * identical nested jars of redeployed fat jars) is only read and hashed once.
+   */
+  private static final DDCache<String, List<Dependency>> RESOLVED =
+      DDCaches.newFixedSizeCache(512);
+
   public static List<Dependency> resolve(URI uri) {
     try {
       return internalResolve(uri);
@@ -24,8 +34,8 @@ public class DependencyResolver {
 
   static List<Dependency> internalResolve(final URI uri) throws IOException {
     final String scheme = uri.getScheme();
-    JarReader.Extracted metadata;
-    String path;
+    final String key;
+    final MetadataReader reader;
     if ("file".equals(scheme)) {
       File f;
       if (uri.isOpaque()) {
@@ -33,15 +43,37 @@ public class DependencyResolver {
       } else {
         f = new File(uri);
       }
-      path = f.getAbsolutePath();
-      metadata = JarReader.readJarFile(path);
+      final String path = f.getAbsolutePath();
+      key = f.isDirectory() ? null : JarReader.jarKey(path);
+      reader = () -> JarReader.readJarFile(path);
     } else if ("jar".equals(scheme) && uri.getSchemeSpecificPart().startsWith("file:")) {
-      path = uri.getSchemeSpecificPart().substring("file:".length());
-      metadata = JarReader.readNestedJarFile(path);
+      final String path = uri.getSchemeSpecificPart().substring("file:".length());
+      key = JarReader.nestedJarKey(path);
+      reader = () -> JarReader.readNestedJarFile(path);
     } else {
       log.debug("unsupported dependency type: {}", uri);
       return Collections.emptyList();
     }
+    if (key == null) {
+      return resolve(uri, reader.read());
+    }
+    try {
+      return RESOLVED.computeIfAbsent(
+          key,
+          k -> {
+            try {
+              return resolve(uri, reader.read());
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static List<Dependency> resolve(final URI uri, final JarReader.Extracted metadata)
+      throws IOException {
     if (metadata.isDirectory) {
       log.debug("Extracting dependencies from directories is not supported: {}", uri);
       return Collections.emptyList();
@@ -56,4 +88,8 @@ public class DependencyResolver {
           Dependency.guessFallbackNoPom(metadata.manifest, metadata.jarName, is));
     }
   }
+
+  private interface MetadataReader {
+    JarReader.Extracted read() throws IOException;
+  }
 }
@@ -71,6 +71,10 @@ public class DependencyResolverQueue {
     newUrlsQueue.add(uri);
   }
 
+  public boolean hasPendingURIs() {
+    return !newUrlsQueue.isEmpty();
+  }
+
   public List<Dependency> pollDependency() {
     URI uri = newUrlsQueue.poll();
 
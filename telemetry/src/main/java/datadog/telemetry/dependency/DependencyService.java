@@ -22,6 +22,10 @@ public class DependencyService implements Runnable {
 
   private static final Logger log = LoggerFactory.getLogger(DependencyService.class);
 
+  // nested jars are read in place through their central directory, which is cheap enough to
+  // resolve a batch of new locations per iteration instead of a single one
+  private static final int MAX_RESOLVED_PER_ITERATION = 32;
+
   private final DependencyResolverQueue resolverQueue = new DependencyResolverQueue();
 
   private final BlockingQueue<Dependency> newDependencies = new LinkedBlockingQueue<>();
@@ -93,7 +97,9 @@ public class DependencyService implements Runnable {
 
   @Override
   public void run() {
-    resolveOneDependency();
+    for (int i = 0; i < MAX_RESOLVED_PER_ITERATION && resolverQueue.hasPendingURIs(); i++) {
+      resolveOneDependency();
+    }
   }
 
   public void stop() {
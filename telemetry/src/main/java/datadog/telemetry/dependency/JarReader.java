@@ -1,10 +1,17 @@
 package datadog.telemetry.dependency;
 
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
@@ -14,8 +21,35 @@ import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 class JarReader {
+  private static final Logger log = LoggerFactory.getLogger(JarReader.class);
+
+  // nested jars of a fat jar are usually resolved one after the other, so keep the central
+  // directory of the last outer jar instead of parsing it again for each of them
+  private static volatile OuterJar lastOuterJar;
+
+  private static final class OuterJar {
+    final String path;
+    final long size;
+    final long lastModified;
+    final ZipCentralDirectory directory;
+
+    OuterJar(
+        final String path,
+        final long size,
+        final long lastModified,
+        final ZipCentralDirectory directory) {
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.directory = directory;
+    }
+  }
+
   static class Extracted {
     final String jarName;
     final Map<String, Properties> pomProperties;
@@ -71,13 +105,100 @@ class JarReader {
     }
   }
 
-  public static Extracted readNestedJarFile(final String jarPath) throws IOException {
-    final int sepIdx = jarPath.indexOf("!/");
-    if (sepIdx == -1) {
-      throw new IllegalArgumentException("Invalid nested jar path: " + jarPath);
+  /**
+   * Returns a key identifying the content of a jar, based on its path, size and modification time.
+   */
+  public static String jarKey(final String jarPath) throws IOException {
+    final BasicFileAttributes attributes =
+        Files.readAttributes(Paths.get(jarPath), BasicFileAttributes.class);
+    return jarPath + '|' + attributes.size() + '|' + attributes.lastModifiedTime().toMillis();
+  }
+
+  /**
+   * Returns a key identifying the content of a nested jar, based on its name, size and CRC. Unlike
+   * {@link #jarKey(String)} this doesn't depend on the outer jar, so identical nested jars found in
+   * several (or redeployed) fat jars share the same key.
+   */
+  public static String nestedJarKey(final String jarPath) throws IOException {
+    final String outerJarPath = getOuterJarPath(jarPath);
+    final String innerJarPath = getInnerJarPath(jarPath);
+    try (final FileChannel channel = FileChannel.open(Paths.get(outerJarPath), READ)) {
+      final ZipCentralDirectory.Entry entry =
+          getEntry(outerDirectory(outerJarPath, channel), innerJarPath);
+      if (entry == null) {
+        throw new NoSuchFileException("Nested jar not found: " + jarPath);
+      }
+      if (entry.isDirectory()) {
+        return null;
+      }
+      return entry.name + '|' + entry.size + '|' + entry.crc;
+    } catch (final ZipException e) {
+      return null;
     }
-    final String outerJarPath = jarPath.substring(0, sepIdx);
+  }
+
+  public static Extracted readNestedJarFile(final String jarPath) throws IOException {
+    final String outerJarPath = getOuterJarPath(jarPath);
     final String innerJarPath = getInnerJarPath(jarPath);
+    try (final FileChannel channel = FileChannel.open(Paths.get(outerJarPath), READ)) {
+      final ZipCentralDirectory outer = outerDirectory(outerJarPath, channel);
+      final ZipCentralDirectory.Entry entry = getEntry(outer, innerJarPath);
+      if (entry == null) {
+        throw new NoSuchFileException("Nested jar not found: " + jarPath);
+      }
+      if (entry.isDirectory()) {
+        return new Extracted(
+            new File(innerJarPath).getName(), new HashMap<>(), new Attributes(), true, () -> null);
+      }
+      if (entry.method == ZipCentralDirectory.STORED) {
+        try {
+          return readStoredNestedJarFile(outer, entry, outerJarPath, innerJarPath);
+        } catch (final ZipException e) {
+          log.debug("Falling back to streaming nested jar {}", jarPath, e);
+        }
+      }
+    } catch (final ZipException e) {
+      log.debug("Falling back to streaming outer jar {}", outerJarPath, e);
+    }
+    return streamNestedJarFile(jarPath, outerJarPath, innerJarPath);
+  }
+
+  /**
+   * Stored nested jars can be read in place: only their central directory, manifest and
+   * pom.properties entries are read instead of inflating and scanning the whole nested jar.
+   */
+  private static Extracted readStoredNestedJarFile(
+      final ZipCentralDirectory outer,
+      final ZipCentralDirectory.Entry entry,
+      final String outerJarPath,
+      final String innerJarPath)
+      throws IOException {
+    final ZipCentralDirectory inner =
+        ZipCentralDirectory.read(outer.channel(), outer.dataOffset(entry), entry.size);
+    final Map<String, Properties> pomProperties = new HashMap<>();
+    Attributes attributes = new Attributes();
+    for (final ZipCentralDirectory.Entry innerEntry : inner.entries()) {
+      if (innerEntry.name.endsWith("pom.properties")) {
+        final Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(inner.readEntry(innerEntry)));
+        pomProperties.put(innerEntry.name, properties);
+      } else if (JarFile.MANIFEST_NAME.equalsIgnoreCase(innerEntry.name)) {
+        attributes =
+            new Manifest(new ByteArrayInputStream(inner.readEntry(innerEntry)))
+                .getMainAttributes();
+      }
+    }
+    return new Extracted(
+        new File(innerJarPath).getName(),
+        pomProperties,
+        attributes,
+        false,
+        () -> new NestedJarInputStream(outerJarPath, innerJarPath));
+  }
+
+  private static Extracted streamNestedJarFile(
+      final String jarPath, final String outerJarPath, final String innerJarPath)
+      throws IOException {
     try (final JarFile outerJar = new JarFile(outerJarPath, false /* no verify */)) {
       final ZipEntry entry = outerJar.getEntry(innerJarPath);
       if (entry == null) {
@@ -111,6 +232,37 @@ class JarReader {
     }
   }
 
+  private static ZipCentralDirectory outerDirectory(
+      final String outerJarPath, final FileChannel channel) throws IOException {
+    final long size = channel.size();
+    final long lastModified = new File(outerJarPath).lastModified();
+    final OuterJar last = lastOuterJar;
+    if (last != null
+        && last.path.equals(outerJarPath)
+        && last.size == size
+        && last.lastModified == lastModified) {
+      return last.directory.withChannel(channel);
+    }
+    final ZipCentralDirectory directory = ZipCentralDirectory.read(channel, 0, size);
+    lastOuterJar = new OuterJar(outerJarPath, size, lastModified, directory);
+    return directory;
+  }
+
+  private static ZipCentralDirectory.Entry getEntry(
+      final ZipCentralDirectory directory, final String name) {
+    final ZipCentralDirectory.Entry entry = directory.getEntry(name);
+    // like ZipFile.getEntry, also match directories given without a trailing slash
+    return entry != null || name.endsWith("/") ? entry : directory.getEntry(name + "/");
+  }
+
+  private static String getOuterJarPath(final String jarPath) {
+    final int sepIdx = jarPath.indexOf("!/");
+    if (sepIdx == -1) {
+      throw new IllegalArgumentException("Invalid nested jar path: " + jarPath);
+    }
+    return jarPath.substring(0, sepIdx);
+  }
+
   private static String getInnerJarPath(final String jarPath) {
     final int sepIdx = jarPath.indexOf("!/");
     if (sepIdx == -1) {
@@ -0,0 +1,233 @@
+package datadog.telemetry.dependency;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Minimal reader of a zip central directory located anywhere inside a file. This allows looking at
+ * the entries of a nested jar stored uncompressed inside a fat jar without decompressing the whole
+ * nested jar through a {@link java.util.jar.JarInputStream}. Zip64 archives are not supported and
+ * are reported as a {@link ZipException} so callers can fall back to the JDK implementation.
+ */
+final class ZipCentralDirectory {
+
+  static final int STORED = 0;
+  static final int DEFLATED = 8;
+
+  private static final int EOCD_SIG = 0x06054b50;
+  private static final int EOCD_SIZE = 22;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+  private static final int CEN_SIG = 0x02014b50;
+  private static final int CEN_SIZE = 46;
+  private static final int LOC_SIG = 0x04034b50;
+  private static final int LOC_SIZE = 30;
+
+  // pom.properties and manifests are tiny, anything bigger is not worth reading
+  private static final int MAX_ENTRY_SIZE = 1 << 20;
+
+  static final class Entry {
+    final String name;
+    final int method;
+    final long crc;
+    final long compressedSize;
+    final long size;
+    final long localHeaderOffset;
+
+    Entry(
+        String name,
+        int method,
+        long crc,
+        long compressedSize,
+        long size,
+        long localHeaderOffset) {
+      this.name = name;
+      this.method = method;
+      this.crc = crc;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+
+    boolean isDirectory() {
+      return name.endsWith("/");
+    }
+  }
+
+  private final FileChannel channel;
+  private final long start;
+  private final List<Entry> entries;
+  private Map<String, Entry> entriesByName;
+
+  private ZipCentralDirectory(FileChannel channel, long start, List<Entry> entries) {
+    this.channel = channel;
+    this.start = start;
+    this.entries = entries;
+  }
+
+  /**
+   * Reads the central directory of the zip archive occupying {@code length} bytes of the channel
+   * from position {@code start}.
+   */
+  static ZipCentralDirectory read(FileChannel channel, long start, long length)
+      throws IOException {
+    if (length < EOCD_SIZE) {
+      throw new ZipException("Not a zip archive");
+    }
+    int tailSize = (int) Math.min(length, EOCD_SIZE + MAX_COMMENT_SIZE);
+    long tailStart = start + length - tailSize;
+    ByteBuffer tail = readFully(channel, tailStart, tailSize);
+    int eocd = -1;
+    for (int i = tailSize - EOCD_SIZE; i >= 0; i--) {
+      if (tail.getInt(i) == EOCD_SIG) {
+        eocd = i;
+        break;
+      }
+    }
+    if (eocd < 0) {
+      throw new ZipException("End of central directory not found");
+    }
+    int count = tail.getShort(eocd + 10) & 0xFFFF;
+    long cenSize = tail.getInt(eocd + 12) & 0xFFFFFFFFL;
+    long cenOffset = tail.getInt(eocd + 16) & 0xFFFFFFFFL;
+    if (count == 0xFFFF || cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL) {
+      throw new ZipException("Zip64 archives are not supported");
+    }
+    // the actual position may differ from the recorded one when data was prepended to the archive,
+    // as is the case for executable jars with a launch script
+    long cenStart = tailStart + eocd - cenSize;
+    if (cenStart < start || cenSize > Integer.MAX_VALUE) {
+      throw new ZipException("Invalid central directory");
+    }
+    long delta = cenStart - start - cenOffset;
+    ByteBuffer cen = readFully(channel, cenStart, (int) cenSize);
+    List<Entry> entries = new ArrayList<>(count);
+    int pos = 0;
+    while (pos + CEN_SIZE <= cen.limit()) {
+      if (cen.getInt(pos) != CEN_SIG) {
+        throw new ZipException("Invalid central directory entry");
+      }
+      int method = cen.getShort(pos + 10) & 0xFFFF;
+      long crc = cen.getInt(pos + 16) & 0xFFFFFFFFL;
+      long compressedSize = cen.getInt(pos + 20) & 0xFFFFFFFFL;
+      long size = cen.getInt(pos + 24) & 0xFFFFFFFFL;
+      int nameLength = cen.getShort(pos + 28) & 0xFFFF;
+      int extraLength = cen.getShort(pos + 30) & 0xFFFF;
+      int commentLength = cen.getShort(pos + 32) & 0xFFFF;
+      long localHeaderOffset = (cen.getInt(pos + 42) & 0xFFFFFFFFL) + delta;
+      if (pos + CEN_SIZE + nameLength > cen.limit()) {
+        throw new ZipException("Invalid central directory entry");
+      }
+      byte[] name = new byte[nameLength];
+      cen.position(pos + CEN_SIZE);
+      cen.get(name);
+      entries.add(
+          new Entry(
+              new String(name, StandardCharsets.UTF_8),
+              method,
+              crc,
+              compressedSize,
+              size,
+              localHeaderOffset));
+      pos += CEN_SIZE + nameLength + extraLength + commentLength;
+    }
+    return new ZipCentralDirectory(channel, start, Collections.unmodifiableList(entries));
+  }
+
+  /** Returns a view of the same directory reading entry data through another channel. */
+  ZipCentralDirectory withChannel(FileChannel channel) {
+    ZipCentralDirectory directory = new ZipCentralDirectory(channel, start, entries);
+    directory.entriesByName = entriesByName;
+    return directory;
+  }
+
+  FileChannel channel() {
+    return channel;
+  }
+
+  List<Entry> entries() {
+    return entries;
+  }
+
+  Entry getEntry(String name) {
+    if (entriesByName == null) {
+      Map<String, Entry> byName = new HashMap<>(entries.size() * 2);
+      for (Entry entry : entries) {
+        byName.putIfAbsent(entry.name, entry);
+      }
+      entriesByName = byName;
+    }
+    return entriesByName.get(name);
+  }
+
+  /** Returns the absolute position of the entry data in the channel. */
+  long dataOffset(Entry entry) throws IOException {
+    ByteBuffer loc = readFully(channel, start + entry.localHeaderOffset, LOC_SIZE);
+    if (loc.getInt(0) != LOC_SIG) {
+      throw new ZipException("Invalid local header for " + entry.name);
+    }
+    int nameLength = loc.getShort(26) & 0xFFFF;
+    int extraLength = loc.getShort(28) & 0xFFFF;
+    return start + entry.localHeaderOffset + LOC_SIZE + nameLength + extraLength;
+  }
+
+  /** Returns the uncompressed content of a small entry. */
+  byte[] readEntry(Entry entry) throws IOException {
+    if (entry.size > MAX_ENTRY_SIZE || entry.compressedSize > MAX_ENTRY_SIZE) {
+      throw new ZipException("Entry too large: " + entry.name);
+    }
+    ByteBuffer data = readFully(channel, dataOffset(entry), (int) entry.compressedSize);
+    if (entry.method == STORED) {
+      return data.array();
+    }
+    if (entry.method != DEFLATED) {
+      throw new ZipException("Unsupported compression method for " + entry.name);
+    }
+    Inflater inflater = new Inflater(true);
+    try {
+      // raw inflaters need an extra dummy byte to detect the end of the compressed data
+      inflater.setInput(Arrays.copyOf(data.array(), data.limit() + 1));
+      byte[] content = new byte[(int) entry.size];
+      int read = 0;
+      while (read < content.length) {
+        int n = inflater.inflate(content, read, content.length - read);
+        if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        read += n;
+      }
+      if (read != content.length) {
+        throw new ZipException("Truncated entry " + entry.name);
+      }
+      return content;
+    } catch (DataFormatException e) {
+      throw new ZipException("Invalid compressed data for " + entry.name);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static ByteBuffer readFully(FileChannel channel, long position, int size)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException();
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+}
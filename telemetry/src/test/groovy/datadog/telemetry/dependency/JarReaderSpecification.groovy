@@ -68,6 +68,27 @@ class JarReaderSpecification extends DepSpecification {
     result.manifest.getValue("Automatic-Module-Name") == "io.opentracing.util"
   }
 
+  void 'nested jar key only depends on nested jar content'() {
+    given:
+    String outerPath = getJar("spring-boot-app.jar").getAbsolutePath()
+
+    when:
+    def key = JarReader.nestedJarKey("$outerPath!/BOOT-INF/lib/opentracing-util-0.33.0.jar")
+
+    then:
+    key.startsWith('BOOT-INF/lib/opentracing-util-0.33.0.jar|')
+    !key.contains(outerPath)
+    key == JarReader.nestedJarKey("$outerPath!/BOOT-INF/lib/opentracing-util-0.33.0.jar!/")
+  }
+
+  void 'nested directory has no key'() {
+    given:
+    String outerPath = getJar("spring-boot-app.jar").getAbsolutePath()
+
+    expect:
+    JarReader.nestedJarKey("$outerPath!/BOOT-INF/lib") == null
+  }
+
   void 'non-existent simple jar'() {
     given:
     String jarPath = "non-existent.jar"
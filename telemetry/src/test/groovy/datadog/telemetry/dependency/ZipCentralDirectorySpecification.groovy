@@ -0,0 +1,103 @@
+package datadog.telemetry.dependency
+
+import spock.lang.TempDir
+
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+import java.util.jar.JarFile
+import java.util.zip.ZipEntry
+import java.util.zip.ZipException
+import java.util.zip.ZipOutputStream
+
+class ZipCentralDirectorySpecification extends DepSpecification {
+
+  @TempDir
+  File testDir
+
+  void 'central directory matches jar entries'() {
+    given:
+    File jar = getJar(jarName)
+
+    when:
+    def channel = FileChannel.open(jar.toPath(), StandardOpenOption.READ)
+    def directory = ZipCentralDirectory.read(channel, 0, channel.size())
+    def jarFile = new JarFile(jar)
+
+    then:
+    directory.entries().size() == jarFile.size()
+    directory.entries().every { entry ->
+      def jarEntry = jarFile.getJarEntry(entry.name)
+      jarEntry != null && jarEntry.crc == entry.crc && jarEntry.size == entry.size
+    }
+    directory.readEntry(directory.getEntry(JarFile.MANIFEST_NAME)) == jarFile.getInputStream(jarFile.getEntry(JarFile.MANIFEST_NAME)).bytes
+
+    cleanup:
+    jarFile?.close()
+    channel?.close()
+
+    where:
+    jarName << ['commons-logging-1.2.jar', 'bson-4.2.0.jar', 'budgetapp.jar']
+  }
+
+  void 'reads stored nested jar in place'() {
+    given:
+    File jar = getJar('spring-boot-app.jar')
+
+    when:
+    def channel = FileChannel.open(jar.toPath(), StandardOpenOption.READ)
+    def outer = ZipCentralDirectory.read(channel, 0, channel.size())
+    def entry = outer.getEntry('BOOT-INF/lib/opentracing-util-0.33.0.jar')
+    def inner = ZipCentralDirectory.read(channel, outer.dataOffset(entry), entry.size)
+    def pom = inner.getEntry('META-INF/maven/io.opentracing/opentracing-util/pom.properties')
+    def properties = new Properties()
+    properties.load(new ByteArrayInputStream(inner.readEntry(pom)))
+
+    then:
+    entry.method == ZipCentralDirectory.STORED
+    properties.artifactId == 'opentracing-util'
+    properties.version == '0.33.0'
+
+    cleanup:
+    channel?.close()
+  }
+
+  void 'reads archive with prepended data'() {
+    given:
+    File file = new File(testDir, 'launcher.jar')
+    file.withOutputStream { os ->
+      os.write('#!/bin/bash\nexec java -jar "$0"\n'.bytes)
+      def out = new ZipOutputStream(os)
+      out.putNextEntry(new ZipEntry('META-INF/maven/g/a/pom.properties'))
+      out.write('groupId=g\nartifactId=a\nversion=1.0\n'.bytes)
+      out.closeEntry()
+      out.finish()
+    }
+
+    when:
+    def channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)
+    def directory = ZipCentralDirectory.read(channel, 0, channel.size())
+
+    then:
+    directory.entries().size() == 1
+    new String(directory.readEntry(directory.entries()[0])).contains('artifactId=a')
+
+    cleanup:
+    channel?.close()
+  }
+
+  void 'not a zip archive'() {
+    given:
+    File file = new File(testDir, 'text.jar')
+    file.text = 'just a text file with enough content to look for a central directory'
+
+    when:
+    def channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)
+    ZipCentralDirectory.read(channel, 0, channel.size())
+
+    then:
+    thrown(ZipException)
+
+    cleanup:
+    channel?.close()
+  }
+}